@@ -29,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 
@@ -69,5 +70,8 @@ public class CustomContentProviderTest {
 
         assertEquals(MarkerColumns.CONTENT_TYPE, customContentProvider.getType(MarkerColumns.CONTENT_URI));
         assertEquals(MarkerColumns.CONTENT_ITEMTYPE, customContentProvider.getType(ContentUris.appendId(MarkerColumns.CONTENT_URI.buildUpon(), 1).build()));
+
+        assertEquals(SeasonRollupsColumns.CONTENT_TYPE, customContentProvider.getType(SeasonRollupsColumns.CONTENT_URI));
+        assertEquals(SeasonRollupsColumns.CONTENT_ITEMTYPE, customContentProvider.getType(Uri.withAppendedPath(SeasonRollupsColumns.CONTENT_URI_BY_SEASON, "2023,2024")));
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.location.Location;
+import android.net.Uri;
 import android.util.Pair;
 
 import androidx.test.core.app.ApplicationProvider;
@@ -58,9 +59,13 @@ import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
+import de.dennisguse.opentracks.stats.BestEffortsCalculator;
+import de.dennisguse.opentracks.stats.OverallStatistics;
 import de.dennisguse.opentracks.stats.SensorStatistics;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.util.FileUtils;
 
@@ -916,6 +921,206 @@ public class CustomContentProviderUtilsTest {
         assertEquals("42,43,44", ContentProviderUtils.formatIdListForUri(new Track.Id(42), new Track.Id(43), new Track.Id(44)));
     }
 
+    @Test
+    public void testReplaceSkiSegments() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        TestDataUtil.createTrackAndInsert(contentProviderUtils, trackId, 10);
+        assertTrue(contentProviderUtils.getTrackIdsWithoutSkiSegmentsDetected().contains(trackId));
+
+        SkiSegmentDetector.Segment run = createSkiSegment(SkiSegmentDetector.Activity.RUN, 1, 3);
+        SkiSegmentDetector.Segment lift = createSkiSegment(SkiSegmentDetector.Activity.LIFT, 3, 6);
+        SkiSegmentDetector.Segment waiting = createSkiSegment(SkiSegmentDetector.Activity.WAIT, 3, 6);
+
+        // when
+        contentProviderUtils.replaceSkiSegments(trackId, null, List.of(run, lift));
+
+        // then
+        assertEquals(List.of(run, lift), contentProviderUtils.getSkiSegments(trackId));
+        assertFalse(contentProviderUtils.getTrackIdsWithoutSkiSegmentsDetected().contains(trackId));
+
+        // when - replace the segments of the last session
+        contentProviderUtils.replaceSkiSegments(trackId, new TrackPoint.Id(3), List.of(waiting));
+
+        // then
+        assertEquals(List.of(run, waiting), contentProviderUtils.getSkiSegments(trackId));
+
+        // when
+        contentProviderUtils.deleteTrack(context, trackId);
+
+        // then
+        assertTrue(contentProviderUtils.getSkiSegments(trackId).isEmpty());
+    }
+
+    @Test
+    public void testReplaceSkiSegments_none_detected() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        TestDataUtil.createTrackAndInsert(contentProviderUtils, trackId, 10);
+
+        // when
+        contentProviderUtils.replaceSkiSegments(trackId, null, List.of());
+
+        // then
+        assertTrue(contentProviderUtils.getSkiSegments(trackId).isEmpty());
+        assertFalse(contentProviderUtils.getTrackIdsWithoutSkiSegmentsDetected().contains(trackId));
+
+        contentProviderUtils.deleteTrack(context, trackId);
+    }
+
+    @Test
+    public void testReplaceBestEfforts_none_computed() {
+        // given
+        Track.Id trackId = new Track.Id(System.currentTimeMillis());
+        TestDataUtil.createTrackAndInsert(contentProviderUtils, trackId, 10);
+
+        // when
+        contentProviderUtils.replaceBestEfforts(trackId, List.of());
+
+        // then
+        assertTrue(contentProviderUtils.getBestEfforts(trackId).isEmpty());
+        assertFalse(contentProviderUtils.getTrackIdsWithoutBestEffortsComputed().contains(trackId));
+
+        contentProviderUtils.deleteTrack(context, trackId);
+    }
+
+    @Test
+    public void testReplaceBestEfforts() {
+        // given
+        contentProviderUtils.deleteAllTracks(context);
+        Track.Id trackId1 = new Track.Id(System.currentTimeMillis());
+        Track.Id trackId2 = new Track.Id(trackId1.id() + 1);
+        TestDataUtil.createTrackAndInsert(contentProviderUtils, trackId1, 10);
+        TestDataUtil.createTrackAndInsert(contentProviderUtils, trackId2, 10);
+        assertTrue(contentProviderUtils.getTrackIdsWithoutBestEffortsComputed().contains(trackId1));
+        assertNull(contentProviderUtils.getPersonalBest(BestEffortsCalculator.Type.FASTEST_1KM));
+
+        Instant start = Instant.parse("2024-01-15T08:00:00Z");
+        BestEffortsCalculator.Effort slow1km = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.FASTEST_1KM, 300, start, start.plusSeconds(300));
+        BestEffortsCalculator.Effort fast1km = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.FASTEST_1KM, 200, start, start.plusSeconds(200));
+        BestEffortsCalculator.Effort lowSpeed = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.MAX_SPEED_30S, 5, start, start.plusSeconds(30));
+        BestEffortsCalculator.Effort highSpeed = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.MAX_SPEED_30S, 10, start, start.plusSeconds(30));
+
+        // when
+        contentProviderUtils.replaceBestEfforts(trackId1, List.of(fast1km, lowSpeed));
+        contentProviderUtils.replaceBestEfforts(trackId2, List.of(slow1km, highSpeed));
+
+        // then
+        assertEquals(List.of(fast1km, lowSpeed), contentProviderUtils.getBestEfforts(trackId1));
+        assertFalse(contentProviderUtils.getTrackIdsWithoutBestEffortsComputed().contains(trackId1));
+
+        Pair<Track.Id, BestEffortsCalculator.Effort> fastest1km = contentProviderUtils.getPersonalBest(BestEffortsCalculator.Type.FASTEST_1KM);
+        assertEquals(trackId1, fastest1km.first);
+        assertEquals(fast1km, fastest1km.second);
+        assertEquals(trackId2, contentProviderUtils.getPersonalBest(BestEffortsCalculator.Type.MAX_SPEED_30S).first);
+        assertNull(contentProviderUtils.getPersonalBest(BestEffortsCalculator.Type.FASTEST_5KM));
+
+        // when
+        contentProviderUtils.deleteTrack(context, trackId1);
+
+        // then
+        assertTrue(contentProviderUtils.getBestEfforts(trackId1).isEmpty());
+        assertEquals(trackId2, contentProviderUtils.getPersonalBest(BestEffortsCalculator.Type.FASTEST_1KM).first);
+    }
+
+    @Test
+    public void testSeasonStatistics() {
+        // given - season 2023 (July 2023 to June 2024)
+        Instant day1 = Instant.parse("2024-01-15T08:00:00Z");
+        Instant day2 = Instant.parse("2024-01-16T08:00:00Z");
+        Track.Id trackId1 = insertTrack(1, day1, 1000, Duration.ofMinutes(10));
+        Track.Id trackId2 = insertTrack(2, day1.plus(Duration.ofHours(2)), 500, Duration.ofMinutes(5));
+        Track.Id trackId3 = insertTrack(3, day2, 500, Duration.ofMinutes(5));
+        insertTrack(4, Instant.parse("2023-01-15T08:00:00Z"), 2000, Duration.ofMinutes(20));
+
+        contentProviderUtils.replaceSkiSegments(trackId1, null, List.of(
+                new SkiSegmentDetector.Segment(SkiSegmentDetector.Activity.RUN, day1, day1.plusSeconds(60), Distance.of(800), 0, 200, Speed.of(10), null, null),
+                new SkiSegmentDetector.Segment(SkiSegmentDetector.Activity.LIFT, day1.plusSeconds(60), day1.plusSeconds(600), Distance.of(800), 200, 0, Speed.of(3), null, null)
+        ));
+
+        // when
+        OverallStatistics season2023 = contentProviderUtils.getSeasonStatistics().get(2023);
+
+        // then
+        assertEquals(2, contentProviderUtils.getSeasonStatistics().size());
+        assertEquals(3, season2023.getTotalTracksOverall());
+        assertEquals(2, season2023.getTotalSkiDaysOverall());
+        assertEquals(2000, season2023.getTotalTrackDistanceOverall().toM(), 0.01);
+        assertEquals(Duration.ofMinutes(20), season2023.getTotalMovingTimeOverall());
+        assertEquals(1, season2023.getTotalRunsOverall());
+        assertEquals(200, season2023.getTotalVerticalDescentOverall().toM(), 0.01);
+        assertEquals(25, season2023.getSlopePercentageOverall(), 0.01);
+        assertEquals(0, season2023.getTotalCaloriesOverall(), 0.01);
+        assertEquals(4, contentProviderUtils.getOverallStatistics(List.of()).getTotalTracksOverall());
+
+        // when - update statistics
+        Track track2 = contentProviderUtils.getTrack(trackId2);
+        track2.getTrackStatistics().setTotalDistance(Distance.of(1500));
+        track2.getTrackStatistics().setTotalCalories(300d);
+        contentProviderUtils.updateTrack(track2);
+
+        // then
+        assertEquals(3000, contentProviderUtils.getOverallStatistics(List.of(2023)).getTotalTrackDistanceOverall().toM(), 0.01);
+        assertEquals(300, contentProviderUtils.getOverallStatistics(List.of(2023)).getTotalCaloriesOverall(), 0.01);
+
+        // when - delete
+        contentProviderUtils.deleteTrack(context, trackId1);
+        contentProviderUtils.deleteTrack(context, trackId3);
+
+        // then
+        season2023 = contentProviderUtils.getSeasonStatistics().get(2023);
+        assertEquals(1, season2023.getTotalTracksOverall());
+        assertEquals(1, season2023.getTotalSkiDaysOverall());
+        assertEquals(1500, season2023.getTotalTrackDistanceOverall().toM(), 0.01);
+        assertEquals(300, season2023.getTotalCaloriesOverall(), 0.01);
+        assertEquals(0, season2023.getTotalRunsOverall());
+
+        // when
+        contentProviderUtils.deleteAllTracks(context);
+
+        // then
+        assertTrue(contentProviderUtils.getSeasonStatistics().isEmpty());
+    }
+
+    @Test
+    public void testSeasonRollupsBySeason() {
+        // given
+        insertTrack(1, Instant.parse("2024-01-15T08:00:00Z"), 1000, Duration.ofMinutes(10));
+        insertTrack(2, Instant.parse("2023-01-15T08:00:00Z"), 2000, Duration.ofMinutes(20));
+        insertTrack(3, Instant.parse("2022-01-15T08:00:00Z"), 3000, Duration.ofMinutes(30));
+
+        // when
+        Uri uri = Uri.withAppendedPath(SeasonRollupsColumns.CONTENT_URI_BY_SEASON, "2023,2021");
+        try (Cursor cursor = context.getContentResolver().query(uri, null, null, null, null)) {
+
+            // then
+            assertEquals(2, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals(2021, cursor.getInt(cursor.getColumnIndexOrThrow(SeasonRollupsColumns.SEASON)));
+            assertEquals(3000, cursor.getDouble(cursor.getColumnIndexOrThrow(SeasonRollupsColumns.DISTANCE)), 0.01);
+            cursor.moveToNext();
+            assertEquals(2023, cursor.getInt(cursor.getColumnIndexOrThrow(SeasonRollupsColumns.SEASON)));
+            assertEquals(1000, cursor.getDouble(cursor.getColumnIndexOrThrow(SeasonRollupsColumns.DISTANCE)), 0.01);
+        }
+
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    private Track.Id insertTrack(long id, Instant startTime, double distance_m, Duration movingTime) {
+        Track track = TestDataUtil.createTrack(new Track.Id(id));
+        track.getTrackStatistics().setStartTime(startTime);
+        track.getTrackStatistics().setStopTime(startTime.plus(movingTime));
+        track.getTrackStatistics().setTotalDistance(Distance.of(distance_m));
+        track.getTrackStatistics().setMovingTime(movingTime);
+        return contentProviderUtils.insertTrack(track);
+    }
+
+    private static SkiSegmentDetector.Segment createSkiSegment(SkiSegmentDetector.Activity activity, int startTrackPointId, int endTrackPointId) {
+        return new SkiSegmentDetector.Segment(activity, Instant.ofEpochSecond(startTrackPointId), Instant.ofEpochSecond(endTrackPointId),
+                Distance.of(100 * (endTrackPointId - startTrackPointId)), 10, 20, Speed.of(5),
+                new TrackPoint.Id(startTrackPointId), new TrackPoint.Id(endTrackPointId));
+    }
+
     @Test
     public void testGetSensorStats_noSensorData() {
         // given
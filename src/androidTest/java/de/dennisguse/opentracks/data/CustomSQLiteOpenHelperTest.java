@@ -24,7 +24,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import de.dennisguse.opentracks.data.tables.BestEffortsColumns;
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
+import de.dennisguse.opentracks.data.tables.SkiSegmentsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 
@@ -86,12 +89,26 @@ public class CustomSQLiteOpenHelperTest {
     public void onCreate() {
         try (SQLiteDatabase db = new CustomSQLiteOpenHelper(context, DATABASE_NAME).getWritableDatabase()) {
             assertTrue(hasSqlCreate(db, TracksColumns.CREATE_TABLE));
+            assertTrue(hasSqlCreate(db, TracksColumns.CREATE_TABLE_INDEX_STARTTIME));
+            assertTrue(hasSqlCreate(db, TracksColumns.CREATE_TABLE_INDEX_CATEGORY_STARTTIME));
 
             assertTrue(hasSqlCreate(db, TrackPointsColumns.CREATE_TABLE));
             assertTrue(hasSqlCreate(db, TrackPointsColumns.CREATE_TABLE_INDEX));
 
             assertTrue(hasSqlCreate(db, MarkerColumns.CREATE_TABLE));
             assertTrue(hasSqlCreate(db, MarkerColumns.CREATE_TABLE_INDEX));
+
+            assertTrue(hasSqlCreate(db, SkiSegmentsColumns.CREATE_TABLE));
+            assertTrue(hasSqlCreate(db, SkiSegmentsColumns.CREATE_TABLE_INDEX));
+
+            assertTrue(hasSqlCreate(db, SeasonRollupsColumns.CREATE_TABLE));
+            for (String trigger : SeasonRollupsColumns.CREATE_TRIGGERS) {
+                assertTrue(hasSqlCreate(db, trigger));
+            }
+
+            assertTrue(hasSqlCreate(db, BestEffortsColumns.CREATE_TABLE));
+            assertTrue(hasSqlCreate(db, BestEffortsColumns.CREATE_TABLE_INDEX));
+            assertTrue(hasSqlCreate(db, BestEffortsColumns.CREATE_TABLE_INDEX_TYPE_VALUE));
         } catch (Exception e) {
             fail("Database could not be created: " + e);
         }
@@ -104,35 +121,48 @@ public class CustomSQLiteOpenHelperTest {
         // Open database with SQL upgrade
         Map<String, String> tableByUpgrade;
         Map<String, String> indicesByUpgrade;
+        Map<String, String> triggersByUpgrade;
         try (SQLiteDatabase dbUpgraded = new CustomSQLiteOpenHelper(context, DATABASE_NAME).getReadableDatabase()) {
             tableByUpgrade = getSQL(dbUpgraded, "table");
             indicesByUpgrade = getSQL(dbUpgraded, "index");
+            triggersByUpgrade = getSQL(dbUpgraded, "trigger");
         }
         context.deleteDatabase(DATABASE_NAME);
 
         // Open database via creation script
         Map<String, String> tablesByCreate;
         Map<String, String> indicesByCreate;
+        Map<String, String> triggersByCreate;
         try (SQLiteDatabase dbCreated = new CustomSQLiteOpenHelper(context, DATABASE_NAME).getReadableDatabase()) {
             tablesByCreate = getSQL(dbCreated, "table");
             indicesByCreate = getSQL(dbCreated, "index");
+            triggersByCreate = getSQL(dbCreated, "trigger");
         }
 
 
         // then - verify table structure
-        int tableCount = 3 + 2; //Three with data tables + two SQLite
+        int tableCount = 6 + 2; //Six with data tables + two SQLite
         assertEquals(tableCount, tableByUpgrade.size());
         assertEquals(tableByUpgrade.size(), tablesByCreate.size());
 
         assertEquals(tablesByCreate.get(TracksColumns.TABLE_NAME), tableByUpgrade.get(TracksColumns.TABLE_NAME));
         assertEquals(tablesByCreate.get(TrackPointsColumns.TABLE_NAME), tableByUpgrade.get(TrackPointsColumns.TABLE_NAME));
         assertEquals(tablesByCreate.get(MarkerColumns.TABLE_NAME), tableByUpgrade.get(MarkerColumns.TABLE_NAME));
+        assertEquals(tablesByCreate.get(SkiSegmentsColumns.TABLE_NAME), tableByUpgrade.get(SkiSegmentsColumns.TABLE_NAME));
+        assertEquals(tablesByCreate.get(SeasonRollupsColumns.TABLE_NAME), tableByUpgrade.get(SeasonRollupsColumns.TABLE_NAME));
+        assertEquals(tablesByCreate.get(BestEffortsColumns.TABLE_NAME), tableByUpgrade.get(BestEffortsColumns.TABLE_NAME));
 
         // then - verify custom indices
-        assertEquals(3, indicesByCreate.size());
+        assertEquals(8, indicesByCreate.size());
         assertEquals(indicesByUpgrade.get(TracksColumns.TABLE_NAME), indicesByCreate.get(TracksColumns.TABLE_NAME));
         assertEquals(indicesByUpgrade.get(TrackPointsColumns.TABLE_NAME), indicesByCreate.get(TrackPointsColumns.TABLE_NAME));
         assertEquals(indicesByUpgrade.get(MarkerColumns.TABLE_NAME), indicesByCreate.get(MarkerColumns.TABLE_NAME));
+        assertEquals(indicesByUpgrade.get(SkiSegmentsColumns.TABLE_NAME), indicesByCreate.get(SkiSegmentsColumns.TABLE_NAME));
+        assertEquals(indicesByUpgrade.get(BestEffortsColumns.TABLE_NAME), indicesByCreate.get(BestEffortsColumns.TABLE_NAME));
+
+        // then - verify triggers
+        assertEquals(SeasonRollupsColumns.CREATE_TRIGGERS.length, triggersByCreate.size());
+        assertEquals(triggersByCreate, triggersByUpgrade);
     }
 
     @Test
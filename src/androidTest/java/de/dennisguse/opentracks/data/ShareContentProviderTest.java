@@ -1,6 +1,7 @@
 package de.dennisguse.opentracks.data;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import android.net.Uri;
 import android.util.Pair;
@@ -9,8 +10,10 @@ import org.junit.Test;
 
 import java.util.Set;
 
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 
 public class ShareContentProviderTest {
 
@@ -30,6 +33,25 @@ public class ShareContentProviderTest {
         assertEquals(trackIds, ShareContentProvider.parseURI(shareURIandMIME.first));
     }
 
+    @Test
+    public void testCreateAndParseURI_trackSimplifier() {
+        Set<Track.Id> trackIds = Set.of(new Track.Id(1));
+        TrackSimplifier trackSimplifier = new TrackSimplifier(TrackSimplifier.Algorithm.VISVALINGAM_WHYATT, Distance.of(5));
+
+        Pair<Uri, String> shareURIandMIME = ShareContentProvider.createURI(trackIds, "filename.suffix", TrackFileFormat.GPX, trackSimplifier);
+
+        assertEquals(trackIds, ShareContentProvider.parseURI(shareURIandMIME.first));
+        assertEquals(trackSimplifier, ShareContentProvider.parseTrackSimplifier(shareURIandMIME.first));
+        assertEquals("filename.suffix", shareURIandMIME.first.getLastPathSegment());
+    }
+
+    @Test
+    public void testCreateAndParseURI_withoutTrackSimplifier() {
+        Pair<Uri, String> shareURIandMIME = ShareContentProvider.createURI(Set.of(new Track.Id(1)), "filename.suffix", TrackFileFormat.GPX);
+
+        assertNull(ShareContentProvider.parseTrackSimplifier(shareURIandMIME.first));
+    }
+
     @Test
     public void testCreateURIescapeFilename() {
         Pair<Uri, String> shareURIandMIME = ShareContentProvider.createURI(Set.of(new Track.Id(1)), "../../&1=1", TrackFileFormat.KML_WITH_TRACKDETAIL_AND_SENSORDATA);
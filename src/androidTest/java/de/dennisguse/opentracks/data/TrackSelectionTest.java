@@ -1,5 +1,9 @@
 package de.dennisguse.opentracks.data;
 
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import junit.framework.TestCase;
@@ -11,6 +15,7 @@ import java.time.Duration;
 import java.time.Instant;
 
 import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
 
 @RunWith(AndroidJUnit4.class)
 public class TrackSelectionTest extends TestCase {
@@ -203,4 +208,65 @@ public class TrackSelectionTest extends TestCase {
         assertEquals(selection.selectionArgs()[2], Long.toString(instant.toEpochMilli()));
         assertEquals(selection.selectionArgs()[3], Long.toString(instant.toEpochMilli() + oneDay));
     }
+
+    @Test
+    public void testFilterBuildSelection_manyTrackIds() {
+        // given
+        TrackSelection filter = new TrackSelection();
+        for (int i = TrackSelection.TRACK_ID_CHUNK_SIZE; i > 0; i--) {
+            filter.addTrackId(new Track.Id(i));
+        }
+        filter.addTrackId(new Track.Id(1000));
+        filter.addTrackId(new Track.Id(1002));
+        filter.addActivityType("running");
+
+        // when
+        SelectionData selection = filter.buildSelection();
+
+        // Then
+        assertEquals(selection.selection(), "(_id BETWEEN 1 AND 500 OR _id IN (1000,1002)) AND category IN (?)");
+        assertEquals(selection.selectionArgs().length, 1);
+        assertEquals(selection.selectionArgs()[0], "running");
+    }
+
+    @Test
+    public void testQueryPlan_trackIds() {
+        assertQueryPlan(new TrackSelection().addTrackId(new Track.Id(1)).addTrackId(new Track.Id(2)), "USING INTEGER PRIMARY KEY");
+
+        TrackSelection filter = new TrackSelection();
+        for (int i = 1; i <= TrackSelection.TRACK_ID_CHUNK_SIZE + 2; i++) {
+            filter.addTrackId(new Track.Id(i * 2L));
+        }
+        assertQueryPlan(filter, "USING INTEGER PRIMARY KEY");
+    }
+
+    @Test
+    public void testQueryPlan_categories() {
+        assertQueryPlan(new TrackSelection().addActivityType("running").addActivityType("road biking"), "USING INDEX tracks_category_starttime_index");
+    }
+
+    @Test
+    public void testQueryPlan_dateRange() {
+        Instant instant = Instant.now();
+        assertQueryPlan(new TrackSelection().addDateRange(instant, instant.plus(Duration.ofDays(1))), "USING INDEX tracks_starttime_index");
+    }
+
+    @Test
+    public void testQueryPlan_categories_and_dateRange() {
+        Instant instant = Instant.now();
+        assertQueryPlan(new TrackSelection().addActivityType("running").addDateRange(instant, instant.plus(Duration.ofDays(1))), "USING INDEX tracks_category_starttime_index");
+    }
+
+    private static void assertQueryPlan(TrackSelection filter, String expected) {
+        SelectionData selection = filter.buildSelection();
+        StringBuilder queryPlan = new StringBuilder();
+        try (SQLiteDatabase db = new CustomSQLiteOpenHelper(ApplicationProvider.getApplicationContext(), null).getReadableDatabase();
+             Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN SELECT * FROM " + TracksColumns.TABLE_NAME + " WHERE " + selection.selection(), selection.selectionArgs())) {
+            while (cursor.moveToNext()) {
+                queryPlan.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append("\n");
+            }
+        }
+        assertTrue(queryPlan.toString(), queryPlan.toString().contains(expected));
+        assertFalse(queryPlan.toString(), queryPlan.toString().contains("SCAN"));
+    }
 }
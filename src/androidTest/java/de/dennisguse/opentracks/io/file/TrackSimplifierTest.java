@@ -0,0 +1,168 @@
+package de.dennisguse.opentracks.io.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.io.file.importer.GpxTrackImporter;
+import de.dennisguse.opentracks.io.file.importer.TrackImporter;
+import de.dennisguse.opentracks.io.file.importer.XMLImporter;
+
+@RunWith(AndroidJUnit4.class)
+public class TrackSimplifierTest {
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    private Track.Id importTrackId;
+
+    @After
+    public void tearDown() {
+        if (importTrackId != null) {
+            contentProviderUtils.deleteTrack(context, importTrackId);
+        }
+    }
+
+    @Test
+    public void douglasPeucker() {
+        // given: a line with a small bump (0.5m) and a big bump (5m)
+        double[] x = {0, 1, 2, 3, 4, 5, 6};
+        double[] y = {0, 0.5, 0, 0, 5, 0, 0};
+
+        // when / then
+        assertArrayEquals(new boolean[]{true, false, false, true, true, false, true}, TrackSimplifier.douglasPeucker(x, y, 1));
+        assertArrayEquals(new boolean[]{true, false, false, false, false, false, true}, TrackSimplifier.douglasPeucker(x, y, 10));
+        assertArrayEquals(new boolean[]{true, true, true, true, true, true, true}, TrackSimplifier.douglasPeucker(x, y, 0.1));
+    }
+
+    @Test
+    public void visvalingamWhyatt() {
+        // given: the triangle areas are 0.5, 0.25, 2.5, 5 and 2.5
+        double[] x = {0, 1, 2, 3, 4, 5, 6};
+        double[] y = {0, 0.5, 0, 0, 5, 0, 0};
+
+        // when / then
+        assertArrayEquals(new boolean[]{true, false, false, true, true, true, true}, TrackSimplifier.visvalingamWhyatt(x, y, 1));
+        assertArrayEquals(new boolean[]{true, false, false, false, false, false, true}, TrackSimplifier.visvalingamWhyatt(x, y, 100));
+        assertArrayEquals(new boolean[]{true, true, true, true, true, true, true}, TrackSimplifier.visvalingamWhyatt(x, y, 0));
+    }
+
+    @Test
+    public void simplify_keepsNonLocationTrackPoints() {
+        // given
+        List<TrackPoint> trackPoints = List.of(
+                new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(1)).setLatitude(0).setLongitude(0),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(2)).setLatitude(0).setLongitude(0.001),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(3)).setHeartRate(120),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(4)).setLatitude(0).setLongitude(0.002),
+                new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(5)),
+                new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(6)),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(7)).setLatitude(0).setLongitude(0.003),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(8)).setLatitude(0).setLongitude(0.004)
+        );
+        TrackSimplifier subject = new TrackSimplifier(TrackSimplifier.Algorithm.DOUGLAS_PEUCKER, Distance.of(10));
+
+        // when
+        List<TrackPoint> simplified = subject.simplify(trackPoints);
+
+        // then: only the location in the middle of the first segment is removed
+        assertEquals(List.of(
+                trackPoints.get(0),
+                trackPoints.get(1),
+                trackPoints.get(3),
+                trackPoints.get(4),
+                trackPoints.get(5),
+                trackPoints.get(6),
+                trackPoints.get(7),
+                trackPoints.get(8)
+        ), simplified);
+    }
+
+    @Test
+    public void simplify_keepsSensorDataOfRemovedLocations() {
+        // given: a straight line; each trackPoint with sensor data
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            trackPoints.add(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(i))
+                    .setLatitude(0)
+                    .setLongitude(i * 0.001)
+                    .setSensorDistance(Distance.of(111))
+                    .setAltitudeGain(1f)
+                    .setAltitudeLoss(0.5f)
+                    .setHeartRate(100 + i));
+        }
+        TrackSimplifier subject = new TrackSimplifier(TrackSimplifier.Algorithm.DOUGLAS_PEUCKER, Distance.of(10));
+
+        // when
+        List<TrackPoint> simplified = subject.simplify(trackPoints);
+
+        // then
+        assertEquals(2, simplified.stream().filter(TrackPoint::hasLocation).count());
+        assertEquals(trackPoints.size(), simplified.size());
+        assertEquals(sum(trackPoints, TrackPoint::getAltitudeGain), sum(simplified, TrackPoint::getAltitudeGain), 0.01);
+        assertEquals(sum(trackPoints, TrackPoint::getAltitudeLoss), sum(simplified, TrackPoint::getAltitudeLoss), 0.01);
+        assertEquals(sum(trackPoints, trackPoint -> trackPoint.getSensorDistance().toM()), sum(simplified, trackPoint -> trackPoint.getSensorDistance().toM()), 0.01);
+        assertEquals(trackPoints.get(5).getHeartRate(), simplified.get(5).getHeartRate());
+    }
+
+    @Test
+    public void simplify_gpx_with_pause_resume() throws IOException {
+        // given
+        List<TrackPoint> trackPoints = importTrackPoints(de.dennisguse.opentracks.test.R.raw.legacy_gpx_pause_resume);
+        assertEquals(6, trackPoints.size());
+
+        // when
+        List<TrackPoint> douglasPeucker = new TrackSimplifier(TrackSimplifier.Algorithm.DOUGLAS_PEUCKER, Distance.of(10)).simplify(trackPoints);
+        List<TrackPoint> visvalingamWhyatt = new TrackSimplifier(TrackSimplifier.Algorithm.VISVALINGAM_WHYATT, Distance.of(10)).simplify(trackPoints);
+
+        // then: the collinear location of the first segment is removed
+        List<TrackPoint> expected = List.of(trackPoints.get(0), trackPoints.get(2), trackPoints.get(3), trackPoints.get(4), trackPoints.get(5));
+        assertEquals(expected, douglasPeucker);
+        assertEquals(expected, visvalingamWhyatt);
+    }
+
+    @Test
+    public void simplify_gpx11_without_speed() throws IOException {
+        // given: the second location is about 38m away from the first and the last (same) location
+        List<TrackPoint> trackPoints = importTrackPoints(de.dennisguse.opentracks.test.R.raw.gpx11_without_speed);
+        assertEquals(3, trackPoints.size());
+
+        // when / then
+        assertEquals(trackPoints, new TrackSimplifier(TrackSimplifier.Algorithm.DOUGLAS_PEUCKER, Distance.of(10)).simplify(trackPoints));
+        assertEquals(List.of(trackPoints.get(0), trackPoints.get(2)), new TrackSimplifier(TrackSimplifier.Algorithm.DOUGLAS_PEUCKER, Distance.of(50)).simplify(trackPoints));
+    }
+
+    private static double sum(List<TrackPoint> trackPoints, ToDoubleFunction<TrackPoint> value) {
+        return trackPoints.stream().mapToDouble(value).sum();
+    }
+
+    private List<TrackPoint> importTrackPoints(int resourceId) throws IOException {
+        TrackImporter trackImporter = new TrackImporter(context, contentProviderUtils, Distance.of(200), false);
+        XMLImporter importer = new XMLImporter(new GpxTrackImporter(context, trackImporter));
+        InputStream inputStream = InstrumentationRegistry.getInstrumentation().getContext().getResources().openRawResource(resourceId);
+        importTrackId = importer.importFile(inputStream).get(0);
+        return TestDataUtil.getTrackPoints(contentProviderUtils, importTrackId);
+    }
+}
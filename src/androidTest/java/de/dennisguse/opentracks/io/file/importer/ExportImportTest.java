@@ -215,8 +215,8 @@ public class ExportImportTest {
         assertEquals(10, trackStatistics.getMinAltitude(), 0.01);
         assertEquals(10, trackStatistics.getMaxAltitude(), 0.01);
 
-        assertEquals(2, trackStatistics.getTotalAltitudeGain(), 0.01);
-        assertEquals(2, trackStatistics.getTotalAltitudeLoss(), 0.01);
+        assertEquals(0, trackStatistics.getTotalAltitudeGain(), 0.01);
+        assertEquals(0, trackStatistics.getTotalAltitudeLoss(), 0.01);
 
         List<TrackPoint> actual = TestDataUtil.getTrackPoints(contentProviderUtils, trackId);
         new TrackPointAssert().assertEquals(List.of(
@@ -462,8 +462,8 @@ public class ExportImportTest {
         // Altitude
         assertEquals(10, importedTrackStatistics.getMinAltitude(), 0.01);
         assertEquals(10, importedTrackStatistics.getMaxAltitude(), 0.01);
-        assertEquals(2, importedTrackStatistics.getTotalAltitudeGain(), 0.01);
-        assertEquals(2, importedTrackStatistics.getTotalAltitudeLoss(), 0.01);
+        assertEquals(0, importedTrackStatistics.getTotalAltitudeGain(), 0.01);
+        assertEquals(0, importedTrackStatistics.getTotalAltitudeLoss(), 0.01);
 
         // 4. markers
         assertMarkers();
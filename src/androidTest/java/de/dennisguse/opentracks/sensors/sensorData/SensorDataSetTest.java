@@ -0,0 +1,131 @@
+package de.dennisguse.opentracks.sensors.sensorData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import de.dennisguse.opentracks.data.models.AtmosphericPressure;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.sensors.BluetoothHandlerCyclingCadence;
+import de.dennisguse.opentracks.sensors.BluetoothHandlerCyclingDistanceSpeed;
+import de.dennisguse.opentracks.sensors.UintUtils;
+
+@RunWith(AndroidJUnit4.class)
+public class SensorDataSetTest {
+
+    private static final String TAG = SensorDataSetTest.class.getSimpleName();
+
+    @Test
+    public void update_dispatchesByType() {
+        // given
+        SensorDataSet subject = new SensorDataSet();
+        subject.add(new AggregatorHeartRate("heartRate", null));
+        subject.add(new AggregatorBarometer("barometer", null));
+
+        // when
+        subject.update(new Raw<>(HeartRate.of(120)));
+        subject.update(new Raw<>(AtmosphericPressure.ofHPA(1013.25f)));
+
+        // then
+        assertEquals(HeartRate.of(120), subject.getHeartRate().first);
+        assertEquals(0f, subject.barometer.getValue().gain_m(), 0.01);
+    }
+
+    @Test
+    public void update_withoutAggregator_ignored() {
+        // given
+        SensorDataSet subject = new SensorDataSet();
+
+        // when
+        subject.update(new Raw<>(HeartRate.of(120)));
+
+        // then
+        assertNull(subject.getHeartRate());
+    }
+
+    @Test
+    public void update_unknownType() {
+        assertThrows(UnsupportedOperationException.class, () -> new SensorDataSet().update(new Raw<>(new Unknown())));
+    }
+
+    @Test
+    public void setWheelCircumference() {
+        // given
+        SensorDataSet subject = new SensorDataSet();
+        subject.setWheelCircumference(Distance.of(2));
+        subject.add(new AggregatorCyclingDistanceSpeed("wheel", null));
+
+        // when
+        subject.update(new Raw<>(new BluetoothHandlerCyclingDistanceSpeed.WheelData(1, 0)));
+        subject.update(new Raw<>(new BluetoothHandlerCyclingDistanceSpeed.WheelData(2, 1024)));
+
+        // then
+        assertEquals(2, subject.cyclingDistanceSpeed.getValue().distance().toM(), 0.01);
+
+        // when
+        subject.setWheelCircumference(Distance.of(3));
+        subject.update(new Raw<>(new BluetoothHandlerCyclingDistanceSpeed.WheelData(3, 2048)));
+
+        // then
+        assertEquals(3, subject.cyclingDistanceSpeed.getValue().distance().toM(), 0.01);
+        assertEquals(5, subject.cyclingDistanceSpeed.getValue().distanceOverall().toM(), 0.01);
+    }
+
+    /**
+     * Benchmark: 4 sensors sending at 4Hz for one hour and one TrackPoint per second.
+     */
+    @Test
+    public void update_4sensors_4Hz_1h() {
+        // given
+        int samplesPerSensor = 4 * 60 * 60;
+        Duration interval = Duration.ofMillis(250);
+        int revolutionTimeInterval = 1024 / 4;
+        Instant start = Instant.now().minus(interval.multipliedBy(samplesPerSensor));
+
+        SensorDataSet subject = new SensorDataSet();
+        subject.setWheelCircumference(Distance.of(2));
+        subject.add(new AggregatorHeartRate("heartRate", null));
+        subject.add(new AggregatorCyclingCadence("cadence", null));
+        subject.add(new AggregatorCyclingDistanceSpeed("wheel", null));
+        subject.add(new AggregatorBarometer("barometer", null));
+
+        // when
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < samplesPerSensor; i++) {
+            Instant time = start.plus(interval.multipliedBy(i));
+            int revolutionTime = (int) ((long) i * revolutionTimeInterval % (UintUtils.UINT16_MAX + 1));
+
+            subject.update(new Raw<>(HeartRate.of(100 + i % 50), time));
+            subject.update(new Raw<>(new BluetoothHandlerCyclingCadence.CrankData(i, revolutionTime), time));
+            subject.update(new Raw<>(new BluetoothHandlerCyclingDistanceSpeed.WheelData(i, revolutionTime), time));
+            subject.update(new Raw<>(AtmosphericPressure.ofHPA(1013.25f), time));
+
+            if (i % 4 == 3) {
+                subject.fillTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, time));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        Log.i(TAG, "4 sensors at 4Hz for 1h: " + 4 * samplesPerSensor + " samples in " + elapsed.toMillis() + "ms");
+
+        // then
+        assertEquals(HeartRate.of(100 + (samplesPerSensor - 1) % 50), subject.getHeartRate().first);
+        assertEquals(240, subject.getCadence().first.getRPM(), 0.01);
+        assertEquals(2 * (samplesPerSensor - 1), subject.cyclingDistanceSpeed.getValue().distanceOverall().toM(), 0.01);
+        assertEquals(0f, subject.barometer.getValue().gain_m(), 0.01);
+    }
+
+    private record Unknown() {
+    }
+}
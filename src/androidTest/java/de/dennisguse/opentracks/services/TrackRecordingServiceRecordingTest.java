@@ -2,9 +2,12 @@ package de.dennisguse.opentracks.services;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import android.content.ContentUris;
 import android.content.Context;
 import android.content.Intent;
+import android.database.ContentObserver;
 import android.os.Looper;
 
 import androidx.test.core.app.ApplicationProvider;
@@ -22,8 +25,10 @@ import org.mockito.Mockito;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.content.data.TestDataUtil;
@@ -34,6 +39,7 @@ import de.dennisguse.opentracks.data.models.HeartRate;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.io.file.importer.TrackPointAssert;
 import de.dennisguse.opentracks.sensors.BluetoothHandlerRunningSpeedAndCadence;
 import de.dennisguse.opentracks.sensors.SensorManager;
@@ -673,6 +679,46 @@ public class TrackRecordingServiceRecordingTest {
         ), TestDataUtil.getTrackPoints(contentProviderUtils, trackId));
     }
 
+    @MediumTest
+    @Test
+    public void testRecording_storedTrackPoints_doNotNotifyTrackChange() throws InterruptedException {
+        // given
+        TrackPointCreator trackPointCreator = service.getTrackPointCreator();
+        trackPointCreator.setClock("2020-02-02T02:02:02Z");
+        Track.Id trackId = service.startNewTrack();
+        mockAltitudeChange(trackPointCreator, 0);
+
+        // Observes the same URI as the TrackRecordingManager; notifications are delivered in order.
+        AtomicInteger changes = new AtomicInteger();
+        CountDownLatch changed = new CountDownLatch(1);
+        ContentObserver trackObserver = new ContentObserver(null) {
+            @Override
+            public void onChange(boolean selfChange) {
+                changes.incrementAndGet();
+                changed.countDown();
+            }
+        };
+        context.getContentResolver().registerContentObserver(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId.id()), false, trackObserver);
+
+        try {
+            // when
+            TrackRecordingServiceTestUtils.sendGPSLocation(trackPointCreator, "2020-02-02T02:02:03Z", 45.0, 35.0, 1, 15);
+            TrackRecordingServiceTestUtils.sendGPSLocation(trackPointCreator, "2020-02-02T02:02:06Z", 45.0001, 35.0, 1, 15);
+            TrackRecordingServiceTestUtils.sendGPSLocation(trackPointCreator, "2020-02-02T02:02:08Z", 45.0002, 35.0, 1, 15);
+
+            Track track = contentProviderUtils.getTrack(trackId);
+            track.setName("renamed");
+            contentProviderUtils.updateTrack(track);
+
+            // then: only the rename is notified (i.e., the track is not reloaded for each stored trackPoint)
+            assertTrue(changed.await(5, TimeUnit.SECONDS));
+            assertEquals(1, changes.get());
+            assertEquals(22.226356506347656, contentProviderUtils.getTrack(trackId).getTrackStatistics().getTotalDistance().toM(), 0.01);
+        } finally {
+            context.getContentResolver().unregisterContentObserver(trackObserver);
+        }
+    }
+
     private void mockAltitudeChange(TrackPointCreator trackPointCreator, float altitudeGain) {
         AggregatorBarometer barometer = Mockito.mock(AggregatorBarometer.class);
         Mockito.when(barometer.hasValue()).thenReturn(true);
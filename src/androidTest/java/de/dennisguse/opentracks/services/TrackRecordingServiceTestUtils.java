@@ -16,5 +16,7 @@ public class TrackRecordingServiceTestUtils {
 
         trackPointCreator.setClock(time);
         trackPointCreator.getSensorManager().getGpsManager().onLocationChanged(location);
+        // Wait until the location was processed by the recording pipeline.
+        trackPointCreator.getRecordingPipeline().flush();
     }
 }
@@ -0,0 +1,43 @@
+package de.dennisguse.opentracks.services.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class BoundedMpscQueueTest {
+
+    @Test
+    public void offer_poll_wrapsAround() {
+        // given
+        BoundedMpscQueue<Integer> subject = new BoundedMpscQueue<>(4);
+
+        // when / then
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(subject.offer(round * 4 + i));
+            }
+            assertFalse(subject.offer(-1));
+            assertEquals(4, subject.size());
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals(round * 4 + i, (int) subject.poll());
+            }
+            assertNull(subject.poll());
+            assertTrue(subject.isEmpty());
+        }
+    }
+
+    @Test
+    public void capacity_notPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedMpscQueue<>(3));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedMpscQueue<>(0));
+    }
+}
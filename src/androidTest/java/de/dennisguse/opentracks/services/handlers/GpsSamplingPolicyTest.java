@@ -0,0 +1,182 @@
+package de.dennisguse.opentracks.services.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.data.models.Altitude;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.stats.LiftRegistry;
+
+@RunWith(AndroidJUnit4.class)
+public class GpsSamplingPolicyTest {
+
+    private static final String TAG = GpsSamplingPolicyTest.class.getSimpleName();
+
+    private static final double METER = 1 / 111195d;
+
+    private int time_s = 0;
+    private int nextFix_s = 0;
+    private int fixes = 0;
+
+    private double latitude = 47.0;
+    private double longitude = 11.0;
+    private double altitude_m = 1000;
+
+    @Test
+    public void waiting_relaxed() {
+        // given
+        GpsSamplingPolicy subject = new GpsSamplingPolicy(Duration.ZERO);
+
+        // when
+        replay(subject, 120, 0, 0, true);
+
+        // then
+        assertEquals(GpsSamplingPolicy.WAIT_INTERVAL, subject.getInterval());
+        assertTrue(fixes < 120 / 2);
+    }
+
+    @Test
+    public void waiting_startMoving_immediately() {
+        // given
+        GpsSamplingPolicy subject = new GpsSamplingPolicy(Duration.ZERO);
+        replay(subject, 120, 0, 0, true);
+
+        // when
+        replay(subject, (int) GpsSamplingPolicy.WAIT_INTERVAL.getSeconds(), 12, -3, true);
+
+        // then
+        assertEquals(Duration.ZERO, subject.getInterval());
+
+        // when: stops again; switching to a longer interval is rate limited
+        replay(subject, 30, 0, 0, true);
+
+        // then
+        assertEquals(Duration.ZERO, subject.getInterval());
+
+        // when
+        replay(subject, (int) GpsSamplingPolicy.MIN_RELAX_INTERVAL.getSeconds(), 0, 0, true);
+
+        // then
+        assertEquals(GpsSamplingPolicy.WAIT_INTERVAL, subject.getInterval());
+    }
+
+    @Test
+    public void lift_relaxed() {
+        // given
+        longitude = 11.1;
+        GpsSamplingPolicy subject = new GpsSamplingPolicy(Duration.ZERO);
+        replay(subject, 120, 12, -3, false);
+
+        // when
+        replay(subject, 120, 4, 1, true);
+
+        // then
+        assertEquals(GpsSamplingPolicy.LIFT_INTERVAL, subject.getInterval());
+    }
+
+    @Test
+    public void lift_minIntervalIsLonger() {
+        // given
+        longitude = 11.2;
+        GpsSamplingPolicy subject = new GpsSamplingPolicy(Duration.ofSeconds(20));
+
+        // when
+        replay(subject, 600, 4, 1, true);
+
+        // then
+        assertEquals(Duration.ofSeconds(20), subject.getInterval());
+    }
+
+    @Test
+    public void knownLift_left_immediately() {
+        // given: a known lift going north
+        longitude = 11.3;
+        List<TrackPoint> ride = new ArrayList<>();
+        for (int i = 0; i <= 1000; i += 10) {
+            ride.add(new TrackPoint(latitude + i * METER, longitude, Altitude.WGS84.of(altitude_m + i / 4d), Instant.ofEpochSecond(i / 4)));
+        }
+        assertNotNull(LiftRegistry.getInstance().learn(ride));
+
+        GpsSamplingPolicy subject = new GpsSamplingPolicy(Duration.ZERO);
+        replay(subject, 120, 0, 0, true);
+        replay(subject, 180, 4, 1, true);
+        assertEquals(GpsSamplingPolicy.LIFT_INTERVAL, subject.getInterval());
+
+        // when: leaving the lift to the east without losing altitude (not yet detected as a run)
+        replay(subject, 20, 3, 0, false);
+
+        // then
+        assertEquals(Duration.ZERO, subject.getInterval());
+    }
+
+    /**
+     * Replays a ski day (1Hz) and compares the number of locations to a fixed interval.
+     */
+    @Test
+    public void replay_skiDay() {
+        // given
+        longitude = 11.4;
+        int cycles = 10;
+        int waitSeconds = 180;
+        int liftSeconds = 360;
+        int runSeconds = 240;
+        GpsSamplingPolicy subject = new GpsSamplingPolicy(Duration.ZERO);
+
+        // when
+        int runFixes = 0;
+        for (int i = 0; i < cycles; i++) {
+            replay(subject, waitSeconds, 0, 0, true);
+            replay(subject, liftSeconds, 4, 1, true);
+
+            int fixesBeforeRun = fixes;
+            replay(subject, runSeconds, 12, -1.5, false);
+            runFixes += fixes - fixesBeforeRun;
+        }
+
+        // then
+        int fixedIntervalFixes = cycles * (waitSeconds + liftSeconds + runSeconds);
+        Log.i(TAG, "Ski day: " + fixes + " locations instead of " + fixedIntervalFixes + " (runs: " + runFixes + " of " + cycles * runSeconds + ")");
+
+        assertTrue(fixes < fixedIntervalFixes * 0.6);
+        assertTrue(runFixes >= cycles * (runSeconds - GpsSamplingPolicy.LIFT_INTERVAL.getSeconds()));
+    }
+
+    /**
+     * Moves with constant speed for the given time; locations are only delivered with the current interval of the policy.
+     */
+    private void replay(GpsSamplingPolicy subject, int seconds, double speed_mps, double verticalSpeed_mps, boolean north) {
+        for (int i = 0; i < seconds; i++) {
+            time_s++;
+            if (north) {
+                latitude += speed_mps * METER;
+            } else {
+                longitude += speed_mps * METER / Math.cos(Math.toRadians(latitude));
+            }
+            altitude_m += verticalSpeed_mps;
+
+            if (time_s < nextFix_s) {
+                continue;
+            }
+            TrackPoint trackPoint = new TrackPoint(latitude, longitude, Altitude.WGS84.of(altitude_m), Instant.ofEpochSecond(time_s));
+            trackPoint.setSpeed(Speed.of(speed_mps));
+            fixes++;
+
+            subject.onNewTrackPoint(trackPoint);
+            nextFix_s = time_s + (int) Math.max(1, subject.getInterval().getSeconds());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package de.dennisguse.opentracks.services.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(AndroidJUnit4.class)
+public class RecordingPipelineTest {
+
+    private RecordingPipeline subject;
+
+    @After
+    public void tearDown() {
+        if (subject != null) {
+            subject.stop();
+        }
+    }
+
+    @Test
+    public void post_notStarted_processedOnCallingThread() {
+        // given
+        subject = new RecordingPipeline();
+        List<Thread> threads = new ArrayList<>();
+
+        // when
+        subject.post(() -> threads.add(Thread.currentThread()));
+
+        // then
+        assertEquals(List.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void post_multipleProducers_processedInOrderOnConsumer() throws InterruptedException {
+        // given
+        int producerCount = 4;
+        int eventsPerProducer = 5000;
+        subject = new RecordingPipeline(32768);
+        subject.start();
+
+        // Only accessed by the consumer.
+        int[] lastEvent = new int[producerCount];
+        int[] outOfOrder = new int[1];
+        List<Thread> consumerThreads = new ArrayList<>();
+
+        // when
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            producers.add(new Thread(() -> {
+                for (int i = 1; i <= eventsPerProducer; i++) {
+                    int event = i;
+                    subject.post(() -> {
+                        if (lastEvent[producer] + 1 != event) {
+                            outOfOrder[0]++;
+                        }
+                        lastEvent[producer] = event;
+                        if (consumerThreads.isEmpty()) {
+                            consumerThreads.add(Thread.currentThread());
+                        }
+                    });
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        subject.flush();
+
+        // then
+        for (int p = 0; p < producerCount; p++) {
+            assertEquals(eventsPerProducer, lastEvent[p]);
+        }
+        assertEquals(0, outOfOrder[0]);
+        assertNotEquals(Thread.currentThread(), consumerThreads.get(0));
+
+        RecordingPipeline.Statistics statistics = subject.getStatistics();
+        assertTrue(statistics.processedEvents() >= producerCount * eventsPerProducer);
+        assertEquals(0, statistics.droppedEvents());
+        assertTrue(statistics.maxQueueDepth() >= 1);
+        assertTrue(statistics.latencyMedian().compareTo(statistics.latencyMax()) <= 0);
+    }
+
+    @Test
+    public void post_queueFull_dropped() throws InterruptedException {
+        // given
+        subject = new RecordingPipeline(2);
+        subject.start();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        subject.post(() -> {
+            blocked.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocked.await();
+
+        // when
+        boolean first = subject.post(() -> {
+        });
+        boolean second = subject.post(() -> {
+        });
+        boolean third = subject.post(() -> {
+        });
+        unblock.countDown();
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(1, subject.getStatistics().droppedEvents());
+    }
+
+    @Test
+    public void postAndWait() {
+        // given
+        subject = new RecordingPipeline();
+        subject.start();
+
+        // when / then
+        assertEquals("result", subject.postAndWait(() -> subject.isConsumerThread() ? "result" : "wrong thread"));
+        assertEquals("nested", subject.postAndWait(() -> subject.postAndWait(() -> "nested")));
+        assertThrows(IllegalStateException.class, () -> subject.postAndWait(() -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    @Test
+    public void post_eventFails_consumerSurvives() {
+        // given
+        subject = new RecordingPipeline();
+        subject.start();
+
+        // when
+        subject.post(() -> {
+            throw new IllegalStateException();
+        });
+
+        // then
+        assertEquals("result", subject.postAndWait(() -> "result"));
+    }
+
+    @Test
+    public void stop_whilePosting_noEventStranded() throws InterruptedException {
+        // given
+        subject = new RecordingPipeline();
+        subject.start();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    if (subject.post(processed::incrementAndGet)) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+
+        // when
+        Thread.sleep(5);
+        subject.stop();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        // then
+        assertEquals(accepted.get(), processed.get());
+    }
+
+    @Test
+    public void post_stopped_processedMutuallyExclusiveToStop() {
+        // given
+        subject = new RecordingPipeline();
+        subject.start();
+        subject.stop();
+        List<Boolean> holdsLock = new ArrayList<>();
+
+        // when
+        subject.post(() -> holdsLock.add(Thread.holdsLock(subject)));
+        subject.postAndWait(() -> holdsLock.add(Thread.holdsLock(subject)));
+
+        // then
+        assertEquals(List.of(true, true), holdsLock);
+    }
+
+    @Test
+    public void stop_processesPendingEvents() {
+        // given
+        subject = new RecordingPipeline();
+        subject.start();
+        List<Integer> processed = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            int event = i;
+            subject.post(() -> processed.add(event));
+        }
+        subject.stop();
+
+        // then
+        assertEquals(100, processed.size());
+        assertEquals(99, (int) processed.get(99));
+    }
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import de.dennisguse.opentracks.R;
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
 import de.dennisguse.opentracks.ui.customRecordingLayout.DataField;
 import de.dennisguse.opentracks.ui.customRecordingLayout.RecordingLayout;
@@ -343,4 +344,20 @@ public class PreferencesUtilsTest {
         // then the first one was returned
         assertEquals(recordingLayout.getName(), "cycling");
     }
+
+    @Test
+    public void getRecordingSettings_updatedOnChange() {
+        // given
+        PreferencesUtils.setString(R.string.recording_gps_accuracy_key, "10");
+        RecordingSettings before = PreferencesUtils.getRecordingSettings();
+
+        // when
+        PreferencesUtils.setString(R.string.recording_gps_accuracy_key, "20");
+
+        // then
+        RecordingSettings after = PreferencesUtils.getRecordingSettings();
+        assertEquals(Distance.of(10), before.thresholdHorizontalAccuracy());
+        assertEquals(Distance.of(20), after.thresholdHorizontalAccuracy());
+        assertEquals(PreferencesUtils.getThresholdHorizontalAccuracy(), after.thresholdHorizontalAccuracy());
+    }
 }
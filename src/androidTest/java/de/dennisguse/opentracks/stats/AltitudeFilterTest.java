@@ -0,0 +1,122 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+
+import de.dennisguse.opentracks.data.models.Altitude;
+import de.dennisguse.opentracks.data.models.AltitudeGainLoss;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class AltitudeFilterTest {
+
+    @Test
+    public void addTrackPoint_withoutAltitude() {
+        // given
+        AltitudeFilter subject = new AltitudeFilter();
+
+        // when
+        AltitudeGainLoss gainLoss = subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)));
+
+        // then
+        assertNull(gainLoss);
+        assertFalse(subject.hasAltitude());
+    }
+
+    @Test
+    public void addTrackPoint_barometerOnly() {
+        // given
+        AltitudeFilter subject = new AltitudeFilter();
+
+        // when
+        float gain_m = 0;
+        float loss_m = 0;
+        for (int i = 0; i < 20; i++) {
+            AltitudeGainLoss gainLoss = subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(i))
+                    .setAltitudeGain(i < 10 ? 3f : 0f)
+                    .setAltitudeLoss(i < 10 ? 0f : 1.5f));
+            gain_m += gainLoss.gain_m();
+            loss_m += gainLoss.loss_m();
+        }
+
+        // then
+        assertEquals(30, gain_m, 0.01);
+        assertEquals(15, loss_m, 0.01);
+        assertFalse(subject.hasAltitude());
+    }
+
+    @Test
+    public void addTrackPoint_gpsNoise() {
+        // given
+        AltitudeFilter subject = new AltitudeFilter();
+
+        // when
+        float gain_m = 0;
+        float loss_m = 0;
+        for (int i = 0; i < 100; i++) {
+            AltitudeGainLoss gainLoss = subject.addTrackPoint(new TrackPoint(0, 0, Altitude.WGS84.of(i % 2 == 0 ? 1005 : 995), Instant.ofEpochSecond(i))
+                    .setVerticalAccuracy(Distance.of(10)));
+            gain_m += gainLoss.gain_m();
+            loss_m += gainLoss.loss_m();
+        }
+
+        // then
+        assertTrue(subject.hasAltitude());
+        assertEquals(1000, subject.getAltitude_m(), 2);
+        assertEquals(5, gain_m, 5);
+        assertEquals(5, loss_m, 5);
+    }
+
+    @Test
+    public void addTrackPoint_barometerAndGps() {
+        // given
+        AltitudeFilter subject = new AltitudeFilter();
+
+        // when: the barometer climbs 120m while the GPS is noisy
+        float gain_m = 0;
+        float loss_m = 0;
+        for (int i = 0; i <= 40; i++) {
+            double gps_m = 1020 + 3 * i + (i % 2 == 0 ? 8 : -8);
+            AltitudeGainLoss gainLoss = subject.addTrackPoint(new TrackPoint(0, 0, Altitude.WGS84.of(gps_m), Instant.ofEpochSecond(i))
+                    .setVerticalAccuracy(Distance.of(10))
+                    .setAltitudeGain(i == 0 ? 0f : 3f)
+                    .setAltitudeLoss(0f));
+            gain_m += gainLoss.gain_m();
+            loss_m += gainLoss.loss_m();
+        }
+
+        // then
+        assertEquals(120, gain_m, 12);
+        assertEquals(0, loss_m, 0.01);
+        assertEquals(1140, subject.getAltitude_m(), 2);
+    }
+
+    @Test
+    public void addTrackPoint_gpsAfterBarometer() {
+        // given
+        AltitudeFilter subject = new AltitudeFilter();
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(0))
+                .setAltitudeGain(0f)
+                .setAltitudeLoss(0f));
+
+        // when
+        AltitudeGainLoss gainLoss = subject.addTrackPoint(new TrackPoint(0, 0, Altitude.WGS84.of(1000), Instant.ofEpochSecond(1))
+                .setAltitudeGain(0f)
+                .setAltitudeLoss(0f));
+
+        // then
+        assertEquals(0, gainLoss.gain_m(), 0.01);
+        assertEquals(0, gainLoss.loss_m(), 0.01);
+        assertEquals(1000, subject.getAltitude_m(), 0.01);
+    }
+}
@@ -0,0 +1,119 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class BestEffortsCalculatorTest {
+
+    private int time_s = 0;
+
+    @Test
+    public void bestEfforts() {
+        // given
+        BestEffortsCalculator subject = new BestEffortsCalculator();
+
+        // when
+        addTrackPoints(subject, 300, 5, 0);
+        addTrackPoints(subject, 60, 10, 0);
+        addTrackPoints(subject, 300, 5, 1);
+
+        // then
+        List<BestEffortsCalculator.Effort> efforts = subject.getBestEfforts();
+        assertEquals(4, efforts.size());
+
+        assertEquals(BestEffortsCalculator.Type.FASTEST_100M, efforts.get(0).type());
+        assertEquals(10, efforts.get(0).value(), 0.01);
+        assertEquals(Instant.ofEpochSecond(299), efforts.get(0).startTime());
+
+        // 600m at 10m/s and 400m at 5m/s
+        assertEquals(BestEffortsCalculator.Type.FASTEST_1KM, efforts.get(1).type());
+        assertEquals(140, efforts.get(1).value(), 0.01);
+
+        assertEquals(BestEffortsCalculator.Type.MAX_VERTICAL_10MIN, efforts.get(2).type());
+        assertEquals(300, efforts.get(2).value(), 0.01);
+        assertEquals(600, efforts.get(2).getDuration().getSeconds());
+
+        assertEquals(BestEffortsCalculator.Type.MAX_SPEED_30S, efforts.get(3).type());
+        assertEquals(10, efforts.get(3).value(), 0.01);
+    }
+
+    @Test
+    public void windowsDoNotSpanRecordingSessions() {
+        // given
+        BestEffortsCalculator subject = new BestEffortsCalculator();
+
+        // when
+        addTrackPoints(subject, 60, 10, 0);
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(time_s++)));
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(time_s++)));
+        addTrackPoints(subject, 60, 10, 0);
+
+        // then
+        List<BestEffortsCalculator.Effort> efforts = subject.getBestEfforts();
+        assertEquals(2, efforts.size());
+        assertEquals(BestEffortsCalculator.Type.FASTEST_100M, efforts.get(0).type());
+        assertEquals(BestEffortsCalculator.Type.MAX_SPEED_30S, efforts.get(1).type());
+    }
+
+    @Test
+    public void compute() {
+        // given
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        BestEffortsCalculator streaming = new BestEffortsCalculator();
+        Consumer<TrackPoint> consumer = trackPoint -> {
+            trackPoints.add(trackPoint);
+            streaming.addTrackPoint(trackPoint);
+        };
+        addTrackPoints(consumer, 3000, 3, 0.5f);
+
+        // when
+        List<BestEffortsCalculator.Effort> computed = BestEffortsCalculator.compute(trackPoints.iterator());
+
+        // then
+        assertEquals(5, computed.size());
+        assertEquals(streaming.getBestEfforts(), computed);
+    }
+
+    @Test
+    public void merge() {
+        // given
+        Instant start = Instant.ofEpochSecond(0);
+        BestEffortsCalculator.Effort slow1km = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.FASTEST_1KM, 300, start, start.plusSeconds(300));
+        BestEffortsCalculator.Effort fast1km = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.FASTEST_1KM, 200, start, start.plusSeconds(200));
+        BestEffortsCalculator.Effort lowSpeed = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.MAX_SPEED_30S, 5, start, start.plusSeconds(30));
+        BestEffortsCalculator.Effort highSpeed = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.MAX_SPEED_30S, 10, start, start.plusSeconds(30));
+        BestEffortsCalculator.Effort vertical = new BestEffortsCalculator.Effort(BestEffortsCalculator.Type.MAX_VERTICAL_10MIN, 100, start, start.plusSeconds(600));
+
+        // when
+        List<BestEffortsCalculator.Effort> merged = BestEffortsCalculator.merge(List.of(slow1km, highSpeed), List.of(fast1km, lowSpeed, vertical));
+
+        // then
+        assertEquals(List.of(fast1km, vertical, highSpeed), merged);
+    }
+
+    private void addTrackPoints(BestEffortsCalculator subject, int seconds, double speed_mps, float loss_m) {
+        addTrackPoints(subject::addTrackPoint, seconds, speed_mps, loss_m);
+    }
+
+    private void addTrackPoints(Consumer<TrackPoint> consumer, int seconds, double speed_mps, float loss_m) {
+        for (int i = 0; i < seconds; i++) {
+            TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(time_s++));
+            trackPoint.setSensorDistance(Distance.of(speed_mps));
+            trackPoint.setAltitudeLoss(loss_m);
+            consumer.accept(trackPoint);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.data.models.Weight;
+
+@RunWith(AndroidJUnit4.class)
+public class CalorieAccumulatorTest {
+
+    private final CalorieCalculator calorieCalculator = new CalorieCalculator(Weight.of(80), 35);
+
+    private int time_s = 0;
+
+    @Test
+    public void addTrackPoint_states() {
+        // given
+        CalorieAccumulator subject = new CalorieAccumulator(calorieCalculator);
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(time_s)));
+
+        // when / then
+        assertEquals(CalorieCalculator.State.WAITING.getMET() * 80 * 60 / 3600, addTrackPoints(subject, 60, 0, 0), 0.01);
+        assertEquals(CalorieCalculator.State.WAITING, subject.getState());
+
+        assertEquals(CalorieCalculator.State.LIFT.getMET() * 80 * 300 / 3600, addTrackPoints(subject, 300, 3, 1), 0.5);
+        assertEquals(CalorieCalculator.State.LIFT, subject.getState());
+
+        assertEquals(CalorieCalculator.State.SKIING.getMET() * 80 * 300 / 3600, addTrackPoints(subject, 300, 10, -1), 1);
+        assertEquals(CalorieCalculator.State.SKIING, subject.getState());
+
+        addTrackPoints(subject, 60, 1.2, 0);
+        assertEquals(CalorieCalculator.State.WALKING, subject.getState());
+    }
+
+    @Test
+    public void addTrackPoint_heartRate() {
+        // given
+        CalorieAccumulator subject = new CalorieAccumulator(calorieCalculator);
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)));
+
+        // when
+        double calories_kcal = subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(60))
+                .setHeartRate(150));
+
+        // then
+        assertEquals(calorieCalculator.getCalories(HeartRate.of(150), Duration.ofMinutes(1)), calories_kcal, 0.001);
+        assertEquals(12.2, calories_kcal, 0.1);
+    }
+
+    @Test
+    public void addTrackPoint_notBetweenSegments() {
+        // given
+        CalorieAccumulator subject = new CalorieAccumulator(calorieCalculator);
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)));
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(60)));
+
+        // when
+        double calories_kcal = subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(3600)));
+
+        // then
+        assertEquals(0, calories_kcal, 0.001);
+    }
+
+    @Test
+    public void getCalories_restingIfLowHeartRate() {
+        // when
+        double calories_kcal = calorieCalculator.getCalories(HeartRate.of(40), Duration.ofHours(1));
+
+        // then
+        assertEquals(80, calories_kcal, 0.01);
+    }
+
+    /**
+     * @return the energy of the added trackPoints (one per second).
+     */
+    private double addTrackPoints(CalorieAccumulator subject, int count, double speed_mps, float verticalSpeed_mps) {
+        double calories_kcal = 0;
+        for (int i = 0; i < count; i++) {
+            time_s++;
+            TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(time_s))
+                    .setSensorDistance(Distance.of(speed_mps))
+                    .setAltitudeGain(Math.max(0, verticalSpeed_mps))
+                    .setAltitudeLoss(Math.max(0, -verticalSpeed_mps));
+            calories_kcal += subject.addTrackPoint(trackPoint);
+        }
+        return calories_kcal;
+    }
+}
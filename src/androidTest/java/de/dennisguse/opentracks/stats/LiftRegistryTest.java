@@ -0,0 +1,241 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class LiftRegistryTest {
+
+    // Roughly 1m in latitude.
+    private static final double METER = 1 / 111195d;
+
+    private static final double BOTTOM_LATITUDE = 46.0;
+    private static final double BOTTOM_LONGITUDE = 7.0;
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    private final LiftRegistry subject = new LiftRegistry();
+
+    @After
+    public void tearDown() {
+        contentProviderUtils.deleteAllTracks(context);
+        LiftRegistry.getInstance().clear();
+    }
+
+    @Test
+    public void learn_similarRides_sameLift() {
+        // when
+        LiftRegistry.Lift first = subject.learn(createRide(0, 1000));
+        LiftRegistry.Lift second = subject.learn(createRide(10 * METER, 1000));
+
+        // then
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(first.getId(), second.getId());
+        assertEquals(2, second.getRides());
+        assertEquals(1, subject.getLifts().size());
+        assertEquals(BOTTOM_LATITUDE + 5 * METER, second.getBottomLatitude(), METER);
+        assertEquals(1, second.getAverageSpeed().toMPS(), 0.01);
+    }
+
+    @Test
+    public void learn_distantRide_newLift() {
+        // when
+        LiftRegistry.Lift first = subject.learn(createRide(0, 1000));
+        LiftRegistry.Lift second = subject.learn(createRide(500 * METER, 1000));
+
+        // then
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(2, subject.getLifts().size());
+        assertEquals(1, second.getRides());
+    }
+
+    @Test
+    public void learn_shortRide_ignored() {
+        // when
+        LiftRegistry.Lift lift = subject.learn(createRide(0, (int) LiftRegistry.MIN_RIDE_LENGTH_M / 2));
+
+        // then
+        assertNull(lift);
+        assertEquals(0, subject.getLifts().size());
+    }
+
+    @Test
+    public void match() {
+        // given
+        LiftRegistry.Lift lift = subject.learn(createRide(0, 1000));
+        assertNotNull(lift);
+
+        // then
+        assertEquals(lift.getId(), subject.match(BOTTOM_LATITUDE, BOTTOM_LONGITUDE).getId());
+        assertEquals(lift.getId(), subject.match(BOTTOM_LATITUDE + 500 * METER, BOTTOM_LONGITUDE).getId());
+        assertEquals(lift.getId(), subject.match(BOTTOM_LATITUDE + 500 * METER, BOTTOM_LONGITUDE + 10 * METER / Math.cos(Math.toRadians(BOTTOM_LATITUDE))).getId());
+        assertNull(subject.match(BOTTOM_LATITUDE + 500 * METER, BOTTOM_LONGITUDE + 100 * METER / Math.cos(Math.toRadians(BOTTOM_LATITUDE))));
+        assertNull(subject.match(BOTTOM_LATITUDE + 2000 * METER, BOTTOM_LONGITUDE));
+    }
+
+    @Test
+    public void match_afterRefinement() {
+        // given
+        subject.learn(createRide(0, 1000));
+        LiftRegistry.Lift lift = subject.learn(createRide(10 * METER, 1000));
+        assertNotNull(lift);
+
+        // when
+        LiftRegistry.Lift matched = subject.match(BOTTOM_LATITUDE + 500 * METER, BOTTOM_LONGITUDE);
+
+        // then
+        assertNotNull(matched);
+        assertEquals(2, matched.getRides());
+    }
+
+    @Test
+    public void learn_sameRideOfTrack_once() {
+        // given
+        Track.Id trackId = new Track.Id(1);
+        subject.learn(trackId, createRide(0, 1000));
+
+        // when
+        LiftRegistry.Lift lift = subject.learn(trackId, createRide(0, 1000));
+
+        // then
+        assertNotNull(lift);
+        assertEquals(1, lift.getRides());
+    }
+
+    @Test
+    public void remove() {
+        // given
+        Track.Id trackId1 = new Track.Id(1);
+        Track.Id trackId2 = new Track.Id(2);
+        subject.learn(trackId1, createRide(0, 1000));
+        subject.learn(trackId2, createRide(10 * METER, 1000));
+        subject.learn(trackId2, createRide(500 * METER, 1000, 3600));
+        assertEquals(2, subject.getLifts().size());
+
+        // when
+        subject.remove(trackId1);
+
+        // then
+        assertEquals(2, subject.getLifts().size());
+        LiftRegistry.Lift lift = subject.match(BOTTOM_LATITUDE + 250 * METER, BOTTOM_LONGITUDE);
+        assertNotNull(lift);
+        assertEquals(1, lift.getRides());
+        assertEquals(BOTTOM_LATITUDE + 10 * METER, lift.getBottomLatitude(), METER);
+
+        // when
+        subject.remove(trackId2);
+
+        // then
+        assertTrue(subject.getLifts().isEmpty());
+        assertNull(subject.match(BOTTOM_LATITUDE + 250 * METER, BOTTOM_LONGITUDE));
+    }
+
+    @Test
+    public void load_storedLifts() {
+        // given
+        Track.Id trackId = insertTrackWithLift(new Track.Id(1));
+
+        // when
+        subject.load(contentProviderUtils);
+
+        // then
+        assertEquals(1, subject.getLifts().size());
+        assertNotNull(subject.match(BOTTOM_LATITUDE + 500 * METER, BOTTOM_LONGITUDE));
+
+        // when - learning the stored track again
+        subject.learn(contentProviderUtils, trackId, contentProviderUtils.getSkiSegments(trackId));
+
+        // then
+        assertEquals(1, subject.getLifts().iterator().next().getRides());
+    }
+
+    @Test
+    public void learn_storedTrack_loadsOtherTracks() {
+        // given
+        insertTrackWithLift(new Track.Id(1));
+        Track.Id trackId = insertTrackWithLift(new Track.Id(2));
+
+        // when
+        subject.learn(contentProviderUtils, trackId, contentProviderUtils.getSkiSegments(trackId));
+
+        // then
+        assertEquals(1, subject.getLifts().size());
+        assertEquals(2, subject.getLifts().iterator().next().getRides());
+    }
+
+    @Test
+    public void deleteTrack_removesLifts() {
+        // given
+        LiftRegistry registry = LiftRegistry.getInstance();
+        registry.clear();
+        Track.Id trackId = insertTrackWithLift(new Track.Id(1));
+        registry.load(contentProviderUtils);
+        assertEquals(1, registry.getLifts().size());
+
+        // when
+        contentProviderUtils.deleteTrack(context, trackId);
+
+        // then
+        assertTrue(registry.getLifts().isEmpty());
+        assertNull(registry.match(BOTTOM_LATITUDE + 500 * METER, BOTTOM_LONGITUDE));
+    }
+
+    /**
+     * Inserts a track with one lift ride and its LIFT segment.
+     */
+    private Track.Id insertTrackWithLift(Track.Id trackId) {
+        List<TrackPoint> ride = createRide(0, 1000);
+        TestDataUtil.insertTrackWithLocations(contentProviderUtils, TestDataUtil.createTrack(trackId), ride);
+
+        List<TrackPoint> stored = TestDataUtil.getTrackPoints(contentProviderUtils, trackId);
+        TrackPoint first = stored.get(0);
+        TrackPoint last = stored.get(stored.size() - 1);
+        contentProviderUtils.replaceSkiSegments(trackId, null, List.of(new SkiSegmentDetector.Segment(SkiSegmentDetector.Activity.LIFT,
+                first.getTime(), last.getTime(), Distance.of(1000), 0, 0, Speed.of(1), first.getId(), last.getId())));
+        return trackId;
+    }
+
+    private static List<TrackPoint> createRide(double latitudeOffset, int length_m) {
+        return createRide(latitudeOffset, length_m, 0);
+    }
+
+    /**
+     * A ride straight north with 1m/s.
+     */
+    private static List<TrackPoint> createRide(double latitudeOffset, int length_m, int startTime_s) {
+        List<TrackPoint> ride = new ArrayList<>();
+        for (int i = 0; i <= length_m; i += 10) {
+            TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(startTime_s + i));
+            trackPoint.setLatitude(BOTTOM_LATITUDE + latitudeOffset + i * METER);
+            trackPoint.setLongitude(BOTTOM_LONGITUDE);
+            ride.add(trackPoint);
+        }
+        return ride;
+    }
+}
@@ -0,0 +1,107 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+@RunWith(AndroidJUnit4.class)
+public class QuantileSketchTest {
+
+    @Test
+    public void getQuantile_empty() {
+        assertTrue(Double.isNaN(new QuantileSketch().getQuantile(0.5)));
+    }
+
+    @Test
+    public void getQuantile_uniform() {
+        // given
+        QuantileSketch subject = new QuantileSketch();
+
+        // when
+        for (int i = 1; i <= 100000; i++) {
+            subject.add(i, 1);
+        }
+
+        // then
+        assertEquals(1, subject.getQuantile(0), 0);
+        assertEquals(50000, subject.getQuantile(0.5), 500);
+        assertEquals(90000, subject.getQuantile(0.9), 300);
+        assertEquals(99000, subject.getQuantile(0.99), 50);
+        assertEquals(100000, subject.getQuantile(1), 0);
+        assertTrue(subject.getCentroidCount() <= QuantileSketch.COMPRESSION);
+    }
+
+    @Test
+    public void getQuantile_weighted() {
+        // given
+        QuantileSketch subject = new QuantileSketch();
+
+        // when
+        subject.add(10, 90);
+        subject.add(20, 10);
+        subject.add(30, 0);
+
+        // then
+        assertEquals(10, subject.getQuantile(0.1), 0.01);
+        assertEquals(20, subject.getQuantile(0.99), 0.01);
+        assertEquals(100, subject.getTotalWeight(), 0.01);
+    }
+
+    @Test
+    public void merge() {
+        // given
+        Random random = new Random(1);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 50000; i++) {
+            double value = random.nextGaussian();
+            all.add(value, 1);
+            (i % 2 == 0 ? first : second).add(value, 1);
+        }
+
+        // when
+        first.merge(second);
+
+        // then
+        assertEquals(all.getTotalWeight(), first.getTotalWeight(), 0.01);
+        assertEquals(all.getQuantile(0.5), first.getQuantile(0.5), 0.02);
+        assertEquals(all.getQuantile(0.9), first.getQuantile(0.9), 0.02);
+        assertEquals(all.getQuantile(0.99), first.getQuantile(0.99), 0.02);
+        assertEquals(all.getQuantile(1), first.getQuantile(1), 0);
+    }
+
+    @Test
+    public void toBytes_fromBytes() {
+        // given
+        QuantileSketch subject = new QuantileSketch();
+        for (int i = 0; i < 100000; i++) {
+            subject.add(i % 1000, 0.5);
+        }
+
+        // when
+        byte[] data = subject.toBytes();
+        QuantileSketch restored = QuantileSketch.fromBytes(data);
+
+        // then
+        assertTrue(data.length < 1000);
+        assertEquals(subject.getTotalWeight(), restored.getTotalWeight(), 1);
+        assertEquals(subject.getQuantile(0), restored.getQuantile(0), 0.01);
+        assertEquals(subject.getQuantile(0.5), restored.getQuantile(0.5), 0.01);
+        assertEquals(subject.getQuantile(0.99), restored.getQuantile(0.99), 0.01);
+        assertEquals(subject.getQuantile(1), restored.getQuantile(1), 0.01);
+    }
+
+    @Test
+    public void fromBytes_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.fromBytes(new byte[]{}));
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.fromBytes(new byte[]{1, 0, 0, 0, 1}));
+    }
+}
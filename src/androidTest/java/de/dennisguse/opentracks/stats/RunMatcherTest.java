@@ -0,0 +1,237 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class RunMatcherTest {
+
+    // Roughly 1m in latitude.
+    private static final double METER = 1 / 111195d;
+
+    private static final double TOP_LATITUDE = 46.0;
+    private static final double TOP_LONGITUDE = 7.0;
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    private final RunMatcher subject = new RunMatcher();
+
+    @After
+    public void tearDown() {
+        contentProviderUtils.deleteAllTracks(context);
+        RunMatcher.getInstance().clear();
+    }
+
+    @Test
+    public void findSimilar_sameSlope() {
+        // given
+        RunMatcher.Run first = subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+        RunMatcher.Run second = subject.learn(new Track.Id(2), createRun(20, 0, 1000, 100));
+        RunMatcher.Run third = subject.learn(new Track.Id(2), createRun(-20, 0, 1000, 200));
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotNull(third);
+
+        // when
+        List<RunMatcher.Run> similar = subject.findSimilar(first);
+
+        // then
+        assertEquals(List.of(second, third), similar);
+    }
+
+    @Test
+    public void findSimilar_otherSlope() {
+        // given
+        RunMatcher.Run first = subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+        subject.learn(new Track.Id(2), createRun(300, 0, 1000, 100));
+        assertNotNull(first);
+
+        // when / then
+        assertTrue(subject.findSimilar(first).isEmpty());
+    }
+
+    @Test
+    public void findSimilar_partOfSlope() {
+        // given
+        RunMatcher.Run first = subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+        subject.learn(new Track.Id(2), createRun(0, 500, 500, 100));
+        assertNotNull(first);
+
+        // when / then
+        assertTrue(subject.findSimilar(first).isEmpty());
+    }
+
+    @Test
+    public void findSimilar_notIndexed() {
+        // given
+        RunMatcher.Run first = subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+
+        // when
+        List<RunMatcher.Run> similar = subject.findSimilar(createRun(10, 0, 1000, 100));
+
+        // then
+        assertEquals(List.of(first), similar);
+    }
+
+    @Test
+    public void frechetDistance() {
+        // given
+        RunMatcher.Run first = subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+        RunMatcher.Run second = subject.learn(new Track.Id(2), createRun(30, 0, 1000, 100));
+        assertNotNull(first);
+        assertNotNull(second);
+
+        // when / then
+        assertEquals(30, RunMatcher.frechetDistance(first, second, Double.MAX_VALUE), 1);
+        assertTrue(RunMatcher.frechetDistance(first, second, 10) > 10);
+    }
+
+    @Test
+    public void learn_shortRun_ignored() {
+        // when
+        RunMatcher.Run run = subject.learn(new Track.Id(1), createRun(0, 0, (int) RunMatcher.MIN_RUN_LENGTH_M / 2, 0));
+
+        // then
+        assertNull(run);
+        assertEquals(0, subject.getRuns().size());
+    }
+
+    @Test
+    public void learn_sameStartTime_replaced() {
+        // given
+        subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+        RunMatcher.Run other = subject.learn(new Track.Id(2), createRun(0, 0, 1000, 100));
+
+        // when
+        RunMatcher.Run replaced = subject.learn(new Track.Id(1), createRun(500, 0, 1000, 0));
+
+        // then
+        assertEquals(2, subject.getRuns().size());
+        assertTrue(subject.findSimilar(other).isEmpty());
+        assertEquals(List.of(replaced), subject.getRuns(new Track.Id(1)));
+    }
+
+    @Test
+    public void remove() {
+        // given
+        RunMatcher.Run first = subject.learn(new Track.Id(1), createRun(0, 0, 1000, 0));
+        subject.learn(new Track.Id(2), createRun(10, 0, 1000, 100));
+        assertNotNull(first);
+
+        // when
+        subject.remove(new Track.Id(2));
+
+        // then
+        assertEquals(1, subject.getRuns().size());
+        assertTrue(subject.findSimilar(first).isEmpty());
+    }
+
+    @Test
+    public void findSimilar_runOfEarlierSession() {
+        // given - stored before this RunMatcher was created (e.g., before the app was restarted)
+        Track.Id earlierTrackId = insertTrackWithRun(new Track.Id(1), createRun(0, 0, 1000, 0));
+        Track.Id trackId = insertTrackWithRun(new Track.Id(2), createRun(10, 0, 1000, 3600));
+
+        // when
+        subject.learn(contentProviderUtils, trackId, contentProviderUtils.getSkiSegments(trackId));
+
+        // then
+        assertEquals(2, subject.getRuns().size());
+        List<RunMatcher.Run> runs = subject.getRuns(trackId);
+        assertEquals(1, runs.size());
+        assertEquals(subject.getRuns(earlierTrackId), subject.findSimilar(runs.get(0)));
+    }
+
+    @Test
+    public void load_storedRuns() {
+        // given
+        Track.Id trackId = insertTrackWithRun(new Track.Id(1), createRun(0, 0, 1000, 0));
+
+        // when
+        subject.load(contentProviderUtils);
+
+        // then
+        assertEquals(1, subject.getRuns(trackId).size());
+        assertEquals(subject.getRuns(trackId), subject.findSimilar(createRun(10, 0, 1000, 3600)));
+    }
+
+    @Test
+    public void deleteTrack_removesRuns() {
+        // given
+        RunMatcher runMatcher = RunMatcher.getInstance();
+        runMatcher.clear();
+        Track.Id trackId = insertTrackWithRun(new Track.Id(1), createRun(0, 0, 1000, 0));
+        runMatcher.load(contentProviderUtils);
+        assertEquals(1, runMatcher.getRuns().size());
+
+        // when
+        contentProviderUtils.deleteTrack(context, trackId);
+
+        // then
+        assertTrue(runMatcher.getRuns().isEmpty());
+    }
+
+    @Test
+    public void geohash() {
+        // then: u4pruyd
+        assertEquals(((((((26L << 5 | 4) << 5 | 21) << 5 | 23) << 5 | 26) << 5 | 30) << 5) | 12, RunMatcher.geohash(57.64911, 10.40744));
+    }
+
+    /**
+     * Inserts a track with the trackPoints of one run and its RUN segment.
+     */
+    private Track.Id insertTrackWithRun(Track.Id trackId, List<TrackPoint> run) {
+        TestDataUtil.insertTrackWithLocations(contentProviderUtils, TestDataUtil.createTrack(trackId), run);
+
+        List<TrackPoint> stored = TestDataUtil.getTrackPoints(contentProviderUtils, trackId);
+        TrackPoint first = stored.get(0);
+        TrackPoint last = stored.get(stored.size() - 1);
+        contentProviderUtils.replaceSkiSegments(trackId, null, List.of(new SkiSegmentDetector.Segment(SkiSegmentDetector.Activity.RUN,
+                first.getTime(), last.getTime(), Distance.of(1000), 0, 0, Speed.of(10), first.getId(), last.getId())));
+        return trackId;
+    }
+
+    /**
+     * Creates a run downhill to the south (with a turn after 300m) and one trackPoint per 5m.
+     *
+     * @param offset_m the distance to the east of the slope
+     * @param from_m   the distance from the top of the slope of the first trackPoint
+     */
+    private static List<TrackPoint> createRun(int offset_m, int from_m, int length_m, int startTime_s) {
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        double meterLongitude = METER / Math.cos(Math.toRadians(TOP_LATITUDE));
+        for (int i = 0; i <= length_m / 5; i++) {
+            int distance_m = from_m + i * 5;
+            double south_m = Math.min(distance_m, 300) + Math.max(0, distance_m - 300) * 0.6;
+            double east_m = offset_m + Math.max(0, distance_m - 300) * 0.8;
+            trackPoints.add(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(startTime_s + i))
+                    .setLatitude(TOP_LATITUDE - south_m * METER)
+                    .setLongitude(TOP_LONGITUDE + east_m * meterLongitude));
+        }
+        return trackPoints;
+    }
+}
@@ -0,0 +1,265 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class SkiSegmentDetectorTest {
+
+    private final List<SkiSegmentDetector.Segment> segments = new ArrayList<>();
+
+    private int time_s = 0;
+
+    @Test
+    public void liftWaitRun() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 120, 2, 0.5f, 0);
+        addTrackPoints(subject, 60, 0, 0, 0);
+        addTrackPoints(subject, 120, 8, 0, 2);
+        subject.finish();
+
+        // then
+        assertEquals(3, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(0).activity());
+        assertEquals(SkiSegmentDetector.Activity.WAIT, segments.get(1).activity());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(2).activity());
+
+        assertEquals(120 * 2, segments.get(2).loss_m(), 30);
+        assertEquals(120 * 0.5, segments.get(0).gain_m(), 15);
+        assertEquals(segments.get(0).endTime(), segments.get(1).startTime());
+        assertEquals(segments.get(1).endTime(), segments.get(2).startTime());
+    }
+
+    @Test
+    public void shortStopDoesNotCreateSegment() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 60, 8, 0, 2);
+        addTrackPoints(subject, 5, 0, 0, 0);
+        addTrackPoints(subject, 60, 8, 0, 2);
+        subject.finish();
+
+        // then
+        assertEquals(1, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(0).activity());
+        assertEquals(124, segments.get(0).getDuration().getSeconds());
+    }
+
+    @Test
+    public void manualSegmentEndFinishesSegment() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 60, 8, 0, 2);
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(time_s++)));
+
+        // then
+        assertEquals(1, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(0).activity());
+    }
+
+    @Test
+    public void liftOnly() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 120, 3, 3, 0);
+        subject.finish();
+
+        // then
+        assertEquals(1, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(0).activity());
+        assertEquals(119, segments.get(0).getDuration().getSeconds());
+    }
+
+    @Test
+    public void runOnly() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 120, 4, 0, 5);
+        subject.finish();
+
+        // then
+        assertEquals(1, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(0).activity());
+        assertEquals(119, segments.get(0).getDuration().getSeconds());
+    }
+
+    @Test
+    public void liftRunLift() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 120, 3, 3, 0);
+        addTrackPoints(subject, 120, 4, 0, 5);
+        addTrackPoints(subject, 120, 3, 3, 0);
+        subject.finish();
+
+        // then
+        assertEquals(3, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(0).activity());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(1).activity());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(2).activity());
+        assertEquals(120, segments.get(1).getDuration().getSeconds(), 10);
+    }
+
+    @Test
+    public void runLiftRun() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 120, 4, 0, 5);
+        addTrackPoints(subject, 120, 3, 3, 0);
+        addTrackPoints(subject, 120, 4, 0, 5);
+        subject.finish();
+
+        // then
+        assertEquals(3, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(0).activity());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(1).activity());
+        assertEquals(SkiSegmentDetector.Activity.RUN, segments.get(2).activity());
+        assertEquals(120, segments.get(1).getDuration().getSeconds(), 10);
+    }
+
+    @Test
+    public void waitBeforeLift() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 60, 0, 0, 0);
+        addTrackPoints(subject, 120, 3, 3, 0);
+        subject.finish();
+
+        // then
+        assertEquals(2, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.WAIT, segments.get(0).activity());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(1).activity());
+        assertEquals(60, segments.get(0).getDuration().getSeconds(), 5);
+    }
+
+    @Test
+    public void shortStopInLiftDoesNotCreateSegment() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 60, 3, 3, 0);
+        addTrackPoints(subject, 5, 0, 0, 0);
+        addTrackPoints(subject, 60, 3, 3, 0);
+        subject.finish();
+
+        // then
+        assertEquals(1, segments.size());
+        assertEquals(SkiSegmentDetector.Activity.LIFT, segments.get(0).activity());
+    }
+
+    @Test
+    public void waitSpeedHysteresis() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+        double between_mps = (SkiSegmentDetector.SPEED_WAIT_ENTER_MPS + SkiSegmentDetector.SPEED_WAIT_EXIT_MPS) / 2;
+
+        // when
+        addTrackPoints(subject, 60, 4, 0, 5);
+        addTrackPoints(subject, 60, between_mps, 0, 0);
+
+        // then
+        assertEquals(SkiSegmentDetector.Activity.RUN, subject.getActivity());
+
+        // when
+        addTrackPoints(subject, 60, SkiSegmentDetector.SPEED_WAIT_ENTER_MPS - 0.05, 0, 0);
+
+        // then
+        assertEquals(SkiSegmentDetector.Activity.WAIT, subject.getActivity());
+
+        // when
+        addTrackPoints(subject, 60, between_mps, 0, 0);
+
+        // then
+        assertEquals(SkiSegmentDetector.Activity.WAIT, subject.getActivity());
+
+        // when
+        addTrackPoints(subject, 60, SkiSegmentDetector.SPEED_WAIT_EXIT_MPS + 0.05, 0, 1);
+
+        // then
+        assertEquals(SkiSegmentDetector.Activity.RUN, subject.getActivity());
+    }
+
+    @Test
+    public void verticalSpeedSwitch() {
+        // given
+        SkiSegmentDetector subject = new SkiSegmentDetector(segments::add);
+
+        // when
+        addTrackPoints(subject, 60, 4, 0, 5);
+        addTrackPoints(subject, 60, 4, (float) SkiSegmentDetector.VERTICAL_SPEED_SWITCH_MPS - 0.05f, 0);
+
+        // then
+        assertEquals(SkiSegmentDetector.Activity.RUN, subject.getActivity());
+
+        // when
+        addTrackPoints(subject, 60, 4, (float) SkiSegmentDetector.VERTICAL_SPEED_SWITCH_MPS + 0.05f, 0);
+
+        // then
+        assertEquals(SkiSegmentDetector.Activity.LIFT, subject.getActivity());
+    }
+
+    @Test
+    public void detect() {
+        // given
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        SkiSegmentDetector streaming = new SkiSegmentDetector(segments::add);
+        Consumer<TrackPoint> consumer = trackPoint -> {
+            trackPoints.add(trackPoint);
+            streaming.addTrackPoint(trackPoint);
+        };
+        addTrackPoints(consumer, 120, 2, 0.5f, 0);
+        addTrackPoints(consumer, 120, 8, 0, 2);
+        streaming.finish();
+
+        // when
+        List<SkiSegmentDetector.Segment> detected = SkiSegmentDetector.detect(trackPoints.iterator());
+
+        // then
+        assertEquals(2, detected.size());
+        assertEquals(segments, detected);
+    }
+
+    private void addTrackPoints(SkiSegmentDetector subject, int seconds, double speed_mps, float gain_m, float loss_m) {
+        addTrackPoints(subject::addTrackPoint, seconds, speed_mps, gain_m, loss_m);
+    }
+
+    private void addTrackPoints(Consumer<TrackPoint> consumer, int seconds, double speed_mps, float gain_m, float loss_m) {
+        for (int i = 0; i < seconds; i++) {
+            TrackPoint trackPoint = new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(time_s++));
+            trackPoint.setSpeed(Speed.of(speed_mps));
+            trackPoint.setAltitudeGain(gain_m);
+            trackPoint.setAltitudeLoss(loss_m);
+            consumer.accept(trackPoint);
+        }
+    }
+}
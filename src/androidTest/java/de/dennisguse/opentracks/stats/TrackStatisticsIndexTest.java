@@ -0,0 +1,156 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class TrackStatisticsIndexTest {
+
+    @Test
+    public void getStatistics_wholeTrackEqualsUpdater() {
+        // given
+        List<TrackPoint> trackPoints = createTrackPoints(1000);
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        trackStatisticsUpdater.addTrackPoints(trackPoints);
+        TrackStatistics expected = trackStatisticsUpdater.getTrackStatistics();
+
+        // when
+        TrackStatisticsIndex subject = new TrackStatisticsIndex();
+        trackPoints.forEach(subject::addTrackPoint);
+
+        // then
+        TrackStatistics actual = subject.getStatistics(0, trackPoints.size() - 1);
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getStopTime(), actual.getStopTime());
+        assertEquals(expected.getTotalTime(), actual.getTotalTime());
+        assertEquals(expected.getMovingTime(), actual.getMovingTime());
+        assertEquals(expected.getTotalDistance().toM(), actual.getTotalDistance().toM(), 0.01);
+        assertEquals(expected.getMaxSpeed().toMPS(), actual.getMaxSpeed().toMPS(), 0.01);
+        assertEquals(expected.getTotalAltitudeGain(), actual.getTotalAltitudeGain(), 0.01);
+        assertEquals(expected.getTotalAltitudeLoss(), actual.getTotalAltitudeLoss(), 0.01);
+        assertEquals(expected.getMinAltitude(), actual.getMinAltitude(), 0.01);
+        assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 0.01);
+        assertEquals(expected.getAverageHeartRate().getBPM(), actual.getAverageHeartRate().getBPM(), 0.5);
+        assertEquals(expected.getTotalDistance().toM(), subject.getStatistics().getTotalDistance().toM(), 0.01);
+    }
+
+    @Test
+    public void getStatistics_range() {
+        // given
+        List<TrackPoint> trackPoints = createTrackPoints(500);
+        TrackStatisticsIndex subject = new TrackStatisticsIndex();
+        trackPoints.forEach(subject::addTrackPoint);
+
+        // when
+        TrackStatistics range = subject.getStatistics(101, 300);
+
+        // then
+        Distance expectedDistance = Distance.of(0);
+        for (int i = 101; i <= 300; i++) {
+            expectedDistance = expectedDistance.plus(trackPoints.get(i).distanceToPrevious(trackPoints.get(i - 1)));
+        }
+        assertEquals(expectedDistance.toM(), range.getTotalDistance().toM(), 0.01);
+        assertEquals(trackPoints.get(100).getTime(), range.getStartTime());
+        assertEquals(trackPoints.get(300).getTime(), range.getStopTime());
+        assertEquals(200 * TestDataUtil.ALTITUDE_GAIN, range.getTotalAltitudeGain(), 0.01);
+    }
+
+    @Test
+    public void getStatistics_manualSegments() {
+        // given
+        List<TrackPoint> trackPoints = List.of(
+                TestDataUtil.createTrackPoint(0, TrackPoint.Type.SEGMENT_START_MANUAL),
+                TestDataUtil.createTrackPoint(1),
+                TestDataUtil.createTrackPoint(2, TrackPoint.Type.SEGMENT_END_MANUAL),
+                TestDataUtil.createTrackPoint(10, TrackPoint.Type.SEGMENT_START_MANUAL),
+                TestDataUtil.createTrackPoint(11),
+                TestDataUtil.createTrackPoint(12, TrackPoint.Type.SEGMENT_END_MANUAL)
+        );
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        trackStatisticsUpdater.addTrackPoints(trackPoints);
+
+        // when
+        TrackStatisticsIndex subject = new TrackStatisticsIndex();
+        trackPoints.forEach(subject::addTrackPoint);
+
+        // then
+        assertEquals(trackStatisticsUpdater.getTrackStatistics().getTotalTime(), subject.getStatistics().getTotalTime());
+        assertEquals(trackStatisticsUpdater.getTrackStatistics().getMovingTime(), subject.getStatistics().getMovingTime());
+        assertEquals(trackStatisticsUpdater.getTrackStatistics().getTotalDistance().toM(), subject.getStatistics().getTotalDistance().toM(), 0.01);
+    }
+
+    @Test
+    public void getStatistics_averageHeartRateWeightedByTimeWithHeartRate() {
+        // given
+        TrackStatisticsIndex subject = new TrackStatisticsIndex();
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(0)).setHeartRate(100));
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(1)).setHeartRate(100));
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(11)));
+        subject.addTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(12)).setHeartRate(200));
+
+        // when / then
+        assertEquals(150, subject.getStatistics(0, 3).getAverageHeartRate().getBPM(), 0.01);
+        assertEquals(150, subject.getStatistics(1, 3).getAverageHeartRate().getBPM(), 0.01);
+        assertEquals(150, subject.getStatistics().getAverageHeartRate().getBPM(), 0.01);
+        assertEquals(200, subject.getStatistics(2, 3).getAverageHeartRate().getBPM(), 0.01);
+    }
+
+    @Test
+    public void findIndexForDistance() {
+        // given
+        List<TrackPoint> trackPoints = createTrackPoints(300);
+        TrackStatisticsIndex subject = new TrackStatisticsIndex();
+        trackPoints.forEach(subject::addTrackPoint);
+        Distance distance = subject.getStatistics(50, 200).getTotalDistance();
+
+        // when
+        int index = subject.findIndexForDistance(50, distance);
+
+        // then
+        assertEquals(200, index);
+        assertEquals(-1, subject.findIndexForDistance(50, subject.getStatistics().getTotalDistance()));
+    }
+
+    @Test
+    public void addTrackPoint_ignoresKnownIds() {
+        // given
+        TrackStatisticsIndex subject = new TrackStatisticsIndex();
+        TrackPoint trackPoint1 = TestDataUtil.createTrackPoint(1);
+        trackPoint1.setId(new TrackPoint.Id(1));
+        TrackPoint trackPoint2 = TestDataUtil.createTrackPoint(2);
+        trackPoint2.setId(new TrackPoint.Id(2));
+        assertNull(subject.getLastTrackPointId());
+
+        // when
+        subject.addTrackPoint(trackPoint1);
+        subject.addTrackPoint(trackPoint2);
+        subject.addTrackPoint(trackPoint2);
+
+        // then
+        assertEquals(2, subject.size());
+        assertEquals(new TrackPoint.Id(2), subject.getLastTrackPointId());
+        assertEquals(1, subject.indexOf(new TrackPoint.Id(2)));
+        assertEquals(2 * TestDataUtil.ALTITUDE_GAIN, subject.getStatistics(new TrackPoint.Id(1), new TrackPoint.Id(2)).getTotalAltitudeGain(), 0.01);
+    }
+
+    private static List<TrackPoint> createTrackPoints(int numberOfPoints) {
+        List<TrackPoint> trackPoints = new ArrayList<>(numberOfPoints);
+        for (int i = 0; i < numberOfPoints; i++) {
+            trackPoints.add(TestDataUtil.createTrackPoint(i));
+        }
+        return trackPoints;
+    }
+}
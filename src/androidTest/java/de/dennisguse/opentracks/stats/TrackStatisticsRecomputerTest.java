@@ -0,0 +1,177 @@
+package de.dennisguse.opentracks.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.dennisguse.opentracks.content.data.TestDataUtil;
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+@RunWith(AndroidJUnit4.class)
+public class TrackStatisticsRecomputerTest {
+
+    private static final String TAG = TrackStatisticsRecomputerTest.class.getSimpleName();
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private ContentProviderUtils contentProviderUtils;
+
+    private final List<Track.Id> trackIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        contentProviderUtils = new ContentProviderUtils(context);
+    }
+
+    @After
+    public void tearDown() {
+        contentProviderUtils.deleteTracks(context, trackIds);
+    }
+
+    @Test
+    public void splitAtManualSegments() {
+        // given
+        List<TrackPoint> trackPoints = List.of(
+                TestDataUtil.createTrackPoint(0, TrackPoint.Type.SEGMENT_START_MANUAL),
+                TestDataUtil.createTrackPoint(1),
+                TestDataUtil.createTrackPoint(2, TrackPoint.Type.SEGMENT_END_MANUAL),
+                TestDataUtil.createTrackPoint(3, TrackPoint.Type.SEGMENT_START_MANUAL),
+                TestDataUtil.createTrackPoint(4),
+                TestDataUtil.createTrackPoint(5, TrackPoint.Type.SEGMENT_START_MANUAL),
+                TestDataUtil.createTrackPoint(6)
+        );
+
+        // when
+        List<List<TrackPoint>> chunks = TrackStatisticsRecomputer.splitAtManualSegments(trackPoints);
+
+        // then
+        assertEquals(3, chunks.size());
+        assertEquals(3, chunks.get(0).size());
+        assertEquals(2, chunks.get(1).size());
+        assertEquals(2, chunks.get(2).size());
+    }
+
+    @Test
+    public void recompute_equalsSequentialUpdater() {
+        // given
+        TrackStatistics expected = insertTrackWithSegments(new Track.Id(System.currentTimeMillis()), 10, 500);
+
+        // when
+        TrackStatisticsRecomputer.Result result = new TrackStatisticsRecomputer(contentProviderUtils, 4, 2).recompute(trackIds, null);
+
+        // then
+        assertEquals(1, result.updatedTracks());
+        assertFalse(result.cancelled());
+
+        TrackStatistics actual = contentProviderUtils.getTrack(trackIds.get(0)).getTrackStatistics();
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getStopTime(), actual.getStopTime());
+        assertEquals(expected.getTotalTime(), actual.getTotalTime());
+        assertEquals(expected.getMovingTime(), actual.getMovingTime());
+        assertEquals(expected.getTotalDistance().toM(), actual.getTotalDistance().toM(), 0.01);
+        assertEquals(expected.getMaxSpeed().toMPS(), actual.getMaxSpeed().toMPS(), 0.01);
+        assertEquals(expected.getTotalAltitudeGain(), actual.getTotalAltitudeGain(), 0.01);
+        assertEquals(expected.getTotalAltitudeLoss(), actual.getTotalAltitudeLoss(), 0.01);
+    }
+
+    @Test
+    public void recompute_progressAndCancellation() {
+        // given
+        long baseId = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            insertTrackWithSegments(new Track.Id(baseId + i), 2, 10);
+        }
+        TrackStatisticsRecomputer subject = new TrackStatisticsRecomputer(contentProviderUtils, 2, 2);
+        List<Integer> progress = new ArrayList<>();
+
+        // when
+        TrackStatisticsRecomputer.Result result = subject.recompute(trackIds, (processedTracks, totalTracks) -> {
+            progress.add(processedTracks);
+            if (processedTracks == 2) {
+                subject.cancel();
+            }
+        });
+
+        // then
+        assertTrue(result.cancelled());
+        assertEquals(2, result.updatedTracks());
+        assertEquals(List.of(2), progress);
+    }
+
+    @Test
+    public void recomputeAll_skipsRecordingTrack() {
+        // given
+        long baseId = System.currentTimeMillis();
+        TrackStatistics expected = insertTrackWithSegments(new Track.Id(baseId), 2, 10);
+        Track.Id recordingTrackId = new Track.Id(baseId + 1);
+        insertTrackWithSegments(recordingTrackId, 2, 10);
+        TrackStatistics recordingBefore = contentProviderUtils.getTrack(recordingTrackId).getTrackStatistics();
+
+        // when
+        TrackStatisticsRecomputer.Result result = new TrackStatisticsRecomputer(contentProviderUtils).recomputeAll(recordingTrackId, null);
+
+        // then
+        assertEquals(contentProviderUtils.getTracks().size() - 1, result.totalTracks());
+        assertEquals(expected.getTotalDistance().toM(), contentProviderUtils.getTrack(trackIds.get(0)).getTrackStatistics().getTotalDistance().toM(), 0.01);
+        assertEquals(recordingBefore.getTotalDistance().toM(), contentProviderUtils.getTrack(recordingTrackId).getTrackStatistics().getTotalDistance().toM(), 0.01);
+    }
+
+    @Test
+    public void recompute_benchmark() {
+        // given
+        int tracks = 20;
+        long baseId = System.currentTimeMillis();
+        for (int i = 0; i < tracks; i++) {
+            insertTrackWithSegments(new Track.Id(baseId + i), 10, 500);
+        }
+
+        // when
+        TrackStatisticsRecomputer.Result sequential = new TrackStatisticsRecomputer(contentProviderUtils, 1, TrackStatisticsRecomputer.DEFAULT_BATCH_SIZE).recompute(trackIds, null);
+        TrackStatisticsRecomputer.Result parallel = new TrackStatisticsRecomputer(contentProviderUtils).recompute(trackIds, null);
+
+        // then
+        assertEquals(tracks, sequential.updatedTracks());
+        assertEquals(tracks, parallel.updatedTracks());
+        Log.i(TAG, "sequential: " + sequential.getTrackPointsPerSecond() + " trackPoints/s; parallel: " + parallel.getTrackPointsPerSecond() + " trackPoints/s");
+    }
+
+    /**
+     * Inserts a track with several manual segments and returns the statistics computed by {@link TrackStatisticsUpdater}.
+     * The stored statistics are left empty.
+     */
+    private TrackStatistics insertTrackWithSegments(Track.Id trackId, int segments, int pointsPerSegment) {
+        Track track = TestDataUtil.createTrack(trackId);
+        contentProviderUtils.insertTrack(track);
+        trackIds.add(trackId);
+
+        List<TrackPoint> trackPoints = new ArrayList<>(segments * pointsPerSegment);
+        int i = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            trackPoints.add(TestDataUtil.createTrackPoint(i++, TrackPoint.Type.SEGMENT_START_MANUAL));
+            for (int point = 0; point < pointsPerSegment; point++) {
+                trackPoints.add(TestDataUtil.createTrackPoint(i++));
+            }
+            trackPoints.add(TestDataUtil.createTrackPoint(i++, TrackPoint.Type.SEGMENT_END_MANUAL));
+        }
+        contentProviderUtils.bulkInsertTrackPoint(trackPoints, trackId);
+
+        TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+        trackStatisticsUpdater.addTrackPoints(TestDataUtil.getTrackPoints(contentProviderUtils, trackId));
+        return trackStatisticsUpdater.getTrackStatistics();
+    }
+}
@@ -1,7 +1,9 @@
 package de.dennisguse.opentracks.stats;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
@@ -15,6 +17,8 @@ import java.util.List;
 import de.dennisguse.opentracks.content.data.TestDataUtil;
 import de.dennisguse.opentracks.data.models.Altitude;
 import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
@@ -265,6 +269,102 @@ public class TrackStatisticsUpdaterTest {
         assertEquals(Distance.of(1040), subject.getTrackStatistics().getTotalDistance());
     }
 
+    @Test
+    public void addTrackPoint_heartRateZones() {
+        // given
+        TrackStatisticsUpdater subject = new TrackStatisticsUpdater();
+        subject.setHeartRateZones(new HeartRateZones(HeartRate.of(200)));
+
+        // when
+        subject.addTrackPoints(List.of(
+                new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(10))
+                        .setHeartRate(100),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(20))
+                        .setHeartRate(150),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(25))
+                        .setHeartRate(190),
+                new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(30))
+        ));
+
+        // then
+        TrackStatistics statistics = subject.getTrackStatistics();
+        assertTrue(statistics.hasHeartRateZoneTimes());
+        assertEquals(Duration.ofSeconds(10), statistics.getHeartRateZoneTime(1));
+        assertEquals(Duration.ZERO, statistics.getHeartRateZoneTime(2));
+        assertEquals(Duration.ofSeconds(10), statistics.getHeartRateZoneTime(3));
+        assertEquals(Duration.ZERO, statistics.getHeartRateZoneTime(4));
+        assertEquals(Duration.ofSeconds(5), statistics.getHeartRateZoneTime(5));
+    }
+
+    @Test
+    public void addTrackPoint_heartRateZones_withoutZones() {
+        // given
+        TrackStatisticsUpdater subject = new TrackStatisticsUpdater();
+
+        // when
+        subject.addTrackPoints(List.of(
+                new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)),
+                new TrackPoint(TrackPoint.Type.TRACKPOINT, Instant.ofEpochSecond(10))
+                        .setHeartRate(100),
+                new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(20))
+        ));
+
+        // then
+        assertFalse(subject.getTrackStatistics().hasHeartRateZoneTimes());
+    }
+
+    @Test
+    public void addTrackPoint_quantileSketches() {
+        // given
+        TrackStatisticsUpdater subject = new TrackStatisticsUpdater();
+        subject.setQuantileSketches(true);
+
+        // when: about 100m per trackPoint and 10m downhill (i.e., -10%)
+        subject.addTrackPoints(List.of(
+                new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)),
+                new TrackPoint(0, 0, Altitude.WGS84.of(1000), Instant.ofEpochSecond(10))
+                        .setSpeed(Speed.of(5))
+                        .setHeartRate(100),
+                new TrackPoint(0.0009, 0, Altitude.WGS84.of(990), Instant.ofEpochSecond(20))
+                        .setSpeed(Speed.of(10))
+                        .setHeartRate(150),
+                new TrackPoint(0.0018, 0, Altitude.WGS84.of(980), Instant.ofEpochSecond(30))
+                        .setSpeed(Speed.of(10))
+                        .setHeartRate(150),
+                new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(40))
+        ));
+
+        // then
+        TrackStatistics statistics = subject.getTrackStatistics();
+        assertEquals(5, statistics.getSpeedQuantile(0.1).toMPS(), 0.01);
+        assertEquals(10, statistics.getSpeedQuantile(0.9).toMPS(), 0.01);
+        assertEquals(100, statistics.getHeartRateQuantile(0.1).getBPM(), 0.01);
+        assertEquals(150, statistics.getHeartRateQuantile(0.9).getBPM(), 0.01);
+        assertEquals(-10, statistics.getSlopeQuantile(0.5), 0.1);
+        assertEquals(200, statistics.getSlopeSketch().getTotalWeight(), 1);
+    }
+
+    @Test
+    public void addTrackPoint_quantileSketches_disabled() {
+        // given
+        TrackStatisticsUpdater subject = new TrackStatisticsUpdater();
+
+        // when
+        subject.addTrackPoints(List.of(
+                new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, Instant.ofEpochSecond(0)),
+                new TrackPoint(0, 0, Altitude.WGS84.of(1000), Instant.ofEpochSecond(10))
+                        .setSpeed(Speed.of(5))
+                        .setHeartRate(100),
+                new TrackPoint(TrackPoint.Type.SEGMENT_END_MANUAL, Instant.ofEpochSecond(20))
+        ));
+
+        // then
+        assertNull(subject.getTrackStatistics().getSpeedQuantile(0.5));
+        assertNull(subject.getTrackStatistics().getHeartRateQuantile(0.5));
+        assertNull(subject.getTrackStatistics().getSlopeQuantile(0.5));
+    }
+
     @Test
     public void copy_constructor() {
         // given
@@ -0,0 +1,137 @@
+package de.dennisguse.opentracks.ui.aggregatedStatistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.OperationApplicationException;
+import android.os.RemoteException;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackSelection;
+import de.dennisguse.opentracks.data.UUIDUtils;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
+import de.dennisguse.opentracks.stats.TrackStatistics;
+
+@RunWith(AndroidJUnit4.class)
+public class AggregatedStatisticsLoadTest {
+
+    private static final String TAG = AggregatedStatisticsLoadTest.class.getSimpleName();
+
+    private static final String[] ACTIVITY_TYPES = {"skiing", "biking", "running", "walking"};
+
+    private static final long START_TIME = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    @Before
+    @After
+    public void setUp() {
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    @Test
+    public void load_sameAsAggregatingTracks() throws RemoteException, OperationApplicationException {
+        // given
+        insertTracks(100);
+        TrackSelection selection = new TrackSelection()
+                .addActivityType("skiing")
+                .addActivityType("biking")
+                .addDateRange(Instant.ofEpochMilli(START_TIME), Instant.ofEpochMilli(START_TIME + 80 * 3600000L));
+
+        // when
+        AggregatedStatistics expected = new AggregatedStatistics(contentProviderUtils.getTracks(selection));
+        AggregatedStatistics actual = AggregatedStatistics.load(contentProviderUtils, selection);
+
+        // then
+        assertAggregatedStatistics(expected, actual);
+        assertNull(actual.get("running"));
+    }
+
+    @Test
+    public void load_benchmark() throws RemoteException, OperationApplicationException {
+        // given
+        insertTracks(10000);
+        TrackSelection selection = new TrackSelection();
+
+        // when
+        long start = System.nanoTime();
+        AggregatedStatistics expected = new AggregatedStatistics(contentProviderUtils.getTracks(selection));
+        long tracksDuration = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        AggregatedStatistics actual = AggregatedStatistics.load(contentProviderUtils, selection);
+        long loadDuration = System.nanoTime() - start;
+
+        // then
+        Log.i(TAG, "Aggregating 10000 tracks: loading tracks " + tracksDuration / 1000000 + "ms; in database " + loadDuration / 1000000 + "ms.");
+        assertAggregatedStatistics(expected, actual);
+    }
+
+    private void insertTracks(int count) throws RemoteException, OperationApplicationException {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long startTime = START_TIME + i * 3600000L;
+            ContentValues values = new ContentValues();
+            values.put(TracksColumns.UUID, UUIDUtils.toBytes(UUID.randomUUID()));
+            values.put(TracksColumns.NAME, "Track " + i);
+            values.put(TracksColumns.ACTIVITY_TYPE_LOCALIZED, ACTIVITY_TYPES[i % ACTIVITY_TYPES.length]);
+            values.put(TracksColumns.STARTTIME, startTime);
+            values.put(TracksColumns.STARTTIME_OFFSET, 0);
+            values.put(TracksColumns.STOPTIME, startTime + 1800000L);
+            values.put(TracksColumns.TOTALDISTANCE, 1000 + i % 7 * 100);
+            values.put(TracksColumns.TOTALTIME, 1800000L);
+            values.put(TracksColumns.MOVINGTIME, 1500000L - i % 5 * 1000);
+            values.put(TracksColumns.MAXSPEED, 5 + i % 11);
+            values.put(TracksColumns.MIN_ALTITUDE, 500 - i % 13);
+            values.put(TracksColumns.MAX_ALTITUDE, 800 + i % 17);
+            values.put(TracksColumns.ALTITUDE_GAIN, 100 + i % 3);
+            values.put(TracksColumns.ALTITUDE_LOSS, 90 + i % 3);
+            operations.add(ContentProviderOperation.newInsert(TracksColumns.CONTENT_URI).withValues(values).build());
+        }
+        context.getContentResolver().applyBatch(ContentProviderUtils.AUTHORITY_PACKAGE, operations);
+    }
+
+    private static void assertAggregatedStatistics(AggregatedStatistics expected, AggregatedStatistics actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        for (int i = 0; i < expected.getCount(); i++) {
+            AggregatedStatistics.AggregatedStatistic expectedItem = expected.getItem(i);
+            AggregatedStatistics.AggregatedStatistic actualItem = actual.getItem(i);
+            assertEquals(expectedItem.getActivityTypeLocalized(), actualItem.getActivityTypeLocalized());
+            assertEquals(expectedItem.getCountTracks(), actualItem.getCountTracks());
+
+            TrackStatistics expectedStatistics = expectedItem.getTrackStatistics();
+            TrackStatistics actualStatistics = actualItem.getTrackStatistics();
+            assertEquals(expectedStatistics.getStartTime(), actualStatistics.getStartTime());
+            assertEquals(expectedStatistics.getStopTime(), actualStatistics.getStopTime());
+            assertEquals(expectedStatistics.getTotalDistance().toM(), actualStatistics.getTotalDistance().toM(), 0.01);
+            assertEquals(expectedStatistics.getTotalTime(), actualStatistics.getTotalTime());
+            assertEquals(expectedStatistics.getMovingTime(), actualStatistics.getMovingTime());
+            assertEquals(expectedStatistics.getMaxSpeed().toMPS(), actualStatistics.getMaxSpeed().toMPS(), 0.01);
+            assertEquals(expectedStatistics.getMinAltitude(), actualStatistics.getMinAltitude(), 0.01);
+            assertEquals(expectedStatistics.getMaxAltitude(), actualStatistics.getMaxAltitude(), 0.01);
+            assertEquals(expectedStatistics.getTotalAltitudeGain(), actualStatistics.getTotalAltitudeGain(), 0.01);
+            assertEquals(expectedStatistics.getTotalAltitudeLoss(), actualStatistics.getTotalAltitudeLoss(), 0.01);
+
+            Instant since = Instant.ofEpochMilli(START_TIME + 50 * 3600000L);
+            assertEquals(expectedItem.getDistanceSince(since).toM(), actualItem.getDistanceSince(since).toM(), 0.01);
+        }
+    }
+}
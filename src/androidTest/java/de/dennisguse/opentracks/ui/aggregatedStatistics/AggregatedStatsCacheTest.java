@@ -0,0 +1,203 @@
+package de.dennisguse.opentracks.ui.aggregatedStatistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import de.dennisguse.opentracks.data.TrackSelection;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.stats.TrackStatistics;
+
+@RunWith(AndroidJUnit4.class)
+public class AggregatedStatsCacheTest {
+
+    private final AggregatedStatsCache subject = new AggregatedStatsCache(AggregatedStatsCache.MAX_SIZE_BYTES);
+
+    private static Track createTrack(String activityTypeLocalized, long startTime_ms, Distance totalDistance, Duration totalTime) {
+        TrackStatistics statistics = new TrackStatistics();
+        statistics.setStartTime(Instant.ofEpochMilli(startTime_ms));
+        statistics.setStopTime(statistics.getStartTime().plus(totalTime));
+        statistics.setTotalTime(totalTime);
+        statistics.setMovingTime(totalTime);
+        statistics.setTotalDistance(totalDistance);
+        statistics.setTotalAltitudeGain(50.0f);
+        statistics.setMaxSpeed(Speed.of(50.0));
+        statistics.setMaxAltitude(1250.0);
+        statistics.setMinAltitude(1200.0);
+        statistics.setAverageHeartRate(HeartRate.of(120));
+        statistics.setHeartRateZoneTime(2, totalTime.dividedBy(4));
+        statistics.setHeartRateZoneTime(3, totalTime.dividedBy(2));
+        statistics.setTotalCalories(totalTime.toMinutes() * 10d);
+
+        Track track = new Track();
+        track.setActivityTypeLocalized(activityTypeLocalized);
+        track.setTrackStatistics(statistics);
+        return track;
+    }
+
+    private static AggregatedStatistics createAggregatedStatistics() {
+        return new AggregatedStatistics(List.of(
+                createTrack("skiing", 1000, Distance.of(10000), Duration.ofMinutes(40)),
+                createTrack("skiing", 5000000, Distance.of(5000), Duration.ofMinutes(20)),
+                createTrack("biking", 9000000, Distance.of(20000), Duration.ofMinutes(60))
+        ));
+    }
+
+    @Test
+    public void writeRead() throws IOException {
+        // given
+        AggregatedStatistics aggregatedStatistics = createAggregatedStatistics();
+
+        // when
+        AggregatedStatistics restored = AggregatedStatsCache.read(AggregatedStatsCache.write(aggregatedStatistics));
+
+        // then
+        assertEquals(aggregatedStatistics.getCount(), restored.getCount());
+        for (int i = 0; i < aggregatedStatistics.getCount(); i++) {
+            AggregatedStatistics.AggregatedStatistic expected = aggregatedStatistics.getItem(i);
+            AggregatedStatistics.AggregatedStatistic actual = restored.getItem(i);
+            assertEquals(expected.getActivityTypeLocalized(), actual.getActivityTypeLocalized());
+            assertEquals(expected.getCountTracks(), actual.getCountTracks());
+            assertEquals(expected.getTrackStatistics(), actual.getTrackStatistics());
+            assertTrue(actual.getTrackStatistics().hasHeartRateZoneTimes());
+            for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+                assertEquals(expected.getTrackStatistics().getHeartRateZoneTime(zone), actual.getTrackStatistics().getHeartRateZoneTime(zone));
+            }
+            assertEquals(expected.getTrackStatistics().getTotalCalories(), actual.getTrackStatistics().getTotalCalories());
+            assertEquals(expected.getDistanceSince(Instant.EPOCH), actual.getDistanceSince(Instant.EPOCH));
+            assertEquals(expected.getDistanceSince(Instant.ofEpochMilli(5000000)), actual.getDistanceSince(Instant.ofEpochMilli(5000000)));
+        }
+    }
+
+    @Test
+    public void writeRead_withoutAltitude() throws IOException {
+        // given
+        Track track = new Track();
+        track.setActivityTypeLocalized("walking");
+        AggregatedStatistics aggregatedStatistics = new AggregatedStatistics(List.of(track));
+
+        // when
+        AggregatedStatistics restored = AggregatedStatsCache.read(AggregatedStatsCache.write(aggregatedStatistics));
+
+        // then
+        TrackStatistics statistics = restored.get("walking").getTrackStatistics();
+        assertEquals(track.getTrackStatistics(), statistics);
+        assertFalse(statistics.hasAltitudeMin());
+        assertNull(statistics.getTotalAltitudeGain());
+        assertFalse(statistics.hasHeartRateZoneTimes());
+        assertFalse(statistics.hasTotalCalories());
+    }
+
+    @Test
+    public void hash_independentOfOrder() {
+        // given
+        TrackSelection selection1 = new TrackSelection()
+                .addTrackId(new Track.Id(1))
+                .addTrackId(new Track.Id(2))
+                .addActivityType("skiing")
+                .addActivityType("biking");
+        TrackSelection selection2 = new TrackSelection()
+                .addActivityType("biking")
+                .addActivityType("skiing")
+                .addTrackId(new Track.Id(2))
+                .addTrackId(new Track.Id(1));
+
+        // then
+        assertEquals(AggregatedStatsCache.hash(selection1), AggregatedStatsCache.hash(selection2));
+        assertEquals(AggregatedStatsCache.hash(null), AggregatedStatsCache.hash(new TrackSelection()));
+        assertNotSameHash(selection1, new TrackSelection().addTrackId(new Track.Id(1)).addTrackId(new Track.Id(2)));
+        assertNotSameHash(new TrackSelection().addActivityType("a,b"), new TrackSelection().addActivityType("a").addActivityType("b"));
+        assertNotSameHash(new TrackSelection().addDateRange(Instant.ofEpochMilli(0), Instant.ofEpochMilli(1)), new TrackSelection());
+    }
+
+    @Test
+    public void get_cached() {
+        // given
+        TrackSelection selection = new TrackSelection().addActivityType("skiing");
+        subject.put(selection, subject.getVersion(), createAggregatedStatistics());
+
+        // when
+        AggregatedStatistics cached1 = subject.get(new TrackSelection().addActivityType("skiing"));
+        AggregatedStatistics cached2 = subject.get(selection);
+
+        // then
+        assertNotNull(cached1);
+        assertNotNull(cached2);
+        assertNotSame(cached1, cached2);
+        assertEquals(2, cached1.get("skiing").getCountTracks());
+        assertNull(subject.get(new TrackSelection().addActivityType("biking")));
+    }
+
+    @Test
+    public void get_afterInvalidate() {
+        // given
+        TrackSelection selection = new TrackSelection();
+        subject.put(selection, subject.getVersion(), createAggregatedStatistics());
+
+        // when
+        subject.invalidate();
+
+        // then
+        assertNull(subject.get(selection));
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    public void put_staleVersionIgnored() {
+        // given
+        TrackSelection selection = new TrackSelection();
+        long version = subject.getVersion();
+        subject.invalidate();
+
+        // when
+        subject.put(selection, version, createAggregatedStatistics());
+
+        // then
+        assertNull(subject.get(selection));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() throws IOException {
+        // given
+        AggregatedStatistics aggregatedStatistics = createAggregatedStatistics();
+        int size = AggregatedStatsCache.write(aggregatedStatistics).length;
+        AggregatedStatsCache subject = new AggregatedStatsCache(2 * size);
+        TrackSelection selection1 = new TrackSelection().addTrackId(new Track.Id(1));
+        TrackSelection selection2 = new TrackSelection().addTrackId(new Track.Id(2));
+        TrackSelection selection3 = new TrackSelection().addTrackId(new Track.Id(3));
+
+        // when
+        subject.put(selection1, subject.getVersion(), aggregatedStatistics);
+        subject.put(selection2, subject.getVersion(), aggregatedStatistics);
+        subject.get(selection1);
+        subject.put(selection3, subject.getVersion(), aggregatedStatistics);
+
+        // then
+        assertNotNull(subject.get(selection1));
+        assertNull(subject.get(selection2));
+        assertNotNull(subject.get(selection3));
+        assertEquals(2 * size, subject.size());
+    }
+
+    private static void assertNotSameHash(TrackSelection selection1, TrackSelection selection2) {
+        assertNotEquals(AggregatedStatsCache.hash(selection1), AggregatedStatsCache.hash(selection2));
+    }
+}
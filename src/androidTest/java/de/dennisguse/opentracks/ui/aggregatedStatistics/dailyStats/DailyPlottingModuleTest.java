@@ -1,5 +1,8 @@
 package de.dennisguse.opentracks.ui.aggregatedStatistics.dailyStats;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Test;
 
 import java.util.ArrayList; // import the ArrayList class
@@ -13,22 +16,26 @@ public class DailyPlottingModuleTest {
         DailyPlottingModule plotModule = new DailyPlottingModule();
         List<Entry> test_entries = new ArrayList<Entry>();
         for (float i = 1f; i <= 10f; i++) {
-            test_entries.add(new Entry(i, i));
+            test_entries.add(new Entry(i, i * i));
         }
         int frequency = 3;
-        System.out.println("************************");
-        System.out.println("ORIGINAL DATA ENTRIES:");
-        System.out.println("************************");
-        for (int i = 0; i < test_entries.size(); i++)
-            System.out.println(test_entries.get(i).toString());
-
-        System.out.println("\n************************");
-        System.out.println("MOVING AVERAGE DATA ENTRIES FOR FREQUENCY = " + frequency + " :");
-        System.out.println("************************");
+
         List<Entry> results = plotModule.getMovingAverage(test_entries, frequency);
-        for (int i = 0; i < results.size(); i++)
-            System.out.println(results.get(i).toString());
 
+        assertEquals(8, results.size());
+        for (int e = 0; e < results.size(); e++) {
+            float x = e + 2;
+            float y = ((x - 1) * (x - 1) + x * x + (x + 1) * (x + 1)) / 3;
+            assertEquals(x, results.get(e).getX(), 0.0001);
+            assertEquals(y, results.get(e).getY(), 0.0001);
+        }
+    }
+
+    @Test
+    public void movingAverageTooFewEntries() {
+        DailyPlottingModule plotModule = new DailyPlottingModule();
+        List<Entry> test_entries = List.of(new Entry(1, 1), new Entry(2, 2));
 
+        assertTrue(plotModule.getMovingAverage(test_entries, 3).isEmpty());
     }
 }
@@ -0,0 +1,112 @@
+package de.dennisguse.opentracks.ui.aggregatedStatistics.dailyStats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
+
+@RunWith(AndroidJUnit4.class)
+public class DailyRunsProviderTest {
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    @Before
+    @After
+    public void setUp() {
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    @Test
+    public void load_perDay() {
+        // given - the second track is on the next day in its time zone
+        Instant day1 = Instant.parse("2024-01-15T08:00:00Z");
+        Instant day2 = Instant.parse("2024-01-15T23:00:00Z");
+        Track.Id trackId1 = insertTrack(1, ZoneOffset.UTC, day1);
+        Track.Id trackId2 = insertTrack(2, ZoneOffset.ofHours(2), day2);
+
+        contentProviderUtils.replaceSkiSegments(trackId1, null, List.of(
+                createSkiSegment(SkiSegmentDetector.Activity.RUN, day1, 100, 1000, 200),
+                createSkiSegment(SkiSegmentDetector.Activity.LIFT, day1.plusSeconds(100), 400, 1200, 0),
+                createSkiSegment(SkiSegmentDetector.Activity.WAIT, day1.plusSeconds(500), 60, 0, 0),
+                createSkiSegment(SkiSegmentDetector.Activity.RUN, day1.plusSeconds(560), 100, 1000, 100)
+        ));
+        contentProviderUtils.replaceSkiSegments(trackId2, null, List.of(
+                createSkiSegment(SkiSegmentDetector.Activity.RUN, day2, 50, 500, 50)
+        ));
+
+        // when
+        List<RunVM> dailyRuns = DailyRunsProvider.load(contentProviderUtils);
+
+        // then
+        assertEquals(2, dailyRuns.size());
+
+        RunVM first = dailyRuns.get(0);
+        assertEquals(LocalDate.of(2024, 1, 15).toEpochDay(), first.getId());
+        assertEquals(2000, first.getTotalDistance(), 0.01);
+        assertEquals(10, first.getAvgSpeed(), 0.01);
+        assertEquals(0.15, first.getAvgSlope(), 0.001);
+        assertEquals(3, first.getChairliftSpeed(), 0.01);
+
+        RunVM second = dailyRuns.get(1);
+        assertEquals(LocalDate.of(2024, 1, 16).toEpochDay(), second.getId());
+        assertEquals(500, second.getTotalDistance(), 0.01);
+        assertEquals(10, second.getAvgSpeed(), 0.01);
+        assertEquals(0.1, second.getAvgSlope(), 0.001);
+        assertEquals(0, second.getChairliftSpeed(), 0.01);
+    }
+
+    @Test
+    public void getAllDailyRuns_invalidate() {
+        // given
+        DailyRunsProvider subject = new DailyRunsProvider(contentProviderUtils);
+        assertTrue(subject.getAllDailyRuns().isEmpty());
+
+        Instant day = Instant.parse("2024-01-15T08:00:00Z");
+        Track.Id trackId = insertTrack(1, ZoneOffset.UTC, day);
+        contentProviderUtils.replaceSkiSegments(trackId, null, List.of(
+                createSkiSegment(SkiSegmentDetector.Activity.RUN, day, 100, 1000, 200)
+        ));
+
+        // then - cached
+        assertTrue(subject.getAllDailyRuns().isEmpty());
+
+        // when
+        subject.invalidate();
+
+        // then
+        assertEquals(1, subject.getAllDailyRuns().size());
+    }
+
+    private Track.Id insertTrack(long id, ZoneOffset zoneOffset, Instant startTime) {
+        Track track = new Track(zoneOffset);
+        track.setId(new Track.Id(id));
+        track.setName("Test: " + id);
+        track.getTrackStatistics().setStartTime(startTime);
+        return contentProviderUtils.insertTrack(track);
+    }
+
+    private static SkiSegmentDetector.Segment createSkiSegment(SkiSegmentDetector.Activity activity, Instant startTime, long duration_s, double distance_m, float loss_m) {
+        return new SkiSegmentDetector.Segment(activity, startTime, startTime.plusSeconds(duration_s), Distance.of(distance_m), 0, loss_m, Speed.of(10), null, null);
+    }
+}
@@ -141,6 +141,45 @@ public class IntervalStatisticsTest {
         whenAndThen(trackWithStats, numberOfPoints, distanceInterval);
     }
 
+    @Test
+    public void testIncremental() {
+        // given
+        float distanceInterval = 1000f;
+        int numberOfPoints = 1000;
+        Track dummyTrack = new Track();
+        dummyTrack.setId(new Track.Id(System.currentTimeMillis()));
+        contentProviderUtils.insertTrack(dummyTrack);
+        for (int i = 0; i < numberOfPoints / 2; i++) {
+            contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(i), dummyTrack.getId());
+        }
+
+        IntervalStatistics incremental = new IntervalStatistics(Distance.of(distanceInterval));
+        TrackPoint.Id lastTrackPointId;
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(dummyTrack.getId(), null)) {
+            lastTrackPointId = incremental.addTrackPoints(trackPointIterator);
+        }
+
+        // when
+        for (int i = numberOfPoints / 2; i < numberOfPoints; i++) {
+            contentProviderUtils.insertTrackPoint(TestDataUtil.createTrackPoint(i), dummyTrack.getId());
+        }
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(dummyTrack.getId(), lastTrackPointId)) {
+            incremental.addTrackPoints(trackPointIterator);
+        }
+
+        // then
+        IntervalStatistics full = new IntervalStatistics(Distance.of(distanceInterval));
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(dummyTrack.getId(), null)) {
+            full.addTrackPoints(trackPointIterator);
+        }
+
+        assertEquals(full.getIntervalList().size(), incremental.getIntervalList().size());
+        for (int i = 0; i < full.getIntervalList().size(); i++) {
+            assertEquals(full.getIntervalList().get(i).getDistance().toM(), incremental.getIntervalList().get(i).getDistance().toM(), 0.01);
+            assertEquals(full.getIntervalList().get(i).getGain_m(), incremental.getIntervalList().get(i).getGain_m(), 0.01);
+        }
+    }
+
     private void whenAndThen(int numberOfPoints, float distanceInterval) {
         Pair<Track.Id, TrackStatistics> trackWithStats = TestDataUtil.buildTrackWithTrackPoints(contentProviderUtils, numberOfPoints);
         whenAndThen(trackWithStats, numberOfPoints, distanceInterval);
@@ -0,0 +1,185 @@
+package de.dennisguse.opentracks.ui.leaderboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentUris;
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.json.JSONException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.Ranking;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
+
+@RunWith(AndroidJUnit4.class)
+public class RankingEngineTest {
+
+    private static final Instant DAY1 = Instant.parse("2024-01-15T08:00:00Z");
+    private static final Instant DAY2 = Instant.parse("2024-01-16T08:00:00Z");
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    private final ContentProviderUtils contentProviderUtils = new ContentProviderUtils(context);
+
+    private final RankingEngine subject = new RankingEngine(contentProviderUtils, "You");
+
+    @Before
+    @After
+    public void setUp() {
+        contentProviderUtils.deleteAllTracks(context);
+    }
+
+    @Test
+    public void getRankings() {
+        // given
+        insertTrack(1, DAY1, 5000, 800);
+        insertTrack(2, DAY1.plusSeconds(3600), 3000, 1200);
+        insertTrack(3, DAY2, 7000, 500);
+
+        // when
+        List<Ranking> distance = subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 2);
+        List<Ranking> vertical = subject.getRankings(RankingEngine.Leaderboard.VERTICAL, 10);
+        List<Ranking> day = subject.getRankings(RankingEngine.Leaderboard.DAY, 10);
+
+        // then
+        assertRankings(distance, 7000, 5000);
+        assertRankings(vertical, 1200, 800, 500);
+        assertRankings(day, 8000, 7000);
+        assertEquals("You", day.get(0).getUsername());
+        assertEquals(LocalDate.of(2024, 1, 15).toString(), day.get(0).getLocation());
+        assertEquals("Track 3", distance.get(0).getLocation());
+    }
+
+    @Test
+    public void onTracksChanged_updatesSingleTrack() {
+        // given
+        Track.Id trackId1 = insertTrack(1, DAY1, 5000, 800);
+        insertTrack(2, DAY2, 3000, 1200);
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10), 5000, 3000);
+
+        // when - a track is updated, another track is inserted without notifying the engine
+        Track track1 = contentProviderUtils.getTrack(trackId1);
+        track1.getTrackStatistics().setTotalDistance(Distance.of(1000));
+        contentProviderUtils.updateTrack(track1);
+        insertTrack(3, DAY2, 9000, 100);
+        subject.onTracksChanged(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId1.id()));
+
+        // then - only the updated track was reloaded
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10), 3000, 1000);
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DAY, 10), 3000, 1000);
+
+        // when - only the statistics of a track are updated
+        track1.getTrackStatistics().setTotalDistance(Distance.of(2000));
+        contentProviderUtils.updateTrackStatistics(trackId1, track1.getTrackStatistics());
+        subject.onTracksChanged(ContentUris.withAppendedId(TracksColumns.CONTENT_URI_STATISTICS, trackId1.id()));
+
+        // then
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10), 3000, 2000);
+
+        // when - a track is deleted
+        contentProviderUtils.deleteTrack(context, trackId1);
+        subject.onTracksChanged(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId1.id()));
+
+        // then
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10), 3000);
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DAY, 10), 3000);
+
+        // when - unknown changes
+        subject.onTracksChanged(TracksColumns.CONTENT_URI);
+
+        // then
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10), 9000, 3000);
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DAY, 10), 12000);
+    }
+
+    @Test
+    public void setFriends() throws IOException, JSONException {
+        // given
+        insertTrack(1, DAY1, 5000, 800);
+        String json = "[{\"username\": \"Alice\", \"location\": \"Tremblant\", \"day\": \"2024-01-15\", \"distance\": 6000, \"vertical\": 900},"
+                + "{\"username\": \"Alice\", \"location\": \"Tremblant\", \"day\": \"2024-01-15\", \"distance\": 1000, \"vertical\": 100},"
+                + "{\"username\": \"Bob\", \"distance\": 4000}]";
+
+        // when
+        List<RankingEngine.Summary> friends = RankingEngine.readFriends(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        subject.setFriends(friends);
+
+        // then
+        assertEquals(3, friends.size());
+        assertNull(friends.get(2).day());
+
+        List<Ranking> distance = subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10);
+        assertRankings(distance, 6000, 5000, 4000, 1000);
+        assertEquals("Alice", distance.get(0).getUsername());
+        assertEquals("Tremblant", distance.get(0).getLocation());
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DAY, 10), 7000, 5000);
+
+        // when - replaced
+        subject.setFriends(List.of());
+
+        // then
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DISTANCE, 10), 5000);
+        assertRankings(subject.getRankings(RankingEngine.Leaderboard.DAY, 10), 5000);
+    }
+
+    @Test(expected = JSONException.class)
+    public void readFriends_invalidDay() throws IOException, JSONException {
+        RankingEngine.readFriends(new ByteArrayInputStream("[{\"username\": \"Alice\", \"day\": \"yesterday\"}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void rankedEntries_sameScoreSameRank() {
+        // given
+        RankedEntries rankedEntries = new RankedEntries();
+        rankedEntries.put("a", "A", "", 10);
+        rankedEntries.put("b", "B", "", 20);
+        rankedEntries.put("c", "C", "", 10);
+        rankedEntries.put("d", "D", "", 5);
+
+        // when
+        rankedEntries.put("b", "B", "", 1);
+        List<Ranking> rankings = rankedEntries.top(10);
+
+        // then
+        assertEquals(4, rankedEntries.size());
+        assertEquals(List.of(1, 1, 3, 4), rankings.stream().map(Ranking::getRank).collect(Collectors.toList()));
+        assertEquals("B", rankings.get(3).getUsername());
+        assertTrue(rankedEntries.top(0).isEmpty());
+    }
+
+    private Track.Id insertTrack(long id, Instant startTime, double distance_m, float altitudeLoss_m) {
+        Track track = new Track();
+        track.setId(new Track.Id(id));
+        track.setName("Track " + id);
+        track.getTrackStatistics().setStartTime(startTime);
+        track.getTrackStatistics().setTotalDistance(Distance.of(distance_m));
+        track.getTrackStatistics().setTotalAltitudeLoss(altitudeLoss_m);
+        return contentProviderUtils.insertTrack(track);
+    }
+
+    private static void assertRankings(List<Ranking> rankings, double... scores) {
+        assertEquals(scores.length, rankings.size());
+        for (int i = 0; i < scores.length; i++) {
+            assertEquals(scores[i], rankings.get(i).getScore(), 0.01);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package de.dennisguse.opentracks.util;
+
+import static org.junit.Assert.assertEquals;
+
+import android.location.Location;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class LocationUtilsTest {
+
+    // latitude1, longitude1, latitude2, longitude2
+    private static final double[][] LOCATIONS = {
+            {46.0, 7.0, 46.0, 7.0},
+            {46.0, 7.0, 46.00001, 7.0},
+            {46.0, 7.0, 46.001, 7.001},
+            {47.3769, 8.5417, 46.9480, 7.4474},
+            {-37.95103, 144.42487, -37.65282, 143.92650},
+            {0.0, -179.999, 0.0, 179.999},
+            {89.9, 0.0, 89.9, 180.0},
+            {52.5200, 13.4050, 40.7128, -74.0060},
+    };
+
+    @Test
+    public void distance_consistentWithLocation() {
+        for (double[] locations : LOCATIONS) {
+            // given
+            Location location1 = createLocation(locations[0], locations[1]);
+            Location location2 = createLocation(locations[2], locations[3]);
+
+            // when
+            double distance_m = LocationUtils.distance(locations[0], locations[1], locations[2], locations[3]);
+
+            // then
+            float expected_m = location1.distanceTo(location2);
+            assertEquals(expected_m, distance_m, Math.max(0.01, expected_m * 1e-6));
+        }
+    }
+
+    @Test
+    public void bearing_consistentWithLocation() {
+        for (double[] locations : LOCATIONS) {
+            // given
+            Location location1 = createLocation(locations[0], locations[1]);
+            Location location2 = createLocation(locations[2], locations[3]);
+
+            // when
+            double bearing = LocationUtils.bearing(locations[0], locations[1], locations[2], locations[3]);
+
+            // then
+            assertEquals(location1.bearingTo(location2), bearing, 0.001);
+        }
+    }
+
+    @Test
+    public void distance_vincentyReference() {
+        // Flinders Peak to Buninyong; see Vincenty (1975)
+        double latitude1 = -(37 + 57 / 60.0 + 3.72030 / 3600);
+        double longitude1 = 144 + 25 / 60.0 + 29.52440 / 3600;
+        double latitude2 = -(37 + 39 / 60.0 + 10.15610 / 3600);
+        double longitude2 = 143 + 55 / 60.0 + 35.38390 / 3600;
+
+        assertEquals(54972.271, LocationUtils.distance(latitude1, longitude1, latitude2, longitude2), 0.001);
+        assertEquals(306 + 52 / 60.0 + 5.37 / 3600 - 360, LocationUtils.bearing(latitude1, longitude1, latitude2, longitude2), 0.00001);
+    }
+
+    @Test
+    public void distanceE6() {
+        assertEquals(LocationUtils.distance(46.0, 7.0, 46.001, 7.001), LocationUtils.distanceE6(46_000_000, 7_000_000, 46_001_000, 7_001_000), 0.001);
+    }
+
+    @Test
+    public void distances() {
+        // given
+        double[] latitudes = {46.0, 46.001, 46.002, 46.002};
+        double[] longitudes = {7.0, 7.0, 7.001, 7.001};
+        double[] distances_m = new double[latitudes.length];
+
+        // when
+        double total_m = LocationUtils.distances(latitudes, longitudes, distances_m);
+
+        // then
+        assertEquals(0, distances_m[0], 0);
+        assertEquals(LocationUtils.distance(46.0, 7.0, 46.001, 7.0), distances_m[1], 0);
+        assertEquals(LocationUtils.distance(46.001, 7.0, 46.002, 7.001), distances_m[2], 0);
+        assertEquals(0, distances_m[3], 0);
+        assertEquals(distances_m[1] + distances_m[2], total_m, 0.0001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void distances_arraySizesDoNotMatch() {
+        LocationUtils.distances(new double[2], new double[2], new double[1]);
+    }
+
+    private static Location createLocation(double latitude, double longitude) {
+        Location location = new Location("");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
@@ -48,6 +48,8 @@ import de.dennisguse.opentracks.data.ContentProviderUtils;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.databinding.TrackListBinding;
 import de.dennisguse.opentracks.services.RecordingStatus;
+import de.dennisguse.opentracks.services.BestEffortsBackfillService;
+import de.dennisguse.opentracks.services.SkiSegmentsBackfillService;
 import de.dennisguse.opentracks.services.TrackRecordingService;
 import de.dennisguse.opentracks.services.TrackRecordingServiceConnection;
 import de.dennisguse.opentracks.services.handlers.GpsStatusValue;
@@ -207,6 +209,12 @@ public class TrackListActivity extends AbstractTrackDeleteActivity implements Co
 
         setSupportActionBar(viewBinding.trackListToolbar);
         adapter.setActionModeCallback(contextualActionModeCallback);
+
+        if (savedInstanceState == null) {
+            // Stores ski segments and best efforts of tracks that have none (e.g., after a database upgrade).
+            SkiSegmentsBackfillService.enqueue(this);
+            BestEffortsBackfillService.enqueue(this);
+        }
     }
 
     private void requestRequiredPermissions() {
@@ -16,14 +16,18 @@
 
 package de.dennisguse.opentracks.data;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.location.Location;
 import android.net.Uri;
+import android.os.RemoteException;
 import android.text.TextUtils;
+import android.util.Pair;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -32,11 +36,17 @@ import androidx.annotation.VisibleForTesting;
 import java.io.File;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import de.dennisguse.opentracks.BuildConfig;
@@ -45,16 +55,27 @@ import de.dennisguse.opentracks.data.models.Altitude;
 import de.dennisguse.opentracks.data.models.Cadence;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
 import de.dennisguse.opentracks.data.models.Marker;
 import de.dennisguse.opentracks.data.models.Power;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.data.tables.BestEffortsColumns;
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
+import de.dennisguse.opentracks.data.tables.SkiSegmentsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
+import de.dennisguse.opentracks.stats.BestEffortsCalculator;
+import de.dennisguse.opentracks.stats.LiftRegistry;
+import de.dennisguse.opentracks.stats.OverallStatistics;
+import de.dennisguse.opentracks.stats.QuantileSketch;
+import de.dennisguse.opentracks.stats.RunMatcher;
 import de.dennisguse.opentracks.stats.SensorStatistics;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 import de.dennisguse.opentracks.stats.TrackStatistics;
+import de.dennisguse.opentracks.stats.TrackStatisticsIndexCache;
 import de.dennisguse.opentracks.ui.markers.MarkerUtils;
 import de.dennisguse.opentracks.util.FileUtils;
 
@@ -114,6 +135,7 @@ public class ContentProviderUtils {
         int maxAltitudeIndex = cursor.getColumnIndexOrThrow(TracksColumns.MAX_ALTITUDE);
         int altitudeGainIndex = cursor.getColumnIndexOrThrow(TracksColumns.ALTITUDE_GAIN);
         int altitudeLossIndex = cursor.getColumnIndexOrThrow(TracksColumns.ALTITUDE_LOSS);
+        int caloriesIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIES);
 
         Track track = new Track(ZoneOffset.ofTotalSeconds(cursor.getInt(startTimeOffsetIndex)));
         TrackStatistics trackStatistics = track.getTrackStatistics();
@@ -166,10 +188,36 @@ public class ContentProviderUtils {
         if (!cursor.isNull(altitudeLossIndex)) {
             trackStatistics.setTotalAltitudeLoss(cursor.getFloat(altitudeLossIndex));
         }
+        if (!cursor.isNull(caloriesIndex)) {
+            trackStatistics.setTotalCalories(cursor.getDouble(caloriesIndex));
+        }
+        readHeartRateZoneTimes(cursor, trackStatistics);
+        readQuantileSketches(cursor, trackStatistics);
 
         return track;
     }
 
+    private static void readHeartRateZoneTimes(Cursor cursor, TrackStatistics trackStatistics) {
+        for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+            int index = cursor.getColumnIndexOrThrow(TracksColumns.HEART_RATE_ZONE_TIMES[zone - 1]);
+            if (!cursor.isNull(index)) {
+                trackStatistics.setHeartRateZoneTime(zone, Duration.ofMillis(cursor.getLong(index)));
+            }
+        }
+    }
+
+    private static void readQuantileSketches(Cursor cursor, TrackStatistics trackStatistics) {
+        trackStatistics.setSpeedSketch(readQuantileSketch(cursor, TracksColumns.SPEED_SKETCH));
+        trackStatistics.setHeartRateSketch(readQuantileSketch(cursor, TracksColumns.HEART_RATE_SKETCH));
+        trackStatistics.setSlopeSketch(readQuantileSketch(cursor, TracksColumns.SLOPE_SKETCH));
+    }
+
+    @Nullable
+    private static QuantileSketch readQuantileSketch(Cursor cursor, String column) {
+        int index = cursor.getColumnIndexOrThrow(column);
+        return cursor.isNull(index) ? null : QuantileSketch.fromBytes(cursor.getBlob(index));
+    }
+
     @VisibleForTesting
     public void deleteAllTracks(Context context) {
         //TODO Both calls should not be necessary
@@ -178,6 +226,7 @@ public class ContentProviderUtils {
 
         // Delete tracks last since it triggers a database vaccum call
         contentResolver.delete(TracksColumns.CONTENT_URI, null, null);
+        TrackStatisticsIndexCache.invalidateAll();
 
         File dir = FileUtils.getPhotoDir(context);
         FileUtils.deleteDirectoryRecurse(dir);
@@ -191,12 +240,23 @@ public class ContentProviderUtils {
 
         String whereClause = String.format(TracksColumns._ID + " IN (%s)", TextUtils.join(",", Collections.nCopies(trackIds.size(), "?")));
         contentResolver.delete(TracksColumns.CONTENT_URI, whereClause, trackIds.stream().map(trackId -> Long.toString(trackId.id())).toArray(String[]::new));
+        trackIds.forEach(this::onTrackDeleted);
     }
 
     public void deleteTrack(Context context, @NonNull Track.Id trackId) {
         // Delete track folder resources.
         FileUtils.deleteDirectoryRecurse(FileUtils.getPhotoDir(context, trackId));
-        contentResolver.delete(TracksColumns.CONTENT_URI, TracksColumns._ID + "=?", new String[]{Long.toString(trackId.id())});
+        contentResolver.delete(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId.id()), null, null);
+        onTrackDeleted(trackId);
+    }
+
+    /**
+     * Evicts the track from the in-memory indices (those are only loaded from the database).
+     */
+    private void onTrackDeleted(@NonNull Track.Id trackId) {
+        TrackStatisticsIndexCache.invalidate(trackId);
+        LiftRegistry.getInstance().remove(trackId);
+        RunMatcher.getInstance().remove(trackId);
     }
 
     //TODO Only use for tests; also move to tests.
@@ -229,6 +289,151 @@ public class ContentProviderUtils {
         return tracks;
     }
 
+    /**
+     * Aggregates the statistics of the selected tracks per activity type in the database.
+     * Each row contains {@link TracksColumns#ACTIVITY_TYPE_LOCALIZED}, {@link TracksColumns#TRACK_COUNT}, and the statistics (see {@link #createTrackStatisticsSummary(Cursor)}).
+     */
+    public Cursor getTrackSummaryCursor(@NonNull ContentProviderSelectionInterface selection) {
+        final String[] PROJECTION = new String[]{
+                "IFNULL(" + TracksColumns.ACTIVITY_TYPE_LOCALIZED + ", '') AS " + TracksColumns.ACTIVITY_TYPE_LOCALIZED,
+                "COUNT(*) AS " + TracksColumns.TRACK_COUNT,
+                "MIN(" + TracksColumns.STARTTIME + ") AS " + TracksColumns.STARTTIME,
+                "MAX(" + TracksColumns.STOPTIME + ") AS " + TracksColumns.STOPTIME,
+                "TOTAL(" + TracksColumns.TOTALDISTANCE + ") AS " + TracksColumns.TOTALDISTANCE,
+                "TOTAL(" + TracksColumns.TOTALTIME + ") AS " + TracksColumns.TOTALTIME,
+                "TOTAL(" + TracksColumns.MOVINGTIME + ") AS " + TracksColumns.MOVINGTIME,
+                "MAX(" + TracksColumns.MAXSPEED + ") AS " + TracksColumns.MAXSPEED,
+                "MIN(" + TracksColumns.MIN_ALTITUDE + ") AS " + TracksColumns.MIN_ALTITUDE,
+                "MAX(" + TracksColumns.MAX_ALTITUDE + ") AS " + TracksColumns.MAX_ALTITUDE,
+                "SUM(" + TracksColumns.ALTITUDE_GAIN + ") AS " + TracksColumns.ALTITUDE_GAIN,
+                "SUM(" + TracksColumns.ALTITUDE_LOSS + ") AS " + TracksColumns.ALTITUDE_LOSS,
+                "SUM(" + TracksColumns.CALORIES + ") AS " + TracksColumns.CALORIES,
+                "SUM(" + TracksColumns.HEART_RATE_ZONE1_TIME + ") AS " + TracksColumns.HEART_RATE_ZONE1_TIME,
+                "SUM(" + TracksColumns.HEART_RATE_ZONE2_TIME + ") AS " + TracksColumns.HEART_RATE_ZONE2_TIME,
+                "SUM(" + TracksColumns.HEART_RATE_ZONE3_TIME + ") AS " + TracksColumns.HEART_RATE_ZONE3_TIME,
+                "SUM(" + TracksColumns.HEART_RATE_ZONE4_TIME + ") AS " + TracksColumns.HEART_RATE_ZONE4_TIME,
+                "SUM(" + TracksColumns.HEART_RATE_ZONE5_TIME + ") AS " + TracksColumns.HEART_RATE_ZONE5_TIME,
+        };
+        SelectionData selectionData = selection.buildSelection();
+        return contentResolver.query(TracksColumns.CONTENT_URI_SUMMARY, PROJECTION, selectionData.selection(), selectionData.selectionArgs(), null);
+    }
+
+    /**
+     * Creates the statistics of a row of {@link #getTrackSummaryCursor(ContentProviderSelectionInterface)}; same as merging the statistics of the tracks.
+     */
+    @NonNull
+    public static TrackStatistics createTrackStatisticsSummary(Cursor cursor) {
+        int startTimeIndex = cursor.getColumnIndexOrThrow(TracksColumns.STARTTIME);
+        int stopTimeIndex = cursor.getColumnIndexOrThrow(TracksColumns.STOPTIME);
+        int totalDistanceIndex = cursor.getColumnIndexOrThrow(TracksColumns.TOTALDISTANCE);
+        int totalTimeIndex = cursor.getColumnIndexOrThrow(TracksColumns.TOTALTIME);
+        int movingTimeIndex = cursor.getColumnIndexOrThrow(TracksColumns.MOVINGTIME);
+        int maxSpeedIndex = cursor.getColumnIndexOrThrow(TracksColumns.MAXSPEED);
+        int minAltitudeIndex = cursor.getColumnIndexOrThrow(TracksColumns.MIN_ALTITUDE);
+        int maxAltitudeIndex = cursor.getColumnIndexOrThrow(TracksColumns.MAX_ALTITUDE);
+        int altitudeGainIndex = cursor.getColumnIndexOrThrow(TracksColumns.ALTITUDE_GAIN);
+        int altitudeLossIndex = cursor.getColumnIndexOrThrow(TracksColumns.ALTITUDE_LOSS);
+        int caloriesIndex = cursor.getColumnIndexOrThrow(TracksColumns.CALORIES);
+
+        TrackStatistics trackStatistics = new TrackStatistics();
+        if (!cursor.isNull(startTimeIndex)) {
+            trackStatistics.setStartTime(Instant.ofEpochMilli(cursor.getLong(startTimeIndex)));
+            if (!cursor.isNull(stopTimeIndex)) {
+                trackStatistics.setStopTime(Instant.ofEpochMilli(cursor.getLong(stopTimeIndex)));
+            }
+        }
+        trackStatistics.setTotalDistance(Distance.of(cursor.getDouble(totalDistanceIndex)));
+        trackStatistics.setTotalTime(Duration.ofMillis(cursor.getLong(totalTimeIndex)));
+        trackStatistics.setMovingTime(Duration.ofMillis(cursor.getLong(movingTimeIndex)));
+        trackStatistics.setAvgMovingSpeed(Speed.of(trackStatistics.getTotalDistance().toM() / trackStatistics.getMovingTime().toSeconds()));
+        if (!cursor.isNull(maxSpeedIndex)) {
+            trackStatistics.setMaxSpeed(Speed.of(cursor.getFloat(maxSpeedIndex)));
+        }
+        if (!cursor.isNull(minAltitudeIndex)) {
+            trackStatistics.setMinAltitude(cursor.getFloat(minAltitudeIndex));
+        }
+        if (!cursor.isNull(maxAltitudeIndex)) {
+            trackStatistics.setMaxAltitude(cursor.getFloat(maxAltitudeIndex));
+        }
+        if (!cursor.isNull(altitudeGainIndex)) {
+            trackStatistics.setTotalAltitudeGain(cursor.getFloat(altitudeGainIndex));
+        }
+        if (!cursor.isNull(altitudeLossIndex)) {
+            trackStatistics.setTotalAltitudeLoss(cursor.getFloat(altitudeLossIndex));
+        }
+        if (!cursor.isNull(caloriesIndex)) {
+            trackStatistics.setTotalCalories(cursor.getDouble(caloriesIndex));
+        }
+        readHeartRateZoneTimes(cursor, trackStatistics);
+        return trackStatistics;
+    }
+
+    /**
+     * Merges the distributions of speed, heart rate, and slope of the selected tracks; only the sketches are loaded (no trackPoint).
+     *
+     * @return statistics with only the quantile sketches set (e.g., use {@link TrackStatistics#getSpeedQuantile(double)}).
+     */
+    @NonNull
+    public TrackStatistics getQuantileSketches(@NonNull ContentProviderSelectionInterface selection) {
+        final String[] PROJECTION = new String[]{
+                TracksColumns.SPEED_SKETCH,
+                TracksColumns.HEART_RATE_SKETCH,
+                TracksColumns.SLOPE_SKETCH
+        };
+        TrackStatistics trackStatistics = new TrackStatistics();
+        SelectionData selectionData = selection.buildSelection();
+        try (Cursor cursor = contentResolver.query(TracksColumns.CONTENT_URI, PROJECTION, selectionData.selection(), selectionData.selectionArgs(), null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                do {
+                    TrackStatistics other = new TrackStatistics();
+                    readQuantileSketches(cursor, other);
+                    trackStatistics.merge(other);
+                } while (cursor.moveToNext());
+            }
+        }
+        return trackStatistics;
+    }
+
+    /**
+     * @param season the start year of the season (see {@link SeasonRollupsColumns}).
+     * @see #getQuantileSketches(ContentProviderSelectionInterface)
+     */
+    @NonNull
+    public TrackStatistics getSeasonQuantileSketches(int season) {
+        Instant from = LocalDate.of(season, Month.JULY, 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = LocalDate.of(season + 1, Month.JULY, 1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1);
+        return getQuantileSketches(new TrackSelection().addDateRange(from, to));
+    }
+
+    /**
+     * Only loads {@link TracksColumns#ACTIVITY_TYPE_LOCALIZED}, {@link TracksColumns#STARTTIME}, and {@link TracksColumns#TOTALDISTANCE} of the selected tracks.
+     */
+    public Cursor getTrackDistanceCursor(@NonNull ContentProviderSelectionInterface selection) {
+        final String[] PROJECTION = new String[]{
+                "IFNULL(" + TracksColumns.ACTIVITY_TYPE_LOCALIZED + ", '') AS " + TracksColumns.ACTIVITY_TYPE_LOCALIZED,
+                TracksColumns.STARTTIME,
+                TracksColumns.TOTALDISTANCE
+        };
+        SelectionData selectionData = selection.buildSelection();
+        return contentResolver.query(TracksColumns.CONTENT_URI, PROJECTION, selectionData.selection(), selectionData.selectionArgs(), TracksColumns._ID);
+    }
+
+    /**
+     * Only loads {@link TracksColumns#_ID}, {@link TracksColumns#NAME}, {@link TracksColumns#STARTTIME}, {@link TracksColumns#STARTTIME_OFFSET}, {@link TracksColumns#TOTALDISTANCE}, and {@link TracksColumns#ALTITUDE_LOSS} of the selected tracks.
+     */
+    public Cursor getTrackTotalsCursor(@NonNull ContentProviderSelectionInterface selection) {
+        final String[] PROJECTION = new String[]{
+                TracksColumns._ID,
+                TracksColumns.NAME,
+                TracksColumns.STARTTIME,
+                TracksColumns.STARTTIME_OFFSET,
+                TracksColumns.TOTALDISTANCE,
+                TracksColumns.ALTITUDE_LOSS
+        };
+        SelectionData selectionData = selection.buildSelection();
+        return contentResolver.query(TracksColumns.CONTENT_URI, PROJECTION, selectionData.selection(), selectionData.selectionArgs(), TracksColumns._ID);
+    }
+
     public Cursor searchTracks(String searchQuery) {
         // Needed, because MARKER_COUNT is a virtual column and has to be explicitly requested.
         // Used only be TrackListAdapter
@@ -309,7 +514,8 @@ public class ContentProviderUtils {
      * @param track the track
      */
     public void updateTrack(Track track) {
-        contentResolver.update(TracksColumns.CONTENT_URI, createContentValues(track), TracksColumns._ID + "=?", new String[]{Long.toString(track.getId().id())});
+        contentResolver.update(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, track.getId().id()), createContentValues(track), null, null);
+        TrackStatisticsIndexCache.invalidate(track.getId());
     }
 
     private ContentValues createContentValues(Track track) {
@@ -341,12 +547,38 @@ public class ContentProviderUtils {
         values.put(TracksColumns.MAX_ALTITUDE, trackStatistics.getMaxAltitude());
         values.put(TracksColumns.ALTITUDE_GAIN, trackStatistics.getTotalAltitudeGain());
         values.put(TracksColumns.ALTITUDE_LOSS, trackStatistics.getTotalAltitudeLoss());
+        values.put(TracksColumns.CALORIES, trackStatistics.getTotalCalories());
+        putHeartRateZoneTimes(values, trackStatistics);
+        putQuantileSketches(values, trackStatistics);
 
         return values;
     }
 
     public void updateTrackStatistics(@NonNull Track.Id trackId, @NonNull TrackStatistics trackStatistics) {
-        contentResolver.update(TracksColumns.CONTENT_URI, createContentValues(trackStatistics), TracksColumns._ID + "=?", new String[]{Long.toString(trackId.id())});
+        contentResolver.update(ContentUris.withAppendedId(TracksColumns.CONTENT_URI_STATISTICS, trackId.id()), createContentValues(trackStatistics), null, null);
+    }
+
+    /**
+     * Updates the statistics of several tracks within one transaction.
+     *
+     * @param trackStatistics the statistics by track id
+     */
+    public void updateTrackStatistics(@NonNull Map<Track.Id, TrackStatistics> trackStatistics) {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>(trackStatistics.size());
+        for (Map.Entry<Track.Id, TrackStatistics> entry : trackStatistics.entrySet()) {
+            operations.add(ContentProviderOperation.newUpdate(TracksColumns.CONTENT_URI)
+                    .withValues(createContentValues(entry.getValue()))
+                    .withSelection(TracksColumns._ID + "=?", new String[]{Long.toString(entry.getKey().id())})
+                    .build());
+        }
+
+        try {
+            contentResolver.applyBatch(AUTHORITY_PACKAGE, operations);
+        } catch (RemoteException | OperationApplicationException e) {
+            throw new RuntimeException("Could not update track statistics.", e);
+        }
+        // Recomputed (e.g., with other settings).
+        trackStatistics.keySet().forEach(TrackStatisticsIndexCache::invalidate);
     }
 
     private ContentValues createContentValues(TrackStatistics trackStatistics) {
@@ -367,9 +599,24 @@ public class ContentProviderUtils {
         values.put(TracksColumns.MAX_ALTITUDE, trackStatistics.getMaxAltitude());
         values.put(TracksColumns.ALTITUDE_GAIN, trackStatistics.getTotalAltitudeGain());
         values.put(TracksColumns.ALTITUDE_LOSS, trackStatistics.getTotalAltitudeLoss());
+        values.put(TracksColumns.CALORIES, trackStatistics.getTotalCalories());
+        putHeartRateZoneTimes(values, trackStatistics);
+        putQuantileSketches(values, trackStatistics);
         return values;
     }
 
+    private static void putHeartRateZoneTimes(ContentValues values, TrackStatistics trackStatistics) {
+        for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+            values.put(TracksColumns.HEART_RATE_ZONE_TIMES[zone - 1], trackStatistics.hasHeartRateZoneTimes() ? trackStatistics.getHeartRateZoneTime(zone).toMillis() : null);
+        }
+    }
+
+    private static void putQuantileSketches(ContentValues values, TrackStatistics trackStatistics) {
+        values.put(TracksColumns.SPEED_SKETCH, trackStatistics.getSpeedSketch() != null ? trackStatistics.getSpeedSketch().toBytes() : null);
+        values.put(TracksColumns.HEART_RATE_SKETCH, trackStatistics.getHeartRateSketch() != null ? trackStatistics.getHeartRateSketch().toBytes() : null);
+        values.put(TracksColumns.SLOPE_SKETCH, trackStatistics.getSlopeSketch() != null ? trackStatistics.getSlopeSketch().toBytes() : null);
+    }
+
     public Marker createMarker(Cursor cursor) {
         int idIndex = cursor.getColumnIndexOrThrow(MarkerColumns._ID);
         int nameIndex = cursor.getColumnIndexOrThrow(MarkerColumns.NAME);
@@ -862,6 +1109,286 @@ public class ContentProviderUtils {
         return contentResolver.query(TrackPointsColumns.CONTENT_URI_BY_ID, projection, selection, selectionArgs, sortOrder);
     }
 
+    public static SkiSegmentDetector.Segment createSkiSegment(Cursor cursor) {
+        int activityIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.ACTIVITY);
+        int startTrackPointIdIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.START_TRACKPOINT_ID);
+        int endTrackPointIdIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.END_TRACKPOINT_ID);
+        int startTimeIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.START_TIME);
+        int stopTimeIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.STOP_TIME);
+        int distanceIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.DISTANCE);
+        int altitudeGainIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.ALTITUDE_GAIN);
+        int altitudeLossIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.ALTITUDE_LOSS);
+        int maxSpeedIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.MAX_SPEED);
+
+        return new SkiSegmentDetector.Segment(
+                SkiSegmentDetector.Activity.valueOf(cursor.getString(activityIndex)),
+                Instant.ofEpochMilli(cursor.getLong(startTimeIndex)),
+                Instant.ofEpochMilli(cursor.getLong(stopTimeIndex)),
+                Distance.of(cursor.getDouble(distanceIndex)),
+                cursor.getFloat(altitudeGainIndex),
+                cursor.getFloat(altitudeLossIndex),
+                Speed.of(cursor.getDouble(maxSpeedIndex)),
+                !cursor.isNull(startTrackPointIdIndex) ? new TrackPoint.Id(cursor.getLong(startTrackPointIdIndex)) : null,
+                !cursor.isNull(endTrackPointIdIndex) ? new TrackPoint.Id(cursor.getLong(endTrackPointIdIndex)) : null
+        );
+    }
+
+    /**
+     * @return the stored ski segments of a track ordered by time; empty if none are stored (yet).
+     */
+    @NonNull
+    public List<SkiSegmentDetector.Segment> getSkiSegments(@NonNull Track.Id trackId) {
+        ArrayList<SkiSegmentDetector.Segment> segments = new ArrayList<>();
+        Uri uri = Uri.withAppendedPath(SkiSegmentsColumns.CONTENT_URI_BY_TRACKID, formatIdListForUri(trackId));
+        try (Cursor cursor = contentResolver.query(uri, null, null, null, SkiSegmentsColumns.START_TIME + "," + SkiSegmentsColumns._ID)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                segments.ensureCapacity(cursor.getCount());
+                do {
+                    segments.add(createSkiSegment(cursor));
+                } while (cursor.moveToNext());
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * @return tracks for which the ski segments were not yet detected (see {@link #replaceSkiSegments(Track.Id, TrackPoint.Id, List)}).
+     */
+    @NonNull
+    public List<Track.Id> getTrackIdsWithoutSkiSegmentsDetected() {
+        return getTrackIds(TracksColumns.SKI_SEGMENTS_DETECTED + " IS NULL", null);
+    }
+
+    /**
+     * @return tracks for which ski segments of the activity are stored.
+     */
+    @NonNull
+    public List<Track.Id> getTrackIdsWithSkiSegments(@NonNull SkiSegmentDetector.Activity activity) {
+        String selection = TracksColumns._ID + " IN (SELECT " + SkiSegmentsColumns.TRACKID + " FROM " + SkiSegmentsColumns.TABLE_NAME + " WHERE " + SkiSegmentsColumns.ACTIVITY + "=?)";
+        return getTrackIds(selection, new String[]{activity.name()});
+    }
+
+    private List<Track.Id> getTrackIds(String selection, String[] selectionArgs) {
+        ArrayList<Track.Id> trackIds = new ArrayList<>();
+        try (Cursor cursor = contentResolver.query(TracksColumns.CONTENT_URI, new String[]{TracksColumns._ID}, selection, selectionArgs, TracksColumns._ID)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int idIndex = cursor.getColumnIndexOrThrow(TracksColumns._ID);
+                do {
+                    trackIds.add(new Track.Id(cursor.getLong(idIndex)));
+                } while (cursor.moveToNext());
+            }
+        }
+        return trackIds;
+    }
+
+    /**
+     * Replaces the stored ski segments of a track within one transaction and marks its ski segments as detected (also if there are none).
+     *
+     * @param fromTrackPointId only segments starting at or after this trackPoint are replaced; null to replace all.
+     */
+    public void replaceSkiSegments(@NonNull Track.Id trackId, @Nullable TrackPoint.Id fromTrackPointId, @NonNull List<SkiSegmentDetector.Segment> segments) {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>(segments.size() + 2);
+        if (fromTrackPointId != null) {
+            operations.add(ContentProviderOperation.newDelete(SkiSegmentsColumns.CONTENT_URI)
+                    .withSelection(SkiSegmentsColumns.TRACKID + "=? AND " + SkiSegmentsColumns.START_TRACKPOINT_ID + ">=?", new String[]{Long.toString(trackId.id()), Long.toString(fromTrackPointId.id())})
+                    .build());
+        } else {
+            operations.add(ContentProviderOperation.newDelete(SkiSegmentsColumns.CONTENT_URI)
+                    .withSelection(SkiSegmentsColumns.TRACKID + "=?", new String[]{Long.toString(trackId.id())})
+                    .build());
+        }
+        for (SkiSegmentDetector.Segment segment : segments) {
+            operations.add(ContentProviderOperation.newInsert(SkiSegmentsColumns.CONTENT_URI)
+                    .withValues(createContentValues(segment, trackId))
+                    .build());
+        }
+        operations.add(ContentProviderOperation.newUpdate(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId.id()))
+                .withValue(TracksColumns.SKI_SEGMENTS_DETECTED, 1)
+                .build());
+
+        try {
+            contentResolver.applyBatch(AUTHORITY_PACKAGE, operations);
+        } catch (RemoteException | OperationApplicationException e) {
+            throw new RuntimeException("Could not store ski segments.", e);
+        }
+    }
+
+    /**
+     * Sums up the runs and lifts per day (in the time zone of the respective track); ordered by day.
+     * Each row contains {@link SkiSegmentsColumns#DAY}, {@link SkiSegmentsColumns#RUN_DISTANCE}, {@link SkiSegmentsColumns#RUN_TIME}, {@link SkiSegmentsColumns#RUN_ALTITUDE_LOSS}, {@link SkiSegmentsColumns#LIFT_DISTANCE}, and {@link SkiSegmentsColumns#LIFT_TIME}.
+     */
+    public Cursor getDailySkiSegmentsCursor() {
+        final String RUN = "WHEN " + SkiSegmentsColumns.ACTIVITY + " = '" + SkiSegmentDetector.Activity.RUN.name() + "' THEN ";
+        final String LIFT = "WHEN " + SkiSegmentsColumns.ACTIVITY + " = '" + SkiSegmentDetector.Activity.LIFT.name() + "' THEN ";
+        final String DURATION = SkiSegmentsColumns.TABLE_NAME + "." + SkiSegmentsColumns.STOP_TIME + " - " + SkiSegmentsColumns.TABLE_NAME + "." + SkiSegmentsColumns.START_TIME;
+        final String[] PROJECTION = new String[]{
+                SkiSegmentsColumns.DAY_EXPRESSION + " AS " + SkiSegmentsColumns.DAY,
+                "TOTAL(CASE " + RUN + SkiSegmentsColumns.DISTANCE + " END) AS " + SkiSegmentsColumns.RUN_DISTANCE,
+                "TOTAL(CASE " + RUN + DURATION + " END) AS " + SkiSegmentsColumns.RUN_TIME,
+                "TOTAL(CASE " + RUN + SkiSegmentsColumns.ALTITUDE_LOSS + " END) AS " + SkiSegmentsColumns.RUN_ALTITUDE_LOSS,
+                "TOTAL(CASE " + LIFT + SkiSegmentsColumns.DISTANCE + " END) AS " + SkiSegmentsColumns.LIFT_DISTANCE,
+                "TOTAL(CASE " + LIFT + DURATION + " END) AS " + SkiSegmentsColumns.LIFT_TIME
+        };
+        return contentResolver.query(SkiSegmentsColumns.CONTENT_URI_DAILY, PROJECTION, null, null, null);
+    }
+
+    private ContentValues createContentValues(SkiSegmentDetector.Segment segment, Track.Id trackId) {
+        ContentValues values = new ContentValues();
+        values.put(SkiSegmentsColumns.TRACKID, trackId.id());
+        values.put(SkiSegmentsColumns.ACTIVITY, segment.activity().name());
+        if (segment.startTrackPointId() != null) {
+            values.put(SkiSegmentsColumns.START_TRACKPOINT_ID, segment.startTrackPointId().id());
+        }
+        if (segment.endTrackPointId() != null) {
+            values.put(SkiSegmentsColumns.END_TRACKPOINT_ID, segment.endTrackPointId().id());
+        }
+        values.put(SkiSegmentsColumns.START_TIME, segment.startTime().toEpochMilli());
+        values.put(SkiSegmentsColumns.STOP_TIME, segment.endTime().toEpochMilli());
+        values.put(SkiSegmentsColumns.DISTANCE, segment.distance().toM());
+        values.put(SkiSegmentsColumns.ALTITUDE_GAIN, segment.gain_m());
+        values.put(SkiSegmentsColumns.ALTITUDE_LOSS, segment.loss_m());
+        values.put(SkiSegmentsColumns.MAX_SPEED, segment.maxSpeed().toMPS());
+        return values;
+    }
+
+    public static BestEffortsCalculator.Effort createBestEffort(Cursor cursor) {
+        int typeIndex = cursor.getColumnIndexOrThrow(BestEffortsColumns.TYPE);
+        int valueIndex = cursor.getColumnIndexOrThrow(BestEffortsColumns.VALUE);
+        int startTimeIndex = cursor.getColumnIndexOrThrow(BestEffortsColumns.START_TIME);
+        int stopTimeIndex = cursor.getColumnIndexOrThrow(BestEffortsColumns.STOP_TIME);
+
+        return new BestEffortsCalculator.Effort(
+                BestEffortsCalculator.Type.valueOf(cursor.getString(typeIndex)),
+                cursor.getDouble(valueIndex),
+                Instant.ofEpochMilli(cursor.getLong(startTimeIndex)),
+                Instant.ofEpochMilli(cursor.getLong(stopTimeIndex))
+        );
+    }
+
+    /**
+     * @return the stored best efforts of a track; empty if none are stored (yet).
+     */
+    @NonNull
+    public List<BestEffortsCalculator.Effort> getBestEfforts(@NonNull Track.Id trackId) {
+        ArrayList<BestEffortsCalculator.Effort> efforts = new ArrayList<>();
+        try (Cursor cursor = contentResolver.query(BestEffortsColumns.CONTENT_URI, null, BestEffortsColumns.TRACKID + "=?", new String[]{Long.toString(trackId.id())}, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                do {
+                    efforts.add(createBestEffort(cursor));
+                } while (cursor.moveToNext());
+            }
+        }
+        return efforts;
+    }
+
+    /**
+     * Looks up the all-time best effort of a type (uses the index on type and value).
+     *
+     * @return the track and its effort or null if none is stored.
+     */
+    @Nullable
+    public Pair<Track.Id, BestEffortsCalculator.Effort> getPersonalBest(@NonNull BestEffortsCalculator.Type type) {
+        String sortOrder = BestEffortsColumns.VALUE + (type.isLowerBetter() ? " ASC" : " DESC") + " LIMIT 1";
+        try (Cursor cursor = contentResolver.query(BestEffortsColumns.CONTENT_URI, null, BestEffortsColumns.TYPE + "=?", new String[]{type.name()}, sortOrder)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                Track.Id trackId = new Track.Id(cursor.getLong(cursor.getColumnIndexOrThrow(BestEffortsColumns.TRACKID)));
+                return new Pair<>(trackId, createBestEffort(cursor));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return tracks for which the best efforts were not yet computed (see {@link #replaceBestEfforts(Track.Id, List)}).
+     */
+    @NonNull
+    public List<Track.Id> getTrackIdsWithoutBestEffortsComputed() {
+        return getTrackIds(TracksColumns.BEST_EFFORTS_COMPUTED + " IS NULL", null);
+    }
+
+    /**
+     * Replaces the stored best efforts of a track within one transaction and marks its best efforts as computed (also if there are none).
+     */
+    public void replaceBestEfforts(@NonNull Track.Id trackId, @NonNull List<BestEffortsCalculator.Effort> efforts) {
+        ArrayList<ContentProviderOperation> operations = new ArrayList<>(efforts.size() + 2);
+        operations.add(ContentProviderOperation.newDelete(BestEffortsColumns.CONTENT_URI)
+                .withSelection(BestEffortsColumns.TRACKID + "=?", new String[]{Long.toString(trackId.id())})
+                .build());
+        for (BestEffortsCalculator.Effort effort : efforts) {
+            ContentValues values = new ContentValues();
+            values.put(BestEffortsColumns.TRACKID, trackId.id());
+            values.put(BestEffortsColumns.TYPE, effort.type().name());
+            values.put(BestEffortsColumns.VALUE, effort.value());
+            values.put(BestEffortsColumns.START_TIME, effort.startTime().toEpochMilli());
+            values.put(BestEffortsColumns.STOP_TIME, effort.stopTime().toEpochMilli());
+            operations.add(ContentProviderOperation.newInsert(BestEffortsColumns.CONTENT_URI)
+                    .withValues(values)
+                    .build());
+        }
+        operations.add(ContentProviderOperation.newUpdate(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId.id()))
+                .withValue(TracksColumns.BEST_EFFORTS_COMPUTED, 1)
+                .build());
+
+        try {
+            contentResolver.applyBatch(AUTHORITY_PACKAGE, operations);
+        } catch (RemoteException | OperationApplicationException e) {
+            throw new RuntimeException("Could not store best efforts.", e);
+        }
+    }
+
+    public static OverallStatistics createOverallStatistics(Cursor cursor) {
+        int trackCountIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.TRACK_COUNT);
+        int skiDaysIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.SKI_DAYS);
+        int distanceIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.DISTANCE);
+        int movingTimeIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.MOVINGTIME);
+        int runsIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.RUNS);
+        int runDistanceIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.RUN_DISTANCE);
+        int verticalDescentIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.VERTICAL_DESCENT);
+        int caloriesIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.CALORIES);
+
+        return new OverallStatistics(
+                cursor.getInt(trackCountIndex),
+                cursor.getInt(skiDaysIndex),
+                Distance.of(cursor.getDouble(distanceIndex)),
+                Duration.ofMillis(cursor.getLong(movingTimeIndex)),
+                cursor.getInt(runsIndex),
+                Distance.of(cursor.getDouble(runDistanceIndex)),
+                Distance.of(cursor.getDouble(verticalDescentIndex)),
+                cursor.getDouble(caloriesIndex)
+        );
+    }
+
+    /**
+     * @return the totals per season (by start year of the season) ordered by season.
+     */
+    @NonNull
+    public SortedMap<Integer, OverallStatistics> getSeasonStatistics() {
+        SortedMap<Integer, OverallStatistics> seasonStatistics = new TreeMap<>();
+        try (Cursor cursor = contentResolver.query(SeasonRollupsColumns.CONTENT_URI, null, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int seasonIndex = cursor.getColumnIndexOrThrow(SeasonRollupsColumns.SEASON);
+                do {
+                    seasonStatistics.put(cursor.getInt(seasonIndex), createOverallStatistics(cursor));
+                } while (cursor.moveToNext());
+            }
+        }
+        return seasonStatistics;
+    }
+
+    /**
+     * @param seasons the seasons (by start year) to sum up; empty for all seasons.
+     */
+    @NonNull
+    public OverallStatistics getOverallStatistics(@NonNull Collection<Integer> seasons) {
+        OverallStatistics overallStatistics = new OverallStatistics();
+        getSeasonStatistics().forEach((season, seasonStatistics) -> {
+            if (seasons.isEmpty() || seasons.contains(season)) {
+                overallStatistics.add(seasonStatistics);
+            }
+        });
+        return overallStatistics;
+    }
+
     public static String formatIdListForUri(Track.Id... trackIds) {
         long[] ids = new long[trackIds.length];
         for (int i = 0; i < trackIds.length; i++) {
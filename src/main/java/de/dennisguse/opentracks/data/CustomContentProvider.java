@@ -17,9 +17,12 @@
 package de.dennisguse.opentracks.data;
 
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.database.SQLException;
@@ -33,16 +36,21 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.data.tables.BestEffortsColumns;
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
+import de.dennisguse.opentracks.data.tables.SkiSegmentsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.settings.PreferencesUtils;
 
 /**
- * A {@link ContentProvider} that handles access to track points, tracks, and markers tables.
+ * A {@link ContentProvider} that handles access to track points, tracks, markers, and ski segments tables.
  * <p>
  * Data consistency is enforced using Foreign Key Constraints within the database incl. cascading deletes.
  *
@@ -102,11 +110,22 @@ public class CustomContentProvider extends ContentProvider {
 
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, TracksColumns.CONTENT_URI.getPath(), UrlType.TRACKS.ordinal());
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, TracksColumns.CONTENT_URI_SENSOR_STATS.getPath() + "/#", UrlType.TRACKS_SENSOR_STATS.ordinal());
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, TracksColumns.CONTENT_URI_SUMMARY.getPath(), UrlType.TRACKS_SUMMARY.ordinal());
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, TracksColumns.CONTENT_URI_STATISTICS.getPath() + "/#", UrlType.TRACKS_STATISTICS_BY_ID.ordinal());
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, TracksColumns.CONTENT_URI.getPath() + "/*", UrlType.TRACKS_BY_ID.ordinal());
 
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, MarkerColumns.CONTENT_URI.getPath(), UrlType.MARKERS.ordinal());
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, MarkerColumns.CONTENT_URI.getPath() + "/#", UrlType.MARKERS_BY_ID.ordinal());
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, MarkerColumns.CONTENT_URI_BY_TRACKID.getPath() + "/*", UrlType.MARKERS_BY_TRACKID.ordinal());
+
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, SkiSegmentsColumns.CONTENT_URI.getPath(), UrlType.SKI_SEGMENTS.ordinal());
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, SkiSegmentsColumns.CONTENT_URI_BY_TRACKID.getPath() + "/*", UrlType.SKI_SEGMENTS_BY_TRACKID.ordinal());
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, SkiSegmentsColumns.CONTENT_URI_DAILY.getPath(), UrlType.SKI_SEGMENTS_DAILY.ordinal());
+
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, SeasonRollupsColumns.CONTENT_URI.getPath(), UrlType.SEASON_ROLLUPS.ordinal());
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, SeasonRollupsColumns.CONTENT_URI_BY_SEASON.getPath() + "/*", UrlType.SEASON_ROLLUPS_BY_SEASON.ordinal());
+
+        uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, BestEffortsColumns.CONTENT_URI.getPath(), UrlType.BEST_EFFORTS.ordinal());
     }
 
     @Override
@@ -135,12 +154,19 @@ public class CustomContentProvider extends ContentProvider {
 
     @Override
     public int delete(@NonNull Uri url, String where, String[] selectionArgs) {
-        String table = switch (getUrlType(url)) {
+        UrlType urlType = getUrlType(url);
+        String table = switch (urlType) {
             case TRACKPOINTS -> TrackPointsColumns.TABLE_NAME;
-            case TRACKS -> TracksColumns.TABLE_NAME;
+            case TRACKS, TRACKS_BY_ID -> TracksColumns.TABLE_NAME;
             case MARKERS -> MarkerColumns.TABLE_NAME;
+            case SKI_SEGMENTS -> SkiSegmentsColumns.TABLE_NAME;
+            case BEST_EFFORTS -> BestEffortsColumns.TABLE_NAME;
             default -> throw new IllegalArgumentException("Unknown URL " + url);
         };
+        if (urlType == UrlType.TRACKS_BY_ID) {
+            String whereClause = TracksColumns._ID + "=" + ContentUris.parseId(url);
+            where = TextUtils.isEmpty(where) ? whereClause : whereClause + " AND (" + where + ")";
+        }
 
         Log.w(TAG, "Deleting from table " + table);
         int totalChangesBefore = getTotalChanges();
@@ -160,7 +186,8 @@ public class CustomContentProvider extends ContentProvider {
 
         PreferencesUtils.addTotalRowsDeleted(totalChanges);
         int totalRowsDeleted = PreferencesUtils.getTotalRowsDeleted();
-        if (totalRowsDeleted > TOTAL_DELETED_ROWS_VACUUM_THRESHOLD) {
+        // VACUUM is not possible within a transaction (e.g., applyBatch); it is done with the next delete.
+        if (totalRowsDeleted > TOTAL_DELETED_ROWS_VACUUM_THRESHOLD && !db.inTransaction()) {
             Log.i(TAG, "TotalRowsDeleted " + totalRowsDeleted + ", starting to vacuum the database.");
             db.execSQL("VACUUM");
             PreferencesUtils.resetTotalRowsDeleted();
@@ -183,10 +210,15 @@ public class CustomContentProvider extends ContentProvider {
         return switch (getUrlType(url)) {
             case TRACKPOINTS -> TrackPointsColumns.CONTENT_TYPE;
             case TRACKPOINTS_BY_ID, TRACKPOINTS_BY_TRACKID -> TrackPointsColumns.CONTENT_ITEMTYPE;
-            case TRACKS -> TracksColumns.CONTENT_TYPE;
-            case TRACKS_BY_ID -> TracksColumns.CONTENT_ITEMTYPE;
+            case TRACKS, TRACKS_SUMMARY -> TracksColumns.CONTENT_TYPE;
+            case TRACKS_BY_ID, TRACKS_STATISTICS_BY_ID -> TracksColumns.CONTENT_ITEMTYPE;
             case MARKERS -> MarkerColumns.CONTENT_TYPE;
             case MARKERS_BY_ID, MARKERS_BY_TRACKID -> MarkerColumns.CONTENT_ITEMTYPE;
+            case SKI_SEGMENTS, SKI_SEGMENTS_DAILY -> SkiSegmentsColumns.CONTENT_TYPE;
+            case SKI_SEGMENTS_BY_TRACKID -> SkiSegmentsColumns.CONTENT_ITEMTYPE;
+            case SEASON_ROLLUPS -> SeasonRollupsColumns.CONTENT_TYPE;
+            case SEASON_ROLLUPS_BY_SEASON -> SeasonRollupsColumns.CONTENT_ITEMTYPE;
+            case BEST_EFFORTS -> BestEffortsColumns.CONTENT_TYPE;
             default -> throw new IllegalArgumentException("Unknown URL " + url);
         };
     }
@@ -196,15 +228,17 @@ public class CustomContentProvider extends ContentProvider {
         if (initialValues == null) {
             initialValues = new ContentValues();
         }
+        UrlType urlType = getUrlType(url);
         Uri result;
         try {
             db.beginTransaction();
-            result = insertContentValues(url, getUrlType(url), initialValues);
+            result = insertContentValues(url, urlType, initialValues);
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
         }
-        getContext().getContentResolver().notifyChange(url, null, false);
+        // Notify the inserted track, so observers of a single track (e.g., RankingEngine) do not need to reload all tracks.
+        getContext().getContentResolver().notifyChange(urlType == UrlType.TRACKS ? result : url, null, false);
         return result;
     }
 
@@ -231,10 +265,25 @@ public class CustomContentProvider extends ContentProvider {
         return numInserted;
     }
 
+    @NonNull
+    @Override
+    public ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations) throws OperationApplicationException {
+        try {
+            // Use a transaction in order to apply the operations as a single batch
+            db.beginTransaction();
+            ContentProviderResult[] results = super.applyBatch(operations);
+            db.setTransactionSuccessful();
+            return results;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     @Override
     public Cursor query(@NonNull Uri url, String[] projection, String selection, String[] selectionArgs, String sort) {
         SQLiteQueryBuilder queryBuilder = new SQLiteQueryBuilder();
         String sortOrder = null;
+        String groupBy = null;
         switch (getUrlType(url)) {
             case TRACKPOINTS -> {
                 queryBuilder.setTables(TrackPointsColumns.TABLE_NAME);
@@ -264,6 +313,12 @@ public class CustomContentProvider extends ContentProvider {
                 long trackId = ContentUris.parseId(url);
                 return db.rawQuery(SENSOR_STATS_QUERY, new String[]{String.valueOf(trackId), String.valueOf(trackId)});
             }
+            case TRACKS_SUMMARY -> {
+                // Projection contains the aggregate functions (see ContentProviderUtils.getTrackSummaryCursor()).
+                queryBuilder.setTables(TracksColumns.TABLE_NAME);
+                groupBy = "IFNULL(" + TracksColumns.ACTIVITY_TYPE_LOCALIZED + ", '')";
+                sortOrder = sort;
+            }
             case MARKERS -> {
                 queryBuilder.setTables(MarkerColumns.TABLE_NAME);
                 sortOrder = sort != null ? sort : MarkerColumns.DEFAULT_SORT_ORDER;
@@ -276,9 +331,38 @@ public class CustomContentProvider extends ContentProvider {
                 queryBuilder.setTables(MarkerColumns.TABLE_NAME);
                 queryBuilder.appendWhere(MarkerColumns.TRACKID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, ContentProviderUtils.parseTrackIdsFromUri(url)) + ")");
             }
+            case SKI_SEGMENTS -> {
+                queryBuilder.setTables(SkiSegmentsColumns.TABLE_NAME);
+                sortOrder = sort != null ? sort : SkiSegmentsColumns.DEFAULT_SORT_ORDER;
+            }
+            case SKI_SEGMENTS_BY_TRACKID -> {
+                queryBuilder.setTables(SkiSegmentsColumns.TABLE_NAME);
+                queryBuilder.appendWhere(SkiSegmentsColumns.TRACKID + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, ContentProviderUtils.parseTrackIdsFromUri(url)) + ")");
+                sortOrder = sort != null ? sort : SkiSegmentsColumns.DEFAULT_SORT_ORDER;
+            }
+            case SKI_SEGMENTS_DAILY -> {
+                // Projection contains the aggregate functions (see ContentProviderUtils.getDailySkiSegmentsCursor()).
+                queryBuilder.setTables(SkiSegmentsColumns.TABLE_NAME + " INNER JOIN " + TracksColumns.TABLE_NAME + " ON (" + SkiSegmentsColumns.TABLE_NAME + "." + SkiSegmentsColumns.TRACKID + " = " + TracksColumns.TABLE_NAME + "." + TracksColumns._ID + ")");
+                groupBy = SkiSegmentsColumns.DAY_EXPRESSION;
+                sortOrder = sort != null ? sort : SkiSegmentsColumns.DAY;
+            }
+            case SEASON_ROLLUPS -> {
+                // Read-only: maintained by triggers (see SeasonRollupsColumns).
+                queryBuilder.setTables(SeasonRollupsColumns.TABLE_NAME);
+                sortOrder = sort != null ? sort : SeasonRollupsColumns.DEFAULT_SORT_ORDER;
+            }
+            case SEASON_ROLLUPS_BY_SEASON -> {
+                queryBuilder.setTables(SeasonRollupsColumns.TABLE_NAME);
+                queryBuilder.appendWhere(SeasonRollupsColumns.SEASON + " IN (" + TextUtils.join(SQL_LIST_DELIMITER, parseSeasonsFromUri(url)) + ")");
+                sortOrder = sort != null ? sort : SeasonRollupsColumns.DEFAULT_SORT_ORDER;
+            }
+            case BEST_EFFORTS -> {
+                queryBuilder.setTables(BestEffortsColumns.TABLE_NAME);
+                sortOrder = sort != null ? sort : BestEffortsColumns.DEFAULT_SORT_ORDER;
+            }
             default -> throw new IllegalArgumentException("Unknown url " + url);
         }
-        Cursor cursor = queryBuilder.query(db, projection, selection, selectionArgs, null, null, sortOrder);
+        Cursor cursor = queryBuilder.query(db, projection, selection, selectionArgs, groupBy, null, sortOrder);
         cursor.setNotificationUri(getContext().getContentResolver(), url);
         return cursor;
     }
@@ -304,7 +388,7 @@ public class CustomContentProvider extends ContentProvider {
                 table = TracksColumns.TABLE_NAME;
                 whereClause = where;
             }
-            case TRACKS_BY_ID -> {
+            case TRACKS_BY_ID, TRACKS_STATISTICS_BY_ID -> {
                 table = TracksColumns.TABLE_NAME;
                 whereClause = TracksColumns._ID + "=" + ContentUris.parseId(url);
                 if (!TextUtils.isEmpty(where)) {
@@ -347,6 +431,21 @@ public class CustomContentProvider extends ContentProvider {
         throw new IllegalArgumentException("Unknown URL " + url);
     }
 
+    /**
+     * Seasons are parsed as numbers, so the URI cannot inject SQL.
+     */
+    private static List<Integer> parseSeasonsFromUri(Uri url) {
+        List<Integer> seasons = new ArrayList<>();
+        for (String season : TextUtils.split(url.getLastPathSegment(), SQL_LIST_DELIMITER)) {
+            try {
+                seasons.add(Integer.parseInt(season.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid season in URL " + url, e);
+            }
+        }
+        return seasons;
+    }
+
     /**
      * Inserts a content based on the url type.
      *
@@ -359,6 +458,8 @@ public class CustomContentProvider extends ContentProvider {
             case TRACKPOINTS -> insertTrackPoint(url, contentValues);
             case TRACKS -> insertTrack(url, contentValues);
             case MARKERS -> insertMarker(url, contentValues);
+            case SKI_SEGMENTS -> insertSkiSegment(url, contentValues);
+            case BEST_EFFORTS -> insertBestEffort(url, contentValues);
             default -> throw new IllegalArgumentException("Unknown url " + url);
         };
     }
@@ -391,6 +492,22 @@ public class CustomContentProvider extends ContentProvider {
         throw new SQLException("Failed to insert a marker " + url);
     }
 
+    private Uri insertSkiSegment(Uri url, ContentValues contentValues) {
+        long rowId = db.insert(SkiSegmentsColumns.TABLE_NAME, SkiSegmentsColumns._ID, contentValues);
+        if (rowId >= 0) {
+            return ContentUris.appendId(SkiSegmentsColumns.CONTENT_URI.buildUpon(), rowId).build();
+        }
+        throw new SQLException("Failed to insert a ski segment " + url);
+    }
+
+    private Uri insertBestEffort(Uri url, ContentValues contentValues) {
+        long rowId = db.insert(BestEffortsColumns.TABLE_NAME, BestEffortsColumns._ID, contentValues);
+        if (rowId >= 0) {
+            return ContentUris.appendId(BestEffortsColumns.CONTENT_URI.buildUpon(), rowId).build();
+        }
+        throw new SQLException("Failed to insert a best effort " + url);
+    }
+
     @VisibleForTesting
     enum UrlType {
         TRACKPOINTS,
@@ -399,8 +516,16 @@ public class CustomContentProvider extends ContentProvider {
         TRACKS,
         TRACKS_BY_ID,
         TRACKS_SENSOR_STATS,
+        TRACKS_SUMMARY,
+        TRACKS_STATISTICS_BY_ID,
         MARKERS,
         MARKERS_BY_ID,
-        MARKERS_BY_TRACKID
+        MARKERS_BY_TRACKID,
+        SKI_SEGMENTS,
+        SKI_SEGMENTS_BY_TRACKID,
+        SKI_SEGMENTS_DAILY,
+        SEASON_ROLLUPS,
+        SEASON_ROLLUPS_BY_SEASON,
+        BEST_EFFORTS
     }
 }
@@ -18,7 +18,10 @@ import java.util.UUID;
 import de.dennisguse.opentracks.Startup;
 import de.dennisguse.opentracks.data.models.ActivityType;
 import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.tables.BestEffortsColumns;
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
+import de.dennisguse.opentracks.data.tables.SkiSegmentsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 
@@ -30,7 +33,7 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
 
     private static final String TAG = CustomSQLiteOpenHelper.class.getSimpleName();
 
-    private static final int DATABASE_VERSION = 37;
+    private static final int DATABASE_VERSION = 46;
 
     private final Context context;
 
@@ -57,9 +60,23 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
 
         db.execSQL(TracksColumns.CREATE_TABLE);
         db.execSQL(TracksColumns.CREATE_TABLE_INDEX);
+        db.execSQL(TracksColumns.CREATE_TABLE_INDEX_STARTTIME);
+        db.execSQL(TracksColumns.CREATE_TABLE_INDEX_CATEGORY_STARTTIME);
 
         db.execSQL(MarkerColumns.CREATE_TABLE);
         db.execSQL(MarkerColumns.CREATE_TABLE_INDEX);
+
+        db.execSQL(SkiSegmentsColumns.CREATE_TABLE);
+        db.execSQL(SkiSegmentsColumns.CREATE_TABLE_INDEX);
+
+        db.execSQL(SeasonRollupsColumns.CREATE_TABLE);
+        for (String trigger : SeasonRollupsColumns.CREATE_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+
+        db.execSQL(BestEffortsColumns.CREATE_TABLE);
+        db.execSQL(BestEffortsColumns.CREATE_TABLE_INDEX);
+        db.execSQL(BestEffortsColumns.CREATE_TABLE_INDEX_TYPE_VALUE);
     }
 
     @Override
@@ -82,6 +99,15 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
                 case 35 -> upgradeFrom34to35(db);
                 case 36 -> upgradeFrom35to36(db);
                 case 37 -> upgradeFrom36to37(db);
+                case 38 -> upgradeFrom37to38(db);
+                case 39 -> upgradeFrom38to39(db);
+                case 40 -> upgradeFrom39to40(db);
+                case 41 -> upgradeFrom40to41(db);
+                case 42 -> upgradeFrom41to42(db);
+                case 43 -> upgradeFrom42to43(db);
+                case 44 -> upgradeFrom43to44(db);
+                case 45 -> upgradeFrom44to45(db);
+                case 46 -> upgradeFrom45to46(db);
                 default -> throw new RuntimeException("Not implemented: upgrade to " + toVersion);
             }
         }
@@ -106,6 +132,15 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
                 case 34 -> downgradeFrom35to34(db);
                 case 35 -> downgradeFrom36to35(db);
                 case 36 -> downgradeFrom37to36(db);
+                case 37 -> downgradeFrom38to37(db);
+                case 38 -> downgradeFrom39to38(db);
+                case 39 -> downgradeFrom40to39(db);
+                case 40 -> downgradeFrom41to40(db);
+                case 41 -> downgradeFrom42to41(db);
+                case 42 -> downgradeFrom43to42(db);
+                case 43 -> downgradeFrom44to43(db);
+                case 44 -> downgradeFrom45to44(db);
+                case 45 -> downgradeFrom46to45(db);
                 default -> throw new RuntimeException("Not implemented: downgrade to " + toVersion);
             }
         }
@@ -645,4 +680,311 @@ public class CustomSQLiteOpenHelper extends SQLiteOpenHelper {
         db.endTransaction();
     }
 
+    /**
+     * Add ski_segments (runs, lifts, and waiting of a track); filled for existing tracks by {@link de.dennisguse.opentracks.services.SkiSegmentsBackfillService}.
+     */
+    private void upgradeFrom37to38(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE ski_segments (_id INTEGER PRIMARY KEY AUTOINCREMENT, trackid INTEGER NOT NULL, activity TEXT NOT NULL, start_trackpoint_id INTEGER, end_trackpoint_id INTEGER, starttime INTEGER NOT NULL, stoptime INTEGER NOT NULL, distance FLOAT, elevation_gain FLOAT, elevation_loss FLOAT, maxspeed FLOAT, FOREIGN KEY (trackid) REFERENCES tracks(_id) ON UPDATE CASCADE ON DELETE CASCADE)");
+        db.execSQL("CREATE INDEX ski_segments_trackid_index ON ski_segments(trackid)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom38to37(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP INDEX ski_segments_trackid_index");
+        db.execSQL("DROP TABLE ski_segments");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add season_rollups (totals per ski season) that are maintained by triggers on tracks and ski_segments.
+     * The index on starttime is used by the triggers to count ski days.
+     */
+    private void upgradeFrom38to39(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE INDEX tracks_starttime_index ON tracks(starttime)");
+
+        db.execSQL("CREATE TABLE season_rollups (season INTEGER PRIMARY KEY, track_count INTEGER NOT NULL DEFAULT 0, ski_days INTEGER NOT NULL DEFAULT 0, distance FLOAT NOT NULL DEFAULT 0, movingtime INTEGER NOT NULL DEFAULT 0, runs INTEGER NOT NULL DEFAULT 0, run_distance FLOAT NOT NULL DEFAULT 0, vertical_descent FLOAT NOT NULL DEFAULT 0)");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_ski_segments_insert AFTER INSERT ON ski_segments WHEN NEW.activity = 'RUN' BEGIN INSERT OR IGNORE INTO season_rollups (season) VALUES (CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER)); UPDATE season_rollups SET runs = runs + 1, run_distance = run_distance + IFNULL(NEW.distance, 0), vertical_descent = vertical_descent + IFNULL(NEW.elevation_loss, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_ski_segments_delete AFTER DELETE ON ski_segments WHEN OLD.activity = 'RUN' BEGIN UPDATE season_rollups SET runs = runs - 1, run_distance = run_distance - IFNULL(OLD.distance, 0), vertical_descent = vertical_descent - IFNULL(OLD.elevation_loss, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.execSQL("INSERT INTO season_rollups (season, track_count, ski_days, distance, movingtime) SELECT CAST(strftime('%Y', tracks.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER), COUNT(*), COUNT(DISTINCT date(tracks.starttime / 1000 + IFNULL(tracks.starttime_offset, 0), 'unixepoch')), TOTAL(totaldistance), TOTAL(movingtime) FROM tracks WHERE starttime IS NOT NULL GROUP BY 1");
+        db.execSQL("INSERT OR IGNORE INTO season_rollups (season) SELECT DISTINCT CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) FROM ski_segments WHERE activity = 'RUN'");
+        db.execSQL("UPDATE season_rollups SET runs = (SELECT COUNT(*) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season), run_distance = (SELECT TOTAL(distance) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season), vertical_descent = (SELECT TOTAL(elevation_loss) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom39to38(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP TRIGGER season_rollups_tracks_insert");
+        db.execSQL("DROP TRIGGER season_rollups_tracks_update_time");
+        db.execSQL("DROP TRIGGER season_rollups_tracks_update_statistics");
+        db.execSQL("DROP TRIGGER season_rollups_tracks_delete");
+        db.execSQL("DROP TRIGGER season_rollups_ski_segments_insert");
+        db.execSQL("DROP TRIGGER season_rollups_ski_segments_delete");
+        db.execSQL("DROP TABLE season_rollups");
+        db.execSQL("DROP INDEX tracks_starttime_index");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add index for filtering tracks by activity type (and start time); see {@link TrackSelection}.
+     */
+    private void upgradeFrom39to40(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE INDEX tracks_category_starttime_index ON tracks(category, starttime)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom40to39(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP INDEX tracks_category_starttime_index");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add best_efforts (best effort of a track per type); filled for existing tracks by {@link de.dennisguse.opentracks.services.BestEffortsBackfillService}.
+     */
+    private void upgradeFrom40to41(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE best_efforts (_id INTEGER PRIMARY KEY AUTOINCREMENT, trackid INTEGER NOT NULL, type TEXT NOT NULL, value FLOAT NOT NULL, starttime INTEGER NOT NULL, stoptime INTEGER NOT NULL, FOREIGN KEY (trackid) REFERENCES tracks(_id) ON UPDATE CASCADE ON DELETE CASCADE)");
+        db.execSQL("CREATE INDEX best_efforts_trackid_index ON best_efforts(trackid)");
+        db.execSQL("CREATE INDEX best_efforts_type_value_index ON best_efforts(type, value)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom41to40(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("DROP INDEX best_efforts_type_value_index");
+        db.execSQL("DROP INDEX best_efforts_trackid_index");
+        db.execSQL("DROP TABLE best_efforts");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add the time per heart rate zone to tracks (see {@link de.dennisguse.opentracks.data.models.HeartRateZones}); unknown (null) for existing tracks.
+     */
+    private void upgradeFrom41to42(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN hr_zone1_time INTEGER");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN hr_zone2_time INTEGER");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN hr_zone3_time INTEGER");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN hr_zone4_time INTEGER");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN hr_zone5_time INTEGER");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * SQLite3 does not support drop columns; therefore a new table is created and data is copied.
+     * The new table is renamed (instead of renaming the old one), so that the foreign keys of the other tables keep referring to tracks.
+     * Dropping the old table also drops its indices and triggers; so, these are re-created.
+     */
+    private void downgradeFrom42to41(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE tracks_new (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, starttime_offset INTEGER, activity_type TEXT)");
+        db.execSQL("INSERT INTO tracks_new SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, starttime_offset, activity_type FROM tracks");
+        db.execSQL("DROP TABLE tracks");
+        db.execSQL("ALTER TABLE tracks_new RENAME TO tracks");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+        db.execSQL("CREATE INDEX tracks_starttime_index ON tracks(starttime)");
+        db.execSQL("CREATE INDEX tracks_category_starttime_index ON tracks(category, starttime)");
+
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add the energy expenditure to tracks (see {@link de.dennisguse.opentracks.stats.CalorieAccumulator}) and its total to season_rollups; unknown (null) for existing tracks.
+     * The triggers of tracks are re-created to maintain the total.
+     */
+    private void upgradeFrom42to43(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN calories FLOAT");
+        db.execSQL("ALTER TABLE season_rollups ADD COLUMN calories FLOAT NOT NULL DEFAULT 0");
+
+        db.execSQL("DROP TRIGGER season_rollups_tracks_insert");
+        db.execSQL("DROP TRIGGER season_rollups_tracks_update_time");
+        db.execSQL("DROP TRIGGER season_rollups_tracks_update_statistics");
+        db.execSQL("DROP TRIGGER season_rollups_tracks_delete");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime, calories ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Like {@link #downgradeFrom42to41(SQLiteDatabase)}; season_rollups is re-created and re-computed (as it only contains totals).
+     */
+    private void downgradeFrom43to42(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE tracks_new (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, starttime_offset INTEGER, activity_type TEXT, hr_zone1_time INTEGER, hr_zone2_time INTEGER, hr_zone3_time INTEGER, hr_zone4_time INTEGER, hr_zone5_time INTEGER)");
+        db.execSQL("INSERT INTO tracks_new SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, starttime_offset, activity_type, hr_zone1_time, hr_zone2_time, hr_zone3_time, hr_zone4_time, hr_zone5_time FROM tracks");
+        db.execSQL("DROP TABLE tracks");
+        db.execSQL("ALTER TABLE tracks_new RENAME TO tracks");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+        db.execSQL("CREATE INDEX tracks_starttime_index ON tracks(starttime)");
+        db.execSQL("CREATE INDEX tracks_category_starttime_index ON tracks(category, starttime)");
+
+        db.execSQL("DROP TABLE season_rollups");
+        db.execSQL("CREATE TABLE season_rollups (season INTEGER PRIMARY KEY, track_count INTEGER NOT NULL DEFAULT 0, ski_days INTEGER NOT NULL DEFAULT 0, distance FLOAT NOT NULL DEFAULT 0, movingtime INTEGER NOT NULL DEFAULT 0, runs INTEGER NOT NULL DEFAULT 0, run_distance FLOAT NOT NULL DEFAULT 0, vertical_descent FLOAT NOT NULL DEFAULT 0)");
+        db.execSQL("INSERT INTO season_rollups (season, track_count, ski_days, distance, movingtime) SELECT CAST(strftime('%Y', tracks.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER), COUNT(*), COUNT(DISTINCT date(tracks.starttime / 1000 + IFNULL(tracks.starttime_offset, 0), 'unixepoch')), TOTAL(totaldistance), TOTAL(movingtime) FROM tracks WHERE starttime IS NOT NULL GROUP BY 1");
+        db.execSQL("INSERT OR IGNORE INTO season_rollups (season) SELECT DISTINCT CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) FROM ski_segments WHERE activity = 'RUN'");
+        db.execSQL("UPDATE season_rollups SET runs = (SELECT COUNT(*) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season), run_distance = (SELECT TOTAL(distance) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season), vertical_descent = (SELECT TOTAL(elevation_loss) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season)");
+
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void upgradeFrom43to44(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN speed_sketch BLOB");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN hr_sketch BLOB");
+        db.execSQL("ALTER TABLE tracks ADD COLUMN slope_sketch BLOB");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom44to43(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE tracks_new (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, starttime_offset INTEGER, activity_type TEXT, hr_zone1_time INTEGER, hr_zone2_time INTEGER, hr_zone3_time INTEGER, hr_zone4_time INTEGER, hr_zone5_time INTEGER, calories FLOAT)");
+        db.execSQL("INSERT INTO tracks_new SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, starttime_offset, activity_type, hr_zone1_time, hr_zone2_time, hr_zone3_time, hr_zone4_time, hr_zone5_time, calories FROM tracks");
+        db.execSQL("DROP TABLE tracks");
+        db.execSQL("ALTER TABLE tracks_new RENAME TO tracks");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+        db.execSQL("CREATE INDEX tracks_starttime_index ON tracks(starttime)");
+        db.execSQL("CREATE INDEX tracks_category_starttime_index ON tracks(category, starttime)");
+
+        // Triggers on the dropped table are gone; the rollups themselves are unchanged.
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime, calories ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add the marker whether the ski segments of a track were detected (see {@link de.dennisguse.opentracks.services.SkiSegmentsBackfillService}); set for tracks with stored ski segments.
+     */
+    private void upgradeFrom44to45(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN skisegments_detected INTEGER");
+        db.execSQL("UPDATE tracks SET skisegments_detected = 1 WHERE _id IN (SELECT trackid FROM ski_segments)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom45to44(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE tracks_new (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, starttime_offset INTEGER, activity_type TEXT, hr_zone1_time INTEGER, hr_zone2_time INTEGER, hr_zone3_time INTEGER, hr_zone4_time INTEGER, hr_zone5_time INTEGER, calories FLOAT, speed_sketch BLOB, hr_sketch BLOB, slope_sketch BLOB)");
+        db.execSQL("INSERT INTO tracks_new SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, starttime_offset, activity_type, hr_zone1_time, hr_zone2_time, hr_zone3_time, hr_zone4_time, hr_zone5_time, calories, speed_sketch, hr_sketch, slope_sketch FROM tracks");
+        db.execSQL("DROP TABLE tracks");
+        db.execSQL("ALTER TABLE tracks_new RENAME TO tracks");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+        db.execSQL("CREATE INDEX tracks_starttime_index ON tracks(starttime)");
+        db.execSQL("CREATE INDEX tracks_category_starttime_index ON tracks(category, starttime)");
+
+        // Triggers on the dropped table are gone; the rollups themselves are unchanged.
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime, calories ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    /**
+     * Add the marker whether the best efforts of a track were computed (see {@link de.dennisguse.opentracks.services.BestEffortsBackfillService}); set for tracks with stored best efforts.
+     */
+    private void upgradeFrom45to46(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("ALTER TABLE tracks ADD COLUMN bestefforts_computed INTEGER");
+        db.execSQL("UPDATE tracks SET bestefforts_computed = 1 WHERE _id IN (SELECT trackid FROM best_efforts)");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private void downgradeFrom46to45(SQLiteDatabase db) {
+        db.beginTransaction();
+
+        db.execSQL("CREATE TABLE tracks_new (_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, description TEXT, category TEXT, starttime INTEGER, stoptime INTEGER, numpoints INTEGER, totaldistance FLOAT, totaltime INTEGER, movingtime INTEGER, avgspeed FLOAT, avgmovingspeed FLOAT, maxspeed FLOAT, minelevation FLOAT, maxelevation FLOAT, elevationgain FLOAT, icon TEXT, uuid BLOB, elevationloss FLOAT, starttime_offset INTEGER, activity_type TEXT, hr_zone1_time INTEGER, hr_zone2_time INTEGER, hr_zone3_time INTEGER, hr_zone4_time INTEGER, hr_zone5_time INTEGER, calories FLOAT, speed_sketch BLOB, hr_sketch BLOB, slope_sketch BLOB, skisegments_detected INTEGER)");
+        db.execSQL("INSERT INTO tracks_new SELECT _id, name, description, category, starttime, stoptime, numpoints, totaldistance, totaltime, movingtime, avgspeed, avgmovingspeed, maxspeed, minelevation, maxelevation, elevationgain, icon, uuid, elevationloss, starttime_offset, activity_type, hr_zone1_time, hr_zone2_time, hr_zone3_time, hr_zone4_time, hr_zone5_time, calories, speed_sketch, hr_sketch, slope_sketch, skisegments_detected FROM tracks");
+        db.execSQL("DROP TABLE tracks");
+        db.execSQL("ALTER TABLE tracks_new RENAME TO tracks");
+
+        db.execSQL("CREATE UNIQUE INDEX tracks_uuid_index ON tracks(uuid)");
+        db.execSQL("CREATE INDEX tracks_starttime_index ON tracks(starttime)");
+        db.execSQL("CREATE INDEX tracks_category_starttime_index ON tracks(category, starttime)");
+
+        // Triggers on the dropped table are gone; the rollups themselves are unchanged.
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime, calories ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); END");
+        db.execSQL("CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; END");
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
 }
@@ -26,9 +26,11 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 import de.dennisguse.opentracks.io.file.exporter.TrackExporter;
 
 /**
@@ -59,6 +61,9 @@ public class ShareContentProvider extends CustomContentProvider {
     private static final UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH);
     private static final String TRACKID_DELIMITER = "_";
 
+    private static final String QUERY_SIMPLIFICATION_ALGORITHM = "simplificationAlgorithm";
+    private static final String QUERY_SIMPLIFICATION_TOLERANCE = "simplificationTolerance";
+
     static {
         uriMatcher.addURI(ContentProviderUtils.AUTHORITY_PACKAGE, TracksColumns.TABLE_NAME + "/" + TrackFileFormat.GPX.getPreferenceId() + "/*/*", URI_GPX);
 
@@ -80,6 +85,14 @@ public class ShareContentProvider extends CustomContentProvider {
      * @return An URI for one file containing all tracks.
      */
     public static Pair<Uri, String> createURI(Set<Track.Id> trackIds, String filename, @NonNull TrackFileFormat trackFileFormat) {
+        return createURI(trackIds, filename, trackFileFormat, null);
+    }
+
+    /**
+     * @param trackSimplifier if set, the trackPoints of the file are simplified.
+     * @return An URI for one file containing all tracks.
+     */
+    public static Pair<Uri, String> createURI(Set<Track.Id> trackIds, String filename, @NonNull TrackFileFormat trackFileFormat, @Nullable TrackSimplifier trackSimplifier) {
         if (trackIds.isEmpty()) {
             throw new UnsupportedOperationException();
         }
@@ -91,6 +104,12 @@ public class ShareContentProvider extends CustomContentProvider {
         trackIdBuilder.deleteCharAt(trackIdBuilder.lastIndexOf(TRACKID_DELIMITER));
 
         Uri uri = Uri.parse(TracksColumns.CONTENT_URI + "/" + trackFileFormat.getPreferenceId() + "/" + trackIdBuilder + "/" + Uri.encode(filename));
+        if (trackSimplifier != null) {
+            uri = uri.buildUpon()
+                    .appendQueryParameter(QUERY_SIMPLIFICATION_ALGORITHM, trackSimplifier.getAlgorithm().name())
+                    .appendQueryParameter(QUERY_SIMPLIFICATION_TOLERANCE, String.valueOf(trackSimplifier.getTolerance().toM()))
+                    .build();
+        }
         String mime = getTypeMime(uri);
 
         Log.d(TAG, "Created uri " + uri + " with MIME " + mime);
@@ -110,6 +129,22 @@ public class ShareContentProvider extends CustomContentProvider {
         return Arrays.stream(uriTrackIds).map(uriTrackId -> new Track.Id(Long.parseLong(uriTrackId))).collect(Collectors.toSet());
     }
 
+    @Nullable
+    static TrackSimplifier parseTrackSimplifier(Uri uri) {
+        String algorithm = uri.getQueryParameter(QUERY_SIMPLIFICATION_ALGORITHM);
+        String tolerance = uri.getQueryParameter(QUERY_SIMPLIFICATION_TOLERANCE);
+        if (algorithm == null || tolerance == null) {
+            return null;
+        }
+
+        try {
+            return new TrackSimplifier(TrackSimplifier.Algorithm.valueOf(algorithm), Distance.of(Double.parseDouble(tolerance)));
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "URI contains an invalid simplification: " + uri);
+            return null;
+        }
+    }
+
     /**
      * Do not allow to be exported via AndroidManifest.
      * Check that caller has permissions to access {@link CustomContentProvider}.
@@ -208,7 +243,7 @@ public class ShareContentProvider extends CustomContentProvider {
             }
         }
 
-        final TrackExporter trackExporter = getTrackFileFormat(uri).createTrackExporter(getContext(), new ContentProviderUtils(getContext()));
+        final TrackExporter trackExporter = getTrackFileFormat(uri).createTrackExporter(getContext(), new ContentProviderUtils(getContext()), parseTrackSimplifier(uri));
 
         PipeDataWriter<String> pipeDataWriter = (output, uri1, mimeType, opts, args) -> {
             try (FileOutputStream fileOutputStream = new FileOutputStream(output.getFileDescriptor())) {
@@ -124,7 +124,7 @@ public class TrackDataHub {
                 notifyTracksTableUpdate(listeners);
             }
         };
-        contentResolver.registerContentObserver(TracksColumns.CONTENT_URI, false, tracksTableObserver);
+        contentResolver.registerContentObserver(TracksColumns.CONTENT_URI, true, tracksTableObserver);
 
         markersTableObserver = new ContentObserver(handler) {
             @Override
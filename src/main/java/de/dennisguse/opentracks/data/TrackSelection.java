@@ -2,18 +2,36 @@ package de.dennisguse.opentracks.data;
 
 import android.text.TextUtils;
 
+import androidx.annotation.VisibleForTesting;
+
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 
+/**
+ * Selection of tracks; the resulting SQL can use the indices on {@link TracksColumns#STARTTIME} and {@link TracksColumns#ACTIVITY_TYPE_LOCALIZED} (with {@link TracksColumns#STARTTIME}) as well as the primary key.
+ */
 public class TrackSelection implements ContentProviderUtils.ContentProviderSelectionInterface {
-    private final List<Track.Id> trackIds = new ArrayList<>();
-    private final List<String> categories = new ArrayList<>();
+
+    /**
+     * Track ids up to this number are passed as selection arguments; more are inlined to stay below SQLite's limit of variables per statement (999 on older devices).
+     */
+    @VisibleForTesting
+    static final int MAX_TRACK_ID_ARGS = 100;
+
+    @VisibleForTesting
+    static final int TRACK_ID_CHUNK_SIZE = 500;
+
+    private final Set<Track.Id> trackIds = new LinkedHashSet<>();
+    private final Set<String> categories = new LinkedHashSet<>();
     private Instant from;
     private Instant to;
 
@@ -24,16 +42,12 @@ public class TrackSelection implements ContentProviderUtils.ContentProviderSelec
     }
 
     public TrackSelection addTrackId(Track.Id trackId) {
-        if (!this.trackIds.contains(trackId)) {
-            this.trackIds.add(trackId);
-        }
+        this.trackIds.add(trackId);
         return this;
     }
 
     public TrackSelection addActivityType(String activityType) {
-        if (!this.categories.contains(activityType)) {
-            this.categories.add(activityType);
-        }
+        this.categories.add(activityType);
         return this;
     }
 
@@ -41,6 +55,16 @@ public class TrackSelection implements ContentProviderUtils.ContentProviderSelec
         return trackIds.isEmpty() && categories.isEmpty() && from == null && to == null;
     }
 
+    /**
+     * @return a representation of this selection that does not depend on the order in which track ids and activity types were added; e.g., for use as a cache key.
+     */
+    public String getCanonicalKey() {
+        String ids = trackIds.stream().mapToLong(Track.Id::id).sorted().mapToObj(Long::toString).collect(Collectors.joining(","));
+        String activityTypes = categories.stream().sorted().map(category -> category.replace("\\", "\\\\").replace(",", "\\,").replace(";", "\\;")).collect(Collectors.joining(","));
+        String range = from != null && to != null ? from.toEpochMilli() + "-" + to.toEpochMilli() : "";
+        return ids + ";" + activityTypes + ";" + range;
+    }
+
     @Override
     public SelectionData buildSelection() {
         String selection = "";
@@ -48,8 +72,13 @@ public class TrackSelection implements ContentProviderUtils.ContentProviderSelec
         ArrayList<String> fromToArgs = new ArrayList<>();
 
         // Builds selection.
+        boolean trackIdArgs = trackIds.size() <= MAX_TRACK_ID_ARGS;
         if (!trackIds.isEmpty()) {
-            selection = String.format(TracksColumns._ID + " IN (%s)", TextUtils.join(",", Collections.nCopies(trackIds.size(), "?")));
+            if (trackIdArgs) {
+                selection = String.format(TracksColumns._ID + " IN (%s)", TextUtils.join(",", Collections.nCopies(trackIds.size(), "?")));
+            } else {
+                selection = buildTrackIdSelection();
+            }
         }
         if (!categories.isEmpty()) {
             selection += selection.isEmpty() ? "" : " AND ";
@@ -67,11 +96,31 @@ public class TrackSelection implements ContentProviderUtils.ContentProviderSelec
         }
 
         // Builds selection arguments.
-        ArrayList<String> args = trackIds.stream().map(id -> Long.toString(id.id())).collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<String> args = new ArrayList<>();
+        if (trackIdArgs) {
+            trackIds.stream().map(id -> Long.toString(id.id())).forEach(args::add);
+        }
         args.addAll(categories);
         args.addAll(fromToArgs);
         selectionArgs = args.stream().toArray(String[]::new);
 
         return new SelectionData(selection, selectionArgs);
     }
+
+    /**
+     * Inlines the (numeric) track ids in chunks; a chunk of consecutive ids becomes a range of the primary key.
+     */
+    private String buildTrackIdSelection() {
+        long[] ids = trackIds.stream().mapToLong(Track.Id::id).sorted().toArray();
+        List<String> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.length; start += TRACK_ID_CHUNK_SIZE) {
+            int end = Math.min(start + TRACK_ID_CHUNK_SIZE, ids.length) - 1;
+            if (ids[end] - ids[start] == end - start) {
+                chunks.add(TracksColumns._ID + " BETWEEN " + ids[start] + " AND " + ids[end]);
+            } else {
+                chunks.add(TracksColumns._ID + " IN (" + Arrays.stream(ids, start, end + 1).mapToObj(Long::toString).collect(Collectors.joining(",")) + ")");
+            }
+        }
+        return "(" + TextUtils.join(" OR ", chunks) + ")";
+    }
 }
@@ -1,19 +1,73 @@
 package de.dennisguse.opentracks.data.models;
 
+import androidx.annotation.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Energy expenditure (kcal) of a person.
+ * <p>
+ * Without heart rate, the energy is estimated from the MET (Metabolic Equivalent of Task) of the {@link State}.
+ * With heart rate, the formula of Keytel et al. (2005) is used (average of both sexes as the sex is unknown); it is not lower than resting.
+ */
 public class CalorieCalculator {
 
-    // Method to calculate calories burned during skiing
-    public double calculateCalories(double weightInKg, double durationInHours, double metValue) {
-        double caloriesBurned = metValue * weightInKg * durationInHours; //MET (Metabolic Equivalent of Task) value is a unit used to measure the intensity of physical activities.
-        return caloriesBurned;
+    // Used as long as the user profile does not provide these.
+    public static final Weight DEFAULT_WEIGHT = Weight.of(80);
+    public static final int DEFAULT_AGE = 35;
+
+    private static final double RESTING_MET = 1.0;
+
+    public enum State {
+        LIFT(1.3), // sitting on a lift
+        SKIING(5.3), // downhill skiing, moderate effort
+        WAITING(1.3), // standing
+        WALKING(3.5); // walking (e.g., in ski boots)
+
+        private final double met;
+
+        State(double met) {
+            this.met = met;
+        }
+
+        public double getMET() {
+            return met;
+        }
     }
 
-    // Overloaded method with a default MET value
-    public double calculateCalories(double weightInKg, double durationInHours) {
-        // Default MET value for skiing
-        double defaultMetValue = 5.0; // You can adjust this default value as needed
+    private final double weight_kg;
+    private final int age;
+
+    public CalorieCalculator() {
+        this(DEFAULT_WEIGHT, DEFAULT_AGE);
+    }
+
+    public CalorieCalculator(@NonNull Weight weight, int age) {
+        this.weight_kg = weight.weight_kg();
+        this.age = age;
+    }
+
+    public static double calculateCalories(double weightInKg, double durationInHours, double metValue) {
+        return metValue * weightInKg * durationInHours;
+    }
+
+    /**
+     * @return the energy in kcal spent in the state.
+     */
+    public double getCalories(@NonNull State state, @NonNull Duration duration) {
+        return calculateCalories(weight_kg, toHours(duration), state.getMET());
+    }
+
+    /**
+     * @return the energy in kcal spent at the heart rate.
+     */
+    public double getCalories(@NonNull HeartRate heartRate, @NonNull Duration duration) {
+        double kcalPerMinute = (-37.7496 + 0.5391 * heartRate.getBPM() + 0.0363 * weight_kg + 0.1379 * age) / 4.184;
+        double restingKcalPerMinute = calculateCalories(weight_kg, 1 / 60d, RESTING_MET);
+        return Math.max(kcalPerMinute, restingKcalPerMinute) * duration.toMillis() / 60000d;
+    }
 
-        // Call the main calculateCalories method with the default MET value
-        return calculateCalories(weightInKg, durationInHours, defaultMetValue);
+    private static double toHours(Duration duration) {
+        return duration.toMillis() / 3600000d;
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,11 @@ package de.dennisguse.opentracks.data.models;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.dennisguse.opentracks.stats.LiftRegistry;
 
 public class Chairlift {
     private String name;
@@ -12,9 +15,10 @@ public class Chairlift {
     private double averageSpeed;
     private String liftType;
     private int id;
-    private static int nextId = 1;
+    private static final AtomicInteger nextId = new AtomicInteger(1);
 
-    private static final Map<Integer, Chairlift> validChairlifts = new HashMap<>();
+    // Keyed by the id of the lift in the LiftRegistry, so repeated rides of a lift result in one Chairlift.
+    private static final Map<Integer, Chairlift> validChairlifts = new ConcurrentHashMap<>();
 
     public int getId() {
         return id;
@@ -30,8 +34,7 @@ public class Chairlift {
         this.number = number;
         this.averageSpeed = averageSpeed;
         this.liftType = liftType;
-        this.id = nextId;
-        nextId++;
+        this.id = nextId.getAndIncrement();
     }
 
     // Getters and Setters
@@ -73,6 +76,16 @@ public class Chairlift {
             return false; //Not enough data
         }
 
+        //Known lift: first and last track points are on the same lift
+        LiftRegistry.Lift bottomLift = LiftRegistry.getInstance().match(trackPoints.get(0));
+        LiftRegistry.Lift topLift = LiftRegistry.getInstance().match(trackPoints.get(trackPoints.size() - 1));
+        if (bottomLift != null && topLift != null && bottomLift.getId() == topLift.getId()) {
+            for (TrackPoint trackPoint : trackPoints) {
+                trackPoint.setChairliftSegment(true);
+            }
+            return true;
+        }
+
         //Thresholds to determine movement of chairlift (you can adjust these as needed)
         double altitudeChangeThreshold = 2.0;
         double speedThreshold = 2;
@@ -114,8 +127,10 @@ public class Chairlift {
 
         if (totalTime > timeThreshold){
             if (time > 1 && time < 7.7){ //in second?
-                Chairlift validChairlift = new Chairlift(name, number, averageSpeed, liftType);
-                validChairlifts.put(validChairlift.getId(), validChairlift);
+                LiftRegistry.Lift lift = LiftRegistry.getInstance().learn(trackPoints);
+                if (lift != null) {
+                    validChairlifts.computeIfAbsent(lift.getId(), liftId -> new Chairlift(name, number, averageSpeed, liftType));
+                }
                 for (TrackPoint trackPoint : trackPoints){
                     trackPoint.setChairliftSegment(true);
                 }
@@ -10,29 +10,41 @@ import de.dennisguse.opentracks.ui.util.ThemeUtils;
 
 public class HeartRateZones {
 
+    public static final int ZONE_COUNT = 5;
+
     private final HeartRate max;
 
     public HeartRateZones(@NonNull HeartRate max) {
         this.max = max;
     }
 
-    public int getTextColorForZone(Context context, HeartRate current) {
-        if (current != null) {
-            if (current.getBPM() >= max.getBPM() * 0.9) {
-                return ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_5);
-            }
-            if (current.getBPM() >= max.getBPM() * 0.8) {
-                return ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_4);
-            }
-            if (current.getBPM() >= max.getBPM() * 0.7) {
-                return ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_3);
-            }
-            if (current.getBPM() >= max.getBPM() * 0.6) {
-                return ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_2);
-            }
+    /**
+     * @return the zone (1 to {@link #ZONE_COUNT}) by percentage of the maximum heart rate: below 60%, 60%, 70%, 80%, and 90%.
+     */
+    public int getZone(@NonNull HeartRate current) {
+        if (current.getBPM() >= max.getBPM() * 0.9) {
+            return 5;
+        }
+        if (current.getBPM() >= max.getBPM() * 0.8) {
+            return 4;
+        }
+        if (current.getBPM() >= max.getBPM() * 0.7) {
+            return 3;
         }
+        if (current.getBPM() >= max.getBPM() * 0.6) {
+            return 2;
+        }
+        return 1;
+    }
 
-        // Zone 1
-        return ThemeUtils.getTextColorPrimary(context);
+    public int getTextColorForZone(Context context, HeartRate current) {
+        int zone = current != null ? getZone(current) : 1;
+        return switch (zone) {
+            case 5 -> ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_5);
+            case 4 -> ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_4);
+            case 3 -> ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_3);
+            case 2 -> ContextCompat.getColor(context, R.color.heart_rate_zone_textcolor_2);
+            default -> ThemeUtils.getTextColorPrimary(context); // Zone 1
+        };
     }
 }
@@ -61,6 +61,20 @@ public class Track {
         this.zoneOffset = zoneOffset;
     }
 
+    /**
+     * Copy constructor (incl. the {@link TrackStatistics}).
+     */
+    public Track(@NonNull Track toCopy) {
+        this.id = toCopy.id;
+        this.uuid = toCopy.uuid;
+        this.name = toCopy.name;
+        this.description = toCopy.description;
+        this.activityTypeLocalized = toCopy.activityTypeLocalized;
+        this.activityType = toCopy.activityType;
+        this.zoneOffset = toCopy.zoneOffset;
+        this.trackStatistics = new TrackStatistics(toCopy.trackStatistics);
+    }
+
     /**
      * May be null if the track was not loaded from the database.
      */
@@ -27,6 +27,8 @@ import androidx.annotation.VisibleForTesting;
 import java.time.Duration;
 import java.time.Instant;
 
+import de.dennisguse.opentracks.util.LocationUtils;
+
 /**
  * Sensor and/or location information for a specific point in time.
  * <p>
@@ -352,7 +354,7 @@ public class TrackPoint {
             throw new RuntimeException("Cannot compute distance.");
         }
 
-        return Distance.of(getLocation().distanceTo(previous.getLocation()));
+        return Distance.of(LocationUtils.distance(previous.latitude, previous.longitude, latitude, longitude));
     }
 
     public boolean fulfillsAccuracy(Distance thresholdHorizontalAccuracy) {
@@ -360,12 +362,18 @@ public class TrackPoint {
     }
 
     public float bearingTo(@NonNull TrackPoint dest) {
-        return bearingTo(dest.getLocation());
+        if (!hasLocation() || !dest.hasLocation()) {
+            return bearingTo(dest.getLocation());
+        }
+        return (float) LocationUtils.bearing(latitude, longitude, dest.latitude, dest.longitude);
     }
 
     //TODO Bearing requires a location; what do we do if we don't have any?
     public float bearingTo(@NonNull Location dest) {
-        return getLocation().bearingTo(dest);
+        if (!hasLocation()) {
+            return getLocation().bearingTo(dest);
+        }
+        return (float) LocationUtils.bearing(latitude, longitude, dest.getLatitude(), dest.getLongitude());
     }
 
     // Sensor data
@@ -6,8 +6,6 @@
  */
 package de.dennisguse.opentracks.data.models;
 
-import android.content.Context;
-import android.content.SharedPreferences;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -58,51 +56,4 @@ public class TrackPointUtils {
 
         return movingAverages; // Return the list of moving averages
     }
-
-
-
-
-
-
-
-    //====================================================================================
-    //               CODE BELOW REQUIRES IMPLEMENTATION OF OTHER DEPENDENCIES
-    //====================================================================================
-
-//    // Code for implementation of user input 5,10,15. Requires full implementation of others parts in order to function.
-
-
-//    private Context context;
-    // Method to retrieve the number of data points the user wants to include in the moving average
-//    private int getSelectedDataPoints(Context context) {
-//        SharedPreferences sharedPreferences = context.getSharedPreferences("AppPreferences", Context.MODE_PRIVATE);
-//        return sharedPreferences.getInt("SelectedValue", 5); // Default to 5 if no value is set
-//    }
-
-
-
-//    //  Code to implement on the page that uses the moving average. Dependency still required. Mock variables in place until full implementation.
-//
-//    // Method to calculate the moving average of speed for a specific activity
-//    public void calculateMovingAverageForActivity(Context context, int activityIndex) {
-//        // Retrieve the user-selected number of data points from SharedPreferences
-//        int numDataPoints = getSelectedDataPoints(context);
-//
-//
-//        // Method to retrieve the sub-activity list
-//        List<RunLiftStatistics.SkiSubActivity> skiSubActivityList = getSubActivitiesList();
-//
-//        // Retrieve the selected sub-activity using the provided index
-//        RunLiftStatistics.SkiSubActivity selectedActivity = skiSubActivityList.get(activityIndex);
-//
-//        // Retrieve track points from the selected sub-activity
-//        List<TrackPoint> trackPoints = selectedActivity.getTrackPoints();
-//
-//        // Calculate the moving averages for the selected activity using the user-selected number of data points
-//        List<Double> movingAverages = TrackPointUtils.calculateSpeedMovingAverage(trackPoints, numDataPoints);
-//
-//
-//    }
-
-
 }
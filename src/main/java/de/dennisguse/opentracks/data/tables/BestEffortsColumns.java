@@ -0,0 +1,39 @@
+package de.dennisguse.opentracks.data.tables;
+
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+
+/**
+ * Constants for the best efforts table: the best effort of a track per {@link de.dennisguse.opentracks.stats.BestEffortsCalculator.Type}.
+ * The index on type and value makes looking up the all-time best effort of a type a single index lookup.
+ */
+public interface BestEffortsColumns extends BaseColumns {
+
+    String TABLE_NAME = "best_efforts";
+    Uri CONTENT_URI = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME);
+    String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.de.dennisguse.besteffort";
+    String DEFAULT_SORT_ORDER = _ID;
+
+    // Columns
+    String TRACKID = "trackid"; // track id
+    String TYPE = "type"; // BestEffortsCalculator.Type
+    String VALUE = "value"; // duration in s, altitude loss in m, or speed in m/s (depending on type)
+    String START_TIME = "starttime"; // start time of the effort
+    String STOP_TIME = "stoptime"; // stop time of the effort
+
+    String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " ("
+            + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + TRACKID + " INTEGER NOT NULL, "
+            + TYPE + " TEXT NOT NULL, "
+            + VALUE + " FLOAT NOT NULL, "
+            + START_TIME + " INTEGER NOT NULL, "
+            + STOP_TIME + " INTEGER NOT NULL, "
+            + "FOREIGN KEY (" + TRACKID + ") REFERENCES " + TracksColumns.TABLE_NAME + "(" + TracksColumns._ID + ") ON UPDATE CASCADE ON DELETE CASCADE"
+            + ")";
+
+    String CREATE_TABLE_INDEX = "CREATE INDEX " + TABLE_NAME + "_" + TRACKID + "_index ON " + TABLE_NAME + "(" + TRACKID + ")";
+
+    String CREATE_TABLE_INDEX_TYPE_VALUE = "CREATE INDEX " + TABLE_NAME + "_" + TYPE + "_" + VALUE + "_index ON " + TABLE_NAME + "(" + TYPE + ", " + VALUE + ")";
+}
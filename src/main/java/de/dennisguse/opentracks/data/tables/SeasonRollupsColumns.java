@@ -0,0 +1,85 @@
+package de.dennisguse.opentracks.data.tables;
+
+import android.net.Uri;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+
+/**
+ * Constants for the season rollups table: totals of all tracks and runs per ski season.
+ * <p>
+ * The table is maintained by triggers whenever a track or a ski segment is inserted, updated, or deleted; so loading the totals does not depend on the number of tracks.
+ * A season starts on July 1st (UTC) and is identified by its start year; ski days are counted in the local time of the tracks.
+ */
+public interface SeasonRollupsColumns {
+
+    String TABLE_NAME = "season_rollups";
+    Uri CONTENT_URI = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME);
+    Uri CONTENT_URI_BY_SEASON = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/season");
+    String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.de.dennisguse.seasonrollup";
+    String CONTENT_ITEMTYPE = "vnd.android.cursor.item/vnd.de.dennisguse.seasonrollup";
+
+    // Columns
+    String SEASON = "season"; // start year of the season
+    String TRACK_COUNT = "track_count"; // number of tracks
+    String SKI_DAYS = "ski_days"; // number of days with tracks
+    String DISTANCE = "distance"; // total distance in m
+    String MOVINGTIME = "movingtime"; // total moving time in ms
+    String RUNS = "runs"; // number of runs
+    String RUN_DISTANCE = "run_distance"; // total distance of runs in m
+    String VERTICAL_DESCENT = "vertical_descent"; // total altitude loss of runs in m
+    String CALORIES = "calories"; // total energy expenditure of tracks in kcal
+
+    String DEFAULT_SORT_ORDER = SEASON;
+
+    String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " ("
+            + SEASON + " INTEGER PRIMARY KEY, "
+            + TRACK_COUNT + " INTEGER NOT NULL DEFAULT 0, "
+            + SKI_DAYS + " INTEGER NOT NULL DEFAULT 0, "
+            + DISTANCE + " FLOAT NOT NULL DEFAULT 0, "
+            + MOVINGTIME + " INTEGER NOT NULL DEFAULT 0, "
+            + RUNS + " INTEGER NOT NULL DEFAULT 0, "
+            + RUN_DISTANCE + " FLOAT NOT NULL DEFAULT 0, "
+            + VERTICAL_DESCENT + " FLOAT NOT NULL DEFAULT 0, "
+            + CALORIES + " FLOAT NOT NULL DEFAULT 0"
+            + ")";
+
+    /**
+     * A track is the first of its day (i.e., adds a ski day) if no other track starts on the same local date; only tracks within +/- 36h are considered.
+     */
+    String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER season_rollups_tracks_insert AFTER INSERT ON tracks WHEN NEW.starttime IS NOT NULL BEGIN "
+                    + "INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; "
+                    + "UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "END",
+            "CREATE TRIGGER season_rollups_tracks_update_time AFTER UPDATE OF starttime, starttime_offset ON tracks WHEN OLD.starttime IS NOT NEW.starttime OR OLD.starttime_offset IS NOT NEW.starttime_offset BEGIN "
+                    + "UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "INSERT OR IGNORE INTO season_rollups (season) SELECT CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) WHERE NEW.starttime IS NOT NULL; "
+                    + "UPDATE season_rollups SET track_count = track_count + 1, ski_days = ski_days + (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != NEW._id AND t.starttime BETWEEN NEW.starttime - 129600000 AND NEW.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(NEW.starttime / 1000 + IFNULL(NEW.starttime_offset, 0), 'unixepoch'))), distance = distance + IFNULL(NEW.totaldistance, 0), movingtime = movingtime + IFNULL(NEW.movingtime, 0), calories = calories + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; "
+                    + "END",
+            "CREATE TRIGGER season_rollups_tracks_update_statistics AFTER UPDATE OF totaldistance, movingtime, calories ON tracks WHEN NEW.starttime IS NOT NULL AND OLD.starttime IS NEW.starttime AND OLD.starttime_offset IS NEW.starttime_offset BEGIN "
+                    + "UPDATE season_rollups SET distance = distance - IFNULL(OLD.totaldistance, 0) + IFNULL(NEW.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0) + IFNULL(NEW.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) + IFNULL(NEW.calories, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "END",
+            "CREATE TRIGGER season_rollups_tracks_delete AFTER DELETE ON tracks WHEN OLD.starttime IS NOT NULL BEGIN "
+                    + "UPDATE season_rollups SET track_count = track_count - 1, ski_days = ski_days - (NOT EXISTS (SELECT 1 FROM tracks t WHERE t._id != OLD._id AND t.starttime BETWEEN OLD.starttime - 129600000 AND OLD.starttime + 129600000 AND date(t.starttime / 1000 + IFNULL(t.starttime_offset, 0), 'unixepoch') = date(OLD.starttime / 1000 + IFNULL(OLD.starttime_offset, 0), 'unixepoch'))), distance = distance - IFNULL(OLD.totaldistance, 0), movingtime = movingtime - IFNULL(OLD.movingtime, 0), calories = calories - IFNULL(OLD.calories, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; "
+                    + "END",
+            "CREATE TRIGGER season_rollups_ski_segments_insert AFTER INSERT ON ski_segments WHEN NEW.activity = 'RUN' BEGIN "
+                    + "INSERT OR IGNORE INTO season_rollups (season) VALUES (CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER)); "
+                    + "UPDATE season_rollups SET runs = runs + 1, run_distance = run_distance + IFNULL(NEW.distance, 0), vertical_descent = vertical_descent + IFNULL(NEW.elevation_loss, 0) WHERE season = CAST(strftime('%Y', NEW.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "END",
+            "CREATE TRIGGER season_rollups_ski_segments_delete AFTER DELETE ON ski_segments WHEN OLD.activity = 'RUN' BEGIN "
+                    + "UPDATE season_rollups SET runs = runs - 1, run_distance = run_distance - IFNULL(OLD.distance, 0), vertical_descent = vertical_descent - IFNULL(OLD.elevation_loss, 0) WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER); "
+                    + "DELETE FROM season_rollups WHERE season = CAST(strftime('%Y', OLD.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) AND track_count = 0 AND runs = 0; "
+                    + "END"
+    };
+
+    /**
+     * Computes the rollups from the existing tracks and ski segments (requires an empty table).
+     */
+    String[] FILL = {
+            "INSERT INTO season_rollups (season, track_count, ski_days, distance, movingtime, calories) SELECT CAST(strftime('%Y', tracks.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER), COUNT(*), COUNT(DISTINCT date(tracks.starttime / 1000 + IFNULL(tracks.starttime_offset, 0), 'unixepoch')), TOTAL(totaldistance), TOTAL(movingtime), TOTAL(calories) FROM tracks WHERE starttime IS NOT NULL GROUP BY 1",
+            "INSERT OR IGNORE INTO season_rollups (season) SELECT DISTINCT CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) FROM ski_segments WHERE activity = 'RUN'",
+            "UPDATE season_rollups SET runs = (SELECT COUNT(*) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season), run_distance = (SELECT TOTAL(distance) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season), vertical_descent = (SELECT TOTAL(elevation_loss) FROM ski_segments WHERE activity = 'RUN' AND CAST(strftime('%Y', ski_segments.starttime / 1000, 'unixepoch', '-6 months') AS INTEGER) = season_rollups.season)"
+    };
+}
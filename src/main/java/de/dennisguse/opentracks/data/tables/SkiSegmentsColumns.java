@@ -0,0 +1,61 @@
+package de.dennisguse.opentracks.data.tables;
+
+import android.net.Uri;
+import android.provider.BaseColumns;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+
+/**
+ * Constants for the ski segments table: runs, lifts, and waiting of a track (see {@link de.dennisguse.opentracks.stats.SkiSegmentDetector}).
+ */
+public interface SkiSegmentsColumns extends BaseColumns {
+
+    String TABLE_NAME = "ski_segments";
+    Uri CONTENT_URI = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME);
+    Uri CONTENT_URI_BY_TRACKID = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/trackid");
+    Uri CONTENT_URI_DAILY = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/daily"); // grouped by DAY
+    String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.de.dennisguse.skisegment";
+    String CONTENT_ITEMTYPE = "vnd.android.cursor.item/vnd.de.dennisguse.skisegment";
+    String DEFAULT_SORT_ORDER = _ID;
+
+    // Columns
+    String TRACKID = "trackid"; // track id
+    String ACTIVITY = "activity"; // SkiSegmentDetector.Activity
+
+    String START_TRACKPOINT_ID = "start_trackpoint_id"; // first trackPoint of the segment
+    String END_TRACKPOINT_ID = "end_trackpoint_id"; // last trackPoint of the segment
+    String START_TIME = "starttime"; // start time
+    String STOP_TIME = "stoptime"; // stop time
+
+    String DISTANCE = "distance"; // distance in m
+    String ALTITUDE_GAIN = "elevation_gain"; // altitude gain in m
+    String ALTITUDE_LOSS = "elevation_loss"; // altitude loss in m
+    String MAX_SPEED = "maxspeed"; // maximum speed in m/s
+
+    // Virtual columns of CONTENT_URI_DAILY
+    String DAY = "day"; // days since epoch in the time zone of the track
+    String RUN_DISTANCE = "run_distance"; // sum of the distance of runs in m
+    String RUN_TIME = "run_time"; // sum of the duration of runs in ms
+    String RUN_ALTITUDE_LOSS = "run_elevation_loss"; // sum of the altitude loss of runs in m
+    String LIFT_DISTANCE = "lift_distance"; // sum of the distance of lifts in m
+    String LIFT_TIME = "lift_time"; // sum of the duration of lifts in ms
+
+    String DAY_EXPRESSION = "(" + TABLE_NAME + "." + START_TIME + " / 1000 + IFNULL(" + TracksColumns.TABLE_NAME + "." + TracksColumns.STARTTIME_OFFSET + ", 0)) / 86400";
+
+    String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " ("
+            + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+            + TRACKID + " INTEGER NOT NULL, "
+            + ACTIVITY + " TEXT NOT NULL, "
+            + START_TRACKPOINT_ID + " INTEGER, "
+            + END_TRACKPOINT_ID + " INTEGER, "
+            + START_TIME + " INTEGER NOT NULL, "
+            + STOP_TIME + " INTEGER NOT NULL, "
+            + DISTANCE + " FLOAT, "
+            + ALTITUDE_GAIN + " FLOAT, "
+            + ALTITUDE_LOSS + " FLOAT, "
+            + MAX_SPEED + " FLOAT, "
+            + "FOREIGN KEY (" + TRACKID + ") REFERENCES " + TracksColumns.TABLE_NAME + "(" + TracksColumns._ID + ") ON UPDATE CASCADE ON DELETE CASCADE"
+            + ")";
+
+    String CREATE_TABLE_INDEX = "CREATE INDEX " + TABLE_NAME + "_" + TRACKID + "_index ON " + TABLE_NAME + "(" + TRACKID + ")";
+}
@@ -31,6 +31,8 @@ public interface TracksColumns extends BaseColumns {
     String TABLE_NAME = "tracks";
     Uri CONTENT_URI = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME);
     Uri CONTENT_URI_SENSOR_STATS = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/sensorstats");
+    Uri CONTENT_URI_STATISTICS = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/statistics"); // update of the statistics only; not notified as change of the track (i.e., CONTENT_URI/#)
+    Uri CONTENT_URI_SUMMARY = Uri.parse(ContentProviderUtils.CONTENT_BASE_URI + "/" + TABLE_NAME + "/summary"); // grouped by activity type
     String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.de.dennisguse.track";
     String CONTENT_ITEMTYPE = "vnd.android.cursor.item/vnd.de.dennisguse.track";
     String DEFAULT_SORT_ORDER = _ID;
@@ -48,6 +50,7 @@ public interface TracksColumns extends BaseColumns {
     String STARTTIME_OFFSET = "starttime_offset"; // in plus/minus in seconds
     String STOPTIME = "stoptime"; // track stop time
     String MARKER_COUNT = "markerCount"; // the numbers of markers (virtual column)
+    String TRACK_COUNT = "trackCount"; // the numbers of tracks (virtual column of CONTENT_URI_SUMMARY)
     @Deprecated
     String NUMPOINTS = "numpoints"; // number of track points //TODO UNUSED
     String TOTALDISTANCE = "totaldistance"; // total distance
@@ -62,6 +65,24 @@ public interface TracksColumns extends BaseColumns {
     String ALTITUDE_GAIN = "elevationgain"; // altitude gain //TODO RENAME column
     String ALTITUDE_LOSS = "elevationloss"; // altitude loss //TODO RENAME column
 
+    // Time in heart rate zone (see HeartRateZones); null if no heart rate was recorded.
+    String HEART_RATE_ZONE1_TIME = "hr_zone1_time";
+    String HEART_RATE_ZONE2_TIME = "hr_zone2_time";
+    String HEART_RATE_ZONE3_TIME = "hr_zone3_time";
+    String HEART_RATE_ZONE4_TIME = "hr_zone4_time";
+    String HEART_RATE_ZONE5_TIME = "hr_zone5_time";
+    String[] HEART_RATE_ZONE_TIMES = {HEART_RATE_ZONE1_TIME, HEART_RATE_ZONE2_TIME, HEART_RATE_ZONE3_TIME, HEART_RATE_ZONE4_TIME, HEART_RATE_ZONE5_TIME};
+
+    String CALORIES = "calories"; // energy expenditure in kcal (see CalorieCalculator)
+
+    // Distributions (see QuantileSketch); null if not computed.
+    String SPEED_SKETCH = "speed_sketch"; // speed in m/s weighted by moving time
+    String HEART_RATE_SKETCH = "hr_sketch"; // heart rate in bpm weighted by time
+    String SLOPE_SKETCH = "slope_sketch"; // slope in percent weighted by distance
+
+    String SKI_SEGMENTS_DETECTED = "skisegments_detected"; // 1 if the ski segments were detected (see SkiSegmentsColumns); null if not yet
+    String BEST_EFFORTS_COMPUTED = "bestefforts_computed"; // 1 if the best efforts were computed (see BestEffortsColumns); null if not yet
+
     String CREATE_TABLE = "CREATE TABLE " + TABLE_NAME + " ("
             + _ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
             + NAME + " TEXT, "
@@ -83,8 +104,23 @@ public interface TracksColumns extends BaseColumns {
             + UUID + " BLOB, "
             + ALTITUDE_LOSS + " FLOAT, "
             + STARTTIME_OFFSET + " INTEGER, "
-            + ACTIVITY_TYPE + " TEXT)";
+            + ACTIVITY_TYPE + " TEXT, "
+            + HEART_RATE_ZONE1_TIME + " INTEGER, "
+            + HEART_RATE_ZONE2_TIME + " INTEGER, "
+            + HEART_RATE_ZONE3_TIME + " INTEGER, "
+            + HEART_RATE_ZONE4_TIME + " INTEGER, "
+            + HEART_RATE_ZONE5_TIME + " INTEGER, "
+            + CALORIES + " FLOAT, "
+            + SPEED_SKETCH + " BLOB, "
+            + HEART_RATE_SKETCH + " BLOB, "
+            + SLOPE_SKETCH + " BLOB, "
+            + SKI_SEGMENTS_DETECTED + " INTEGER, "
+            + BEST_EFFORTS_COMPUTED + " INTEGER)";
 
     String CREATE_TABLE_INDEX = "CREATE UNIQUE INDEX " + TABLE_NAME + "_" + UUID + "_index ON " + TABLE_NAME + "(" + UUID + ")";
 
+    String CREATE_TABLE_INDEX_STARTTIME = "CREATE INDEX " + TABLE_NAME + "_" + STARTTIME + "_index ON " + TABLE_NAME + "(" + STARTTIME + ")";
+
+    String CREATE_TABLE_INDEX_CATEGORY_STARTTIME = "CREATE INDEX " + TABLE_NAME + "_" + ACTIVITY_TYPE_LOCALIZED + "_" + STARTTIME + "_index ON " + TABLE_NAME + "(" + ACTIVITY_TYPE_LOCALIZED + ", " + STARTTIME + ")";
+
 }
@@ -245,6 +245,14 @@ public class StatisticsRecordedFragment extends Fragment {
             boolean show = altitudeGain_m != null && altitudeLoss_m != null;
             viewBinding.statsAltitudeGroup.setVisibility(show ? View.VISIBLE : View.GONE);
         }
+
+        // Set time in heart rate zones
+        {
+            if (trackStatistics.hasHeartRateZoneTimes()) {
+                viewBinding.statsHeartRateZonesValue.setText(StringUtils.formatHeartRateZoneTimes(getContext(), trackStatistics));
+            }
+            viewBinding.statsHeartRateZonesGroup.setVisibility(trackStatistics.hasHeartRateZoneTimes() ? View.VISIBLE : View.GONE);
+        }
     }
 
     private void updateSensorUI() {
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.res.Resources;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -27,8 +28,8 @@ public enum TrackFileFormat {
 
     KML_WITH_TRACKDETAIL_AND_SENSORDATA("KML_WITH_TRACKDETAIL_AND_SENSORDATA") {
         @Override
-        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils) {
-            return new KMLTrackExporter(context, contentProviderUtils, false);
+        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils, @Nullable TrackSimplifier trackSimplifier) {
+            return new KMLTrackExporter(context, contentProviderUtils, false, trackSimplifier);
         }
 
         @Override
@@ -47,8 +48,8 @@ public enum TrackFileFormat {
         private static final boolean exportPhotos = false;
 
         @Override
-        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils) {
-            KMLTrackExporter exporter = new KMLTrackExporter(context, contentProviderUtils, exportPhotos);
+        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils, @Nullable TrackSimplifier trackSimplifier) {
+            KMLTrackExporter exporter = new KMLTrackExporter(context, contentProviderUtils, exportPhotos, trackSimplifier);
             return new KmzTrackExporter(context, contentProviderUtils, exporter, exportPhotos);
         }
 
@@ -72,8 +73,8 @@ public enum TrackFileFormat {
         private static final boolean exportPhotos = true;
 
         @Override
-        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils) {
-            KMLTrackExporter exporter = new KMLTrackExporter(context, contentProviderUtils, exportPhotos);
+        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils, @Nullable TrackSimplifier trackSimplifier) {
+            KMLTrackExporter exporter = new KMLTrackExporter(context, contentProviderUtils, exportPhotos, trackSimplifier);
             return new KmzTrackExporter(context, contentProviderUtils, exporter, exportPhotos);
         }
 
@@ -95,8 +96,8 @@ public enum TrackFileFormat {
 
     GPX("GPX") {
         @Override
-        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils) {
-            return new GPXTrackExporter(contentProviderUtils, context.getString(R.string.app_name));
+        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils, @Nullable TrackSimplifier trackSimplifier) {
+            return new GPXTrackExporter(contentProviderUtils, context.getString(R.string.app_name), trackSimplifier);
         }
 
         @Override
@@ -111,10 +112,15 @@ public enum TrackFileFormat {
 
     CSV("CSV") {
         @Override
-        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils) {
+        public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils, @Nullable TrackSimplifier trackSimplifier) {
             return new CSVTrackExporter(contentProviderUtils);
         }
 
+        @Override
+        public boolean supportsSimplification() {
+            return false;
+        }
+
         @Override
         public String getMimeType() {
             return "text/csv";
@@ -163,7 +169,17 @@ public enum TrackFileFormat {
      *
      * @param context the context
      */
-    public abstract TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils);
+    public TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils) {
+        return createTrackExporter(context, contentProviderUtils, null);
+    }
+
+    /**
+     * Creates a new track writer for the format.
+     *
+     * @param context         the context
+     * @param trackSimplifier if set, the trackPoints are simplified (if supported by the format).
+     */
+    public abstract TrackExporter createTrackExporter(@NonNull Context context, @NonNull ContentProviderUtils contentProviderUtils, @Nullable TrackSimplifier trackSimplifier);
 
     /**
      * Returns the file extension for each format.
@@ -177,6 +193,13 @@ public enum TrackFileFormat {
         return false;
     }
 
+    /**
+     * Returns whether the format supports simplification of the trackPoints (see {@link TrackSimplifier}).
+     */
+    public boolean supportsSimplification() {
+        return true;
+    }
+
     /**
      * The identifier to be stored in the preferences.
      */
@@ -0,0 +1,384 @@
+package de.dennisguse.opentracks.io.file;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Reduces the number of {@link TrackPoint}s of a track while keeping its shape (e.g., for export or to show a track on a map).
+ * <p>
+ * Only the locations of {@link TrackPoint.Type#TRACKPOINT}s are simplified; all other trackPoints (e.g., segment boundaries or sensor data without location) are kept.
+ * Each run of locations between segment boundaries keeps its first and last location.
+ * The sensor data of a removed location (e.g., heart rate, altitude gain/loss, or sensor distance) is kept as trackPoint without location, so it is added to the next location by the exporters.
+ * Both algorithms are non-recursive and run in O(n log n) (Douglas-Peucker in the average case).
+ */
+public class TrackSimplifier {
+
+    public enum Algorithm {
+        // Removes locations closer than the tolerance to the simplified line.
+        DOUGLAS_PEUCKER,
+        // Removes locations whose triangle with their neighbors has an area smaller than the tolerance squared.
+        VISVALINGAM_WHYATT
+    }
+
+    private static final double EARTH_RADIUS_M = 6371009;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_M * Math.PI / 180;
+
+    private final Algorithm algorithm;
+    private final Distance tolerance;
+
+    public TrackSimplifier(@NonNull Algorithm algorithm, @NonNull Distance tolerance) {
+        this.algorithm = algorithm;
+        this.tolerance = tolerance;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public Distance getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TrackSimplifier that = (TrackSimplifier) o;
+        return algorithm == that.algorithm && Objects.equals(tolerance, that.tolerance);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(algorithm, tolerance);
+    }
+
+    /**
+     * Buffers all trackPoints to simplify them.
+     *
+     * @return the kept trackPoints (in order).
+     */
+    @NonNull
+    public Iterator<TrackPoint> simplify(@NonNull Iterator<TrackPoint> trackPoints) {
+        List<TrackPoint> buffer = new ArrayList<>();
+        trackPoints.forEachRemaining(buffer::add);
+        return simplify(buffer).iterator();
+    }
+
+    /**
+     * @return the kept trackPoints (in order).
+     */
+    @NonNull
+    public List<TrackPoint> simplify(@NonNull List<TrackPoint> trackPoints) {
+        boolean[] keep = new boolean[trackPoints.size()];
+
+        // Indices of the current run of locations.
+        int[] run = new int[trackPoints.size()];
+        int runSize = 0;
+
+        for (int i = 0; i < trackPoints.size(); i++) {
+            TrackPoint trackPoint = trackPoints.get(i);
+            if (trackPoint.getType() != TrackPoint.Type.TRACKPOINT) {
+                simplifyRun(trackPoints, run, runSize, keep);
+                runSize = 0;
+                keep[i] = true;
+            } else if (!trackPoint.hasLocation()) {
+                keep[i] = true;
+            }
+
+            if (trackPoint.hasLocation()) {
+                run[runSize++] = i;
+            }
+        }
+        simplifyRun(trackPoints, run, runSize, keep);
+
+        List<TrackPoint> simplified = new ArrayList<>();
+        for (int i = 0; i < trackPoints.size(); i++) {
+            TrackPoint trackPoint = trackPoints.get(i);
+            if (keep[i]) {
+                simplified.add(trackPoint);
+            } else if (hasSensorData(trackPoint)) {
+                simplified.add(copySensorData(trackPoint));
+            }
+        }
+        return simplified;
+    }
+
+    private static boolean hasSensorData(TrackPoint trackPoint) {
+        return trackPoint.hasSensorDistance() || trackPoint.hasAltitudeGain() || trackPoint.hasAltitudeLoss()
+                || trackPoint.hasHeartRate() || trackPoint.hasCadence() || trackPoint.hasPower();
+    }
+
+    /**
+     * @return a trackPoint without location with the sensor data of the trackPoint.
+     */
+    private static TrackPoint copySensorData(TrackPoint trackPoint) {
+        TrackPoint sensorData = new TrackPoint(TrackPoint.Type.TRACKPOINT, trackPoint.getTime());
+        sensorData.setId(trackPoint.getId());
+        if (trackPoint.hasSensorDistance()) {
+            sensorData.setSensorDistance(trackPoint.getSensorDistance());
+        }
+        if (trackPoint.hasAltitudeGain()) {
+            sensorData.setAltitudeGain(trackPoint.getAltitudeGain());
+        }
+        if (trackPoint.hasAltitudeLoss()) {
+            sensorData.setAltitudeLoss(trackPoint.getAltitudeLoss());
+        }
+        if (trackPoint.hasHeartRate()) {
+            sensorData.setHeartRate(trackPoint.getHeartRate());
+        }
+        if (trackPoint.hasCadence()) {
+            sensorData.setCadence(trackPoint.getCadence());
+        }
+        if (trackPoint.hasPower()) {
+            sensorData.setPower(trackPoint.getPower());
+        }
+        return sensorData;
+    }
+
+    private void simplifyRun(List<TrackPoint> trackPoints, int[] run, int runSize, boolean[] keep) {
+        if (runSize <= 2) {
+            for (int i = 0; i < runSize; i++) {
+                keep[run[i]] = true;
+            }
+            return;
+        }
+
+        // Project to a local plane (in m) around the first location.
+        TrackPoint first = trackPoints.get(run[0]);
+        double metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(first.getLatitude()));
+        double[] x = new double[runSize];
+        double[] y = new double[runSize];
+        for (int i = 0; i < runSize; i++) {
+            TrackPoint trackPoint = trackPoints.get(run[i]);
+            x[i] = (trackPoint.getLongitude() - first.getLongitude()) * metersPerDegreeLongitude;
+            y[i] = (trackPoint.getLatitude() - first.getLatitude()) * METERS_PER_DEGREE;
+        }
+
+        double tolerance_m = tolerance.toM();
+        boolean[] keepRun = switch (algorithm) {
+            case DOUGLAS_PEUCKER -> douglasPeucker(x, y, tolerance_m);
+            case VISVALINGAM_WHYATT -> visvalingamWhyatt(x, y, tolerance_m * tolerance_m);
+        };
+        for (int i = 0; i < runSize; i++) {
+            if (keepRun[i]) {
+                keep[run[i]] = true;
+            }
+        }
+    }
+
+    /**
+     * Douglas-Peucker with an explicit stack of index ranges instead of recursion.
+     *
+     * @return which points to keep.
+     */
+    @VisibleForTesting
+    static boolean[] douglasPeucker(double[] x, double[] y, double tolerance) {
+        int n = x.length;
+        boolean[] keep = new boolean[n];
+        if (n == 0) {
+            return keep;
+        }
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        // Ranges on the stack are disjoint and contain at least one point, so there are less than n.
+        int[] stack = new int[2 * n];
+        int stackSize = 0;
+        if (n > 2) {
+            stack[stackSize++] = 0;
+            stack[stackSize++] = n - 1;
+        }
+
+        while (stackSize > 0) {
+            int end = stack[--stackSize];
+            int start = stack[--stackSize];
+
+            int maxIndex = -1;
+            double maxDistance = tolerance;
+            for (int i = start + 1; i < end; i++) {
+                double distance = distanceToSegment(x[i], y[i], x[start], y[start], x[end], y[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    maxIndex = i;
+                }
+            }
+
+            if (maxIndex != -1) {
+                keep[maxIndex] = true;
+                if (maxIndex - start > 1) {
+                    stack[stackSize++] = start;
+                    stack[stackSize++] = maxIndex;
+                }
+                if (end - maxIndex > 1) {
+                    stack[stackSize++] = maxIndex;
+                    stack[stackSize++] = end;
+                }
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * Visvalingam-Whyatt with an indexed min-heap of the effective areas (so, a point's area can be updated after its neighbor was removed).
+     *
+     * @return which points to keep.
+     */
+    @VisibleForTesting
+    static boolean[] visvalingamWhyatt(double[] x, double[] y, double minArea) {
+        int n = x.length;
+        boolean[] keep = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            keep[i] = true;
+        }
+        if (n <= 2) {
+            return keep;
+        }
+
+        int[] previous = new int[n];
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++) {
+            previous[i] = i - 1;
+            next[i] = i + 1;
+        }
+
+        AreaHeap heap = new AreaHeap(n);
+        for (int i = 1; i < n - 1; i++) {
+            heap.add(i, triangleArea(x, y, i - 1, i, i + 1));
+        }
+
+        while (!heap.isEmpty()) {
+            double area = heap.minArea();
+            if (area >= minArea) {
+                break;
+            }
+            int i = heap.removeMin();
+            keep[i] = false;
+
+            int p = previous[i];
+            int q = next[i];
+            next[p] = q;
+            previous[q] = p;
+
+            // The effective area of a neighbor is at least the area of the removed point.
+            if (p > 0) {
+                heap.update(p, Math.max(area, triangleArea(x, y, previous[p], p, q)));
+            }
+            if (q < n - 1) {
+                heap.update(q, Math.max(area, triangleArea(x, y, p, q, next[q])));
+            }
+        }
+        return keep;
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        }
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+
+    private static double triangleArea(double[] x, double[] y, int a, int b, int c) {
+        return Math.abs((x[b] - x[a]) * (y[c] - y[a]) - (x[c] - x[a]) * (y[b] - y[a])) / 2;
+    }
+
+    /**
+     * Binary min-heap of point indices by area; knows the position of each index to update its area in O(log n).
+     */
+    private static class AreaHeap {
+        private final int[] heap;
+        private final int[] positions;
+        private final double[] areas;
+        private int size;
+
+        AreaHeap(int capacity) {
+            heap = new int[capacity];
+            positions = new int[capacity];
+            areas = new double[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int index, double area) {
+            areas[index] = area;
+            heap[size] = index;
+            positions[index] = size;
+            size++;
+            siftUp(size - 1);
+        }
+
+        double minArea() {
+            return areas[heap[0]];
+        }
+
+        int removeMin() {
+            int min = heap[0];
+            size--;
+            if (size > 0) {
+                move(heap[size], 0);
+                siftDown(0);
+            }
+            return min;
+        }
+
+        void update(int index, double area) {
+            double oldArea = areas[index];
+            areas[index] = area;
+            if (area < oldArea) {
+                siftUp(positions[index]);
+            } else {
+                siftDown(positions[index]);
+            }
+        }
+
+        private void siftUp(int position) {
+            int index = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (areas[heap[parent]] <= areas[index]) {
+                    break;
+                }
+                move(heap[parent], position);
+                position = parent;
+            }
+            move(index, position);
+        }
+
+        private void siftDown(int position) {
+            int index = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && areas[heap[child + 1]] < areas[heap[child]]) {
+                    child++;
+                }
+                if (areas[index] <= areas[heap[child]]) {
+                    break;
+                }
+                move(heap[child], position);
+                position = child;
+            }
+            move(index, position);
+        }
+
+        private void move(int index, int position) {
+            heap[position] = index;
+            positions[index] = position;
+        }
+    }
+}
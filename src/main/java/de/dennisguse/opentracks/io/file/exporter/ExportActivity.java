@@ -41,6 +41,7 @@ import de.dennisguse.opentracks.databinding.ExportActivityBinding;
 import de.dennisguse.opentracks.io.file.ErrorListDialog;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
 import de.dennisguse.opentracks.io.file.TrackFilenameGenerator;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 import de.dennisguse.opentracks.settings.PreferencesUtils;
 import de.dennisguse.opentracks.util.ExportUtils;
 import de.dennisguse.opentracks.util.FileUtils;
@@ -229,12 +230,13 @@ public class ExportActivity extends AppCompatActivity implements ExportService.E
 
     private void createExportTasks(boolean allInOneFile) {
         List<Track> tracks = contentProviderUtils.getTracks();
+        TrackSimplifier trackSimplifier = trackFileFormat.supportsSimplification() ? PreferencesUtils.getExportTrackSimplifier() : null;
         exportTasks = new ArrayList<>();
         if (allInOneFile) {
             String filename = "OpenTracks-Backup";
-            exportTasks.add(new ExportTask(filename, trackFileFormat, tracks.stream().map(Track::getId).collect(Collectors.toList())));
+            exportTasks.add(new ExportTask(filename, trackFileFormat, tracks.stream().map(Track::getId).collect(Collectors.toList()), trackSimplifier));
         } else {
-            exportTasks.addAll(tracks.stream().map(it -> new ExportTask(null, trackFileFormat, List.of(it.getId()))).collect(Collectors.toList()));
+            exportTasks.addAll(tracks.stream().map(it -> new ExportTask(null, trackFileFormat, List.of(it.getId()), trackSimplifier)).collect(Collectors.toList()));
         }
         trackExportTotalCount = exportTasks.size();
     }
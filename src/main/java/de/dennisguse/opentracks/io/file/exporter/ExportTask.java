@@ -9,8 +9,10 @@ import androidx.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
 
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 
 public class ExportTask implements Parcelable {
 
@@ -20,16 +22,27 @@ public class ExportTask implements Parcelable {
 
     private final List<Track.Id> trackIds;
 
+    @Nullable
+    private final TrackSimplifier trackSimplifier;
+
     public ExportTask(@Nullable String filename, @NonNull TrackFileFormat trackFileFormat, @NonNull List<Track.Id> trackIds) {
+        this(filename, trackFileFormat, trackIds, null);
+    }
+
+    public ExportTask(@Nullable String filename, @NonNull TrackFileFormat trackFileFormat, @NonNull List<Track.Id> trackIds, @Nullable TrackSimplifier trackSimplifier) {
         this.filename = filename;
         this.trackFileFormat = trackFileFormat;
         this.trackIds = trackIds;
+        this.trackSimplifier = trackSimplifier;
     }
 
     protected ExportTask(Parcel in) {
         filename = in.readString();
         trackFileFormat = TrackFileFormat.valueOf(in.readString());
         trackIds = in.createTypedArrayList(Track.Id.CREATOR);
+        String algorithm = in.readString();
+        double tolerance_m = in.readDouble();
+        trackSimplifier = algorithm != null ? new TrackSimplifier(TrackSimplifier.Algorithm.valueOf(algorithm), Distance.of(tolerance_m)) : null;
     }
 
     public String getFilename() {
@@ -44,6 +57,11 @@ public class ExportTask implements Parcelable {
         return trackIds;
     }
 
+    @Nullable
+    public TrackSimplifier getTrackSimplifier() {
+        return trackSimplifier;
+    }
+
     public boolean isMultiExport() {
         return trackIds.size() > 1;
     }
@@ -53,12 +71,12 @@ public class ExportTask implements Parcelable {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ExportTask that = (ExportTask) o;
-        return Objects.equals(filename, that.filename) && trackFileFormat == that.trackFileFormat && Objects.equals(trackIds, that.trackIds);
+        return Objects.equals(filename, that.filename) && trackFileFormat == that.trackFileFormat && Objects.equals(trackIds, that.trackIds) && Objects.equals(trackSimplifier, that.trackSimplifier);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(filename, trackFileFormat, trackIds);
+        return Objects.hash(filename, trackFileFormat, trackIds, trackSimplifier);
     }
 
     @Override
@@ -66,6 +84,8 @@ public class ExportTask implements Parcelable {
         dest.writeString(filename);
         dest.writeString(trackFileFormat.name());
         dest.writeTypedList(trackIds);
+        dest.writeString(trackSimplifier != null ? trackSimplifier.getAlgorithm().name() : null);
+        dest.writeDouble(trackSimplifier != null ? trackSimplifier.getTolerance().toM() : 0);
     }
 
     @Override
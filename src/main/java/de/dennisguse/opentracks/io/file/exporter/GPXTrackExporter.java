@@ -20,11 +20,13 @@ import android.database.Cursor;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.text.NumberFormat;
 import java.time.ZoneOffset;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -38,6 +40,7 @@ import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Marker;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.util.StringUtils;
 
@@ -90,11 +93,21 @@ public class GPXTrackExporter implements TrackExporter {
     private final ContentProviderUtils contentProviderUtils;
 
     private final String creator;
+    @Nullable
+    private final TrackSimplifier trackSimplifier;
     private PrintWriter printWriter;
 
     public GPXTrackExporter(ContentProviderUtils contentProviderUtils, String creator) {
+        this(contentProviderUtils, creator, null);
+    }
+
+    /**
+     * @param trackSimplifier if set, the trackPoints are simplified.
+     */
+    public GPXTrackExporter(ContentProviderUtils contentProviderUtils, String creator, @Nullable TrackSimplifier trackSimplifier) {
         this.contentProviderUtils = contentProviderUtils;
         this.creator = creator;
+        this.trackSimplifier = trackSimplifier;
     }
 
     @Override
@@ -129,10 +142,11 @@ public class GPXTrackExporter implements TrackExporter {
         LinkedList<TrackPoint> sensorPoints = new LinkedList<>();
 
         try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(track.getId(), null)) {
-            while (trackPointIterator.hasNext()) {
+            Iterator<TrackPoint> trackPoints = trackSimplifier != null ? trackSimplifier.simplify(trackPointIterator) : trackPointIterator;
+            while (trackPoints.hasNext()) {
                 if (Thread.interrupted()) throw new InterruptedException();
 
-                TrackPoint trackPoint = trackPointIterator.next();
+                TrackPoint trackPoint = trackPoints.next();
 
                 if (!wroteTrack) {
                     writeBeginTrack(track);
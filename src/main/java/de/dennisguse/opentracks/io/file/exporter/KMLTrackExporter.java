@@ -22,6 +22,7 @@ import android.location.Location;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 import java.io.OutputStream;
@@ -30,6 +31,7 @@ import java.text.NumberFormat;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -41,6 +43,7 @@ import de.dennisguse.opentracks.data.models.ActivityType;
 import de.dennisguse.opentracks.data.models.Marker;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 import de.dennisguse.opentracks.ui.markers.MarkerUtils;
 import de.dennisguse.opentracks.util.StringUtils;
 
@@ -84,6 +87,8 @@ public class KMLTrackExporter implements TrackExporter {
     private final Context context;
     private final boolean exportPhotos;
     private final ContentProviderUtils contentProviderUtils;
+    @Nullable
+    private final TrackSimplifier trackSimplifier;
 
     private PrintWriter printWriter;
 
@@ -100,9 +105,17 @@ public class KMLTrackExporter implements TrackExporter {
     private final List<Float> accuracyVertical = new ArrayList<>();
 
     public KMLTrackExporter(Context context, ContentProviderUtils contentProviderUtils, boolean exportPhotos) {
+        this(context, contentProviderUtils, exportPhotos, null);
+    }
+
+    /**
+     * @param trackSimplifier if set, the trackPoints are simplified.
+     */
+    public KMLTrackExporter(Context context, ContentProviderUtils contentProviderUtils, boolean exportPhotos, @Nullable TrackSimplifier trackSimplifier) {
         this.context = context;
         this.exportPhotos = exportPhotos;
         this.contentProviderUtils = contentProviderUtils;
+        this.trackSimplifier = trackSimplifier;
     }
 
     public boolean writeTrack(List<Track> tracks, @NonNull OutputStream outputStream) {
@@ -161,10 +174,11 @@ public class KMLTrackExporter implements TrackExporter {
         boolean wroteSegment = false;
 
         try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(track.getId(), null)) {
-            while (trackPointIterator.hasNext()) {
+            Iterator<TrackPoint> trackPoints = trackSimplifier != null ? trackSimplifier.simplify(trackPointIterator) : trackPointIterator;
+            while (trackPoints.hasNext()) {
                 if (Thread.interrupted()) throw new InterruptedException();
 
-                TrackPoint trackPoint = trackPointIterator.next();
+                TrackPoint trackPoint = trackPoints.next();
                 if (!wroteTrack) {
                     writeBeginTrack(track);
                     wroteTrack = true;
@@ -20,13 +20,21 @@ import java.util.stream.Collectors;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
 import de.dennisguse.opentracks.data.models.ActivityType;
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Marker;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.settings.PreferencesUtils;
+import de.dennisguse.opentracks.stats.LiftRegistry;
+import de.dennisguse.opentracks.stats.BestEffortsCalculator;
+import de.dennisguse.opentracks.stats.RunMatcher;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 import de.dennisguse.opentracks.stats.TrackStatistics;
+import de.dennisguse.opentracks.stats.TrackStatisticsIndex;
 import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
 import de.dennisguse.opentracks.ui.markers.MarkerUtils;
 import de.dennisguse.opentracks.util.FileUtils;
@@ -149,6 +157,10 @@ public class TrackImporter {
         adjustTrackPoints();
 
         TrackStatisticsUpdater updater = new TrackStatisticsUpdater();
+        updater.setHeartRateZones(PreferencesUtils.getHeartRateZones());
+        updater.setCalorieCalculator(new CalorieCalculator());
+        updater.setFuseAltitude(true);
+        updater.setQuantileSketches(true);
         updater.addTrackPoints(trackPoints);
         track.setTrackStatistics(updater.getTrackStatistics());
 
@@ -164,6 +176,18 @@ public class TrackImporter {
 
         contentProviderUtils.bulkInsertMarkers(markers, trackId);
 
+        // Store ski segments (requires the ids of the stored TrackPoints)
+        List<SkiSegmentDetector.Segment> skiSegments;
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, null)) {
+            skiSegments = SkiSegmentDetector.detect(trackPointIterator);
+        }
+        contentProviderUtils.replaceSkiSegments(trackId, null, skiSegments);
+        LiftRegistry.getInstance().learn(contentProviderUtils, trackId, skiSegments);
+        RunMatcher.getInstance().learn(contentProviderUtils, trackId, skiSegments);
+
+        // Store best efforts
+        contentProviderUtils.replaceBestEfforts(trackId, BestEffortsCalculator.compute(trackPoints.iterator()));
+
         //Clear up.
         trackPoints.clear();
         markers.clear();
@@ -188,7 +212,7 @@ public class TrackImporter {
                     //TODO Remove by 31st December 2021.
                     trackPoints.set(i, new TrackPoint(TrackPoint.Type.SEGMENT_START_MANUAL, time));
                     //TODO Delete location
-                } else if (!LocationUtils.isValidLocation(current.getLocation())) {
+                } else if (!LocationUtils.isValidLocation(current.getLatitude(), current.getLongitude())) {
                     throw new ImportParserException("Invalid location detected: " + current);
                 }
             }
@@ -220,20 +244,21 @@ public class TrackImporter {
      * NOTE: Modifies content of markers (incl. removal).
      */
     private void matchMarkers2TrackPoints(Track.Id trackId) {
-        List<TrackPoint> trackPointsWithLocation = trackPoints.stream()
-                .filter(TrackPoint::hasLocation)
-                .collect(Collectors.toList());
+        TrackStatisticsIndex trackStatisticsIndex = new TrackStatisticsIndex();
+        trackPoints.forEach(trackStatisticsIndex::addTrackPoint);
 
         List<Marker> todoMarkers = new LinkedList<>(markers);
         List<Marker> doneMarkers = new LinkedList<>();
 
-        for (final TrackPoint trackPoint : trackPointsWithLocation) {
+        for (int i = 0; i < trackPoints.size(); i++) {
             if (todoMarkers.isEmpty()) {
                 break;
             }
 
-            TrackStatisticsUpdater updater = new TrackStatisticsUpdater();
-            updater.addTrackPoint(trackPoint);
+            final TrackPoint trackPoint = trackPoints.get(i);
+            if (!trackPoint.hasLocation()) {
+                continue;
+            }
 
             List<Marker> matchedMarkers = todoMarkers.stream()
                     .filter(it -> trackPoint.getLatitude() == it.getLatitude()
@@ -242,7 +267,8 @@ public class TrackImporter {
                     )
                     .collect(Collectors.toList());
 
-            TrackStatistics statistics = updater.getTrackStatistics();
+            // Statistics from the start of the track until the marker.
+            TrackStatistics statistics = trackStatisticsIndex.getStatistics(0, i);
             for (Marker marker : matchedMarkers) {
                 if (marker.hasPhoto()) {
                     marker.setPhotoUrl(getInternalPhotoUrl(trackId, marker.getPhotoUrl()));
@@ -8,12 +8,16 @@ import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import de.dennisguse.opentracks.R;
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.TrackPoint;
 import de.dennisguse.opentracks.sensors.sensorData.Aggregator;
 import de.dennisguse.opentracks.sensors.sensorData.Raw;
 import de.dennisguse.opentracks.sensors.sensorData.SensorDataSet;
 import de.dennisguse.opentracks.services.handlers.GPSManager;
+import de.dennisguse.opentracks.services.handlers.RecordingPipeline;
 import de.dennisguse.opentracks.services.handlers.TrackPointCreator;
+import de.dennisguse.opentracks.settings.PreferencesUtils;
 
 public class SensorManager implements SharedPreferences.OnSharedPreferenceChangeListener {
 
@@ -25,30 +29,41 @@ public class SensorManager implements SharedPreferences.OnSharedPreferenceChange
 
     private final TrackPointCreator observer;
 
+    // The sensorDataSet is only modified by the recordingPipeline.
+    private final RecordingPipeline recordingPipeline;
+
     private final SensorDataChangedObserver listener = new SensorDataChangedObserver() {
 
         @Override
         public void onConnect(Aggregator<?, ?> aggregator) {
-            sensorDataSet.add(aggregator);
-            observer.onChange(new SensorDataSet(sensorDataSet));
+            recordingPipeline.post(() -> {
+                sensorDataSet.add(aggregator);
+                observer.onChange(sensorDataSet);
+            });
         }
 
         @Override
         public void onChange(Raw<?> data) {
-            sensorDataSet.update(data);
-            observer.onChange(new SensorDataSet(sensorDataSet));
+            recordingPipeline.post(() -> {
+                sensorDataSet.update(data);
+                observer.onChange(sensorDataSet);
+            });
         }
 
         @Override
         public void onDisconnect(Aggregator<?, ?> aggregator) {
-            sensorDataSet.add(aggregator);
-            observer.onChange(new SensorDataSet(sensorDataSet));
+            recordingPipeline.post(() -> {
+                sensorDataSet.add(aggregator);
+                observer.onChange(sensorDataSet);
+            });
         }
 
         @Override
         public void onRemove(Aggregator<?, ?> aggregator) {
-            sensorDataSet.remove(aggregator);
-            observer.onChange(new SensorDataSet(sensorDataSet));
+            recordingPipeline.post(() -> {
+                sensorDataSet.remove(aggregator);
+                observer.onChange(sensorDataSet);
+            });
         }
     };
 
@@ -58,8 +73,9 @@ public class SensorManager implements SharedPreferences.OnSharedPreferenceChange
 
     private GPSManager gpsManager;
 
-    public SensorManager(TrackPointCreator observer) {
+    public SensorManager(TrackPointCreator observer, RecordingPipeline recordingPipeline) {
         this.observer = observer;
+        this.recordingPipeline = recordingPipeline;
     }
 
     public void start(Context context, Handler handler) {
@@ -88,7 +104,7 @@ public class SensorManager implements SharedPreferences.OnSharedPreferenceChange
         gpsManager.stop(context);
         gpsManager = null;
 
-        sensorDataSet.clear();
+        recordingPipeline.post(sensorDataSet::clear);
     }
 
     public SensorDataSet fill(TrackPoint trackPoint) {
@@ -108,6 +124,7 @@ public class SensorManager implements SharedPreferences.OnSharedPreferenceChange
     @VisibleForTesting
     public void onChanged(Raw<?> data) {
         listener.onChange(data);
+        recordingPipeline.flush();
     }
 
     public GPSManager getGpsManager() {
@@ -128,6 +145,10 @@ public class SensorManager implements SharedPreferences.OnSharedPreferenceChange
 
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, @Nullable String key) {
+        if (PreferencesUtils.isKey(R.string.settings_sensor_bluetooth_cycling_speed_wheel_circumference_key, key)) {
+            Distance wheelCircumference = PreferencesUtils.getWheelCircumference();
+            recordingPipeline.post(() -> sensorDataSet.setWheelCircumference(wheelCircumference));
+        }
         if (gpsManager != null) {
             gpsManager.onSharedPreferenceChanged(sharedPreferences, key);
             bluetoothSensorManager.onSharedPreferenceChanged(sharedPreferences, key);
@@ -7,8 +7,14 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
 import de.dennisguse.opentracks.data.models.AtmosphericPressure;
 import de.dennisguse.opentracks.data.models.Cadence;
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.HeartRate;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.TrackPoint;
@@ -22,6 +28,33 @@ public final class SensorDataSet {
 
     private static final String TAG = SensorDataSet.class.getSimpleName();
 
+    /**
+     * Routes a sample by the type of its value to the responsible aggregator (instead of testing each type).
+     */
+    private static final Map<Class<? extends Record>, BiConsumer<SensorDataSet, Raw<?>>> DISPATCH = new HashMap<>();
+
+    static {
+        register(HeartRate.class, set -> set.heartRate);
+        register(BluetoothHandlerCyclingCadence.CrankData.class, set -> set.cyclingCadence);
+        register(BluetoothHandlerCyclingDistanceSpeed.WheelData.class, set -> set.cyclingDistanceSpeed);
+        register(BluetoothHandlerRunningSpeedAndCadence.Data.class, set -> set.runningDistanceSpeedCadence);
+        register(BluetoothHandlerManagerCyclingPower.Data.class, set -> set.cyclingPower);
+        register(AtmosphericPressure.class, set -> set.barometer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Record> void register(Class<T> type, Function<SensorDataSet, Aggregator<T, ?>> aggregatorOf) {
+        DISPATCH.put(type, (set, data) -> {
+            Raw<T> typedData = (Raw<T>) data;
+            Aggregator<T, ?> aggregator = aggregatorOf.apply(set);
+            if (aggregator == null) {
+                Log.w(TAG, "No aggregator for " + type.getSimpleName() + "; ignoring data.");
+                return;
+            }
+            aggregator.add(typedData);
+        });
+    }
+
     @VisibleForTesting
     public AggregatorHeartRate heartRate;
 
@@ -40,6 +73,9 @@ public final class SensorDataSet {
     @VisibleForTesting
     public AggregatorBarometer barometer;
 
+    // Initially from the RecordingSettings; updated via SensorManager.onSharedPreferenceChanged().
+    private Distance wheelCircumference;
+
     public SensorDataSet() {
     }
 
@@ -50,6 +86,7 @@ public final class SensorDataSet {
         this.cyclingPower = toCopy.cyclingPower;
         this.runningDistanceSpeedCadence = toCopy.runningDistanceSpeedCadence;
         this.barometer = toCopy.barometer;
+        this.wheelCircumference = toCopy.wheelCircumference;
     }
 
     public Pair<HeartRate, String> getHeartRate() {
@@ -93,37 +130,26 @@ public final class SensorDataSet {
     }
 
     public void update(@NonNull Raw<?> data) {
-        Record value = data.value();
-
-        if (value instanceof HeartRate) {
-            this.heartRate.add((Raw<HeartRate>) data);
-            return;
+        BiConsumer<SensorDataSet, Raw<?>> dispatch = DISPATCH.get(data.value().getClass());
+        if (dispatch == null) {
+            throw new UnsupportedOperationException(data.getClass().getCanonicalName() + " " + data.value().getClass().getCanonicalName());
         }
 
-        if (value instanceof BluetoothHandlerCyclingCadence.CrankData) {
-            this.cyclingCadence.add((Raw<BluetoothHandlerCyclingCadence.CrankData>) data);
-            return;
-        }
-        if (value instanceof BluetoothHandlerCyclingDistanceSpeed.WheelData ) {
-            this.cyclingDistanceSpeed.setWheelCircumference(PreferencesUtils.getWheelCircumference()); //TODO Fetch once and then listen for changes.
-            this.cyclingDistanceSpeed.add((Raw<BluetoothHandlerCyclingDistanceSpeed.WheelData>) data);
-            return;
-        }
-        if (value instanceof BluetoothHandlerRunningSpeedAndCadence.Data) {
-            this.runningDistanceSpeedCadence.add((Raw<BluetoothHandlerRunningSpeedAndCadence.Data>) data);
+        dispatch.accept(this, data);
+    }
 
-            return;
-        }
-        if (value instanceof BluetoothHandlerManagerCyclingPower.Data) {
-            this.cyclingPower.add((Raw<BluetoothHandlerManagerCyclingPower.Data>) data);
-            return;
-        }
-        if (value instanceof AtmosphericPressure) {
-            this.barometer.add((Raw<AtmosphericPressure>) data);
-            return;
+    public void setWheelCircumference(@NonNull Distance wheelCircumference) {
+        this.wheelCircumference = wheelCircumference;
+        if (cyclingDistanceSpeed != null) {
+            cyclingDistanceSpeed.setWheelCircumference(wheelCircumference);
         }
+    }
 
-        throw new UnsupportedOperationException(data.getClass().getCanonicalName() + " " + data.value().getClass().getCanonicalName());
+    private Distance getWheelCircumference() {
+        if (wheelCircumference == null) {
+            wheelCircumference = PreferencesUtils.getRecordingSettings().wheelCircumference();
+        }
+        return wheelCircumference;
     }
 
     public void remove(@NonNull Aggregator<?, ?> type) {
@@ -141,16 +167,19 @@ public final class SensorDataSet {
     }
 
     public void fillTrackPoint(TrackPoint trackPoint) {
-        if (getHeartRate() != null) {
-            trackPoint.setHeartRate(getHeartRate().first);
+        Pair<HeartRate, String> currentHeartRate = getHeartRate();
+        if (currentHeartRate != null) {
+            trackPoint.setHeartRate(currentHeartRate.first);
         }
 
-        if (getCadence() != null) {
-            trackPoint.setCadence(getCadence().first);
+        Pair<Cadence, String> currentCadence = getCadence();
+        if (currentCadence != null) {
+            trackPoint.setCadence(currentCadence.first);
         }
 
-        if (getSpeed() != null) {
-            trackPoint.setSpeed(getSpeed().first);
+        Pair<Speed, String> currentSpeed = getSpeed();
+        if (currentSpeed != null) {
+            trackPoint.setSpeed(currentSpeed.first);
         }
 
         if (cyclingDistanceSpeed != null && cyclingDistanceSpeed.hasValue()) {
@@ -195,6 +224,9 @@ public final class SensorDataSet {
         }
         if (type instanceof AggregatorCyclingDistanceSpeed) {
             cyclingDistanceSpeed = (AggregatorCyclingDistanceSpeed) sensorData;
+            if (cyclingDistanceSpeed != null) {
+                cyclingDistanceSpeed.setWheelCircumference(getWheelCircumference());
+            }
             return;
         }
         if (type instanceof AggregatorCyclingPower) {
@@ -0,0 +1,68 @@
+package de.dennisguse.opentracks.services;
+
+import android.app.job.JobService;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.JobIntentService;
+
+import java.util.List;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.stats.BestEffortsCalculator;
+
+/**
+ * Computes and stores the best efforts of all tracks for which they were not yet computed (e.g., recorded before best efforts were stored).
+ * <p>
+ * If the track is being recorded, the best efforts of the current recording session are merged once the recording stops.
+ */
+public class BestEffortsBackfillService extends JobIntentService {
+
+    private static final String TAG = BestEffortsBackfillService.class.getSimpleName();
+
+    private static final int JOB_ID = 6;
+
+    private volatile boolean stopped;
+
+    public static void enqueue(Context context) {
+        Intent intent = new Intent(context, JobService.class);
+        enqueueWork(context, BestEffortsBackfillService.class, JOB_ID, intent);
+    }
+
+    @Override
+    protected void onHandleWork(@NonNull Intent intent) {
+        ContentProviderUtils contentProviderUtils = new ContentProviderUtils(this);
+        List<Track.Id> trackIds = contentProviderUtils.getTrackIdsWithoutBestEffortsComputed();
+        if (trackIds.isEmpty()) {
+            return;
+        }
+
+        Log.i(TAG, "Computing best efforts of " + trackIds.size() + " tracks.");
+        for (Track.Id trackId : trackIds) {
+            if (stopped) {
+                return;
+            }
+            try {
+                List<BestEffortsCalculator.Effort> efforts;
+                try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, null)) {
+                    efforts = BestEffortsCalculator.compute(trackPointIterator);
+                }
+                contentProviderUtils.replaceBestEfforts(trackId, efforts);
+            } catch (RuntimeException e) {
+                // E.g., track was deleted in the meantime.
+                Log.w(TAG, "Could not compute best efforts of track " + trackId.id(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean onStopCurrentWork() {
+        stopped = true;
+        // Remaining tracks are processed with the next run.
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package de.dennisguse.opentracks.services;
+
+import android.app.job.JobService;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.JobIntentService;
+
+import java.util.List;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.stats.LiftRegistry;
+import de.dennisguse.opentracks.stats.RunMatcher;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
+
+/**
+ * Computes and stores the ski segments of all tracks for which they were not yet detected (e.g., recorded before ski segments were stored).
+ * <p>
+ * If the track is being recorded, its segments of the current recording session are replaced once the recording stops.
+ * <p>
+ * Also loads the lifts and runs of the stored segments into the {@link LiftRegistry} (e.g., for the GPS sampling while recording) and the {@link RunMatcher}.
+ */
+public class SkiSegmentsBackfillService extends JobIntentService {
+
+    private static final String TAG = SkiSegmentsBackfillService.class.getSimpleName();
+
+    private static final int JOB_ID = 5;
+
+    private volatile boolean stopped;
+
+    public static void enqueue(Context context) {
+        Intent intent = new Intent(context, JobService.class);
+        enqueueWork(context, SkiSegmentsBackfillService.class, JOB_ID, intent);
+    }
+
+    @Override
+    protected void onHandleWork(@NonNull Intent intent) {
+        ContentProviderUtils contentProviderUtils = new ContentProviderUtils(this);
+        LiftRegistry.getInstance().load(contentProviderUtils);
+        RunMatcher.getInstance().load(contentProviderUtils);
+
+        List<Track.Id> trackIds = contentProviderUtils.getTrackIdsWithoutSkiSegmentsDetected();
+        if (trackIds.isEmpty()) {
+            return;
+        }
+
+        Log.i(TAG, "Computing ski segments of " + trackIds.size() + " tracks.");
+        for (Track.Id trackId : trackIds) {
+            if (stopped) {
+                return;
+            }
+            try {
+                List<SkiSegmentDetector.Segment> skiSegments;
+                try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, null)) {
+                    skiSegments = SkiSegmentDetector.detect(trackPointIterator);
+                }
+                contentProviderUtils.replaceSkiSegments(trackId, null, skiSegments);
+                LiftRegistry.getInstance().learn(contentProviderUtils, trackId, skiSegments);
+                RunMatcher.getInstance().learn(contentProviderUtils, trackId, skiSegments);
+            } catch (RuntimeException e) {
+                // E.g., track was deleted in the meantime.
+                Log.w(TAG, "Could not compute ski segments of track " + trackId.id(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean onStopCurrentWork() {
+        stopped = true;
+        // Remaining tracks are processed with the next run.
+        return false;
+    }
+}
@@ -2,7 +2,7 @@ package de.dennisguse.opentracks.services;
 
 import android.content.ContentUris;
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.database.ContentObserver;
 import android.database.sqlite.SQLiteException;
 import android.net.Uri;
 import android.os.Handler;
@@ -10,48 +10,71 @@ import android.util.Log;
 import android.util.Pair;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 import java.time.Duration;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.data.ContentProviderUtils;
 import de.dennisguse.opentracks.data.models.ActivityType;
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Marker;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.sensors.sensorData.SensorDataSet;
 import de.dennisguse.opentracks.services.handlers.AltitudeCorrectionManager;
+import de.dennisguse.opentracks.services.handlers.RecordingPipeline;
 import de.dennisguse.opentracks.services.handlers.TrackPointCreator;
 import de.dennisguse.opentracks.settings.PreferencesUtils;
+import de.dennisguse.opentracks.settings.RecordingSettings;
+import de.dennisguse.opentracks.stats.LiftRegistry;
+import de.dennisguse.opentracks.stats.BestEffortsCalculator;
+import de.dennisguse.opentracks.stats.RunMatcher;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
 import de.dennisguse.opentracks.util.TrackNameUtils;
 
-public class TrackRecordingManager implements SharedPreferences.OnSharedPreferenceChangeListener {
+public class TrackRecordingManager {
 
     private static final String TAG = TrackRecordingManager.class.getSimpleName();
 
     private static final AltitudeCorrectionManager ALTITUDE_CORRECTION_MANAGER = new AltitudeCorrectionManager();
 
-    private final Runnable ON_IDLE = this::onIdle;
+    // The handler only triggers; becoming idle is processed by the recordingPipeline.
+    private final Runnable ON_IDLE = () -> this.recordingPipeline.post(this::onIdle);
 
     private final ContentProviderUtils contentProviderUtils;
     private final Context context;
     private final IdleObserver idleObserver;
 
     private final Handler handler;
+    private final RecordingPipeline recordingPipeline;
 
     private final TrackPointCreator trackPointCreator;
 
-    private Distance recordingDistanceInterval;
-    private Distance maxRecordingDistance;
-    private Duration idleDuration;
-
     private Track.Id trackId;
+    // In-memory copy of the recorded track for the UI (its statistics are outdated); reloaded if changed by others (e.g., TrackEditActivity).
+    private Track track;
+    private volatile boolean trackChanged;
+    private final ContentObserver trackObserver = new ContentObserver(null) {
+        @Override
+        public void onChange(boolean selfChange) {
+            trackChanged = true;
+        }
+    };
     private TrackStatisticsUpdater trackStatisticsUpdater;
+    private SkiSegmentDetector skiSegmentDetector;
+    // Finished segments of the current recording session; stored when the recording stops.
+    private final List<SkiSegmentDetector.Segment> skiSegments = new ArrayList<>();
+    // Best efforts of the current recording session; merged with the stored ones when the recording stops.
+    private BestEffortsCalculator bestEffortsCalculator;
 
     private TrackPoint lastTrackPoint;
     private TrackPoint lastTrackPointUIWithSpeed;
@@ -60,15 +83,16 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
     private TrackPoint lastStoredTrackPoint;
     private TrackPoint lastStoredTrackPointWithLocation;
 
-    TrackRecordingManager(Context context, TrackPointCreator trackPointCreator, IdleObserver idleObserver, Handler handler) {
+    TrackRecordingManager(Context context, TrackPointCreator trackPointCreator, IdleObserver idleObserver, Handler handler, RecordingPipeline recordingPipeline) {
         this.context = context;
         this.idleObserver = idleObserver;
         this.trackPointCreator = trackPointCreator;
         this.handler = handler;
+        this.recordingPipeline = recordingPipeline;
         contentProviderUtils = new ContentProviderUtils(context);
     }
 
-    Track.Id startNewTrack() {
+    synchronized Track.Id startNewTrack() {
         TrackPoint segmentStartTrackPoint = trackPointCreator.createSegmentStartManual();
 
         ZoneOffset zoneOffset = ZoneOffset.systemDefault().getRules().getOffset(segmentStartTrackPoint.getTime());
@@ -77,6 +101,13 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
         track.setId(trackId);
 
         trackStatisticsUpdater = new TrackStatisticsUpdater();
+        trackStatisticsUpdater.setHeartRateZones(PreferencesUtils.getRecordingSettings().heartRateZones());
+        trackStatisticsUpdater.setCalorieCalculator(new CalorieCalculator());
+        trackStatisticsUpdater.setFuseAltitude(true);
+        trackStatisticsUpdater.setQuantileSketches(true);
+        skiSegmentDetector = new SkiSegmentDetector(this::onSkiSegment);
+        skiSegments.clear();
+        bestEffortsCalculator = new BestEffortsCalculator();
 
         onNewTrackPoint(segmentStartTrackPoint);
 
@@ -86,6 +117,8 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
         track.setTrackStatistics(trackStatisticsUpdater.getTrackStatistics());
         track.setName(TrackNameUtils.getTrackName(context, trackId, track.getStartTime()));
         contentProviderUtils.updateTrack(track);
+        this.track = track;
+        registerTrackObserver();
 
         return trackId;
     }
@@ -93,7 +126,7 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
     /**
      * @return if the recording could be started.
      */
-    boolean resumeExistingTrack(@NonNull Track.Id resumeTrackId) {
+    synchronized boolean resumeExistingTrack(@NonNull Track.Id resumeTrackId) {
         trackId = resumeTrackId;
         Track track = contentProviderUtils.getTrack(trackId);
         if (track == null) {
@@ -101,7 +134,17 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
             return false;
         }
 
+        this.track = track;
+        registerTrackObserver();
+
         trackStatisticsUpdater = new TrackStatisticsUpdater(track.getTrackStatistics());
+        trackStatisticsUpdater.setHeartRateZones(PreferencesUtils.getRecordingSettings().heartRateZones());
+        trackStatisticsUpdater.setCalorieCalculator(new CalorieCalculator());
+        trackStatisticsUpdater.setFuseAltitude(true);
+        trackStatisticsUpdater.setQuantileSketches(true);
+        skiSegmentDetector = new SkiSegmentDetector(this::onSkiSegment);
+        skiSegments.clear();
+        bestEffortsCalculator = new BestEffortsCalculator();
         onNewTrackPoint(trackPointCreator.createSegmentStartManual());
 
         reset();
@@ -109,33 +152,76 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
         return true;
     }
 
-    void endCurrentTrack() {
+    synchronized void endCurrentTrack() {
         TrackPoint segmentEnd = trackPointCreator.createSegmentEnd();
         insertTrackPoint(segmentEnd, true);
+        storeSkiSegments();
+        storeBestEfforts();
 
+        context.getContentResolver().unregisterContentObserver(trackObserver);
         trackId = null;
+        track = null;
         trackStatisticsUpdater = null;
+        skiSegmentDetector = null;
+        bestEffortsCalculator = null;
 
         reset();
     }
 
-    Pair<Track, Pair<TrackPoint, SensorDataSet>> getDataForUI() {
-        TrackStatisticsUpdater tmpTrackStatisticsUpdater = new TrackStatisticsUpdater(trackStatisticsUpdater);
-        Pair<TrackPoint, SensorDataSet> current = trackPointCreator.createCurrentTrackPoint(lastTrackPointUIWithSpeed, lastTrackPointUIWithAltitude, lastStoredTrackPointWithLocation);
+    /**
+     * Computes the current data for the UI; is called on the recording thread.
+     * Only copies the state while holding the lock; the database is only accessed if the track was changed by others.
+     *
+     * @return null if not recording.
+     */
+    @Nullable
+    RecordingData getDataForUI() {
+        Track.Id trackId;
+        Track track;
+        TrackStatisticsUpdater tmpTrackStatisticsUpdater;
+        TrackPoint lastTrackPointWithSpeed;
+        TrackPoint lastTrackPointWithAltitude;
+        TrackPoint lastTrackPointWithLocation;
+        synchronized (this) {
+            if (this.trackId == null) {
+                Log.w(TAG, "Requesting data if not recording is taking place, should not be done.");
+                return null;
+            }
+            trackId = this.trackId;
+            track = this.track;
+            tmpTrackStatisticsUpdater = new TrackStatisticsUpdater(trackStatisticsUpdater);
+            lastTrackPointWithSpeed = lastTrackPointUIWithSpeed;
+            lastTrackPointWithAltitude = lastTrackPointUIWithAltitude;
+            lastTrackPointWithLocation = lastStoredTrackPointWithLocation;
+        }
+
+        if (trackChanged) {
+            trackChanged = false;
+            Track changedTrack = contentProviderUtils.getTrack(trackId);
+            if (changedTrack != null) {
+                track = changedTrack;
+                synchronized (this) {
+                    if (trackId.equals(this.trackId)) {
+                        this.track = changedTrack;
+                    }
+                }
+            }
+        }
 
+        Pair<TrackPoint, SensorDataSet> current = trackPointCreator.createCurrentTrackPoint(lastTrackPointWithSpeed, lastTrackPointWithAltitude, lastTrackPointWithLocation);
         tmpTrackStatisticsUpdater.addTrackPoint(current.first);
 
         ALTITUDE_CORRECTION_MANAGER.correctAltitude(context, current.first);
 
-        Track track = contentProviderUtils.getTrack(trackId); //Get copy
-        if (track == null) {
-            Log.w(TAG, "Requesting data if not recording is taking place, should not be done.");
-            return null;
-        }
-
-        track.setTrackStatistics(tmpTrackStatisticsUpdater.getTrackStatistics());
+        Track snapshot = new Track(track);
+        snapshot.setTrackStatistics(tmpTrackStatisticsUpdater.getTrackStatistics());
+        return new RecordingData(snapshot, current.first, current.second);
+    }
 
-        return new Pair<>(track, current);
+    private void registerTrackObserver() {
+        trackChanged = false;
+        context.getContentResolver().unregisterContentObserver(trackObserver);
+        context.getContentResolver().registerContentObserver(ContentUris.withAppendedId(TracksColumns.CONTENT_URI, trackId.id()), false, trackObserver);
     }
 
     public Marker.Id insertMarker(String name, String category, String description, String photoUrl) {
@@ -213,6 +299,9 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
             return true;
         }
 
+        RecordingSettings recordingSettings = PreferencesUtils.getRecordingSettings();
+        Duration idleDuration = recordingSettings.idleDuration();
+
         Distance distanceToLastStoredTrackPoint;
         if (trackPoint.hasLocation() && !lastStoredTrackPoint.hasLocation()) {
             distanceToLastStoredTrackPoint = trackPoint.distanceToPreviousFromLocation(lastStoredTrackPointWithLocation);
@@ -220,7 +309,7 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
             distanceToLastStoredTrackPoint = trackPoint.distanceToPrevious(lastStoredTrackPoint);
         }
 
-        if (distanceToLastStoredTrackPoint.greaterThan(maxRecordingDistance)) {
+        if (distanceToLastStoredTrackPoint.greaterThan(recordingSettings.maxRecordingDistance())) {
             trackPoint.setType(TrackPoint.Type.SEGMENT_START_AUTOMATIC);
             insertTrackPoint(trackPoint, true);
 
@@ -229,7 +318,7 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
             return true;
         }
 
-        if (distanceToLastStoredTrackPoint.greaterOrEqualThan(recordingDistanceInterval)) {
+        if (distanceToLastStoredTrackPoint.greaterOrEqualThan(recordingSettings.recordingDistanceInterval())) {
             insertTrackPoint(trackPoint, false);
 
             handler.removeCallbacks(ON_IDLE);
@@ -243,7 +332,7 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
         return false;
     }
 
-    TrackStatistics getTrackStatistics() {
+    synchronized TrackStatistics getTrackStatistics() {
         return trackStatisticsUpdater.getTrackStatistics();
     }
 
@@ -265,8 +354,11 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
 
     private void insertTrackPointHelper(@NonNull TrackPoint trackPoint) {
         try {
-            contentProviderUtils.insertTrackPoint(trackPoint, trackId);
+            Uri uri = contentProviderUtils.insertTrackPoint(trackPoint, trackId);
+            trackPoint.setId(new TrackPoint.Id(ContentUris.parseId(uri)));
             trackStatisticsUpdater.addTrackPoint(trackPoint);
+            skiSegmentDetector.addTrackPoint(trackPoint);
+            bestEffortsCalculator.addTrackPoint(trackPoint);
 
             contentProviderUtils.updateTrackStatistics(trackId, trackStatisticsUpdater.getTrackStatistics());
             lastStoredTrackPoint = trackPoint;
@@ -283,6 +375,45 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
         }
     }
 
+    private void onSkiSegment(@NonNull SkiSegmentDetector.Segment segment) {
+        Log.d(TAG, "Ski segment finished: " + segment);
+        skiSegments.add(segment);
+    }
+
+    /**
+     * Stores the segments of this recording session; segments of previous sessions (if the track was resumed) are kept.
+     */
+    private void storeSkiSegments() {
+        if (skiSegments.isEmpty()) {
+            return;
+        }
+        try {
+            contentProviderUtils.replaceSkiSegments(trackId, skiSegments.get(0).startTrackPointId(), skiSegments);
+            LiftRegistry.getInstance().learn(contentProviderUtils, trackId, skiSegments);
+            RunMatcher.getInstance().learn(contentProviderUtils, trackId, skiSegments);
+        } catch (RuntimeException e) {
+            // Tracks without any segments are covered by SkiSegmentsBackfillService.
+            Log.e(TAG, "Could not store ski segments.", e);
+        }
+        skiSegments.clear();
+    }
+
+    /**
+     * Stores the best efforts of this recording session; the best efforts of previous sessions (if the track was resumed) are kept if better.
+     */
+    private void storeBestEfforts() {
+        List<BestEffortsCalculator.Effort> efforts = bestEffortsCalculator.getBestEfforts();
+        if (efforts.isEmpty()) {
+            return;
+        }
+        try {
+            contentProviderUtils.replaceBestEfforts(trackId, BestEffortsCalculator.merge(contentProviderUtils.getBestEfforts(trackId), efforts));
+        } catch (RuntimeException e) {
+            // Tracks without any best efforts are covered by BestEffortsBackfillService.
+            Log.e(TAG, "Could not store best efforts.", e);
+        }
+    }
+
     private void reset() {
         lastTrackPoint = null;
         lastTrackPointUIWithSpeed = null;
@@ -292,19 +423,6 @@ public class TrackRecordingManager implements SharedPreferences.OnSharedPreferen
         lastStoredTrackPointWithLocation = null;
     }
 
-    @Override
-    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
-        if (PreferencesUtils.isKey(R.string.recording_distance_interval_key, key)) {
-            recordingDistanceInterval = PreferencesUtils.getRecordingDistanceInterval();
-        }
-        if (PreferencesUtils.isKey(R.string.max_recording_distance_key, key)) {
-            maxRecordingDistance = PreferencesUtils.getMaxRecordingDistance();
-        }
-        if (PreferencesUtils.isKey(R.string.idle_duration_key, key)) {
-            idleDuration = PreferencesUtils.getIdleDurationTimeout();
-        }
-    }
-
     public interface IdleObserver {
         void onIdle();
     }
@@ -25,7 +25,6 @@ import android.os.Handler;
 import android.os.Looper;
 import android.os.PowerManager.WakeLock;
 import android.util.Log;
-import android.util.Pair;
 
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
@@ -41,9 +40,9 @@ import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Marker;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
-import de.dennisguse.opentracks.sensors.sensorData.SensorDataSet;
 import de.dennisguse.opentracks.services.announcement.VoiceAnnouncementManager;
 import de.dennisguse.opentracks.services.handlers.GpsStatusValue;
+import de.dennisguse.opentracks.services.handlers.RecordingPipeline;
 import de.dennisguse.opentracks.services.handlers.TrackPointCreator;
 import de.dennisguse.opentracks.settings.PreferencesUtils;
 import de.dennisguse.opentracks.util.PermissionRequester;
@@ -75,14 +74,21 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
     private final Runnable updateRecordingData = new Runnable() {
         @Override
         public void run() {
-            updateRecordingDataWhileRecording();
+            if (!isRecording()) {
+                return;
+            }
+
+            // The data is computed by the recordingPipeline.
+            recordingPipeline.post(TrackRecordingService.this::updateRecordingDataWhileRecording);
 
+            // Ensure only one update is pending (e.g., if the recording was resumed while updating).
+            TrackRecordingService.this.handler.removeCallbacks(this);
             TrackRecordingService.this.handler.postDelayed(this, RECORDING_DATA_UPDATE_INTERVAL.toMillis());
         }
     };
 
     // The following variables are set in onCreate:
-    private RecordingStatus recordingStatus;
+    private volatile RecordingStatus recordingStatus;
     private MutableLiveData<RecordingStatus> recordingStatusObservable;
     private MutableLiveData<GpsStatusValue> gpsStatusObservable;
     private MutableLiveData<RecordingData> recordingDataObservable;
@@ -90,6 +96,8 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
     // The following variables are set when recording:
     private WakeLock wakeLock; //TODO Move to SensorManager
     private Handler handler;
+    // Processes all changes of the recording (and computes the RecordingData) off the main thread.
+    private RecordingPipeline recordingPipeline;
 
     private TrackPointCreator trackPointCreator;
     private TrackRecordingManager trackRecordingManager;
@@ -103,14 +111,16 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
         Log.d(TAG, "Create");
 
         handler = new Handler(Looper.getMainLooper());
+        recordingPipeline = new RecordingPipeline();
+        recordingPipeline.start();
 
         recordingStatusObservable = new MutableLiveData<>();
         updateRecordingStatus(STATUS_DEFAULT);
         gpsStatusObservable = new MutableLiveData<>(STATUS_GPS_DEFAULT);
         recordingDataObservable = new MutableLiveData<>(NOT_RECORDING);
 
-        trackPointCreator = new TrackPointCreator(this);
-        trackRecordingManager = new TrackRecordingManager(this, trackPointCreator, this, handler);
+        trackPointCreator = new TrackPointCreator(this, recordingPipeline);
+        trackRecordingManager = new TrackRecordingManager(this, trackPointCreator, this, handler, recordingPipeline);
 
         voiceAnnouncementManager = new VoiceAnnouncementManager(this);
         notificationManager = new TrackRecordingServiceNotificationManager(this);
@@ -130,6 +140,9 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
 
         PreferencesUtils.unregisterOnSharedPreferenceChangeListener(this);
 
+        recordingPipeline.stop();
+        recordingPipeline = null;
+
         trackPointCreator = null;
 
         handler.removeCallbacksAndMessages(null); //Some tests do not finish the recording completely
@@ -168,7 +181,7 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
         Log.i(TAG, "startNewTrack");
 
         // Set recording status
-        Track.Id trackId = trackRecordingManager.startNewTrack();
+        Track.Id trackId = recordingPipeline.postAndWait(trackRecordingManager::startNewTrack);
         updateRecordingStatus(RecordingStatus.record(trackId));
 
         startRecording();
@@ -176,7 +189,7 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
     }
 
     public void resumeTrack(Track.Id trackId) {
-        if (!trackRecordingManager.resumeExistingTrack(trackId)) {
+        if (!recordingPipeline.postAndWait(() -> trackRecordingManager.resumeExistingTrack(trackId))) {
             Log.w(TAG, "Cannot resume a non-existing track.");
             return;
         }
@@ -188,7 +201,11 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
     }
 
     private void startRecording() {
+        // Loads the known lifts and runs in the background, if not yet done.
+        SkiSegmentsBackfillService.enqueue(this);
+
         // Update instance variables
+        handler.removeCallbacks(updateRecordingData);
         handler.postDelayed(updateRecordingData, RECORDING_DATA_UPDATE_INTERVAL.toMillis());
 
         startSensors();
@@ -231,7 +248,7 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
         // Set recording status
         updateRecordingStatus(STATUS_DEFAULT);
 
-        trackRecordingManager.endCurrentTrack();
+        recordingPipeline.postAndWait(trackRecordingManager::endCurrentTrack);
 
         stopUpdateRecordingData();
 
@@ -282,7 +299,7 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
             return null;
         }
 
-        return trackRecordingManager.insertMarker(name, category, description, photoUrl);
+        return recordingPipeline.postAndWait(() -> trackRecordingManager.insertMarker(name, category, description, photoUrl));
     }
 
     @Deprecated
@@ -305,22 +322,44 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
         return recordingDataObservable;
     }
 
+    /**
+     * Is called by the recordingPipeline: the main thread only receives the immutable {@link RecordingData}.
+     */
     private void updateRecordingDataWhileRecording() {
-        if (!isRecording()) {
+        TrackRecordingManager trackRecordingManager = this.trackRecordingManager;
+        MutableLiveData<RecordingData> recordingDataObservable = this.recordingDataObservable;
+        if (!isRecording() || trackRecordingManager == null || recordingDataObservable == null) {
             Log.w(TAG, "Currently not recording; cannot update data.");
             return;
         }
 
         // Compute temporary track statistics using sensorData and update time.
-        Pair<Track, Pair<TrackPoint, SensorDataSet>> data = trackRecordingManager.getDataForUI();
+        RecordingData data = trackRecordingManager.getDataForUI();
+        if (data == null) {
+            return;
+        }
 
-        voiceAnnouncementManager.announceStatisticsIfNeeded(data.first);
+        Handler handler = this.handler;
+        if (handler != null) {
+            handler.post(() -> {
+                if (voiceAnnouncementManager != null) {
+                    voiceAnnouncementManager.announceStatisticsIfNeeded(data.track());
+                }
+            });
+        }
 
-        recordingDataObservable.postValue(new RecordingData(data.first, data.second.first, data.second.second));
+        recordingDataObservable.postValue(data);
     }
 
+    /**
+     * Is called by the recordingPipeline.
+     */
     public void onIdle() {
-        voiceAnnouncementManager.announceIdle();
+        handler.post(() -> {
+            if (voiceAnnouncementManager != null) {
+                voiceAnnouncementManager.announceIdle();
+            }
+        });
     }
 
     @VisibleForTesting
@@ -350,7 +389,6 @@ public class TrackRecordingService extends Service implements TrackPointCreator.
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, @Nullable String key) {
         voiceAnnouncementManager.onSharedPreferenceChanged(sharedPreferences, key);
-        trackRecordingManager.onSharedPreferenceChanged(sharedPreferences, key);
         trackPointCreator.onSharedPreferenceChanged(sharedPreferences, key);
         notificationManager.onSharedPreferenceChanged(sharedPreferences, key);
     }
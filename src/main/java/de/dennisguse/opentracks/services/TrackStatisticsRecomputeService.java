@@ -0,0 +1,125 @@
+package de.dennisguse.opentracks.services;
+
+import android.app.job.JobService;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.ResultReceiver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.app.JobIntentService;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.settings.PreferencesUtils;
+import de.dennisguse.opentracks.stats.TrackStatisticsRecomputer;
+
+/**
+ * Recomputes the statistics of all tracks (e.g., after a change of {@link de.dennisguse.opentracks.stats.TrackStatisticsUpdater}).
+ */
+public class TrackStatisticsRecomputeService extends JobIntentService {
+
+    private static final int JOB_ID = 4;
+
+    private static final String EXTRA_RECEIVER = "extra_receiver";
+    private static final String EXTRA_RECORDING_TRACK_ID = "extra_recording_track_id";
+
+    private static volatile TrackStatisticsRecomputer recomputer;
+
+    /**
+     * @param recordingTrackId the track being recorded (see {@link RecordingStatus}); it is not recomputed.
+     */
+    public static void enqueue(Context context, @Nullable Track.Id recordingTrackId, TrackStatisticsRecomputeResultReceiver receiver) {
+        Intent intent = new Intent(context, JobService.class);
+        intent.putExtra(EXTRA_RECEIVER, receiver);
+        intent.putExtra(EXTRA_RECORDING_TRACK_ID, recordingTrackId);
+        enqueueWork(context, TrackStatisticsRecomputeService.class, JOB_ID, intent);
+    }
+
+    /**
+     * Cancels a running recomputation; tracks that were already written keep their new statistics.
+     */
+    public static void cancel() {
+        TrackStatisticsRecomputer current = recomputer;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    public static boolean isRunning() {
+        return recomputer != null;
+    }
+
+    @Override
+    protected void onHandleWork(@NonNull Intent intent) {
+        ResultReceiver resultReceiver = intent.getParcelableExtra(EXTRA_RECEIVER);
+        Track.Id recordingTrackId = intent.getParcelableExtra(EXTRA_RECORDING_TRACK_ID);
+
+        TrackStatisticsRecomputer current = new TrackStatisticsRecomputer(new ContentProviderUtils(this));
+        current.setHeartRateZones(PreferencesUtils.getHeartRateZones());
+        current.setCalorieCalculator(new CalorieCalculator());
+        current.setFuseAltitude(true);
+        current.setQuantileSketches(true);
+        recomputer = current;
+        TrackStatisticsRecomputer.Result result;
+        try {
+            result = current.recomputeAll(recordingTrackId, (processedTracks, totalTracks) -> {
+                Bundle bundle = new Bundle();
+                bundle.putInt(TrackStatisticsRecomputeResultReceiver.EXTRA_PROCESSED_TRACKS, processedTracks);
+                bundle.putInt(TrackStatisticsRecomputeResultReceiver.EXTRA_TOTAL_TRACKS, totalTracks);
+                resultReceiver.send(TrackStatisticsRecomputeResultReceiver.RESULT_CODE_PROGRESS, bundle);
+            });
+        } finally {
+            recomputer = null;
+        }
+
+        Bundle bundle = new Bundle();
+        bundle.putInt(TrackStatisticsRecomputeResultReceiver.EXTRA_PROCESSED_TRACKS, result.updatedTracks());
+        bundle.putInt(TrackStatisticsRecomputeResultReceiver.EXTRA_TOTAL_TRACKS, result.totalTracks());
+        resultReceiver.send(result.cancelled() ? TrackStatisticsRecomputeResultReceiver.RESULT_CODE_CANCELLED : TrackStatisticsRecomputeResultReceiver.RESULT_CODE_SUCCESS, bundle);
+    }
+
+    @Override
+    public boolean onStopCurrentWork() {
+        cancel();
+        return false;
+    }
+
+    public static class TrackStatisticsRecomputeResultReceiver extends ResultReceiver {
+
+        public static final int RESULT_CODE_PROGRESS = 1;
+        public static final int RESULT_CODE_SUCCESS = 2;
+        public static final int RESULT_CODE_CANCELLED = 3;
+
+        static final String EXTRA_PROCESSED_TRACKS = "extra_processed_tracks";
+        static final String EXTRA_TOTAL_TRACKS = "extra_total_tracks";
+
+        private final Receiver receiver;
+
+        public TrackStatisticsRecomputeResultReceiver(Handler handler, @NonNull Receiver receiver) {
+            super(handler);
+            this.receiver = receiver;
+        }
+
+        @Override
+        protected void onReceiveResult(int resultCode, Bundle resultData) {
+            int processedTracks = resultData.getInt(EXTRA_PROCESSED_TRACKS);
+            int totalTracks = resultData.getInt(EXTRA_TOTAL_TRACKS);
+            switch (resultCode) {
+                case RESULT_CODE_PROGRESS -> receiver.onRecomputeProgress(processedTracks, totalTracks);
+                case RESULT_CODE_SUCCESS -> receiver.onRecomputeFinished(processedTracks, totalTracks, false);
+                case RESULT_CODE_CANCELLED -> receiver.onRecomputeFinished(processedTracks, totalTracks, true);
+                default -> throw new RuntimeException("Unknown resultCode.");
+            }
+        }
+
+        public interface Receiver {
+            void onRecomputeProgress(int processedTracks, int totalTracks);
+
+            void onRecomputeFinished(int updatedTracks, int totalTracks, boolean cancelled);
+        }
+    }
+}
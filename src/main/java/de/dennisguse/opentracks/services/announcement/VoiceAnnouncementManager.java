@@ -95,7 +95,7 @@ public class VoiceAnnouncementManager implements SharedPreferences.OnSharedPrefe
             return true;
         }
 
-        if (!PreferencesUtils.shouldVoiceAnnouncementOnDeviceSpeaker()
+        if (!PreferencesUtils.getRecordingSettings().voiceAnnouncementOnDeviceSpeaker()
                 && MediaRouter.getInstance(context)
                 .getSelectedRoute()
                 .isDeviceSpeaker()) {
@@ -111,7 +111,7 @@ public class VoiceAnnouncementManager implements SharedPreferences.OnSharedPrefe
             return;
         }
 
-        if (!PreferencesUtils.shouldVoiceAnnouncementIdle()) {
+        if (!PreferencesUtils.getRecordingSettings().voiceAnnouncementIdle()) {
             return;
         }
 
@@ -0,0 +1,102 @@
+package de.dennisguse.opentracks.services.handlers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for multiple producers and a single consumer (ring buffer with a sequence number per slot).
+ * <p>
+ * Producers claim a slot by incrementing the tail (CAS) and publish the element by advancing the slot's sequence number.
+ * Only one thread may call {@link #poll()}.
+ */
+class BoundedMpscQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+    // Slot i is free for the producer at position p if sequence == p and contains the element of position p if sequence == p + 1.
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity must be a power of two.
+     */
+    BoundedMpscQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Can be called from any thread.
+     *
+     * @return false if the queue is full.
+     */
+    boolean offer(@NonNull E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // Slot was not yet consumed.
+                return false;
+            }
+            // Otherwise another producer claimed this position; retry.
+        }
+    }
+
+    /**
+     * Must only be called by the consumer.
+     *
+     * @return null if empty (or the next element is not yet published).
+     */
+    @Nullable
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        head = position + 1;
+        sequences.set(index, position + capacity);
+        return element;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Approximate if called while producers or the consumer are active.
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -38,7 +38,7 @@ public class GPSManager implements SensorConnector, LocationListenerCompat, GpsS
     private LocationManager locationManager;
     private GpsStatusManager gpsStatusManager;
     private Duration gpsInterval;
-    private Distance thresholdHorizontalAccuracy;
+    private GpsSamplingPolicy samplingPolicy;
 
     public GPSManager(TrackPointCreator trackPointCreator) {
         this.trackPointCreator = trackPointCreator;
@@ -49,6 +49,7 @@ public class GPSManager implements SensorConnector, LocationListenerCompat, GpsS
         this.handler = handler;
 
         onSharedPreferenceChanged(null, null);
+        samplingPolicy = new GpsSamplingPolicy(gpsInterval);
 
         gpsStatusManager = new GpsStatusManager(context, this, handler);
         locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
@@ -71,6 +72,7 @@ public class GPSManager implements SensorConnector, LocationListenerCompat, GpsS
 
         gpsStatusManager.stop();
         gpsStatusManager = null;
+        samplingPolicy = null;
 
         trackPointCreator = null;
     }
@@ -84,13 +86,13 @@ public class GPSManager implements SensorConnector, LocationListenerCompat, GpsS
 
             gpsInterval = PreferencesUtils.getMinRecordingInterval();
 
+            if (samplingPolicy != null) {
+                samplingPolicy.setMinInterval(gpsInterval);
+            }
             if (gpsStatusManager != null) {
                 gpsStatusManager.onMinRecordingIntervalChanged(gpsInterval);
             }
         }
-        if (PreferencesUtils.isKey(R.string.recording_gps_accuracy_key, key)) {
-            thresholdHorizontalAccuracy = PreferencesUtils.getThresholdHorizontalAccuracy();
-        }
         if (PreferencesUtils.isKey(R.string.recording_distance_interval_key, key)) {
             registerListener = true;
 
@@ -121,11 +123,18 @@ public class GPSManager implements SensorConnector, LocationListenerCompat, GpsS
             return;
         }
 
-        if (!LocationUtils.fulfillsAccuracy(location, thresholdHorizontalAccuracy)) {
+        if (!LocationUtils.fulfillsAccuracy(location, PreferencesUtils.getRecordingSettings().thresholdHorizontalAccuracy())) {
             Log.d(TAG, "Ignore newTrackPoint. Poor accuracy.");
             return;
         }
 
+        Duration interval = samplingPolicy.onNewTrackPoint(trackPoint);
+        if (interval != null) {
+            Log.d(TAG, "Adapt GPS interval to " + interval);
+            gpsStatusManager.onMinRecordingIntervalChanged(interval);
+            registerLocationListener();
+        }
+
         trackPointCreator.onChange(location);
     }
 
@@ -149,7 +158,7 @@ public class GPSManager implements SensorConnector, LocationListenerCompat, GpsS
             return;
         }
 
-        LocationRequestCompat locationRequest = new LocationRequestCompat.Builder(gpsInterval.toMillis())
+        LocationRequestCompat locationRequest = new LocationRequestCompat.Builder(samplingPolicy.getInterval().toMillis())
                 .setQuality(LocationRequestCompat.QUALITY_HIGH_ACCURACY)
                 .setMaxUpdateDelayMillis(0)
                 .build();
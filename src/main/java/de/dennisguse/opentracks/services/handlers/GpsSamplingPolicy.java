@@ -0,0 +1,124 @@
+package de.dennisguse.opentracks.services.handlers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.stats.LiftRegistry;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
+
+/**
+ * Adapts the GPS interval to the current activity (see {@link SkiSegmentDetector}).
+ * <p>
+ * While waiting (e.g., in a lift line) or riding a lift, locations are requested less often; while skiing, the minimum recording interval (user preference) is used.
+ * Switching to a shorter interval is done immediately (i.e., once moving fast, starting to move while waiting, or leaving a known lift);
+ * switching to a longer interval is rate limited by {@link #MIN_RELAX_INTERVAL}, so the location request is not re-registered too often.
+ * <p>
+ * Not thread-safe: is called for each location by the {@link GPSManager}.
+ */
+class GpsSamplingPolicy {
+
+    @VisibleForTesting
+    static final Duration WAIT_INTERVAL = Duration.ofSeconds(10);
+    @VisibleForTesting
+    static final Duration LIFT_INTERVAL = Duration.ofSeconds(5);
+
+    // Minimum time between the last change and switching to a longer interval.
+    @VisibleForTesting
+    static final Duration MIN_RELAX_INTERVAL = Duration.ofMinutes(1);
+
+    // While waiting: starts moving (same threshold as the SkiSegmentDetector).
+    private static final double SPEED_MOVING_MPS = 1.6;
+    // Faster than lifts (detachable chairlifts and gondolas: up to 6m/s).
+    private static final double SPEED_FAST_MPS = 8;
+
+    private final LiftRegistry liftRegistry;
+    private final SkiSegmentDetector skiSegmentDetector = new SkiSegmentDetector(segment -> {
+    });
+
+    private Duration minInterval;
+    private Duration interval;
+    private Instant lastChange;
+
+    // Known lift that is currently ridden.
+    private LiftRegistry.Lift lift;
+
+    GpsSamplingPolicy(@NonNull Duration minInterval) {
+        this(minInterval, LiftRegistry.getInstance());
+    }
+
+    @VisibleForTesting
+    GpsSamplingPolicy(@NonNull Duration minInterval, @NonNull LiftRegistry liftRegistry) {
+        this.liftRegistry = liftRegistry;
+        setMinInterval(minInterval);
+    }
+
+    /**
+     * Resets to the new minimum interval.
+     */
+    void setMinInterval(@NonNull Duration minInterval) {
+        this.minInterval = minInterval;
+        interval = minInterval;
+        lastChange = null;
+    }
+
+    @NonNull
+    Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the new interval if the location request needs to be changed; otherwise null.
+     */
+    @Nullable
+    Duration onNewTrackPoint(@NonNull TrackPoint trackPoint) {
+        skiSegmentDetector.addTrackPoint(trackPoint);
+
+        Duration target = getTargetInterval(trackPoint);
+        if (target.equals(interval)) {
+            return null;
+        }
+        if (target.compareTo(interval) > 0 && lastChange != null
+                && Duration.between(lastChange, trackPoint.getTime()).compareTo(MIN_RELAX_INTERVAL) < 0) {
+            return null;
+        }
+
+        interval = target;
+        lastChange = trackPoint.getTime();
+        return interval;
+    }
+
+    private Duration getTargetInterval(TrackPoint trackPoint) {
+        SkiSegmentDetector.Activity activity = skiSegmentDetector.getActivity();
+        if (activity != SkiSegmentDetector.Activity.LIFT) {
+            lift = null;
+        }
+
+        double speed_mps = trackPoint.hasSpeed() ? trackPoint.getSpeed().toMPS() : 0;
+        if (activity == null || activity == SkiSegmentDetector.Activity.RUN || speed_mps >= SPEED_FAST_MPS) {
+            return minInterval;
+        }
+
+        if (activity == SkiSegmentDetector.Activity.WAIT) {
+            return speed_mps >= SPEED_MOVING_MPS ? minInterval : atLeastMinInterval(WAIT_INTERVAL);
+        }
+
+        LiftRegistry.Lift matched = liftRegistry.match(trackPoint);
+        if (lift != null && matched == null && trackPoint.hasLocation()) {
+            // Left the known lift: it is not yet confirmed by the SkiSegmentDetector.
+            return minInterval;
+        }
+        if (matched != null) {
+            lift = matched;
+        }
+        return atLeastMinInterval(LIFT_INTERVAL);
+    }
+
+    private Duration atLeastMinInterval(Duration value) {
+        return minInterval.compareTo(value) >= 0 ? minInterval : value;
+    }
+}
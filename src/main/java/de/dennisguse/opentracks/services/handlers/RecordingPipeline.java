@@ -0,0 +1,310 @@
+package de.dennisguse.opentracks.services.handlers;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import de.dennisguse.opentracks.stats.QuantileSketch;
+
+/**
+ * Single writer of the recording: all events that change the recording state (new locations, sensor data, start/stop, markers) are processed one after another on one consumer thread.
+ * <p>
+ * Producers (e.g., GPS, Bluetooth and barometer callbacks) only post an event into a bounded lock-free queue; so, they neither contend for a lock nor wait for database writes.
+ * The consumer thread owns the {@link de.dennisguse.opentracks.sensors.sensorData.SensorDataSet}, the state of the TrackRecordingManager and writes to the database.
+ * <p>
+ * Without a running consumer (i.e., before {@link #start()} or after {@link #stop()}), events are processed on the calling thread (mutually exclusive to {@link #stop()} processing the pending events).
+ */
+public class RecordingPipeline {
+
+    private static final String TAG = RecordingPipeline.class.getSimpleName();
+
+    @VisibleForTesting
+    static final int CAPACITY = 1024;
+
+    private static final Duration LOG_INTERVAL = Duration.ofMinutes(1);
+
+    private record Event(Runnable task, long enqueuedAtNanos) {
+    }
+
+    private final BoundedMpscQueue<Event> queue;
+
+    private volatile Thread consumer;
+    private volatile boolean running;
+    private volatile boolean consumerWaiting;
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    // Only accessed by the consumer.
+    private long processedEvents;
+    private int maxQueueDepth;
+    private long maxLatencyNanos;
+    private final QuantileSketch latencySketch = new QuantileSketch();
+    private long lastLogNanos;
+
+    public RecordingPipeline() {
+        this(CAPACITY);
+    }
+
+    @VisibleForTesting
+    RecordingPipeline(int capacity) {
+        queue = new BoundedMpscQueue<>(capacity);
+    }
+
+    public synchronized void start() {
+        if (consumer != null) {
+            throw new IllegalStateException("RecordingPipeline cannot be started twice; stop first.");
+        }
+        running = true;
+        lastLogNanos = System.nanoTime();
+        Thread thread = new Thread(this::consume, TAG);
+        consumer = thread;
+        thread.start();
+    }
+
+    /**
+     * Processes all pending events and then stops the consumer thread.
+     */
+    public synchronized void stop() {
+        Thread thread = consumer;
+        if (thread == null) {
+            return;
+        }
+        if (isConsumerThread()) {
+            throw new IllegalStateException("RecordingPipeline cannot be stopped by its consumer.");
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        consumer = null;
+
+        // Events posted while stopping; events posted afterwards are drained by their producer (see drainStranded()).
+        drain();
+
+        Log.i(TAG, "Stopped: " + createStatistics());
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isConsumerThread() {
+        return Thread.currentThread() == consumer;
+    }
+
+    /**
+     * Posts an event without waiting for it to be processed; can be called from any thread.
+     *
+     * @return false if the event was dropped as the queue is full.
+     */
+    public boolean post(@NonNull Runnable task) {
+        Thread thread = consumer;
+        if (thread == null) {
+            // Not concurrently to stop() processing the pending events (see drainStranded()).
+            synchronized (this) {
+                thread = consumer;
+                if (thread == null) {
+                    task.run();
+                    return true;
+                }
+            }
+        }
+
+        if (!queue.offer(new Event(task, System.nanoTime()))) {
+            long dropped = droppedEvents.incrementAndGet();
+            Log.w(TAG, "Queue is full; dropped event (overall " + dropped + ").");
+            return false;
+        }
+        if (consumer != thread) {
+            drainStranded();
+        } else if (consumerWaiting) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Processes the task on the consumer thread and waits for its result; the task is never dropped.
+     * To be used for rare control operations (e.g., start/end of a recording).
+     */
+    public <T> T postAndWait(@NonNull Callable<T> task) {
+        if (isConsumerThread()) {
+            return call(task);
+        }
+        if (consumer == null) {
+            synchronized (this) {
+                if (consumer == null) {
+                    return call(task);
+                }
+            }
+        }
+
+        FutureTask<T> future = new FutureTask<>(task);
+        Thread thread = consumer;
+        while (thread != null && !queue.offer(new Event(future, System.nanoTime()))) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            thread = consumer;
+        }
+        if (thread == null) {
+            // Stopped in the meantime.
+            future.run();
+        } else if (consumer != thread) {
+            drainStranded();
+        } else if (consumerWaiting) {
+            LockSupport.unpark(thread);
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void postAndWait(@NonNull Runnable task) {
+        postAndWait(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Waits until all events posted before were processed.
+     */
+    @VisibleForTesting
+    public void flush() {
+        postAndWait(() -> {
+        });
+    }
+
+    /**
+     * The consumer was stopped while posting: the event might have been offered after {@link #stop()} drained the queue.
+     * Without draining, it would only be processed once the pipeline is started again (i.e., with the next recording).
+     */
+    private void drainStranded() {
+        synchronized (this) {
+            if (consumer == null) {
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            run(event);
+        }
+    }
+
+    /**
+     * Exceptions are only logged, so the single writer survives a failing event.
+     */
+    private static void run(Event event) {
+        try {
+            event.task().run();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Processing event failed.", e);
+        }
+    }
+
+    private void consume() {
+        while (true) {
+            Event event = queue.poll();
+            if (event == null) {
+                if (!running) {
+                    return;
+                }
+                consumerWaiting = true;
+                // Re-check after announcing to wait, so a concurrent post is not missed.
+                if (queue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting = false;
+                continue;
+            }
+
+            int queueDepth = queue.size() + 1;
+
+            run(event);
+
+            long now = System.nanoTime();
+            long latencyNanos = now - event.enqueuedAtNanos();
+            processedEvents++;
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+            maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+            latencySketch.add(latencyNanos, 1);
+
+            if (now - lastLogNanos > LOG_INTERVAL.toNanos()) {
+                lastLogNanos = now;
+                Log.d(TAG, createStatistics().toString());
+            }
+        }
+    }
+
+    /**
+     * @return the queue depth and end-to-end latency (from posting until processed) since start.
+     */
+    @NonNull
+    public Statistics getStatistics() {
+        return postAndWait(this::createStatistics);
+    }
+
+    private Statistics createStatistics() {
+        return new Statistics(processedEvents, droppedEvents.get(), queue.size(), maxQueueDepth,
+                toDuration(latencySketch.getQuantile(0.5)),
+                toDuration(latencySketch.getQuantile(0.99)),
+                Duration.ofNanos(maxLatencyNanos));
+    }
+
+    private static Duration toDuration(double nanos) {
+        if (Double.isNaN(nanos)) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.round(nanos));
+    }
+
+    public record Statistics(long processedEvents, long droppedEvents, int queueDepth, int maxQueueDepth,
+                             Duration latencyMedian, Duration latencyP99, Duration latencyMax) {
+    }
+}
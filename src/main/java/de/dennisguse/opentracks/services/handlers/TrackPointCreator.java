@@ -23,25 +23,29 @@ import de.dennisguse.opentracks.settings.PreferencesUtils;
 
 /**
  * Creates TrackPoints while recording by fusing data from different sensors (e.g., GNSS, barometer, BLE sensors).
+ * <p>
+ * Sensor callbacks only post into the {@link RecordingPipeline}; TrackPoints are created and stored by its consumer thread.
  */
 public class TrackPointCreator implements SharedPreferences.OnSharedPreferenceChangeListener {
 
     private static final String TAG = TrackPointCreator.class.getSimpleName();
 
-    private Context context;
+    private volatile Context context;
 
     private final Callback service;
+    private final RecordingPipeline recordingPipeline;
 
     @NonNull
     private Clock clock = new MonotonicClock();
     private final SensorManager sensorManager;
 
-    public TrackPointCreator(Callback service) {
+    public TrackPointCreator(Callback service, RecordingPipeline recordingPipeline) {
         this.service = service;
-        this.sensorManager = new SensorManager(this);
+        this.recordingPipeline = recordingPipeline;
+        this.sensorManager = new SensorManager(this, recordingPipeline);
     }
 
-    public synchronized void start(@NonNull Context context, @NonNull Handler handler) {
+    public void start(@NonNull Context context, @NonNull Handler handler) {
         this.context = context;
 
         sensorManager.start(context, handler);
@@ -51,7 +55,7 @@ public class TrackPointCreator implements SharedPreferences.OnSharedPreferenceCh
         return context != null;
     }
 
-    private synchronized void reset() {
+    private void reset() {
         sensorManager.reset();
     }
 
@@ -69,14 +73,19 @@ public class TrackPointCreator implements SharedPreferences.OnSharedPreferenceCh
         this.context = null;
     }
 
-    public synchronized void onChange(@NonNull Location location) {
-        onNewTrackPoint(new TrackPoint(location, createNow()));
+    /**
+     * Can be called from any thread; the time is taken when called.
+     */
+    public void onChange(@NonNull Location location) {
+        TrackPoint trackPoint = new TrackPoint(location, createNow());
+        recordingPipeline.post(() -> onNewTrackPoint(trackPoint));
     }
 
     /**
      * Got a new TrackPoint from Bluetooth only; contains no GPS location.
+     * Is called by the recordingPipeline.
      */
-    public synchronized void onChange(@NonNull SensorDataSet unused) {
+    public void onChange(@NonNull SensorDataSet unused) {
         onNewTrackPoint(new TrackPoint(TrackPoint.Type.TRACKPOINT, createNow()));
     }
 
@@ -84,24 +93,24 @@ public class TrackPointCreator implements SharedPreferences.OnSharedPreferenceCh
     public void onNewTrackPoint(@NonNull TrackPoint trackPoint) {
         addSensorData(trackPoint);
 
-        boolean stored = service.newTrackPoint(trackPoint, PreferencesUtils.getThresholdHorizontalAccuracy());  //TODO Cache preference for performance
+        boolean stored = service.newTrackPoint(trackPoint, PreferencesUtils.getRecordingSettings().thresholdHorizontalAccuracy());
         if (stored) {
             reset();
         }
     }
 
-    public synchronized TrackPoint createSegmentStartManual() {
+    public TrackPoint createSegmentStartManual() {
         return TrackPoint.createSegmentStartManualWithTime(createNow());
     }
 
-    public synchronized TrackPoint createSegmentEnd() {
+    public TrackPoint createSegmentEnd() {
         TrackPoint segmentEnd = TrackPoint.createSegmentEndWithTime(createNow());
         addSensorData(segmentEnd);
         reset();
         return segmentEnd;
     }
 
-    public synchronized TrackPoint createIdle() {
+    public TrackPoint createIdle() {
         TrackPoint idle = new TrackPoint(TrackPoint.Type.IDLE, createNow());
         addSensorData(idle);
         reset();
@@ -139,6 +148,11 @@ public class TrackPointCreator implements SharedPreferences.OnSharedPreferenceCh
         return sensorManager;
     }
 
+    @VisibleForTesting
+    public RecordingPipeline getRecordingPipeline() {
+        return recordingPipeline;
+    }
+
     @VisibleForTesting
     public void setClock(@NonNull String time) {
         this.clock = Clock.fixed(Instant.parse(time), ZoneId.of("CET"));
@@ -2,6 +2,9 @@ package de.dennisguse.opentracks.settings;
 
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.Toast;
 
 import androidx.documentfile.provider.DocumentFile;
 import androidx.preference.EditTextPreference;
@@ -14,12 +17,21 @@ import java.util.Map;
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
 import de.dennisguse.opentracks.io.file.TrackFilenameGenerator;
+import de.dennisguse.opentracks.services.RecordingStatus;
+import de.dennisguse.opentracks.services.TrackRecordingService;
+import de.dennisguse.opentracks.services.TrackRecordingServiceConnection;
+import de.dennisguse.opentracks.services.TrackStatisticsRecomputeService;
 import de.dennisguse.opentracks.util.IntentUtils;
 
-public class ImportExportSettingsFragment extends PreferenceFragmentCompat {
+public class ImportExportSettingsFragment extends PreferenceFragmentCompat implements TrackStatisticsRecomputeService.TrackStatisticsRecomputeResultReceiver.Receiver {
 
     private static final String TAG = ImportExportSettingsFragment.class.getSimpleName();
 
+    private RecordingStatus recordingStatus = TrackRecordingService.STATUS_DEFAULT;
+
+    private final TrackRecordingServiceConnection trackRecordingServiceConnection = new TrackRecordingServiceConnection((service, unused) -> service.getRecordingStatusObservable()
+            .observe(ImportExportSettingsFragment.this, status -> recordingStatus = status));
+
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         addPreferencesFromResource(R.xml.settings_import_export);
@@ -27,12 +39,20 @@ public class ImportExportSettingsFragment extends PreferenceFragmentCompat {
         setExportTrackFileFormatOptions();
         setExportDirectorySummary();
         setFilenameTemplate();
+        setRecomputeStatistics();
     }
 
     @Override
     public void onStart() {
         super.onStart();
         ((SettingsActivity) getActivity()).getSupportActionBar().setTitle(R.string.settings_import_export_title);
+        trackRecordingServiceConnection.bind(getContext());
+    }
+
+    @Override
+    public void onStop() {
+        super.onStop();
+        trackRecordingServiceConnection.unbind(getContext());
     }
 
     @Override
@@ -43,6 +63,9 @@ public class ImportExportSettingsFragment extends PreferenceFragmentCompat {
 
         Preference instantExportEnabledPreference = findPreference(getString(R.string.post_workout_export_enabled_key));
         instantExportEnabledPreference.setEnabled(PreferencesUtils.isDefaultExportDirectoryUri());
+
+        ListPreference simplificationTolerance = findPreference(getString(R.string.export_simplification_tolerance_key));
+        simplificationTolerance.setEntries(PreferencesUtils.getExportSimplificationToleranceEntries());
     }
 
     private void setExportTrackFileFormatOptions() {
@@ -71,6 +94,39 @@ public class ImportExportSettingsFragment extends PreferenceFragmentCompat {
         });
     }
 
+    private void setRecomputeStatistics() {
+        Preference preference = findPreference(getString(R.string.settings_recompute_statistics_key));
+        preference.setOnPreferenceClickListener(p -> {
+            if (TrackStatisticsRecomputeService.isRunning()) {
+                TrackStatisticsRecomputeService.cancel();
+            } else {
+                TrackStatisticsRecomputeService.enqueue(getContext(), recordingStatus.trackId(), new TrackStatisticsRecomputeService.TrackStatisticsRecomputeResultReceiver(new Handler(Looper.getMainLooper()), this));
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public void onRecomputeProgress(int processedTracks, int totalTracks) {
+        Preference preference = findPreference(getString(R.string.settings_recompute_statistics_key));
+        if (preference != null && isAdded()) {
+            preference.setSummary(getString(R.string.settings_recompute_statistics_progress, processedTracks, totalTracks));
+        }
+    }
+
+    @Override
+    public void onRecomputeFinished(int updatedTracks, int totalTracks, boolean cancelled) {
+        if (!isAdded()) {
+            return;
+        }
+        Preference preference = findPreference(getString(R.string.settings_recompute_statistics_key));
+        if (preference != null) {
+            preference.setSummary(R.string.settings_recompute_statistics_summary);
+        }
+        int message = cancelled ? R.string.settings_recompute_statistics_cancelled : R.string.settings_recompute_statistics_finished;
+        Toast.makeText(getContext(), getString(message, updatedTracks, totalTracks), Toast.LENGTH_LONG).show();
+    }
+
     private void setFilenameTemplate() {
         EditTextPreference preference = findPreference(getString(R.string.export_filename_format_key));
         preference.setOnBindEditTextListener(t -> t.setHint(getString(R.string.export_filename_format_default)));
@@ -26,6 +26,7 @@ import android.net.Uri;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.app.AppCompatDelegate;
 import androidx.preference.PreferenceManager;
@@ -48,6 +49,7 @@ import de.dennisguse.opentracks.data.models.HeartRateZones;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
 import de.dennisguse.opentracks.io.file.TrackFilenameGenerator;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 import de.dennisguse.opentracks.sensors.SensorType;
 import de.dennisguse.opentracks.ui.customRecordingLayout.CsvLayoutUtils;
 import de.dennisguse.opentracks.ui.customRecordingLayout.RecordingLayout;
@@ -72,6 +74,11 @@ public class PreferencesUtils {
 
     private static Resources resources;
 
+    private static volatile RecordingSettings recordingSettings;
+
+    // SharedPreferences only keeps weak references to its listeners.
+    private static final SharedPreferences.OnSharedPreferenceChangeListener recordingSettingsUpdater = (sharedPreferences, key) -> updateRecordingSettings();
+
     /**
      * Must be called during application startup.
      */
@@ -80,6 +87,24 @@ public class PreferencesUtils {
         PreferencesUtils.sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
 
         PreferencesOpenHelper.newInstance(PREFERENCES_VERSION).check();
+
+        updateRecordingSettings();
+        sharedPreferences.registerOnSharedPreferenceChangeListener(recordingSettingsUpdater);
+    }
+
+    /**
+     * @return immutable snapshot of the preferences used while recording; can be read from any thread.
+     */
+    @NonNull
+    public static RecordingSettings getRecordingSettings() {
+        return recordingSettings;
+    }
+
+    /**
+     * Is also called directly after changes, as the listeners are notified asynchronously (on the main thread).
+     */
+    private static void updateRecordingSettings() {
+        recordingSettings = RecordingSettings.create();
     }
 
     public static void registerOnSharedPreferenceChangeListener(SharedPreferences.OnSharedPreferenceChangeListener changeListener) {
@@ -173,6 +198,7 @@ public class PreferencesUtils {
         Editor editor = sharedPreferences.edit();
         editor.putString(getKey(keyId), value);
         editor.apply();
+        updateRecordingSettings();
     }
 
     @VisibleForTesting
@@ -185,12 +211,14 @@ public class PreferencesUtils {
         Editor editor = sharedPreferences.edit();
         editor.putBoolean(getKey(keyId), value);
         editor.apply();
+        updateRecordingSettings();
     }
 
     static void setInt(int keyId, int value) {
         Editor editor = sharedPreferences.edit();
         editor.putInt(getKey(keyId), value);
         editor.apply();
+        updateRecordingSettings();
     }
 
     public static boolean isPublicAPIenabled() {
@@ -664,6 +692,46 @@ public class PreferencesUtils {
                 .findFirst().orElse(TrackFileFormat.KMZ_WITH_TRACKDETAIL_AND_SENSORDATA_AND_PICTURES);
     }
 
+    /**
+     * @return null if trackPoints should not be simplified.
+     */
+    @Nullable
+    public static TrackSimplifier getExportTrackSimplifier() {
+        final int TOLERANCE_DEFAULT = Integer.parseInt(resources.getString(R.string.export_simplification_tolerance_default));
+        int tolerance_m = getInt(R.string.export_simplification_tolerance_key, TOLERANCE_DEFAULT);
+        if (tolerance_m <= 0) {
+            return null;
+        }
+
+        final String ALGORITHM_DEFAULT = getString(R.string.export_simplification_algorithm_default, null);
+        String algorithmName = getString(R.string.export_simplification_algorithm_key, ALGORITHM_DEFAULT);
+        TrackSimplifier.Algorithm algorithm = Arrays.stream(TrackSimplifier.Algorithm.values())
+                .filter(it -> it.name().equals(algorithmName))
+                .findFirst().orElse(TrackSimplifier.Algorithm.DOUGLAS_PEUCKER);
+        return new TrackSimplifier(algorithm, Distance.of(tolerance_m));
+    }
+
+    static String[] getExportSimplificationToleranceEntries() {
+        String[] entryValues = resources.getStringArray(R.array.export_simplification_tolerance_values);
+        String[] entries = new String[entryValues.length];
+
+        DistanceFormatter formatter = DistanceFormatter.Builder()
+                .setDecimalCount(0)
+                .setThreshold(Double.MAX_VALUE)
+                .setUnit(getUnitSystem())
+                .build(resources);
+        for (int i = 0; i < entryValues.length; i++) {
+            int value = Integer.parseInt(entryValues[i]);
+            if (value == 0) {
+                entries[i] = resources.getString(R.string.value_off);
+            } else {
+                entries[i] = formatter.formatDistance(Distance.of(value));
+            }
+        }
+
+        return entries;
+    }
+
     public static boolean getPreventReimportTracks() {
         final boolean defaultValue = getBoolean(R.bool.import_prevent_reimport_default, false);
         return getBoolean(R.string.import_prevent_reimport_key, defaultValue);
@@ -685,6 +753,7 @@ public class PreferencesUtils {
             sharedPreferences.edit().clear().commit();
         }
         PreferenceManager.setDefaultValues(context, R.xml.settings, readAgain);
+        updateRecordingSettings();
     }
 
     public static Uri getDefaultExportDirectoryUri() {
@@ -832,6 +901,7 @@ public class PreferencesUtils {
     @VisibleForTesting
     public static void clear() {
         sharedPreferences.edit().clear().commit();
+        updateRecordingSettings();
     }
 
     public static void setShowOnMapFormat(final String showOnMapFormat) {
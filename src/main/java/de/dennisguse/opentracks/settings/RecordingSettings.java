@@ -0,0 +1,39 @@
+package de.dennisguse.opentracks.settings;
+
+import androidx.annotation.NonNull;
+
+import java.time.Duration;
+
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
+
+/**
+ * Immutable snapshot of the preferences that are needed while recording (e.g., for each TrackPoint or sensor sample).
+ * <p>
+ * Rebuilt by {@link PreferencesUtils} on every change; so, it can be read from any thread without locking, accessing the SharedPreferences, or parsing values.
+ * Code that reacts to a change (i.e., OnSharedPreferenceChangeListener) should use {@link PreferencesUtils} directly as the snapshot might not yet be rebuilt.
+ */
+public record RecordingSettings(
+        @NonNull Distance thresholdHorizontalAccuracy,
+        @NonNull Distance recordingDistanceInterval,
+        @NonNull Distance maxRecordingDistance,
+        @NonNull Duration idleDuration,
+        @NonNull Distance wheelCircumference,
+        @NonNull HeartRateZones heartRateZones,
+        boolean voiceAnnouncementIdle,
+        boolean voiceAnnouncementOnDeviceSpeaker
+) {
+
+    static RecordingSettings create() {
+        return new RecordingSettings(
+                PreferencesUtils.getThresholdHorizontalAccuracy(),
+                PreferencesUtils.getRecordingDistanceInterval(),
+                PreferencesUtils.getMaxRecordingDistance(),
+                PreferencesUtils.getIdleDurationTimeout(),
+                PreferencesUtils.getWheelCircumference(),
+                PreferencesUtils.getHeartRateZones(),
+                PreferencesUtils.shouldVoiceAnnouncementIdle(),
+                PreferencesUtils.shouldVoiceAnnouncementOnDeviceSpeaker()
+        );
+    }
+}
@@ -0,0 +1,171 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import de.dennisguse.opentracks.data.models.AltitudeGainLoss;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Streaming fusion of barometric altitude changes and GPS altitude into one smoothed altitude (one-dimensional Kalman filter).
+ * <p>
+ * The barometer provides precise changes, but drifts (e.g., weather); so, its changes are used for the prediction.
+ * The GPS provides an absolute, but noisy altitude; so, it is used as measurement weighted by its (vertical) accuracy.
+ * Without barometer, the filter smooths the GPS altitude.
+ * <p>
+ * Altitude gain and loss are derived from the smoothed altitude: changes are only counted once they exceed {@link #DEAD_BAND_M} and the uncertainty of the smoothed altitude (i.e., noise is not counted).
+ * Each {@link TrackPoint} is processed in O(1); the filter is reset at manual segment start.
+ */
+public class AltitudeFilter {
+
+    // Changes of the smoothed altitude below this are considered noise.
+    private static final double DEAD_BAND_M = 3.0;
+    // Changes below this multiple of the standard deviation of the smoothed altitude are considered noise.
+    private static final double DEAD_BAND_STANDARD_DEVIATIONS = 2.0;
+
+    // Process noise (variance per second): drift of the barometer and altitude changes without barometer.
+    private static final double VARIANCE_BAROMETER_M2_PER_S = 0.01;
+    private static final double VARIANCE_NO_BAROMETER_M2_PER_S = 1.0;
+
+    // If the vertical accuracy is not available, it is estimated from the horizontal accuracy.
+    private static final double VERTICAL_ACCURACY_FACTOR = 1.5;
+    private static final double DEFAULT_VERTICAL_ACCURACY_M = 15;
+
+    // Time of the last trackPoint with altitude information.
+    private Instant lastTime;
+
+    private boolean initialized;
+    // If the altitude is absolute (i.e., a GPS altitude was received); otherwise relative to the start.
+    private boolean absolute;
+    private double altitude_m;
+    private double variance_m2;
+
+    // Smoothed altitude at which the last change was counted.
+    private double reference_m;
+
+    public AltitudeFilter() {
+    }
+
+    public AltitudeFilter(@NonNull AltitudeFilter toCopy) {
+        this.lastTime = toCopy.lastTime;
+        this.initialized = toCopy.initialized;
+        this.absolute = toCopy.absolute;
+        this.altitude_m = toCopy.altitude_m;
+        this.variance_m2 = toCopy.variance_m2;
+        this.reference_m = toCopy.reference_m;
+    }
+
+    /**
+     * @return the altitude gain and loss since the previous trackPoint or null if the trackPoint has no altitude information.
+     */
+    @Nullable
+    public AltitudeGainLoss addTrackPoint(@NonNull TrackPoint trackPoint) {
+        if (trackPoint.isSegmentManualStart()) {
+            reset();
+        }
+
+        boolean hasBarometer = trackPoint.hasAltitudeGain() || trackPoint.hasAltitudeLoss();
+        boolean hasGPS = trackPoint.hasAltitude();
+
+        AltitudeGainLoss gainLoss = null;
+        if (hasBarometer || hasGPS) {
+            if (hasBarometer) {
+                float gain_m = trackPoint.hasAltitudeGain() ? trackPoint.getAltitudeGain() : 0;
+                float loss_m = trackPoint.hasAltitudeLoss() ? trackPoint.getAltitudeLoss() : 0;
+                predict(gain_m - loss_m, VARIANCE_BAROMETER_M2_PER_S, trackPoint);
+            } else {
+                predict(0, VARIANCE_NO_BAROMETER_M2_PER_S, trackPoint);
+            }
+
+            if (hasGPS) {
+                update(trackPoint.getAltitude().toM(), getVerticalAccuracy_m(trackPoint));
+            }
+
+            gainLoss = computeGainLoss();
+            lastTime = trackPoint.getTime();
+        }
+
+        if (trackPoint.isSegmentManualEnd()) {
+            reset();
+        }
+        return gainLoss;
+    }
+
+    /**
+     * @return if the smoothed altitude is absolute (i.e., based on GPS altitude).
+     */
+    public boolean hasAltitude() {
+        return initialized && absolute;
+    }
+
+    /**
+     * @return the smoothed altitude in m.
+     */
+    public double getAltitude_m() {
+        return altitude_m;
+    }
+
+    private void predict(double change_m, double variancePerSecond_m2, TrackPoint trackPoint) {
+        if (!initialized) {
+            // Relative to the start until a GPS altitude is received.
+            initialized = true;
+            absolute = false;
+            altitude_m = 0;
+            variance_m2 = 0;
+            reference_m = 0;
+        } else if (trackPoint.getTime().isAfter(lastTime)) {
+            variance_m2 += variancePerSecond_m2 * Duration.between(lastTime, trackPoint.getTime()).toMillis() / 1000d;
+        }
+        altitude_m += change_m;
+    }
+
+    private void update(double measurement_m, double accuracy_m) {
+        double measurementVariance_m2 = accuracy_m * accuracy_m;
+        if (!absolute) {
+            // First GPS altitude: move the relative altitude (incl. the reference, so this is not counted as change).
+            double offset_m = measurement_m - altitude_m;
+            altitude_m += offset_m;
+            reference_m += offset_m;
+            variance_m2 = measurementVariance_m2;
+            absolute = true;
+            return;
+        }
+
+        double gain = variance_m2 / (variance_m2 + measurementVariance_m2);
+        altitude_m += gain * (measurement_m - altitude_m);
+        variance_m2 = (1 - gain) * variance_m2;
+    }
+
+    private AltitudeGainLoss computeGainLoss() {
+        double deadBand_m = Math.max(DEAD_BAND_M, DEAD_BAND_STANDARD_DEVIATIONS * Math.sqrt(variance_m2));
+        double change_m = altitude_m - reference_m;
+        if (change_m >= deadBand_m) {
+            reference_m = altitude_m;
+            return new AltitudeGainLoss((float) change_m, 0f);
+        }
+        if (change_m <= -deadBand_m) {
+            reference_m = altitude_m;
+            return new AltitudeGainLoss(0f, (float) -change_m);
+        }
+        return new AltitudeGainLoss(0f, 0f);
+    }
+
+    private static double getVerticalAccuracy_m(TrackPoint trackPoint) {
+        if (trackPoint.hasVerticalAccuracy()) {
+            return Math.max(1, trackPoint.getVerticalAccuracy().toM());
+        }
+        if (trackPoint.hasHorizontalAccuracy()) {
+            return Math.max(1, trackPoint.getHorizontalAccuracy().toM() * VERTICAL_ACCURACY_FACTOR);
+        }
+        return DEFAULT_VERTICAL_ACCURACY_M;
+    }
+
+    private void reset() {
+        lastTime = null;
+        initialized = false;
+        absolute = false;
+    }
+}
@@ -0,0 +1,257 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Streaming computation of the best efforts of a track (e.g., fastest 1 km).
+ * <p>
+ * Each {@link Type} is a window over the trackPoints, which is moved with two pointers: the end is the new trackPoint and the start is advanced as far as the window allows.
+ * So, each trackPoint enters and leaves each window once; only the trackPoints still within a window are kept.
+ * Windows do not span recording sessions (i.e., manual segment start/end).
+ */
+public class BestEffortsCalculator {
+
+    private enum Kind {
+        DISTANCE, // shortest duration to cover the amount in m; value in s
+        VERTICAL, // largest altitude loss within the amount in s; value in m
+        SPEED // largest average speed over at least the amount in s; value in m/s
+    }
+
+    public enum Type {
+        FASTEST_100M(Kind.DISTANCE, 100),
+        FASTEST_1KM(Kind.DISTANCE, 1000),
+        FASTEST_5KM(Kind.DISTANCE, 5000),
+        MAX_VERTICAL_10MIN(Kind.VERTICAL, 600),
+        MAX_SPEED_30S(Kind.SPEED, 30);
+
+        private final Kind kind;
+        private final double amount;
+
+        Type(Kind kind, double amount) {
+            this.kind = kind;
+            this.amount = amount;
+        }
+
+        /**
+         * @return if a lower value is better (i.e., a duration).
+         */
+        public boolean isLowerBetter() {
+            return kind == Kind.DISTANCE;
+        }
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private static final int INITIAL_CAPACITY = 256;
+    // Discard trackPoints that left all windows if at least this many.
+    private static final int MIN_COMPACT = 1024;
+
+    // TrackPoints of the current session that are (still) within a window.
+    private long[] times_ms = new long[INITIAL_CAPACITY];
+    private double[] distances_m = new double[INITIAL_CAPACITY]; // cumulative
+    private double[] losses_m = new double[INITIAL_CAPACITY]; // cumulative
+    private int size;
+
+    // Start of the window per type.
+    private final int[] starts = new int[TYPES.length];
+
+    private final Effort[] best = new Effort[TYPES.length];
+
+    private TrackPoint lastTrackPoint;
+
+    /**
+     * Computes the best efforts of all trackPoints at once (e.g., of an imported or already recorded track).
+     */
+    @NonNull
+    public static List<Effort> compute(@NonNull Iterator<TrackPoint> trackPoints) {
+        BestEffortsCalculator calculator = new BestEffortsCalculator();
+        trackPoints.forEachRemaining(calculator::addTrackPoint);
+        return calculator.getBestEfforts();
+    }
+
+    /**
+     * @return the better effort per type of both.
+     */
+    @NonNull
+    public static List<Effort> merge(@NonNull List<Effort> efforts1, @NonNull List<Effort> efforts2) {
+        Effort[] best = new Effort[TYPES.length];
+        for (List<Effort> efforts : List.of(efforts1, efforts2)) {
+            for (Effort effort : efforts) {
+                int index = effort.type().ordinal();
+                if (effort.isBetterThan(best[index])) {
+                    best[index] = effort;
+                }
+            }
+        }
+        return toList(best);
+    }
+
+    public void addTrackPoint(@NonNull TrackPoint trackPoint) {
+        if (trackPoint.isSegmentManualStart()) {
+            reset();
+        }
+
+        if (lastTrackPoint == null) {
+            append(trackPoint.getTime().toEpochMilli(), 0, 0);
+            lastTrackPoint = trackPoint;
+        } else if (trackPoint.getTime().isAfter(lastTrackPoint.getTime())) {
+            double distance_m = 0;
+            if (trackPoint.hasSensorDistance() || (trackPoint.hasLocation() && lastTrackPoint.hasLocation())) {
+                distance_m = trackPoint.distanceToPrevious(lastTrackPoint).toM();
+            }
+
+            double loss_m = 0;
+            if (trackPoint.hasAltitudeGain() || trackPoint.hasAltitudeLoss()) {
+                loss_m = trackPoint.hasAltitudeLoss() ? trackPoint.getAltitudeLoss() : 0;
+            } else if (trackPoint.hasAltitude() && lastTrackPoint.hasAltitude()) {
+                loss_m = Math.max(0, lastTrackPoint.getAltitude().toM() - trackPoint.getAltitude().toM());
+            }
+
+            append(trackPoint.getTime().toEpochMilli(), distances_m[size - 1] + distance_m, losses_m[size - 1] + loss_m);
+            updateWindows();
+            lastTrackPoint = trackPoint;
+        }
+
+        if (trackPoint.isSegmentManualEnd()) {
+            reset();
+        }
+    }
+
+    /**
+     * @return the best effort per type (only types that were achieved).
+     */
+    @NonNull
+    public List<Effort> getBestEfforts() {
+        return toList(best);
+    }
+
+    private void updateWindows() {
+        int end = size - 1;
+        for (int i = 0; i < TYPES.length; i++) {
+            Type type = TYPES[i];
+            int start = starts[i];
+            Effort effort = null;
+            switch (type.kind) {
+                case DISTANCE -> {
+                    while (start + 1 < end && distances_m[end] - distances_m[start + 1] >= type.amount) {
+                        start++;
+                    }
+                    if (distances_m[end] - distances_m[start] >= type.amount) {
+                        effort = createEffort(type, (times_ms[end] - times_ms[start]) / 1000d, start, end);
+                    }
+                }
+                case VERTICAL -> {
+                    while (start < end && times_ms[end] - times_ms[start] > type.amount * 1000) {
+                        start++;
+                    }
+                    if (losses_m[end] > losses_m[start]) {
+                        effort = createEffort(type, losses_m[end] - losses_m[start], start, end);
+                    }
+                }
+                case SPEED -> {
+                    while (start + 1 < end && times_ms[end] - times_ms[start + 1] >= type.amount * 1000) {
+                        start++;
+                    }
+                    if (times_ms[end] - times_ms[start] >= type.amount * 1000) {
+                        effort = createEffort(type, (distances_m[end] - distances_m[start]) / ((times_ms[end] - times_ms[start]) / 1000d), start, end);
+                    }
+                }
+            }
+            starts[i] = start;
+
+            if (effort != null && effort.isBetterThan(best[i])) {
+                best[i] = effort;
+            }
+        }
+    }
+
+    private Effort createEffort(Type type, double value, int start, int end) {
+        return new Effort(type, value, Instant.ofEpochMilli(times_ms[start]), Instant.ofEpochMilli(times_ms[end]));
+    }
+
+    private void append(long time_ms, double distance_m, double loss_m) {
+        if (size == times_ms.length) {
+            compact();
+        }
+        if (size == times_ms.length) {
+            int capacity = times_ms.length * 2;
+            long[] newTimes_ms = new long[capacity];
+            double[] newDistances_m = new double[capacity];
+            double[] newLosses_m = new double[capacity];
+            System.arraycopy(times_ms, 0, newTimes_ms, 0, size);
+            System.arraycopy(distances_m, 0, newDistances_m, 0, size);
+            System.arraycopy(losses_m, 0, newLosses_m, 0, size);
+            times_ms = newTimes_ms;
+            distances_m = newDistances_m;
+            losses_m = newLosses_m;
+        }
+        times_ms[size] = time_ms;
+        distances_m[size] = distance_m;
+        losses_m[size] = loss_m;
+        size++;
+    }
+
+    /**
+     * Discards the trackPoints before the start of all windows (if there are enough).
+     */
+    private void compact() {
+        int discard = size;
+        for (int start : starts) {
+            discard = Math.min(discard, start);
+        }
+        if (discard < MIN_COMPACT || discard < size / 2) {
+            return;
+        }
+        size -= discard;
+        System.arraycopy(times_ms, discard, times_ms, 0, size);
+        System.arraycopy(distances_m, discard, distances_m, 0, size);
+        System.arraycopy(losses_m, discard, losses_m, 0, size);
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] -= discard;
+        }
+    }
+
+    private void reset() {
+        size = 0;
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = 0;
+        }
+        lastTrackPoint = null;
+    }
+
+    private static List<Effort> toList(Effort[] efforts) {
+        List<Effort> list = new ArrayList<>(efforts.length);
+        for (Effort effort : efforts) {
+            if (effort != null) {
+                list.add(effort);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @param value duration in s, altitude loss in m, or speed in m/s (depending on type)
+     */
+    public record Effort(@NonNull Type type, double value, @NonNull Instant startTime, @NonNull Instant stopTime) {
+
+        public Duration getDuration() {
+            return Duration.between(startTime, stopTime);
+        }
+
+        public boolean isBetterThan(@Nullable Effort other) {
+            if (other == null) {
+                return true;
+            }
+            return type.isLowerBetter() ? value < other.value : value > other.value;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Streaming energy expenditure of a ski track.
+ * <p>
+ * Each {@link TrackPoint} is processed in O(1): the time since the previous trackPoint is attributed to the current {@link CalorieCalculator.State} (from smoothed horizontal and vertical speed) or to the heart rate, if available.
+ * As the energy is integrated per trackPoint, no hysteresis is needed (unlike {@link SkiSegmentDetector}).
+ * Time between recording sessions (i.e., manual segment end/start) is not included.
+ */
+public class CalorieAccumulator {
+
+    // Horizontal speed below which moving on flat terrain is walking.
+    @VisibleForTesting
+    static final double SPEED_WALKING_MAX_MPS = 2.0;
+
+    // Vertical speed required for skiing or lift; lower is walking (or skiing if faster).
+    private static final double VERTICAL_SPEED_MPS = 0.1;
+
+    // Time constants of the exponential smoothing.
+    private static final double TAU_HORIZONTAL_S = 5;
+    private static final double TAU_VERTICAL_S = 10;
+
+    private final CalorieCalculator calorieCalculator;
+
+    private TrackPoint lastTrackPoint;
+    private double horizontalSpeed_mps;
+    private double verticalSpeed_mps;
+    private boolean hasSpeeds;
+
+    private CalorieCalculator.State state;
+
+    public CalorieAccumulator(@NonNull CalorieCalculator calorieCalculator) {
+        this.calorieCalculator = calorieCalculator;
+    }
+
+    public CalorieAccumulator(@NonNull CalorieAccumulator toCopy) {
+        this.calorieCalculator = toCopy.calorieCalculator;
+        this.lastTrackPoint = toCopy.lastTrackPoint;
+        this.horizontalSpeed_mps = toCopy.horizontalSpeed_mps;
+        this.verticalSpeed_mps = toCopy.verticalSpeed_mps;
+        this.hasSpeeds = toCopy.hasSpeeds;
+        this.state = toCopy.state;
+    }
+
+    /**
+     * @return the energy in kcal spent since the previous trackPoint.
+     */
+    public double addTrackPoint(@NonNull TrackPoint trackPoint) {
+        if (trackPoint.isSegmentManualStart()) {
+            reset();
+        }
+
+        double calories_kcal = 0;
+        if (lastTrackPoint != null && trackPoint.getTime().isAfter(lastTrackPoint.getTime())) {
+            Duration duration = Duration.between(lastTrackPoint.getTime(), trackPoint.getTime());
+            updateSpeeds(trackPoint, duration.toMillis() / 1000d);
+            state = classify(trackPoint);
+
+            if (trackPoint.hasHeartRate()) {
+                calories_kcal = calorieCalculator.getCalories(trackPoint.getHeartRate(), duration);
+            } else {
+                calories_kcal = calorieCalculator.getCalories(state, duration);
+            }
+        }
+        lastTrackPoint = trackPoint;
+
+        if (trackPoint.isSegmentManualEnd()) {
+            reset();
+        }
+        return calories_kcal;
+    }
+
+    /**
+     * @return the state of the last trackPoint or null if unknown.
+     */
+    @Nullable
+    public CalorieCalculator.State getState() {
+        return state;
+    }
+
+    private void updateSpeeds(TrackPoint trackPoint, double dt_s) {
+        double horizontal_mps;
+        if (trackPoint.hasSpeed()) {
+            horizontal_mps = trackPoint.getSpeed().toMPS();
+        } else if (trackPoint.hasSensorDistance() || (trackPoint.hasLocation() && lastTrackPoint.hasLocation())) {
+            horizontal_mps = trackPoint.distanceToPrevious(lastTrackPoint).toM() / dt_s;
+        } else {
+            horizontal_mps = horizontalSpeed_mps;
+        }
+
+        double vertical_mps = 0;
+        if (trackPoint.hasAltitudeGain() || trackPoint.hasAltitudeLoss()) {
+            float gain_m = trackPoint.hasAltitudeGain() ? trackPoint.getAltitudeGain() : 0;
+            float loss_m = trackPoint.hasAltitudeLoss() ? trackPoint.getAltitudeLoss() : 0;
+            vertical_mps = (gain_m - loss_m) / dt_s;
+        } else if (trackPoint.hasAltitude() && lastTrackPoint.hasAltitude()) {
+            vertical_mps = (trackPoint.getAltitude().toM() - lastTrackPoint.getAltitude().toM()) / dt_s;
+        }
+
+        if (hasSpeeds) {
+            horizontalSpeed_mps += dt_s / (TAU_HORIZONTAL_S + dt_s) * (horizontal_mps - horizontalSpeed_mps);
+            verticalSpeed_mps += dt_s / (TAU_VERTICAL_S + dt_s) * (vertical_mps - verticalSpeed_mps);
+        } else {
+            horizontalSpeed_mps = horizontal_mps;
+            verticalSpeed_mps = vertical_mps;
+            hasSpeeds = true;
+        }
+    }
+
+    private CalorieCalculator.State classify(TrackPoint trackPoint) {
+        if (trackPoint.getType() == TrackPoint.Type.IDLE || horizontalSpeed_mps < SkiSegmentDetector.SPEED_WAIT_ENTER_MPS) {
+            return CalorieCalculator.State.WAITING;
+        }
+        if (verticalSpeed_mps > SkiSegmentDetector.VERTICAL_SPEED_SWITCH_MPS) {
+            return CalorieCalculator.State.LIFT;
+        }
+        if (verticalSpeed_mps < -VERTICAL_SPEED_MPS || horizontalSpeed_mps >= SPEED_WALKING_MAX_MPS) {
+            return CalorieCalculator.State.SKIING;
+        }
+        return CalorieCalculator.State.WALKING;
+    }
+
+    private void reset() {
+        lastTrackPoint = null;
+        hasSpeeds = false;
+        state = null;
+    }
+}
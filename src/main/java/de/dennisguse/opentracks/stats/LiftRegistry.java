@@ -0,0 +1,494 @@
+package de.dennisguse.opentracks.stats;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.util.LocationUtils;
+
+/**
+ * Registry of ski lifts that are learned from lift rides (see {@link SkiSegmentDetector}).
+ * <p>
+ * The geometry of a lift (bottom station, top station, and polyline) is the average of all its rides.
+ * Locations are matched to lifts using a grid index of the lifts' polyline segments, so a lookup only considers the segments registered to one grid cell.
+ * <p>
+ * Lifts are not persisted: they are loaded from the stored LIFT segments of all tracks on first use (see {@link #load(ContentProviderUtils)}) and the rides of a track are removed if the track is deleted.
+ * <p>
+ * Thread-safe: {@link Lift}s are immutable and replaced as a whole; lookups do not lock.
+ */
+public class LiftRegistry {
+
+    private static final String TAG = LiftRegistry.class.getSimpleName();
+
+    // Rides whose stations are within this distance belong to the same lift.
+    @VisibleForTesting
+    static final double STATION_RADIUS_M = 50;
+    // Maximum distance of a location to the polyline of a lift to be matched.
+    @VisibleForTesting
+    static final double CORRIDOR_M = 25;
+    // Shorter rides are ignored.
+    @VisibleForTesting
+    static final double MIN_RIDE_LENGTH_M = 100;
+
+    // Must be larger than CORRIDOR_M + SAMPLING_DISTANCE_M / 2, so that every match is within the 3x3 cells a polyline segment is registered to.
+    private static final double CELL_SIZE_M = 50;
+    private static final double SAMPLING_DISTANCE_M = CELL_SIZE_M / 2;
+
+    @VisibleForTesting
+    static final int POLYLINE_POINTS = 32;
+
+    private static final double EARTH_RADIUS_M = 6371009;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_M * Math.PI / 180;
+
+    private static final LiftRegistry INSTANCE = new LiftRegistry();
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    private final ConcurrentHashMap<Integer, Lift> lifts = new ConcurrentHashMap<>();
+
+    // Grid cell -> polyline segments within its 3x3 neighborhood; lists are immutable.
+    private final ConcurrentHashMap<Long, List<SegmentRef>> grid = new ConcurrentHashMap<>();
+
+    public static LiftRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    LiftRegistry() {
+    }
+
+    @NonNull
+    public Collection<Lift> getLifts() {
+        return Collections.unmodifiableCollection(lifts.values());
+    }
+
+    @Nullable
+    public Lift getLift(int id) {
+        return lifts.get(id);
+    }
+
+    /**
+     * Learns the lifts from the LIFT segments of all stored tracks; only done once.
+     * Reads all lift rides from the database, so must not be called on the UI thread.
+     */
+    public void load(@NonNull ContentProviderUtils contentProviderUtils) {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            List<Track.Id> trackIds = contentProviderUtils.getTrackIdsWithSkiSegments(SkiSegmentDetector.Activity.LIFT);
+            for (Track.Id trackId : trackIds) {
+                learnRides(contentProviderUtils, trackId, contentProviderUtils.getSkiSegments(trackId));
+            }
+            loaded = true;
+            Log.i(TAG, "Loaded " + lifts.size() + " lifts of " + trackIds.size() + " tracks.");
+        }
+    }
+
+    /**
+     * Learns the lifts from the LIFT segments of a stored track (loads the lifts of all other tracks first).
+     */
+    public void learn(@NonNull ContentProviderUtils contentProviderUtils, @NonNull Track.Id trackId, @NonNull List<SkiSegmentDetector.Segment> segments) {
+        // If not yet loaded, the segments are loaded with all others (they are already stored).
+        load(contentProviderUtils);
+        learnRides(contentProviderUtils, trackId, segments);
+    }
+
+    private void learnRides(@NonNull ContentProviderUtils contentProviderUtils, @NonNull Track.Id trackId, @NonNull List<SkiSegmentDetector.Segment> segments) {
+        for (SkiSegmentDetector.Segment segment : segments) {
+            if (segment.activity() != SkiSegmentDetector.Activity.LIFT || segment.startTrackPointId() == null || segment.endTrackPointId() == null) {
+                continue;
+            }
+
+            List<TrackPoint> ride = new ArrayList<>();
+            try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, segment.startTrackPointId())) {
+                while (trackPointIterator.hasNext()) {
+                    TrackPoint trackPoint = trackPointIterator.next();
+                    if (trackPoint.getId().id() > segment.endTrackPointId().id()) {
+                        break;
+                    }
+                    ride.add(trackPoint);
+                }
+            }
+            learn(trackId, ride);
+        }
+    }
+
+    /**
+     * Adds a lift ride (ordered from bottom to top) that is not stored.
+     *
+     * @return the lift or null if the ride is too short.
+     */
+    @Nullable
+    public Lift learn(@NonNull List<TrackPoint> ride) {
+        return learn(null, ride);
+    }
+
+    /**
+     * Adds a lift ride (ordered from bottom to top): either refines the geometry of a known lift or adds a new lift.
+     * A ride of a track is only added once (identified by its start time).
+     *
+     * @param trackId the track of the ride; null if not stored.
+     * @return the lift or null if the ride is too short.
+     */
+    @Nullable
+    public synchronized Lift learn(@Nullable Track.Id trackId, @NonNull List<TrackPoint> ride) {
+        List<TrackPoint> locations = new ArrayList<>(ride.size());
+        for (TrackPoint trackPoint : ride) {
+            if (trackPoint.hasLocation()) {
+                locations.add(trackPoint);
+            }
+        }
+        if (locations.size() < 2) {
+            return null;
+        }
+        RideKey key = trackId == null ? null : new RideKey(trackId, locations.get(0).getTime());
+        if (key != null) {
+            Lift learned = findByRide(key);
+            if (learned != null) {
+                return learned;
+            }
+        }
+
+        double[] latitudes = new double[POLYLINE_POINTS];
+        double[] longitudes = new double[POLYLINE_POINTS];
+        double length_m = resample(locations, latitudes, longitudes);
+        if (length_m < MIN_RIDE_LENGTH_M) {
+            return null;
+        }
+        Duration duration = Duration.between(locations.get(0).getTime(), locations.get(locations.size() - 1).getTime());
+        Ride newRide = new Ride(key, latitudes, longitudes, Speed.of(length_m / Math.max(1, duration.toMillis() / 1000d)));
+
+        Lift known = findByStations(latitudes[0], longitudes[0], latitudes[POLYLINE_POINTS - 1], longitudes[POLYLINE_POINTS - 1]);
+        Lift lift;
+        if (known == null) {
+            lift = new Lift(nextId.getAndIncrement(), List.of(newRide));
+            Log.d(TAG, "New lift " + lift.getId());
+        } else {
+            List<Ride> rides = new ArrayList<>(known.rides);
+            rides.add(newRide);
+            lift = new Lift(known.getId(), rides);
+        }
+
+        lifts.put(lift.getId(), lift);
+        // Register before unregistering, so lookups never miss the lift.
+        register(lift);
+        if (known != null) {
+            unregister(known);
+        }
+        return lift;
+    }
+
+    /**
+     * @return the lift whose polyline is closest to the location (within {@link #CORRIDOR_M}) or null.
+     */
+    @Nullable
+    public Lift match(double latitude, double longitude) {
+        int row = row(latitude);
+        List<SegmentRef> candidates = grid.get(key(row, column(row, longitude)));
+        if (candidates == null) {
+            return null;
+        }
+
+        Lift best = null;
+        double bestDistance_m = CORRIDOR_M;
+        for (SegmentRef candidate : candidates) {
+            double distance_m = candidate.distanceTo(latitude, longitude);
+            if (distance_m <= bestDistance_m) {
+                bestDistance_m = distance_m;
+                best = candidate.lift;
+            }
+        }
+        return best;
+    }
+
+    @Nullable
+    public Lift match(@NonNull TrackPoint trackPoint) {
+        if (!trackPoint.hasLocation()) {
+            return null;
+        }
+        return match(trackPoint.getLatitude(), trackPoint.getLongitude());
+    }
+
+    /**
+     * Removes the rides of a track (e.g., if the track was deleted); lifts without rides are removed.
+     */
+    public synchronized void remove(@NonNull Track.Id trackId) {
+        for (Lift lift : new ArrayList<>(lifts.values())) {
+            List<Ride> rides = new ArrayList<>(lift.rides.size());
+            for (Ride ride : lift.rides) {
+                if (ride.key() == null || !ride.key().trackId().equals(trackId)) {
+                    rides.add(ride);
+                }
+            }
+            if (rides.size() == lift.rides.size()) {
+                continue;
+            }
+
+            if (rides.isEmpty()) {
+                lifts.remove(lift.getId());
+            } else {
+                Lift updated = new Lift(lift.getId(), rides);
+                lifts.put(updated.getId(), updated);
+                register(updated);
+            }
+            unregister(lift);
+        }
+    }
+
+    @VisibleForTesting
+    synchronized void clear() {
+        lifts.clear();
+        grid.clear();
+        loaded = false;
+    }
+
+    @Nullable
+    private Lift findByRide(@NonNull RideKey key) {
+        for (Lift lift : lifts.values()) {
+            for (Ride ride : lift.rides) {
+                if (key.equals(ride.key())) {
+                    return lift;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private Lift findByStations(double bottomLatitude, double bottomLongitude, double topLatitude, double topLongitude) {
+        for (Lift lift : lifts.values()) {
+            if (LocationUtils.distance(lift.getBottomLatitude(), lift.getBottomLongitude(), bottomLatitude, bottomLongitude) <= STATION_RADIUS_M
+                    && LocationUtils.distance(lift.getTopLatitude(), lift.getTopLongitude(), topLatitude, topLongitude) <= STATION_RADIUS_M) {
+                return lift;
+            }
+        }
+        return null;
+    }
+
+    private void register(Lift lift) {
+        for (int segment = 0; segment < POLYLINE_POINTS - 1; segment++) {
+            SegmentRef segmentRef = new SegmentRef(lift, segment);
+            for (long key : cellsOf(lift, segment)) {
+                grid.compute(key, (k, segments) -> {
+                    List<SegmentRef> updated = segments == null ? new ArrayList<>(1) : new ArrayList<>(segments);
+                    updated.add(segmentRef);
+                    return Collections.unmodifiableList(updated);
+                });
+            }
+        }
+    }
+
+    private void unregister(Lift lift) {
+        for (int segment = 0; segment < POLYLINE_POINTS - 1; segment++) {
+            for (long key : cellsOf(lift, segment)) {
+                grid.computeIfPresent(key, (k, segments) -> {
+                    List<SegmentRef> updated = new ArrayList<>(segments.size());
+                    for (SegmentRef segmentRef : segments) {
+                        if (segmentRef.lift != lift) {
+                            updated.add(segmentRef);
+                        }
+                    }
+                    return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+                });
+            }
+        }
+    }
+
+    /**
+     * @return the cells in the 3x3 neighborhood of all cells the polyline segment passes.
+     */
+    private static Set<Long> cellsOf(Lift lift, int segment) {
+        double latitude1 = lift.latitudes[segment];
+        double longitude1 = lift.longitudes[segment];
+        double latitude2 = lift.latitudes[segment + 1];
+        double longitude2 = lift.longitudes[segment + 1];
+
+        int samples = 1 + (int) Math.ceil(LocationUtils.distance(latitude1, longitude1, latitude2, longitude2) / SAMPLING_DISTANCE_M);
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i <= samples; i++) {
+            double fraction = i / (double) samples;
+            double latitude = latitude1 + (latitude2 - latitude1) * fraction;
+            double longitude = longitude1 + (longitude2 - longitude1) * fraction;
+            int row = row(latitude);
+            for (int neighborRow = row - 1; neighborRow <= row + 1; neighborRow++) {
+                int column = column(neighborRow, longitude);
+                for (int neighborColumn = column - 1; neighborColumn <= column + 1; neighborColumn++) {
+                    keys.add(key(neighborRow, neighborColumn));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude * METERS_PER_DEGREE / CELL_SIZE_M);
+    }
+
+    /**
+     * Columns are scaled by the latitude of the row, so cells are roughly square.
+     */
+    private static int column(int row, double longitude) {
+        double rowLatitude = (row + 0.5) * CELL_SIZE_M / METERS_PER_DEGREE;
+        return (int) Math.floor(longitude * METERS_PER_DEGREE * Math.cos(Math.toRadians(rowLatitude)) / CELL_SIZE_M);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    /**
+     * Resamples the locations to {@link #POLYLINE_POINTS} points equally spaced along the path.
+     *
+     * @return the length of the path in meter.
+     */
+    private static double resample(List<TrackPoint> locations, double[] latitudes, double[] longitudes) {
+        double[] locationLatitudes = new double[locations.size()];
+        double[] locationLongitudes = new double[locations.size()];
+        for (int i = 0; i < locations.size(); i++) {
+            locationLatitudes[i] = locations.get(i).getLatitude();
+            locationLongitudes[i] = locations.get(i).getLongitude();
+        }
+        double[] cumulative_m = new double[locations.size()];
+        double length_m = LocationUtils.distances(locationLatitudes, locationLongitudes, cumulative_m);
+        for (int i = 1; i < cumulative_m.length; i++) {
+            cumulative_m[i] += cumulative_m[i - 1];
+        }
+
+        int index = 0;
+        for (int i = 0; i < POLYLINE_POINTS; i++) {
+            double target_m = length_m * i / (POLYLINE_POINTS - 1);
+            while (index < locations.size() - 2 && cumulative_m[index + 1] < target_m) {
+                index++;
+            }
+            double segment_m = cumulative_m[index + 1] - cumulative_m[index];
+            double fraction = segment_m > 0 ? Math.min(1, Math.max(0, (target_m - cumulative_m[index]) / segment_m)) : 0;
+            latitudes[i] = locationLatitudes[index] + (locationLatitudes[index + 1] - locationLatitudes[index]) * fraction;
+            longitudes[i] = locationLongitudes[index] + (locationLongitudes[index + 1] - locationLongitudes[index]) * fraction;
+        }
+        return length_m;
+    }
+
+    /**
+     * A lift with its geometry learned from one or more rides.
+     */
+    public static final class Lift {
+
+        private final int id;
+        private final double[] latitudes = new double[POLYLINE_POINTS];
+        private final double[] longitudes = new double[POLYLINE_POINTS];
+        private final List<Ride> rides;
+        private final Speed averageSpeed;
+
+        private Lift(int id, @NonNull List<Ride> rides) {
+            this.id = id;
+            this.rides = Collections.unmodifiableList(rides);
+
+            double speed_mps = 0;
+            for (Ride ride : rides) {
+                for (int i = 0; i < POLYLINE_POINTS; i++) {
+                    latitudes[i] += ride.latitudes()[i] / rides.size();
+                    longitudes[i] += ride.longitudes()[i] / rides.size();
+                }
+                speed_mps += ride.speed().toMPS() / rides.size();
+            }
+            this.averageSpeed = Speed.of(speed_mps);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getRides() {
+            return rides.size();
+        }
+
+        public Speed getAverageSpeed() {
+            return averageSpeed;
+        }
+
+        public double getBottomLatitude() {
+            return latitudes[0];
+        }
+
+        public double getBottomLongitude() {
+            return longitudes[0];
+        }
+
+        public double getTopLatitude() {
+            return latitudes[latitudes.length - 1];
+        }
+
+        public double getTopLongitude() {
+            return longitudes[longitudes.length - 1];
+        }
+
+        public double[] getPolylineLatitudes() {
+            return latitudes.clone();
+        }
+
+        public double[] getPolylineLongitudes() {
+            return longitudes.clone();
+        }
+    }
+
+    /**
+     * Identifies a ride of a stored track.
+     */
+    private record RideKey(@NonNull Track.Id trackId, @NonNull Instant startTime) {
+    }
+
+    /**
+     * The resampled polyline of one ride.
+     *
+     * @param key null if the ride is not stored.
+     */
+    private record Ride(@Nullable RideKey key, double[] latitudes, double[] longitudes, Speed speed) {
+    }
+
+    private record SegmentRef(Lift lift, int segment) {
+
+        /**
+         * Distance of the location to the polyline segment in a local equirectangular projection.
+         */
+        double distanceTo(double latitude, double longitude) {
+            double cosLatitude = Math.cos(Math.toRadians(latitude));
+            double ax = Math.toRadians(lift.longitudes[segment] - longitude) * cosLatitude;
+            double ay = Math.toRadians(lift.latitudes[segment] - latitude);
+            double bx = Math.toRadians(lift.longitudes[segment + 1] - longitude) * cosLatitude;
+            double by = Math.toRadians(lift.latitudes[segment + 1] - latitude);
+
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared > 0 ? Math.min(1, Math.max(0, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+            double x = ax + t * dx;
+            double y = ay + t * dy;
+            return Math.sqrt(x * x + y * y) * EARTH_RADIUS_M;
+        }
+    }
+}
@@ -17,164 +17,127 @@
 package de.dennisguse.opentracks.stats;
 
 
+import androidx.annotation.NonNull;
+
+import java.time.Duration;
+
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Speed;
-import de.dennisguse.opentracks.data.models.Track;
-import de.dennisguse.opentracks.stats.TrackStatistics;
-
 
+/**
+ * Totals of one or more ski seasons; loaded from the season rollups (see {@link de.dennisguse.opentracks.data.tables.SeasonRollupsColumns}).
+ */
 public class OverallStatistics {
 
-    // Static field that stores singleton instance
-    private static OverallStatistics instance;
-
-    protected OverallStatistics() {
-        this.totalRunsOverall = 50;
-        this.totalSkiDaysOverall = 25;
-        this.totalTrackDistanceOverall = Distance.ofKilometer(500);
-        this.totalVerticalDescentOverall = Distance.ofMM(100);
-        this.avgSpeedOverall = Speed.ofKMH(40);
-        this.slopePercentageOverall = .66;
-    }
+    // The total number of tracks.
+    private int totalTracksOverall;
 
-    protected OverallStatistics(int totalRunsOverall,
-                             int totalSkiDaysOverall,
-                             Distance totalTrackDistanceOverall,
-                             Distance totalVerticalDescentOverall,
-                             Speed avgSpeedOverall,
-                             double slopePercentageOverall) {
-        this.totalRunsOverall = totalRunsOverall;
-        this.totalSkiDaysOverall = totalSkiDaysOverall;
-        this.totalTrackDistanceOverall = totalTrackDistanceOverall;
-        this.totalVerticalDescentOverall = totalVerticalDescentOverall;
-        this.avgSpeedOverall = avgSpeedOverall;
-        this.slopePercentageOverall = slopePercentageOverall;
-    }
-
-    // Static method that controls access to singleton instance
-    public static OverallStatistics getInstance(){
-        if (instance == null){
-            instance = new OverallStatistics();
-        }
-        return instance;
-    }
-    
-    // Static method that controls access to singleton instance with parameters
-    public static OverallStatistics getInstance(int totalRunsOverall, int totalSkiDaysOverall, Distance totalTrackDistanceOverall, Distance totalVerticalDescentOverall, Speed avgSpeedOverall, double slopePercentageOverall){
-        if (instance == null){
-            instance = new OverallStatistics(totalRunsOverall, totalSkiDaysOverall, totalTrackDistanceOverall, totalVerticalDescentOverall, avgSpeedOverall, slopePercentageOverall);
-        }
-        return instance;
-    }
-
-    // The total number of all-time runs.
+    // The total number of runs.
     private int totalRunsOverall;
 
-    // The total number of all-time days skied.
+    // The total number of days skied.
     private int totalSkiDaysOverall;
 
-    // The total all-time distance skied (consider all tracks).
+    // The total distance skied (consider all tracks).
     private Distance totalTrackDistanceOverall;
 
-    // The total all-time distance covered while in vertical descents.
-    private Distance totalVerticalDescentOverall;
-
-    // The average all-time speed.
-    private Speed avgSpeedOverall;
-
-    // The all-time slope percentage.
-    private double slopePercentageOverall;
-
-
+    // The total moving time (consider all tracks).
+    private Duration totalMovingTimeOverall;
 
-    public int getTotalRunsOverall(){
-        return this.totalRunsOverall;
-    }
+    // The total distance of all runs.
+    private Distance totalRunDistanceOverall;
 
-    public void setTotalRunsOverall(int totalRunsOverall){
-        this.totalRunsOverall = totalRunsOverall;
-    }
+    // The total distance covered while in vertical descents (i.e., altitude loss of all runs).
+    private Distance totalVerticalDescentOverall;
 
+    // The total energy expenditure (kcal) of all tracks.
+    private double totalCaloriesOverall;
 
-    public int getTotalSkiDaysOverall(){
-        return this.totalSkiDaysOverall;
+    public OverallStatistics() {
+        this(0, 0, Distance.of(0), Duration.ZERO, 0, Distance.of(0), Distance.of(0), 0);
     }
 
-    public void setTotalSkiDaysOverall(int totalSkiDaysOverall){
+    public OverallStatistics(int totalTracksOverall,
+                             int totalSkiDaysOverall,
+                             @NonNull Distance totalTrackDistanceOverall,
+                             @NonNull Duration totalMovingTimeOverall,
+                             int totalRunsOverall,
+                             @NonNull Distance totalRunDistanceOverall,
+                             @NonNull Distance totalVerticalDescentOverall,
+                             double totalCaloriesOverall) {
+        this.totalTracksOverall = totalTracksOverall;
         this.totalSkiDaysOverall = totalSkiDaysOverall;
-    }
-
-
-    public Distance getTotalTrackDistanceOverall(){
-        return this.totalTrackDistanceOverall;
-    }
-
-    public void setTotalTrackDistanceOverall(Distance totalTrackDistanceOverall){
         this.totalTrackDistanceOverall = totalTrackDistanceOverall;
-    }
-
-
-    public Distance getTotalVerticalDescentOverall(){
-        return this.totalVerticalDescentOverall;
-    }
-
-    public void setTotalVerticalDescentOverall(Distance totalVerticalDescentOverall){
+        this.totalMovingTimeOverall = totalMovingTimeOverall;
+        this.totalRunsOverall = totalRunsOverall;
+        this.totalRunDistanceOverall = totalRunDistanceOverall;
         this.totalVerticalDescentOverall = totalVerticalDescentOverall;
+        this.totalCaloriesOverall = totalCaloriesOverall;
     }
 
-
-    public Speed getAvgSpeedOverall(){
-        return this.avgSpeedOverall;
+    public int getTotalTracksOverall() {
+        return totalTracksOverall;
     }
 
-    public void setAvgSpeedOverall(Speed avgSpeedOverall){
-        this.avgSpeedOverall = avgSpeedOverall;
+    public int getTotalRunsOverall() {
+        return totalRunsOverall;
     }
 
-
-    public double getSlopePercentageOverall(){
-        return this.slopePercentageOverall;
+    public int getTotalSkiDaysOverall() {
+        return totalSkiDaysOverall;
     }
 
-    public void setSlopePercentageOverall(double slopePercentageOverall){
-        this.slopePercentageOverall = slopePercentageOverall;
+    public Distance getTotalTrackDistanceOverall() {
+        return totalTrackDistanceOverall;
     }
 
-
-    //The addToOverallStatistics() method is called whenever updating the overall
-    //statistics of a user.
-    public void addToOverallStatistics(TrackStatistics trackStatistics){
-        calculateTotalRunsOverall(trackStatistics);
-        calculateTotalSkiDaysOverall(trackStatistics);
-        calculateTotalTrackDistanceOverall(trackStatistics);
-        calculateTotalVerticalDescentOverall(trackStatistics);
-        calculateAvgSpeedOverall(trackStatistics);
-        calculateSlopePercentageOverall(trackStatistics);
-
-    }
-    private void calculateTotalRunsOverall(TrackStatistics trackStatistics){
-        totalRunsOverall += trackStatistics.getTotalRunsSeason();
+    public Duration getTotalMovingTimeOverall() {
+        return totalMovingTimeOverall;
     }
 
-    private void calculateTotalSkiDaysOverall(TrackStatistics trackStatistics){
-        totalSkiDaysOverall += trackStatistics.getTotalSkiDaysSeason();
+    public Distance getTotalRunDistanceOverall() {
+        return totalRunDistanceOverall;
     }
 
-    private void calculateTotalTrackDistanceOverall(TrackStatistics trackStatistics){
-        totalTrackDistanceOverall.plus(trackStatistics.getTotalTrackDistanceSeason());
+    public Distance getTotalVerticalDescentOverall() {
+        return totalVerticalDescentOverall;
     }
 
-    private void calculateTotalVerticalDescentOverall(TrackStatistics trackStatistics){
-        totalVerticalDescentOverall.plus(trackStatistics.getTotalVerticalDescentSeasonSeason());
+    /**
+     * @return the energy expenditure in kcal (tracks without energy expenditure are not included).
+     */
+    public double getTotalCaloriesOverall() {
+        return totalCaloriesOverall;
     }
 
-    private void calculateAvgSpeedOverall(TrackStatistics trackStatistics){
-        double tempAvgOverall = (Double.parseDouble(String.valueOf(avgSpeedOverall)) + Double.parseDouble(String.valueOf(trackStatistics.getAvgSpeedSeason())))/2;
-        avgSpeedOverall = new Speed(tempAvgOverall);
+    /**
+     * @return the average moving speed.
+     */
+    public Speed getAvgSpeedOverall() {
+        return Speed.of(totalTrackDistanceOverall, totalMovingTimeOverall);
     }
 
-    private void calculateSlopePercentageOverall(TrackStatistics trackStatistics){
-        slopePercentageOverall = (slopePercentageOverall + trackStatistics.getSlopePercentageSeason())/2;
-
+    /**
+     * @return the average slope of all runs in percent.
+     */
+    public double getSlopePercentageOverall() {
+        if (totalRunDistanceOverall.isZero()) {
+            return 0;
+        }
+        return 100 * totalVerticalDescentOverall.toM() / totalRunDistanceOverall.toM();
+    }
+
+    /**
+     * Adds the totals of other seasons.
+     */
+    public void add(@NonNull OverallStatistics other) {
+        totalTracksOverall += other.totalTracksOverall;
+        totalSkiDaysOverall += other.totalSkiDaysOverall;
+        totalTrackDistanceOverall = totalTrackDistanceOverall.plus(other.totalTrackDistanceOverall);
+        totalMovingTimeOverall = totalMovingTimeOverall.plus(other.totalMovingTimeOverall);
+        totalRunsOverall += other.totalRunsOverall;
+        totalRunDistanceOverall = totalRunDistanceOverall.plus(other.totalRunDistanceOverall);
+        totalVerticalDescentOverall = totalVerticalDescentOverall.plus(other.totalVerticalDescentOverall);
+        totalCaloriesOverall += other.totalCaloriesOverall;
     }
 }
@@ -0,0 +1,302 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch of the distribution of weighted values to estimate its quantiles (merging t-digest).
+ * <p>
+ * Values are buffered and then merged into centroids (mean and weight); centroids near the tails are kept small, so extreme quantiles (e.g., p99) stay accurate.
+ * The number of centroids is bounded by about {@link #COMPRESSION}; so, a serialized sketch (see {@link #toBytes()}) needs less than 1kB independent of the number of values.
+ * Merging the sketches of several tracks gives the quantiles of all their values without loading any trackPoint.
+ */
+public class QuantileSketch {
+
+    @VisibleForTesting
+    static final int COMPRESSION = 100;
+
+    private static final int BUFFER_SIZE = 5 * COMPRESSION;
+
+    private static final byte VERSION = 1;
+
+    // Centroids ordered by mean.
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+
+    // Values not yet merged into the centroids.
+    private final double[] bufferValues = new double[BUFFER_SIZE];
+    private final double[] bufferWeights = new double[BUFFER_SIZE];
+    private int bufferCount;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        means = new double[0];
+        weights = new double[0];
+    }
+
+    public QuantileSketch(@NonNull QuantileSketch toCopy) {
+        means = Arrays.copyOf(toCopy.means, toCopy.centroidCount);
+        weights = Arrays.copyOf(toCopy.weights, toCopy.centroidCount);
+        centroidCount = toCopy.centroidCount;
+        System.arraycopy(toCopy.bufferValues, 0, bufferValues, 0, toCopy.bufferCount);
+        System.arraycopy(toCopy.bufferWeights, 0, bufferWeights, 0, toCopy.bufferCount);
+        bufferCount = toCopy.bufferCount;
+        totalWeight = toCopy.totalWeight;
+        min = toCopy.min;
+        max = toCopy.max;
+    }
+
+    /**
+     * @param weight e.g., the time or distance the value applies to; values without positive weight are ignored.
+     */
+    public void add(double value, double weight) {
+        if (!(weight > 0) || Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        if (bufferCount == BUFFER_SIZE) {
+            compress();
+        }
+        bufferValues[bufferCount] = value;
+        bufferWeights[bufferCount] = weight;
+        bufferCount++;
+
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values of another sketch; the other sketch is not modified.
+     */
+    public void merge(@NonNull QuantileSketch other) {
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        for (int i = 0; i < other.bufferCount; i++) {
+            add(other.bufferValues[i], other.bufferWeights[i]);
+        }
+        // Centroids do not contain the extreme values.
+        if (!other.isEmpty()) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    public boolean isEmpty() {
+        return totalWeight == 0;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @param q the quantile (e.g., 0.5 for the median or 0.99 for p99).
+     * @return the estimated value or NaN if empty.
+     */
+    public double getQuantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + q);
+        }
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+
+        // Interpolates linearly between the centers of the centroids and towards min/max at the tails.
+        double index = q * totalWeight;
+        double center = weights[0] / 2;
+        if (index <= center) {
+            return interpolate(min, means[0], index / center);
+        }
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double nextCenter = center + (weights[i] + weights[i + 1]) / 2;
+            if (index <= nextCenter) {
+                return interpolate(means[i], means[i + 1], (index - center) / (nextCenter - center));
+            }
+            center = nextCenter;
+        }
+        return interpolate(means[centroidCount - 1], max, (index - center) / (totalWeight - center));
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        if (Double.isNaN(fraction)) {
+            return from;
+        }
+        return from + (to - from) * Math.max(0, Math.min(1, fraction));
+    }
+
+    /**
+     * Merges the buffered values into the centroids.
+     */
+    private void compress() {
+        if (bufferCount == 0) {
+            return;
+        }
+
+        // Sort buffer by value and merge it with the (sorted) centroids.
+        sort(bufferValues, bufferWeights, 0, bufferCount - 1);
+
+        int count = centroidCount + bufferCount;
+        double[] sortedMeans = new double[count];
+        double[] sortedWeights = new double[count];
+        int c = 0;
+        int b = 0;
+        for (int i = 0; i < count; i++) {
+            if (b == bufferCount || (c < centroidCount && means[c] <= bufferValues[b])) {
+                sortedMeans[i] = means[c];
+                sortedWeights[i] = weights[c];
+                c++;
+            } else {
+                sortedMeans[i] = bufferValues[b];
+                sortedWeights[i] = bufferWeights[b];
+                b++;
+            }
+        }
+
+        // Combine neighbors as long as the centroid does not exceed the size allowed at its quantile.
+        double[] newMeans = new double[count];
+        double[] newWeights = new double[count];
+        int newCount = 0;
+        newMeans[0] = sortedMeans[0];
+        newWeights[0] = sortedWeights[0];
+        double weightSoFar = 0;
+        double weightLimit = totalWeight * maxQuantile(0);
+        for (int i = 1; i < count; i++) {
+            double proposedWeight = newWeights[newCount] + sortedWeights[i];
+            if (weightSoFar + proposedWeight <= weightLimit) {
+                newMeans[newCount] += (sortedMeans[i] - newMeans[newCount]) * sortedWeights[i] / proposedWeight;
+                newWeights[newCount] = proposedWeight;
+            } else {
+                weightSoFar += newWeights[newCount];
+                weightLimit = totalWeight * maxQuantile(weightSoFar / totalWeight);
+                newCount++;
+                newMeans[newCount] = sortedMeans[i];
+                newWeights[newCount] = sortedWeights[i];
+            }
+        }
+        newCount++;
+
+        means = Arrays.copyOf(newMeans, newCount);
+        weights = Arrays.copyOf(newWeights, newCount);
+        centroidCount = newCount;
+        bufferCount = 0;
+    }
+
+    /**
+     * Sorts values (and their weights) in place without boxing (quicksort).
+     */
+    private static void sort(double[] values, double[] weights, int from, int to) {
+        while (from < to) {
+            double pivot = values[(from + to) >>> 1];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    swap(weights, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller part to bound the stack depth.
+            if (j - from < to - i) {
+                sort(values, weights, from, j);
+                from = i;
+            } else {
+                sort(values, weights, i, to);
+                to = j;
+            }
+        }
+    }
+
+    private static void swap(double[] array, int i, int j) {
+        double tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    /**
+     * Scale function k(q) = COMPRESSION / (2 pi) * asin(2q - 1): a centroid starting at quantile q may extend up to k(q) + 1.
+     */
+    private static double maxQuantile(double q) {
+        double k = COMPRESSION / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+        double angle = Math.min(Math.PI / 2, (k + 1) * 2 * Math.PI / COMPRESSION);
+        return (Math.sin(angle) + 1) / 2;
+    }
+
+    @VisibleForTesting
+    int getCentroidCount() {
+        compress();
+        return centroidCount;
+    }
+
+    /**
+     * Format: version (byte), number of centroids (int), min and max (float), and per centroid mean and weight (float).
+     */
+    @NonNull
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 2 * 4 + centroidCount * 2 * 4);
+        buffer.put(VERSION);
+        buffer.putInt(centroidCount);
+        buffer.putFloat((float) min);
+        buffer.putFloat((float) max);
+        for (int i = 0; i < centroidCount; i++) {
+            buffer.putFloat((float) means[i]);
+            buffer.putFloat((float) weights[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not a serialized sketch.
+     */
+    @NonNull
+    public static QuantileSketch fromBytes(@NonNull byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported version: " + version);
+            }
+            int count = buffer.getInt();
+            if (count < 0 || count * 2 * 4 != buffer.remaining() - 2 * 4) {
+                throw new IllegalArgumentException("Invalid number of centroids: " + count);
+            }
+
+            QuantileSketch sketch = new QuantileSketch();
+            float min = buffer.getFloat();
+            float max = buffer.getFloat();
+            sketch.means = new double[count];
+            sketch.weights = new double[count];
+            for (int i = 0; i < count; i++) {
+                sketch.means[i] = buffer.getFloat();
+                sketch.weights[i] = buffer.getFloat();
+                sketch.totalWeight += sketch.weights[i];
+            }
+            sketch.centroidCount = count;
+            if (count > 0) {
+                sketch.min = min;
+                sketch.max = max;
+            }
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated data.", e);
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package de.dennisguse.opentracks.stats;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.util.LocationUtils;
+
+/**
+ * Finds repeated ski runs (i.e., runs on the same slope) of all indexed tracks.
+ * <p>
+ * Each run (see {@link SkiSegmentDetector}) is resampled by distance and fingerprinted by the sequence of geohash cells it passes.
+ * An inverted index (geohash cell to runs) provides the candidates that share most cells with a run; candidates are confirmed with a banded discrete Fréchet distance.
+ * So, a query only compares a run with the few runs that pass the same cells.
+ * <p>
+ * The index is not persisted: the stored RUN segments of all tracks are indexed on first use (see {@link #load(ContentProviderUtils)}) and the runs of a track are removed if the track is deleted.
+ * <p>
+ * Thread-safe: {@link Run}s are immutable and the index sets are replaced as a whole; lookups do not lock.
+ */
+public class RunMatcher {
+
+    private static final String TAG = RunMatcher.class.getSimpleName();
+
+    // Shorter runs are ignored.
+    @VisibleForTesting
+    static final double MIN_RUN_LENGTH_M = 100;
+    // Runs are resampled with this distance between points (longer runs with a larger distance).
+    private static final double RESAMPLING_DISTANCE_M = 10;
+    private static final int MAX_POINTS = 1000;
+
+    // 35 bits (7 characters): cells are about 150m x 150m (at the equator).
+    private static final int GEOHASH_BITS = 35;
+
+    // Minimal fraction of the cells of a run that a candidate must share.
+    private static final double MIN_SHARED_CELLS = 0.5;
+    // Maximal discrete Fréchet distance of runs on the same slope.
+    @VisibleForTesting
+    static final double MAX_FRECHET_DISTANCE_M = 50;
+    // Width of the band of the discrete Fréchet distance (fraction of the points of the longer run).
+    private static final double BAND_FRACTION = 0.1;
+    private static final int MIN_BAND = 5;
+
+    private static final double EARTH_RADIUS_M = 6371009;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_M * Math.PI / 180;
+
+    private static final RunMatcher INSTANCE = new RunMatcher();
+
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    private final ConcurrentHashMap<Key, Run> runs = new ConcurrentHashMap<>();
+
+    // Geohash cell -> runs passing it; sets are immutable.
+    private final ConcurrentHashMap<Long, Set<Key>> index = new ConcurrentHashMap<>();
+
+    public static RunMatcher getInstance() {
+        return INSTANCE;
+    }
+
+    @VisibleForTesting
+    RunMatcher() {
+    }
+
+    @NonNull
+    public Collection<Run> getRuns() {
+        return Collections.unmodifiableCollection(runs.values());
+    }
+
+    /**
+     * @return the indexed runs of the track ordered by start time.
+     */
+    @NonNull
+    public List<Run> getRuns(@NonNull Track.Id trackId) {
+        List<Run> trackRuns = new ArrayList<>();
+        for (Run run : runs.values()) {
+            if (run.getTrackId().equals(trackId)) {
+                trackRuns.add(run);
+            }
+        }
+        trackRuns.sort(Comparator.comparing(Run::getStartTime));
+        return trackRuns;
+    }
+
+    /**
+     * Indexes the RUN segments of all tracks that are not yet indexed (e.g., all tracks of a season).
+     */
+    public void index(@NonNull ContentProviderUtils contentProviderUtils, @NonNull Collection<Track.Id> trackIds) {
+        Set<Track.Id> indexed = new HashSet<>();
+        for (Run run : runs.values()) {
+            indexed.add(run.getTrackId());
+        }
+
+        for (Track.Id trackId : trackIds) {
+            if (!indexed.contains(trackId)) {
+                learnRuns(contentProviderUtils, trackId, contentProviderUtils.getSkiSegments(trackId));
+            }
+        }
+    }
+
+    /**
+     * Indexes the RUN segments of all stored tracks; only done once.
+     * Reads all runs from the database, so must not be called on the UI thread.
+     */
+    public void load(@NonNull ContentProviderUtils contentProviderUtils) {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            index(contentProviderUtils, contentProviderUtils.getTrackIdsWithSkiSegments(SkiSegmentDetector.Activity.RUN));
+            loaded = true;
+            Log.i(TAG, "Loaded " + runs.size() + " runs.");
+        }
+    }
+
+    /**
+     * Indexes the RUN segments of a stored track (indexes the runs of all other tracks first).
+     */
+    public void learn(@NonNull ContentProviderUtils contentProviderUtils, @NonNull Track.Id trackId, @NonNull List<SkiSegmentDetector.Segment> segments) {
+        // If not yet loaded, the segments are indexed with all others (they are already stored); learning them again replaces them.
+        load(contentProviderUtils);
+        learnRuns(contentProviderUtils, trackId, segments);
+    }
+
+    private void learnRuns(@NonNull ContentProviderUtils contentProviderUtils, @NonNull Track.Id trackId, @NonNull List<SkiSegmentDetector.Segment> segments) {
+        for (SkiSegmentDetector.Segment segment : segments) {
+            if (segment.activity() != SkiSegmentDetector.Activity.RUN || segment.startTrackPointId() == null || segment.endTrackPointId() == null) {
+                continue;
+            }
+
+            List<TrackPoint> run = new ArrayList<>();
+            try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, segment.startTrackPointId())) {
+                while (trackPointIterator.hasNext()) {
+                    TrackPoint trackPoint = trackPointIterator.next();
+                    if (trackPoint.getId().id() > segment.endTrackPointId().id()) {
+                        break;
+                    }
+                    run.add(trackPoint);
+                }
+            }
+            learn(trackId, run);
+        }
+    }
+
+    /**
+     * Adds a run (ordered by time); replaces the run of the same track with the same start time.
+     *
+     * @return the run or null if the run is too short.
+     */
+    @Nullable
+    public synchronized Run learn(@NonNull Track.Id trackId, @NonNull List<TrackPoint> trackPoints) {
+        Run run = createRun(trackId, trackPoints);
+        if (run == null) {
+            return null;
+        }
+
+        Run previous = runs.put(run.getKey(), run);
+        // Register before unregistering, so lookups never miss the run.
+        register(run);
+        if (previous != null) {
+            unregister(previous);
+        }
+        Log.d(TAG, "Indexed run of track " + trackId.id() + " with " + run.cells.length + " cells.");
+        return run;
+    }
+
+    /**
+     * Removes all runs of a track (e.g., if the track was deleted).
+     */
+    public synchronized void remove(@NonNull Track.Id trackId) {
+        for (Run run : getRuns(trackId)) {
+            runs.remove(run.getKey());
+            unregister(run);
+        }
+    }
+
+    /**
+     * @return all other indexed runs on the same slope ordered by start time.
+     */
+    @NonNull
+    public List<Run> findSimilar(@NonNull Run run) {
+        Map<Key, Integer> sharedCells = new HashMap<>();
+        for (long cell : run.cells) {
+            Set<Key> keys = index.get(cell);
+            if (keys == null) {
+                continue;
+            }
+            for (Key key : keys) {
+                sharedCells.merge(key, 1, Integer::sum);
+            }
+        }
+
+        List<Run> similar = new ArrayList<>();
+        for (Map.Entry<Key, Integer> entry : sharedCells.entrySet()) {
+            if (entry.getKey().equals(run.getKey())) {
+                continue;
+            }
+            Run candidate = runs.get(entry.getKey());
+            // Both runs must share most of their cells.
+            if (candidate == null || entry.getValue() < MIN_SHARED_CELLS * Math.max(run.cells.length, candidate.cells.length)) {
+                continue;
+            }
+            if (frechetDistance(run, candidate, MAX_FRECHET_DISTANCE_M) <= MAX_FRECHET_DISTANCE_M) {
+                similar.add(candidate);
+            }
+        }
+        similar.sort(Comparator.comparing(Run::getStartTime));
+        return similar;
+    }
+
+    /**
+     * @return all indexed runs on the same slope as the trackPoints (e.g., a run that is not indexed) ordered by start time.
+     */
+    @NonNull
+    public List<Run> findSimilar(@NonNull List<TrackPoint> trackPoints) {
+        Run run = createRun(new Track.Id(-1), trackPoints);
+        if (run == null) {
+            return Collections.emptyList();
+        }
+        return findSimilar(run);
+    }
+
+    @VisibleForTesting
+    synchronized void clear() {
+        runs.clear();
+        index.clear();
+        loaded = false;
+    }
+
+    private void register(Run run) {
+        Key key = run.getKey();
+        for (long cell : run.cells) {
+            index.compute(cell, (k, keys) -> {
+                Set<Key> updated = keys == null ? new HashSet<>(1) : new HashSet<>(keys);
+                updated.add(key);
+                return Collections.unmodifiableSet(updated);
+            });
+        }
+    }
+
+    private void unregister(Run run) {
+        Key key = run.getKey();
+        for (long cell : run.cells) {
+            index.computeIfPresent(cell, (k, keys) -> {
+                // The run might have been replaced by a run with the same key that is still registered to this cell.
+                Run current = runs.get(key);
+                if (current != null && current != run && current.hasCell(cell)) {
+                    return keys;
+                }
+                Set<Key> updated = new HashSet<>(keys);
+                updated.remove(key);
+                return updated.isEmpty() ? null : Collections.unmodifiableSet(updated);
+            });
+        }
+    }
+
+    @Nullable
+    private static Run createRun(Track.Id trackId, List<TrackPoint> trackPoints) {
+        List<TrackPoint> locations = new ArrayList<>(trackPoints.size());
+        for (TrackPoint trackPoint : trackPoints) {
+            if (trackPoint.hasLocation()) {
+                locations.add(trackPoint);
+            }
+        }
+        if (locations.size() < 2) {
+            return null;
+        }
+
+        double[] locationLatitudes = new double[locations.size()];
+        double[] locationLongitudes = new double[locations.size()];
+        for (int i = 0; i < locations.size(); i++) {
+            locationLatitudes[i] = locations.get(i).getLatitude();
+            locationLongitudes[i] = locations.get(i).getLongitude();
+        }
+        double[] cumulative_m = new double[locations.size()];
+        double length_m = LocationUtils.distances(locationLatitudes, locationLongitudes, cumulative_m);
+        if (length_m < MIN_RUN_LENGTH_M) {
+            return null;
+        }
+        for (int i = 1; i < cumulative_m.length; i++) {
+            cumulative_m[i] += cumulative_m[i - 1];
+        }
+
+        int points = Math.min(MAX_POINTS, 1 + (int) Math.ceil(length_m / RESAMPLING_DISTANCE_M));
+        double[] latitudes = new double[points];
+        double[] longitudes = new double[points];
+        int index = 0;
+        for (int i = 0; i < points; i++) {
+            double target_m = length_m * i / (points - 1);
+            while (index < locations.size() - 2 && cumulative_m[index + 1] < target_m) {
+                index++;
+            }
+            double segment_m = cumulative_m[index + 1] - cumulative_m[index];
+            double fraction = segment_m > 0 ? Math.min(1, Math.max(0, (target_m - cumulative_m[index]) / segment_m)) : 0;
+            latitudes[i] = locationLatitudes[index] + (locationLatitudes[index + 1] - locationLatitudes[index]) * fraction;
+            longitudes[i] = locationLongitudes[index] + (locationLongitudes[index + 1] - locationLongitudes[index]) * fraction;
+        }
+
+        // Sequence of passed cells without repetitions.
+        List<Long> sequence = new ArrayList<>();
+        Set<Long> cells = new HashSet<>();
+        for (int i = 0; i < points; i++) {
+            long cell = geohash(latitudes[i], longitudes[i]);
+            if (sequence.isEmpty() || sequence.get(sequence.size() - 1) != cell) {
+                sequence.add(cell);
+            }
+            cells.add(cell);
+        }
+        long[] distinctCells = new long[cells.size()];
+        int i = 0;
+        for (long cell : cells) {
+            distinctCells[i++] = cell;
+        }
+
+        return new Run(trackId, locations.get(0).getTime(), locations.get(locations.size() - 1).getTime(), length_m, latitudes, longitudes, sequence, distinctCells);
+    }
+
+    /**
+     * Geohash as bits (interleaved longitude and latitude bits starting with longitude).
+     */
+    @VisibleForTesting
+    static long geohash(double latitude, double longitude) {
+        double minLatitude = -90;
+        double maxLatitude = 90;
+        double minLongitude = -180;
+        double maxLongitude = 180;
+
+        long hash = 0;
+        for (int bit = 0; bit < GEOHASH_BITS; bit++) {
+            hash <<= 1;
+            if (bit % 2 == 0) {
+                double middle = (minLongitude + maxLongitude) / 2;
+                if (longitude >= middle) {
+                    hash |= 1;
+                    minLongitude = middle;
+                } else {
+                    maxLongitude = middle;
+                }
+            } else {
+                double middle = (minLatitude + maxLatitude) / 2;
+                if (latitude >= middle) {
+                    hash |= 1;
+                    minLatitude = middle;
+                } else {
+                    maxLatitude = middle;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Discrete Fréchet distance restricted to a band around the diagonal (both runs are resampled by distance, so matching points are close to the diagonal).
+     * Stops early if the distance exceeds the limit.
+     *
+     * @return the distance in m (or a value larger than the limit).
+     */
+    @VisibleForTesting
+    static double frechetDistance(@NonNull Run run1, @NonNull Run run2, double limit_m) {
+        int n = run1.latitudes.length;
+        int m = run2.latitudes.length;
+        int band = Math.max(MIN_BAND, (int) Math.ceil(BAND_FRACTION * Math.max(n, m)));
+        double metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(run1.latitudes[0]));
+
+        double[] previous = new double[m];
+        double[] current = new double[m];
+        int previousFrom = 0;
+        int previousTo = -1;
+        for (int i = 0; i < n; i++) {
+            int diagonal = n > 1 ? (int) Math.round(i * (m - 1) / (double) (n - 1)) : 0;
+            int from = Math.max(0, diagonal - band);
+            int to = Math.min(m - 1, diagonal + band);
+
+            double rowMinimum = Double.POSITIVE_INFINITY;
+            for (int j = from; j <= to; j++) {
+                double dx = (run1.longitudes[i] - run2.longitudes[j]) * metersPerDegreeLongitude;
+                double dy = (run1.latitudes[i] - run2.latitudes[j]) * METERS_PER_DEGREE;
+                double distance_m = Math.sqrt(dx * dx + dy * dy);
+
+                double coupling;
+                if (i == 0 && j == 0) {
+                    coupling = distance_m;
+                } else {
+                    double best = Double.POSITIVE_INFINITY;
+                    if (i > 0 && j >= previousFrom && j <= previousTo) {
+                        best = previous[j];
+                    }
+                    if (i > 0 && j > 0 && j - 1 >= previousFrom && j - 1 <= previousTo) {
+                        best = Math.min(best, previous[j - 1]);
+                    }
+                    if (j > from) {
+                        best = Math.min(best, current[j - 1]);
+                    }
+                    coupling = Math.max(best, distance_m);
+                }
+                current[j] = coupling;
+                rowMinimum = Math.min(rowMinimum, coupling);
+            }
+
+            // Every coupling passes this row.
+            if (rowMinimum > limit_m) {
+                return rowMinimum;
+            }
+
+            double[] swap = previous;
+            previous = current;
+            current = swap;
+            previousFrom = from;
+            previousTo = to;
+        }
+        return previousTo == m - 1 ? previous[m - 1] : Double.POSITIVE_INFINITY;
+    }
+
+    private record Key(Track.Id trackId, Instant startTime) {
+    }
+
+    /**
+     * An indexed run: resampled locations and the sequence of geohash cells it passes.
+     */
+    public static final class Run {
+
+        private final Track.Id trackId;
+        private final Instant startTime;
+        private final Instant endTime;
+        private final double length_m;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final List<Long> cellSequence;
+        private final long[] cells;
+
+        private Run(Track.Id trackId, Instant startTime, Instant endTime, double length_m, double[] latitudes, double[] longitudes, List<Long> cellSequence, long[] cells) {
+            this.trackId = trackId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.length_m = length_m;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.cellSequence = Collections.unmodifiableList(cellSequence);
+            this.cells = cells;
+        }
+
+        public Track.Id getTrackId() {
+            return trackId;
+        }
+
+        public Instant getStartTime() {
+            return startTime;
+        }
+
+        public Instant getEndTime() {
+            return endTime;
+        }
+
+        public double getLength_m() {
+            return length_m;
+        }
+
+        /**
+         * @return the geohash cells (see {@link #geohash(double, double)}) in the order they are passed.
+         */
+        public List<Long> getCellSequence() {
+            return cellSequence;
+        }
+
+        private Key getKey() {
+            return new Key(trackId, startTime);
+        }
+
+        private boolean hasCell(long cell) {
+            for (long c : cells) {
+                if (c == cell) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Streaming segmentation of a ski track into runs, lifts, and waiting.
+ * <p>
+ * Each {@link TrackPoint} is processed in O(1) and only aggregated values are kept (no trackPoints are buffered).
+ * Classification uses smoothed horizontal and vertical speed (barometer altitude gain/loss if available, otherwise GPS altitude).
+ * Hysteresis (different thresholds to enter and to leave a state) and a minimum dwell time suppress flapping; the trackPoints observed while a new state is pending are attributed to that state once it is confirmed.
+ */
+public class SkiSegmentDetector {
+
+    public enum Activity {
+        RUN,
+        LIFT,
+        WAIT
+    }
+
+    // Horizontal speed: below SPEED_WAIT_ENTER starts waiting, above SPEED_WAIT_EXIT ends it.
+    @VisibleForTesting
+    static final double SPEED_WAIT_ENTER_MPS = 0.8;
+    @VisibleForTesting
+    static final double SPEED_WAIT_EXIT_MPS = 1.6;
+
+    // Vertical speed required to switch between run and lift.
+    @VisibleForTesting
+    static final double VERTICAL_SPEED_SWITCH_MPS = 0.3;
+    // Vertical speed to decide between run and lift after waiting.
+    private static final double VERTICAL_SPEED_RESUME_MPS = 0.1;
+
+    @VisibleForTesting
+    static final Duration MIN_DWELL_MOVING = Duration.ofSeconds(30);
+    @VisibleForTesting
+    static final Duration MIN_DWELL_WAIT = Duration.ofSeconds(20);
+
+    // Time constants of the exponential smoothing.
+    private static final double TAU_HORIZONTAL_S = 5;
+    private static final double TAU_VERTICAL_S = 10;
+
+    private final Listener listener;
+
+    private TrackPoint lastTrackPoint;
+    private double horizontalSpeed_mps;
+    private double verticalSpeed_mps;
+    private boolean hasSpeeds;
+
+    private Activity lastMovingActivity = Activity.RUN;
+
+    // Confirmed segment and the (not yet confirmed) segment of a different activity that follows it.
+    private Accumulator current;
+    private Accumulator pending;
+
+    public SkiSegmentDetector(@NonNull Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Segments all trackPoints at once (e.g., of an imported or already recorded track).
+     */
+    @NonNull
+    public static List<Segment> detect(@NonNull Iterator<TrackPoint> trackPoints) {
+        List<Segment> segments = new ArrayList<>();
+        SkiSegmentDetector detector = new SkiSegmentDetector(segments::add);
+        trackPoints.forEachRemaining(detector::addTrackPoint);
+        detector.finish();
+        return segments;
+    }
+
+    public void addTrackPoint(@NonNull TrackPoint trackPoint) {
+        if (trackPoint.isSegmentManualStart()) {
+            finish();
+        }
+
+        Accumulator.Step step = computeStep(trackPoint);
+        if (step != null) {
+            Activity activity = classify();
+            if (current == null) {
+                current = new Accumulator(activity, lastTrackPoint);
+            }
+
+            if (activity == current.activity) {
+                if (pending != null) {
+                    // Change was not confirmed: attribute pending to the current segment.
+                    current.merge(pending);
+                    pending = null;
+                }
+                current.add(trackPoint, step);
+            } else {
+                if (pending == null || pending.activity != activity) {
+                    if (pending != null) {
+                        current.merge(pending);
+                    }
+                    pending = new Accumulator(activity, lastTrackPoint);
+                }
+                pending.add(trackPoint, step);
+
+                if (pending.getDuration().compareTo(getMinDwell(activity)) >= 0) {
+                    listener.onSegment(current.toSegment());
+                    current = pending;
+                    pending = null;
+                }
+            }
+
+            if (current.activity != Activity.WAIT) {
+                lastMovingActivity = current.activity;
+            }
+        }
+
+        lastTrackPoint = trackPoint;
+
+        if (trackPoint.isSegmentManualEnd()) {
+            finish();
+        }
+    }
+
+    /**
+     * Emits the current segment (e.g., if the recording is stopped) and resets.
+     */
+    public void finish() {
+        if (current != null) {
+            if (pending != null) {
+                current.merge(pending);
+            }
+            listener.onSegment(current.toSegment());
+        }
+        current = null;
+        pending = null;
+        lastTrackPoint = null;
+        hasSpeeds = false;
+    }
+
+    /**
+     * @return the activity of the current (confirmed) segment or null if unknown.
+     */
+    @Nullable
+    public Activity getActivity() {
+        return current != null ? current.activity : null;
+    }
+
+    /**
+     * @return the current (not yet finished) segment or null.
+     */
+    @Nullable
+    public Segment getCurrentSegment() {
+        return current != null ? current.toSegment() : null;
+    }
+
+    @Nullable
+    private Accumulator.Step computeStep(TrackPoint trackPoint) {
+        if (lastTrackPoint == null) {
+            return null;
+        }
+        double dt_s = Duration.between(lastTrackPoint.getTime(), trackPoint.getTime()).toMillis() / 1000d;
+        if (dt_s <= 0) {
+            return null;
+        }
+
+        Distance distance = null;
+        if (trackPoint.hasSensorDistance() || (trackPoint.hasLocation() && lastTrackPoint.hasLocation())) {
+            distance = trackPoint.distanceToPrevious(lastTrackPoint);
+        }
+
+        double horizontal_mps;
+        if (trackPoint.hasSpeed()) {
+            horizontal_mps = trackPoint.getSpeed().toMPS();
+        } else if (distance != null) {
+            horizontal_mps = distance.toM() / dt_s;
+        } else {
+            horizontal_mps = horizontalSpeed_mps;
+        }
+
+        float gain_m = 0;
+        float loss_m = 0;
+        if (trackPoint.hasAltitudeGain() || trackPoint.hasAltitudeLoss()) {
+            gain_m = trackPoint.hasAltitudeGain() ? trackPoint.getAltitudeGain() : 0;
+            loss_m = trackPoint.hasAltitudeLoss() ? trackPoint.getAltitudeLoss() : 0;
+        } else if (trackPoint.hasAltitude() && lastTrackPoint.hasAltitude()) {
+            double altitudeChange_m = trackPoint.getAltitude().toM() - lastTrackPoint.getAltitude().toM();
+            gain_m = (float) Math.max(0, altitudeChange_m);
+            loss_m = (float) Math.max(0, -altitudeChange_m);
+        }
+        double vertical_mps = (gain_m - loss_m) / dt_s;
+
+        if (hasSpeeds) {
+            horizontalSpeed_mps += dt_s / (TAU_HORIZONTAL_S + dt_s) * (horizontal_mps - horizontalSpeed_mps);
+            verticalSpeed_mps += dt_s / (TAU_VERTICAL_S + dt_s) * (vertical_mps - verticalSpeed_mps);
+        } else {
+            horizontalSpeed_mps = horizontal_mps;
+            verticalSpeed_mps = vertical_mps;
+            hasSpeeds = true;
+        }
+
+        return new Accumulator.Step(distance, gain_m, loss_m, horizontal_mps);
+    }
+
+    private Activity classify() {
+        Activity activity = pending != null ? pending.activity : current != null ? current.activity : null;
+
+        if (activity == Activity.WAIT) {
+            if (horizontalSpeed_mps < SPEED_WAIT_EXIT_MPS) {
+                return Activity.WAIT;
+            }
+            return classifyMoving(null);
+        }
+        if (horizontalSpeed_mps < SPEED_WAIT_ENTER_MPS) {
+            return Activity.WAIT;
+        }
+        return classifyMoving(activity);
+    }
+
+    private Activity classifyMoving(@Nullable Activity activity) {
+        if (activity == null) {
+            if (verticalSpeed_mps < -VERTICAL_SPEED_RESUME_MPS) {
+                return Activity.RUN;
+            }
+            if (verticalSpeed_mps > VERTICAL_SPEED_RESUME_MPS) {
+                return Activity.LIFT;
+            }
+            return lastMovingActivity;
+        }
+
+        if (activity == Activity.RUN && verticalSpeed_mps > VERTICAL_SPEED_SWITCH_MPS) {
+            return Activity.LIFT;
+        }
+        if (activity == Activity.LIFT && verticalSpeed_mps < -VERTICAL_SPEED_SWITCH_MPS) {
+            return Activity.RUN;
+        }
+        return activity;
+    }
+
+    private static Duration getMinDwell(Activity activity) {
+        return activity == Activity.WAIT ? MIN_DWELL_WAIT : MIN_DWELL_MOVING;
+    }
+
+    public interface Listener {
+        /**
+         * Called once a segment is finished.
+         */
+        void onSegment(@NonNull Segment segment);
+    }
+
+    /**
+     * @param startTrackPointId first trackPoint of the segment (if stored)
+     * @param endTrackPointId   last trackPoint of the segment (if stored)
+     */
+    public record Segment(@NonNull Activity activity, @NonNull Instant startTime, @NonNull Instant endTime,
+                          @NonNull Distance distance, float gain_m, float loss_m, @NonNull Speed maxSpeed,
+                          @Nullable TrackPoint.Id startTrackPointId, @Nullable TrackPoint.Id endTrackPointId) {
+
+        public Duration getDuration() {
+            return Duration.between(startTime, endTime);
+        }
+
+        public Speed getAverageSpeed() {
+            return Speed.of(distance, getDuration());
+        }
+    }
+
+    private static class Accumulator {
+
+        record Step(@Nullable Distance distance, float gain_m, float loss_m, double speed_mps) {
+        }
+
+        private final Activity activity;
+        private final Instant startTime;
+        private final TrackPoint.Id startTrackPointId;
+        private Instant endTime;
+        private TrackPoint.Id endTrackPointId;
+        private double distance_m;
+        private float gain_m;
+        private float loss_m;
+        private double maxSpeed_mps;
+
+        Accumulator(Activity activity, TrackPoint start) {
+            this.activity = activity;
+            this.startTime = start.getTime();
+            this.startTrackPointId = start.getId();
+            this.endTime = startTime;
+            this.endTrackPointId = startTrackPointId;
+        }
+
+        void add(TrackPoint trackPoint, Step step) {
+            endTime = trackPoint.getTime();
+            endTrackPointId = trackPoint.getId();
+            if (step.distance() != null) {
+                distance_m += step.distance().toM();
+            }
+            gain_m += step.gain_m();
+            loss_m += step.loss_m();
+            maxSpeed_mps = Math.max(maxSpeed_mps, step.speed_mps());
+        }
+
+        void merge(Accumulator other) {
+            endTime = other.endTime;
+            endTrackPointId = other.endTrackPointId;
+            distance_m += other.distance_m;
+            gain_m += other.gain_m;
+            loss_m += other.loss_m;
+            maxSpeed_mps = Math.max(maxSpeed_mps, other.maxSpeed_mps);
+        }
+
+        Duration getDuration() {
+            return Duration.between(startTime, endTime);
+        }
+
+        Segment toSegment() {
+            return new Segment(activity, startTime, endTime, Distance.of(distance_m), gain_m, loss_m, Speed.of(maxSpeed_mps), startTrackPointId, endTrackPointId);
+        }
+    }
+}
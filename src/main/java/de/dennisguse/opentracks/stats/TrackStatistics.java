@@ -22,6 +22,7 @@ import androidx.annotation.VisibleForTesting;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 
 import de.dennisguse.opentracks.data.models.ActivityType;
@@ -29,6 +30,7 @@ import de.dennisguse.opentracks.data.models.Altitude;
 import de.dennisguse.opentracks.data.models.AltitudeGainLoss;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
@@ -82,6 +84,14 @@ public class TrackStatistics {
     private Float totalAltitudeLoss_m = null;
     // The average heart rate seen on this track
     private HeartRate avgHeartRate = null;
+    // The time spent per heart rate zone (index: zone - 1); null if unknown.
+    private Duration[] heartRateZoneTimes = null;
+    // The energy expenditure (kcal); null if unknown.
+    private Double totalCalories_kcal = null;
+    // The distributions of speed (weighted by moving time), heart rate (weighted by time), and slope in percent (weighted by distance); null if unknown.
+    private QuantileSketch speedSketch = null;
+    private QuantileSketch heartRateSketch = null;
+    private QuantileSketch slopeSketch = null;
 
     private boolean isIdle;
 
@@ -175,6 +185,11 @@ public class TrackStatistics {
         totalAltitudeGain_m = other.totalAltitudeGain_m;
         totalAltitudeLoss_m = other.totalAltitudeLoss_m;
         avgHeartRate = other.avgHeartRate;
+        heartRateZoneTimes = other.heartRateZoneTimes != null ? other.heartRateZoneTimes.clone() : null;
+        totalCalories_kcal = other.totalCalories_kcal;
+        speedSketch = other.speedSketch != null ? new QuantileSketch(other.speedSketch) : null;
+        heartRateSketch = other.heartRateSketch != null ? new QuantileSketch(other.heartRateSketch) : null;
+        slopeSketch = other.slopeSketch != null ? new QuantileSketch(other.slopeSketch) : null;
         isIdle = other.isIdle;
         //===========================================//
         chairliftConstantSpeed = other.chairliftConstantSpeed;
@@ -217,16 +232,28 @@ public class TrackStatistics {
         if (avgHeartRate == null) {
             avgHeartRate = other.avgHeartRate;
         } else {
-            if (other.avgHeartRate != null) {
+            if (other.avgHeartRate != null && !totalTime.plus(other.totalTime).isZero()) {
                 // Using total time as weights for the averaging.
                 // Important to do this before total time is updated
                 avgHeartRate = HeartRate.of(
-                        (totalTime.getSeconds() * avgHeartRate.getBPM() + other.totalTime.getSeconds() * other.avgHeartRate.getBPM())
-                                / (totalTime.getSeconds() + other.totalTime.getSeconds())
+                        (totalTime.toMillis() * avgHeartRate.getBPM() + other.totalTime.toMillis() * other.avgHeartRate.getBPM())
+                                / (totalTime.toMillis() + other.totalTime.toMillis())
                 );
             }
         }
 
+        if (other.heartRateZoneTimes != null) {
+            for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+                addHeartRateZoneTime(zone, other.getHeartRateZoneTime(zone));
+            }
+        }
+        if (other.totalCalories_kcal != null) {
+            addTotalCalories(other.totalCalories_kcal);
+        }
+        speedSketch = mergeSketch(speedSketch, other.speedSketch);
+        heartRateSketch = mergeSketch(heartRateSketch, other.heartRateSketch);
+        slopeSketch = mergeSketch(slopeSketch, other.slopeSketch);
+
         totalDistance = totalDistance.plus(other.totalDistance);
         totalTime = totalTime.plus(other.totalTime);
         movingTime = movingTime.plus(other.movingTime);
@@ -271,6 +298,11 @@ public class TrackStatistics {
         setMaxSpeed(Speed.zero());
         setTotalAltitudeGain(null);
         setTotalAltitudeLoss(null);
+        heartRateZoneTimes = null;
+        totalCalories_kcal = null;
+        speedSketch = null;
+        heartRateSketch = null;
+        slopeSketch = null;
 
         isIdle = false;
 
@@ -458,6 +490,148 @@ public class TrackStatistics {
         }
     }
 
+    public boolean hasHeartRateZoneTimes() {
+        return heartRateZoneTimes != null;
+    }
+
+    /**
+     * @param zone see {@link HeartRateZones#getZone(HeartRate)}
+     */
+    @NonNull
+    public Duration getHeartRateZoneTime(int zone) {
+        return heartRateZoneTimes != null ? heartRateZoneTimes[zone - 1] : Duration.ZERO;
+    }
+
+    public void setHeartRateZoneTime(int zone, @NonNull Duration time) {
+        if (heartRateZoneTimes == null) {
+            heartRateZoneTimes = new Duration[HeartRateZones.ZONE_COUNT];
+            Arrays.fill(heartRateZoneTimes, Duration.ZERO);
+        }
+        heartRateZoneTimes[zone - 1] = time;
+    }
+
+    @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
+    public void addHeartRateZoneTime(int zone, @NonNull Duration time) {
+        setHeartRateZoneTime(zone, getHeartRateZoneTime(zone).plus(time));
+    }
+
+    public boolean hasTotalCalories() {
+        return totalCalories_kcal != null;
+    }
+
+    /**
+     * @return the energy expenditure in kcal or null if unknown.
+     */
+    @Nullable
+    public Double getTotalCalories() {
+        return totalCalories_kcal;
+    }
+
+    public void setTotalCalories(Double totalCalories_kcal) {
+        this.totalCalories_kcal = totalCalories_kcal;
+    }
+
+    @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
+    public void addTotalCalories(double calories_kcal) {
+        if (totalCalories_kcal == null) {
+            totalCalories_kcal = 0d;
+        }
+        totalCalories_kcal += calories_kcal;
+    }
+
+    @Nullable
+    private static QuantileSketch mergeSketch(@Nullable QuantileSketch sketch, @Nullable QuantileSketch other) {
+        if (other == null) {
+            return sketch;
+        }
+        if (sketch == null) {
+            return new QuantileSketch(other);
+        }
+        sketch.merge(other);
+        return sketch;
+    }
+
+    @Nullable
+    public QuantileSketch getSpeedSketch() {
+        return speedSketch;
+    }
+
+    public void setSpeedSketch(@Nullable QuantileSketch speedSketch) {
+        this.speedSketch = speedSketch;
+    }
+
+    @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
+    public void addSpeed(@NonNull Speed speed, @NonNull Duration time) {
+        if (speedSketch == null) {
+            speedSketch = new QuantileSketch();
+        }
+        speedSketch.add(speed.toMPS(), time.toMillis() / 1000d);
+    }
+
+    /**
+     * @param q the quantile (e.g., 0.9 for p90)
+     * @return the speed or null if unknown.
+     */
+    @Nullable
+    public Speed getSpeedQuantile(double q) {
+        return speedSketch != null && !speedSketch.isEmpty() ? Speed.of(speedSketch.getQuantile(q)) : null;
+    }
+
+    @Nullable
+    public QuantileSketch getHeartRateSketch() {
+        return heartRateSketch;
+    }
+
+    public void setHeartRateSketch(@Nullable QuantileSketch heartRateSketch) {
+        this.heartRateSketch = heartRateSketch;
+    }
+
+    @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
+    public void addHeartRate(@NonNull HeartRate heartRate, @NonNull Duration time) {
+        if (heartRateSketch == null) {
+            heartRateSketch = new QuantileSketch();
+        }
+        heartRateSketch.add(heartRate.getBPM(), time.toMillis() / 1000d);
+    }
+
+    /**
+     * @param q the quantile (e.g., 0.9 for p90)
+     * @return the heart rate or null if unknown.
+     */
+    @Nullable
+    public HeartRate getHeartRateQuantile(double q) {
+        return heartRateSketch != null && !heartRateSketch.isEmpty() ? HeartRate.of((float) heartRateSketch.getQuantile(q)) : null;
+    }
+
+    @Nullable
+    public QuantileSketch getSlopeSketch() {
+        return slopeSketch;
+    }
+
+    public void setSlopeSketch(@Nullable QuantileSketch slopeSketch) {
+        this.slopeSketch = slopeSketch;
+    }
+
+    /**
+     * @param slope_percent positive uphill, negative downhill.
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.PACKAGE_PRIVATE)
+    public void addSlope(double slope_percent, @NonNull Distance distance) {
+        if (slopeSketch == null) {
+            slopeSketch = new QuantileSketch();
+        }
+        slopeSketch.add(slope_percent, distance.toM());
+    }
+
+    /**
+     * @param q the quantile (e.g., 0.9 for p90)
+     * @return the slope in percent (positive uphill, negative downhill) or null if unknown.
+     */
+    @Nullable
+    public Double getSlopeQuantile(double q) {
+        return slopeSketch != null && !slopeSketch.isEmpty() ? slopeSketch.getQuantile(q) : null;
+    }
+
     public boolean hasTotalAltitudeGain() {
         return totalAltitudeGain_m != null;
     }
@@ -0,0 +1,274 @@
+package de.dennisguse.opentracks.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Segment tree of mergeable {@link TrackStatistics} over the {@link TrackPoint}s of one track.
+ * Answers statistics for arbitrary ranges of trackPoints in O(log n) and supports appending trackPoints (e.g., while recording).
+ * <p>
+ * Leaf i holds the contribution of trackPoint i as {@link TrackStatisticsUpdater} would add it: the time, distance and moving time since the previous trackPoint as well as the trackPoint's own altitude gain/loss, altitude, speed and heart rate.
+ * Thus, the range [0, size - 1] results in the statistics of the whole track.
+ * <p>
+ * The average heart rate is weighted by the time with heart rate (not by the total time as {@link TrackStatistics#merge(TrackStatistics)} does), so time without heart rate does not bias it.
+ * <p>
+ * NOTE: not thread-safe.
+ */
+public class TrackStatisticsIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // 1-based heap; leaves are stored at [capacity, capacity + size).
+    private Node[] tree;
+    private int capacity;
+    private int size;
+
+    // TrackPoint.Id of each leaf (or -1 if unknown); increasing if loaded from the database.
+    private long[] trackPointIds;
+
+    // State to compute the contribution of the next trackPoint (mirrors TrackStatisticsUpdater).
+    private TrackPoint lastTrackPoint;
+    private Instant lastTime;
+    private boolean idle;
+
+    public TrackStatisticsIndex() {
+        capacity = INITIAL_CAPACITY;
+        tree = new Node[2 * capacity];
+        trackPointIds = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the id of the last added trackPoint or null if not known.
+     */
+    @Nullable
+    public TrackPoint.Id getLastTrackPointId() {
+        if (size == 0 || trackPointIds[size - 1] < 0) {
+            return null;
+        }
+        return new TrackPoint.Id(trackPointIds[size - 1]);
+    }
+
+    /**
+     * Adds a trackPoint; trackPoints that were already added (according to their id) are ignored.
+     */
+    public void addTrackPoint(@NonNull TrackPoint trackPoint) {
+        long trackPointId = trackPoint.getId() != null ? trackPoint.getId().id() : -1;
+        if (trackPointId >= 0 && size > 0 && trackPointId <= trackPointIds[size - 1]) {
+            return;
+        }
+
+        if (size == capacity) {
+            grow();
+        }
+        trackPointIds[size] = trackPointId;
+        int node = capacity + size;
+        tree[node] = createLeaf(trackPoint);
+        size++;
+
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = combine(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Statistics of the trackPoints in [from, to] (both inclusive).
+     * The contribution of trackPoint `from` (e.g., the distance to its predecessor) is included.
+     */
+    @NonNull
+    public TrackStatistics getStatistics(int from, int to) {
+        if (from < 0 || to >= size || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + "] for size " + size);
+        }
+
+        // Ranges of the left and right boundary are combined in order.
+        Node left = null;
+        Node right = null;
+        for (int l = from + capacity, r = to + capacity + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                left = combine(left, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                right = combine(tree[--r], right);
+            }
+        }
+        return combine(left, right).statistics();
+    }
+
+    /**
+     * Statistics between two trackPoints (both inclusive) identified by their id.
+     *
+     * @return null if one of the trackPoints is not part of this index.
+     */
+    @Nullable
+    public TrackStatistics getStatistics(@NonNull TrackPoint.Id from, @NonNull TrackPoint.Id to) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (fromIndex < 0 || toIndex < 0) {
+            return null;
+        }
+        return getStatistics(Math.min(fromIndex, toIndex), Math.max(fromIndex, toIndex));
+    }
+
+    @NonNull
+    public TrackStatistics getStatistics() {
+        if (size == 0) {
+            return new TrackStatistics();
+        }
+        return new TrackStatistics(tree[1].statistics());
+    }
+
+    /**
+     * @return the position of the trackPoint or -1 if not found.
+     */
+    public int indexOf(@NonNull TrackPoint.Id trackPointId) {
+        int index = Arrays.binarySearch(trackPointIds, 0, size, trackPointId.id());
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Finds the smallest index `to` such that the distance of [from, to] is at least the given distance.
+     *
+     * @return the index or -1 if the remaining trackPoints do not cover the distance.
+     */
+    public int findIndexForDistance(int from, @NonNull Distance distance) {
+        if (from < 0 || from >= size) {
+            return -1;
+        }
+        double[] remaining_m = {distance.toM()};
+        return findIndexForDistance(1, 0, capacity, from, remaining_m);
+    }
+
+    private int findIndexForDistance(int node, int nodeFrom, int nodeTo, int from, double[] remaining_m) {
+        if (nodeTo <= from || nodeFrom >= size) {
+            return -1;
+        }
+        double nodeDistance_m = tree[node].statistics().getTotalDistance().toM();
+        if (nodeFrom >= from && nodeDistance_m < remaining_m[0]) {
+            remaining_m[0] -= nodeDistance_m;
+            return -1;
+        }
+        if (nodeTo - nodeFrom == 1) {
+            return nodeFrom;
+        }
+
+        int middle = (nodeFrom + nodeTo) >>> 1;
+        int index = findIndexForDistance(2 * node, nodeFrom, middle, from, remaining_m);
+        if (index >= 0) {
+            return index;
+        }
+        return findIndexForDistance(2 * node + 1, middle, nodeTo, from, remaining_m);
+    }
+
+    private Node createLeaf(TrackPoint trackPoint) {
+        if (trackPoint.isSegmentManualStart()) {
+            lastTrackPoint = null;
+            lastTime = null;
+            idle = false;
+        }
+
+        TrackStatistics leaf = new TrackStatistics();
+        leaf.setStartTime(lastTime != null ? lastTime : trackPoint.getTime());
+        leaf.setStopTime(trackPoint.getTime());
+        leaf.setTotalTime(Duration.between(leaf.getStartTime(), leaf.getStopTime()));
+
+        if (trackPoint.hasAltitudeGain()) {
+            leaf.addTotalAltitudeGain(trackPoint.getAltitudeGain());
+        }
+        if (trackPoint.hasAltitudeLoss()) {
+            leaf.addTotalAltitudeLoss(trackPoint.getAltitudeLoss());
+        }
+        if (trackPoint.hasAltitude()) {
+            leaf.updateAltitudeExtremities(trackPoint.getAltitude());
+        }
+        Duration heartRateTime = Duration.ZERO;
+        if (trackPoint.hasHeartRate() && lastTrackPoint != null) {
+            leaf.setAverageHeartRate(trackPoint.getHeartRate());
+            heartRateTime = leaf.getTotalTime();
+        }
+
+        Distance movingDistance = null;
+        if (trackPoint.hasSensorDistance()) {
+            movingDistance = trackPoint.getSensorDistance();
+        } else if (lastTrackPoint != null && lastTrackPoint.hasLocation() && trackPoint.hasLocation()) {
+            movingDistance = trackPoint.distanceToPrevious(lastTrackPoint);
+        }
+        if (movingDistance != null) {
+            idle = false;
+            leaf.addTotalDistance(movingDistance);
+        }
+        if (!idle && !trackPoint.isSegmentManualStart() && lastTrackPoint != null) {
+            leaf.addMovingTime(trackPoint, lastTrackPoint);
+        }
+        if (trackPoint.getType() == TrackPoint.Type.IDLE) {
+            idle = true;
+        }
+        if (trackPoint.hasSpeed()) {
+            leaf.setMaxSpeed(trackPoint.getSpeed());
+        }
+
+        lastTime = trackPoint.getTime();
+        if (trackPoint.isSegmentManualEnd()) {
+            lastTrackPoint = null;
+            idle = false;
+        } else {
+            lastTrackPoint = trackPoint;
+        }
+        return new Node(leaf, heartRateTime);
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        Node[] newTree = new Node[2 * newCapacity];
+        System.arraycopy(tree, capacity, newTree, newCapacity, size);
+        for (int node = newCapacity - 1; node > 0; node--) {
+            newTree[node] = combine(newTree[2 * node], newTree[2 * node + 1]);
+        }
+
+        tree = newTree;
+        capacity = newCapacity;
+        trackPointIds = Arrays.copyOf(trackPointIds, newCapacity);
+    }
+
+    /**
+     * @return the merged node (a new instance) or null if both are null.
+     */
+    private static Node combine(@Nullable Node left, @Nullable Node right) {
+        if (left == null || right == null) {
+            Node node = left == null ? right : left;
+            return node == null ? null : new Node(new TrackStatistics(node.statistics()), node.heartRateTime());
+        }
+        TrackStatistics result = new TrackStatistics(left.statistics());
+        result.merge(right.statistics());
+
+        Duration heartRateTime = left.heartRateTime().plus(right.heartRateTime());
+        if (left.statistics().hasAverageHeartRate() && right.statistics().hasAverageHeartRate() && !heartRateTime.isZero()) {
+            result.setAverageHeartRate(HeartRate.of(
+                    (left.heartRateTime().toMillis() * left.statistics().getAverageHeartRate().getBPM() + right.heartRateTime().toMillis() * right.statistics().getAverageHeartRate().getBPM())
+                            / heartRateTime.toMillis()
+            ));
+        }
+        return new Node(result, heartRateTime);
+    }
+
+    /**
+     * @param heartRateTime the time with heart rate (i.e., the weight of the average heart rate).
+     */
+    private record Node(@NonNull TrackStatistics statistics, @NonNull Duration heartRateTime) {
+    }
+}
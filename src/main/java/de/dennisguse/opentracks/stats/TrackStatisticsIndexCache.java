@@ -0,0 +1,52 @@
+package de.dennisguse.opentracks.stats;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import java.util.function.Function;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
+import de.dennisguse.opentracks.data.models.Track;
+
+/**
+ * Keeps the {@link TrackStatisticsIndex} of the recently used tracks.
+ * Cached indices are brought up-to-date with trackPoints that were added since (e.g., while recording).
+ */
+public final class TrackStatisticsIndexCache {
+
+    private static final int MAX_TRACKS = 4;
+
+    private static final LruCache<Track.Id, TrackStatisticsIndex> cache = new LruCache<>(MAX_TRACKS);
+
+    private TrackStatisticsIndexCache() {
+    }
+
+    /**
+     * Applies the function to the up-to-date index of the track.
+     * NOTE: the index is shared; it must not be modified or used after the function returned.
+     */
+    public static synchronized <T> T apply(@NonNull ContentProviderUtils contentProviderUtils, @NonNull Track.Id trackId, @NonNull Function<TrackStatisticsIndex, T> function) {
+        TrackStatisticsIndex index = cache.get(trackId);
+        if (index == null) {
+            index = new TrackStatisticsIndex();
+            cache.put(trackId, index);
+        }
+
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, index.getLastTrackPointId())) {
+            while (trackPointIterator.hasNext()) {
+                index.addTrackPoint(trackPointIterator.next());
+            }
+        }
+        return function.apply(index);
+    }
+
+    public static synchronized void invalidate(@NonNull Track.Id trackId) {
+        cache.remove(trackId);
+    }
+
+    public static synchronized void invalidateAll() {
+        cache.evictAll();
+    }
+}
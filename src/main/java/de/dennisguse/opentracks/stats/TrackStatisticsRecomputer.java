@@ -0,0 +1,300 @@
+package de.dennisguse.opentracks.stats;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackPointIterator;
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.models.TrackPoint;
+
+/**
+ * Recomputes the stored {@link TrackStatistics} of tracks from their {@link TrackPoint}s.
+ * <p>
+ * Tracks are processed on a bounded {@link ForkJoinPool}.
+ * Each track is split into chunks at manual segment boundaries (where {@link TrackStatisticsUpdater} resets anyhow); the chunks are computed independently and merged using {@link TrackStatistics#merge(TrackStatistics)}.
+ * Results are written back in batches.
+ */
+public class TrackStatisticsRecomputer {
+
+    private static final String TAG = TrackStatisticsRecomputer.class.getSimpleName();
+
+    public static final int DEFAULT_BATCH_SIZE = 20;
+
+    // Chunk ranges with less trackPoints are not split further.
+    @VisibleForTesting
+    static final int SEQUENTIAL_THRESHOLD = 2000;
+
+    private final ContentProviderUtils contentProviderUtils;
+    private final int parallelism;
+    private final int batchSize;
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    @Nullable
+    private HeartRateZones heartRateZones;
+
+    @Nullable
+    private CalorieCalculator calorieCalculator;
+
+    private boolean fuseAltitude;
+
+    private boolean quantileSketches;
+
+    public TrackStatisticsRecomputer(ContentProviderUtils contentProviderUtils) {
+        this(contentProviderUtils, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public TrackStatisticsRecomputer(ContentProviderUtils contentProviderUtils, int parallelism, int batchSize) {
+        if (parallelism < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("parallelism and batchSize must be positive.");
+        }
+        this.contentProviderUtils = contentProviderUtils;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param heartRateZones used to compute the time in heart rate zones; if null, it is not computed.
+     */
+    public void setHeartRateZones(@Nullable HeartRateZones heartRateZones) {
+        this.heartRateZones = heartRateZones;
+    }
+
+    /**
+     * @param calorieCalculator used to compute the energy expenditure; if null, it is not computed.
+     */
+    public void setCalorieCalculator(@Nullable CalorieCalculator calorieCalculator) {
+        this.calorieCalculator = calorieCalculator;
+    }
+
+    /**
+     * @param fuseAltitude if the altitude gain/loss should be derived from the fused barometer and GPS altitude.
+     */
+    public void setFuseAltitude(boolean fuseAltitude) {
+        this.fuseAltitude = fuseAltitude;
+    }
+
+    /**
+     * @param quantileSketches if the distributions of speed, heart rate, and slope should be computed.
+     */
+    public void setQuantileSketches(boolean quantileSketches) {
+        this.quantileSketches = quantileSketches;
+    }
+
+    /**
+     * Requests cancellation; already written batches are kept.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * @param recordingTrackId the track being recorded; it is skipped as its statistics are updated by the recording.
+     */
+    public Result recomputeAll(@Nullable Track.Id recordingTrackId, @Nullable ProgressListener progressListener) {
+        List<Track.Id> trackIds = new ArrayList<>();
+        for (Track track : contentProviderUtils.getTracks()) {
+            if (!track.getId().equals(recordingTrackId)) {
+                trackIds.add(track.getId());
+            }
+        }
+        return recompute(trackIds, progressListener);
+    }
+
+    public Result recompute(@NonNull List<Track.Id> trackIds, @Nullable ProgressListener progressListener) {
+        long startNanos = System.nanoTime();
+        AtomicLong trackPointCount = new AtomicLong();
+        int processed = 0;
+        int updated = 0;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int from = 0; from < trackIds.size() && !isCancelled(); from += batchSize) {
+                List<Track.Id> batch = trackIds.subList(from, Math.min(from + batchSize, trackIds.size()));
+
+                List<ForkJoinTask<TrackStatistics>> tasks = new ArrayList<>(batch.size());
+                for (Track.Id trackId : batch) {
+                    tasks.add(pool.submit(() -> computeTrack(trackId, trackPointCount)));
+                }
+
+                Map<Track.Id, TrackStatistics> results = new LinkedHashMap<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    TrackStatistics trackStatistics = tasks.get(i).join();
+                    if (trackStatistics != null) {
+                        results.put(batch.get(i), trackStatistics);
+                    }
+                }
+
+                if (!results.isEmpty()) {
+                    contentProviderUtils.updateTrackStatistics(results);
+                }
+                processed += batch.size();
+                updated += results.size();
+
+                if (progressListener != null) {
+                    progressListener.onProgress(processed, trackIds.size());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Result result = new Result(trackIds.size(), updated, trackPointCount.get(), Duration.ofNanos(System.nanoTime() - startNanos), isCancelled());
+        Log.i(TAG, "Recomputed statistics: " + result);
+        return result;
+    }
+
+    /**
+     * @return the recomputed statistics or null if the track has no trackPoints or the computation was cancelled.
+     */
+    @Nullable
+    private TrackStatistics computeTrack(Track.Id trackId, AtomicLong trackPointCount) {
+        if (isCancelled()) {
+            return null;
+        }
+
+        List<TrackPoint> trackPoints = new ArrayList<>();
+        try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, null)) {
+            while (trackPointIterator.hasNext()) {
+                trackPoints.add(trackPointIterator.next());
+            }
+        }
+        if (trackPoints.isEmpty() || isCancelled()) {
+            return null;
+        }
+        trackPointCount.addAndGet(trackPoints.size());
+
+        List<List<TrackPoint>> chunks = splitAtManualSegments(trackPoints);
+        return new ChunkTask(chunks, 0, chunks.size(), heartRateZones, calorieCalculator, fuseAltitude, quantileSketches).invoke();
+    }
+
+    /**
+     * Splits the trackPoints into chunks that can be computed by independent {@link TrackStatisticsUpdater}s.
+     * A chunk starts at a {@link TrackPoint.Type#SEGMENT_START_MANUAL} and ends with a {@link TrackPoint.Type#SEGMENT_END_MANUAL}.
+     */
+    @VisibleForTesting
+    static List<List<TrackPoint>> splitAtManualSegments(List<TrackPoint> trackPoints) {
+        List<List<TrackPoint>> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        for (int i = 0; i < trackPoints.size(); i++) {
+            TrackPoint trackPoint = trackPoints.get(i);
+            if (trackPoint.isSegmentManualStart() && i > chunkStart) {
+                chunks.add(trackPoints.subList(chunkStart, i));
+                chunkStart = i;
+            }
+            if (trackPoint.isSegmentManualEnd()) {
+                chunks.add(trackPoints.subList(chunkStart, i + 1));
+                chunkStart = i + 1;
+            }
+        }
+        if (chunkStart < trackPoints.size()) {
+            chunks.add(trackPoints.subList(chunkStart, trackPoints.size()));
+        }
+        return chunks;
+    }
+
+    /**
+     * Computes the statistics of a range of chunks; splits the range as long as it contains enough trackPoints.
+     */
+    private static class ChunkTask extends RecursiveTask<TrackStatistics> {
+
+        private final List<List<TrackPoint>> chunks;
+        private final int from;
+        private final int to;
+        private final HeartRateZones heartRateZones;
+        private final CalorieCalculator calorieCalculator;
+        private final boolean fuseAltitude;
+        private final boolean quantileSketches;
+
+        ChunkTask(List<List<TrackPoint>> chunks, int from, int to, @Nullable HeartRateZones heartRateZones, @Nullable CalorieCalculator calorieCalculator, boolean fuseAltitude, boolean quantileSketches) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.heartRateZones = heartRateZones;
+            this.calorieCalculator = calorieCalculator;
+            this.fuseAltitude = fuseAltitude;
+            this.quantileSketches = quantileSketches;
+        }
+
+        @Override
+        protected TrackStatistics compute() {
+            if (to - from <= 1 || countTrackPoints() <= SEQUENTIAL_THRESHOLD) {
+                TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
+                trackStatisticsUpdater.setHeartRateZones(heartRateZones);
+                trackStatisticsUpdater.setCalorieCalculator(calorieCalculator);
+                trackStatisticsUpdater.setFuseAltitude(fuseAltitude);
+                trackStatisticsUpdater.setQuantileSketches(quantileSketches);
+                for (int i = from; i < to; i++) {
+                    trackStatisticsUpdater.addTrackPoints(chunks.get(i));
+                }
+                return trackStatisticsUpdater.getTrackStatistics();
+            }
+
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(chunks, from, middle, heartRateZones, calorieCalculator, fuseAltitude, quantileSketches);
+            left.fork();
+            TrackStatistics right = new ChunkTask(chunks, middle, to, heartRateZones, calorieCalculator, fuseAltitude, quantileSketches).compute();
+            return merge(left.join(), right);
+        }
+
+        private int countTrackPoints() {
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                count += chunks.get(i).size();
+            }
+            return count;
+        }
+
+        private static TrackStatistics merge(TrackStatistics left, TrackStatistics right) {
+            if (!left.isInitialized()) {
+                return right;
+            }
+            if (right.isInitialized()) {
+                left.merge(right);
+            }
+            return left;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(int processedTracks, int totalTracks);
+    }
+
+    /**
+     * @param totalTracks    number of tracks requested
+     * @param updatedTracks  number of tracks whose statistics were written
+     * @param trackPoints    number of trackPoints processed
+     * @param duration       wall time
+     * @param cancelled      if the recomputation was cancelled before completion
+     */
+    public record Result(int totalTracks, int updatedTracks, long trackPoints, Duration duration, boolean cancelled) {
+
+        public double getTrackPointsPerSecond() {
+            if (duration.isZero()) {
+                return 0;
+            }
+            return trackPoints / (duration.toNanos() / 1_000_000_000d);
+        }
+    }
+}
@@ -17,12 +17,17 @@
 package de.dennisguse.opentracks.stats;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.time.Duration;
 import java.util.List;
 
+import de.dennisguse.opentracks.data.models.Altitude;
+import de.dennisguse.opentracks.data.models.AltitudeGainLoss;
+import de.dennisguse.opentracks.data.models.CalorieCalculator;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.TrackPoint;
 
@@ -39,11 +44,33 @@ public class TrackStatisticsUpdater {
 
     private static final String TAG = TrackStatisticsUpdater.class.getSimpleName();
 
+    // The slope is computed over at least this distance; the GPS altitude is too noisy for shorter distances.
+    private static final Distance SLOPE_MIN_DISTANCE = Distance.of(20);
+
     private final TrackStatistics trackStatistics;
 
     private float averageHeartRateBPM;
     private Duration totalHeartRateDuration = Duration.ZERO;
 
+    // If set, the time per heart rate zone is accumulated.
+    @Nullable
+    private HeartRateZones heartRateZones;
+
+    // If set, the energy expenditure is accumulated.
+    @Nullable
+    private CalorieAccumulator calorieAccumulator;
+
+    // If set, altitude gain/loss and extremities are derived from the fused barometer and GPS altitude.
+    @Nullable
+    private AltitudeFilter altitudeFilter;
+
+    // If set, the distributions of speed, heart rate, and slope are accumulated (see QuantileSketch).
+    private boolean quantileSketches;
+    // Altitude and distance since the last slope was computed; null if no altitude yet.
+    @Nullable
+    private Double slopeStartAltitude_m;
+    private Distance slopeDistance = Distance.of(0);
+
     // The current segment's statistics
     private final TrackStatistics currentSegment;
     // Current segment's last trackPoint
@@ -70,9 +97,43 @@ public class TrackStatisticsUpdater {
         this.trackStatistics = new TrackStatistics(toCopy.trackStatistics);
 
         this.lastTrackPoint = toCopy.lastTrackPoint;
+        this.heartRateZones = toCopy.heartRateZones;
+        this.calorieAccumulator = toCopy.calorieAccumulator != null ? new CalorieAccumulator(toCopy.calorieAccumulator) : null;
+        this.altitudeFilter = toCopy.altitudeFilter != null ? new AltitudeFilter(toCopy.altitudeFilter) : null;
+        this.quantileSketches = toCopy.quantileSketches;
+        this.slopeStartAltitude_m = toCopy.slopeStartAltitude_m;
+        this.slopeDistance = toCopy.slopeDistance;
         resetAverageHeartRate();
     }
 
+    /**
+     * @param heartRateZones the zones to accumulate the time per heart rate zone; null to not accumulate.
+     */
+    public void setHeartRateZones(@Nullable HeartRateZones heartRateZones) {
+        this.heartRateZones = heartRateZones;
+    }
+
+    /**
+     * @param calorieCalculator the person to accumulate the energy expenditure for; null to not accumulate.
+     */
+    public void setCalorieCalculator(@Nullable CalorieCalculator calorieCalculator) {
+        this.calorieAccumulator = calorieCalculator != null ? new CalorieAccumulator(calorieCalculator) : null;
+    }
+
+    /**
+     * @param fuseAltitude if the barometer and GPS altitude should be fused (see {@link AltitudeFilter}); otherwise both are used as is.
+     */
+    public void setFuseAltitude(boolean fuseAltitude) {
+        this.altitudeFilter = fuseAltitude ? new AltitudeFilter() : null;
+    }
+
+    /**
+     * @param quantileSketches if the distributions of speed, heart rate, and slope should be accumulated (e.g., to get p90 of several tracks).
+     */
+    public void setQuantileSketches(boolean quantileSketches) {
+        this.quantileSketches = quantileSketches;
+    }
+
     public TrackStatistics getTrackStatistics() {
         // Take a snapshot - we don't want anyone messing with our trackStatistics
         TrackStatistics stats = new TrackStatistics(trackStatistics);
@@ -100,18 +161,30 @@ public class TrackStatisticsUpdater {
         currentSegment.setStopTime(trackPoint.getTime());
         currentSegment.setTotalTime(Duration.between(currentSegment.getStartTime(), trackPoint.getTime()));
 
-        // Process sensor data: barometer
-        if (trackPoint.hasAltitudeGain()) {
-            currentSegment.addTotalAltitudeGain(trackPoint.getAltitudeGain());
-        }
+        if (altitudeFilter != null) {
+            // Process fused altitude: barometer and GPS
+            AltitudeGainLoss altitudeGainLoss = altitudeFilter.addTrackPoint(trackPoint);
+            if (altitudeGainLoss != null) {
+                currentSegment.addTotalAltitudeGain(altitudeGainLoss.gain_m());
+                currentSegment.addTotalAltitudeLoss(altitudeGainLoss.loss_m());
+            }
+            if (altitudeFilter.hasAltitude()) {
+                currentSegment.updateAltitudeExtremities(Altitude.WGS84.of(altitudeFilter.getAltitude_m()));
+            }
+        } else {
+            // Process sensor data: barometer
+            if (trackPoint.hasAltitudeGain()) {
+                currentSegment.addTotalAltitudeGain(trackPoint.getAltitudeGain());
+            }
 
-        if (trackPoint.hasAltitudeLoss()) {
-            currentSegment.addTotalAltitudeLoss(trackPoint.getAltitudeLoss());
-        }
+            if (trackPoint.hasAltitudeLoss()) {
+                currentSegment.addTotalAltitudeLoss(trackPoint.getAltitudeLoss());
+            }
 
-        //Update absolute (GPS-based) altitude
-        if (trackPoint.hasAltitude()) {
-            currentSegment.updateAltitudeExtremities(trackPoint.getAltitude());
+            //Update absolute (GPS-based) altitude
+            if (trackPoint.hasAltitude()) {
+                currentSegment.updateAltitudeExtremities(trackPoint.getAltitude());
+            }
         }
 
         // Update heart rate
@@ -123,6 +196,18 @@ public class TrackStatisticsUpdater {
             totalHeartRateDuration = newTotalDuration;
 
             currentSegment.setAverageHeartRate(HeartRate.of(averageHeartRateBPM));
+
+            if (heartRateZones != null) {
+                currentSegment.addHeartRateZoneTime(heartRateZones.getZone(trackPoint.getHeartRate()), trackPointDuration);
+            }
+            if (quantileSketches) {
+                currentSegment.addHeartRate(trackPoint.getHeartRate(), trackPointDuration);
+            }
+        }
+
+        // Update energy expenditure
+        if (calorieAccumulator != null) {
+            currentSegment.addTotalCalories(calorieAccumulator.addTrackPoint(trackPoint));
         }
 
         {
@@ -144,9 +229,16 @@ public class TrackStatisticsUpdater {
             if (!currentSegment.isIdle() && !trackPoint.isSegmentManualStart()) {
                 if (lastTrackPoint != null) {
                     currentSegment.addMovingTime(trackPoint, lastTrackPoint);
+                    if (quantileSketches && trackPoint.hasSpeed()) {
+                        currentSegment.addSpeed(trackPoint.getSpeed(), Duration.between(lastTrackPoint.getTime(), trackPoint.getTime()));
+                    }
                 }
             }
 
+            if (quantileSketches) {
+                updateSlope(trackPoint, movingDistance);
+            }
+
             if (trackPoint.getType() == TrackPoint.Type.IDLE) {
                 currentSegment.setIdle(true);
             }
@@ -172,6 +264,8 @@ public class TrackStatisticsUpdater {
 
         lastTrackPoint = null;
         resetAverageHeartRate();
+        slopeStartAltitude_m = null;
+        slopeDistance = Distance.of(0);
     }
 
     private void resetAverageHeartRate() {
@@ -179,6 +273,37 @@ public class TrackStatisticsUpdater {
         totalHeartRateDuration = Duration.ZERO;
     }
 
+    /**
+     * Adds the slope once the distance since the last slope exceeds {@link #SLOPE_MIN_DISTANCE}; uses the fused altitude if available.
+     */
+    private void updateSlope(@NonNull TrackPoint trackPoint, @Nullable Distance movingDistance) {
+        Double altitude_m = null;
+        if (altitudeFilter != null) {
+            if (altitudeFilter.hasAltitude()) {
+                altitude_m = altitudeFilter.getAltitude_m();
+            }
+        } else if (trackPoint.hasAltitude()) {
+            altitude_m = trackPoint.getAltitude().toM();
+        }
+        if (altitude_m == null) {
+            return;
+        }
+
+        if (slopeStartAltitude_m == null) {
+            slopeStartAltitude_m = altitude_m;
+            slopeDistance = Distance.of(0);
+            return;
+        }
+        if (movingDistance != null) {
+            slopeDistance = slopeDistance.plus(movingDistance);
+        }
+        if (slopeDistance.greaterOrEqualThan(SLOPE_MIN_DISTANCE)) {
+            currentSegment.addSlope((altitude_m - slopeStartAltitude_m) / slopeDistance.toM() * 100, slopeDistance);
+            slopeStartAltitude_m = altitude_m;
+            slopeDistance = Distance.of(0);
+        }
+    }
+
     /**
      * Updates a speed reading while assuming the user is moving.
      */
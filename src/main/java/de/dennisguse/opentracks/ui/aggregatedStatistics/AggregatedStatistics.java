@@ -1,15 +1,22 @@
 package de.dennisguse.opentracks.ui.aggregatedStatistics;
 
+import android.database.Cursor;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.stats.MockupData;
 import de.dennisguse.opentracks.stats.TrackStatistics;
 
@@ -27,6 +34,62 @@ public class AggregatedStatistics {
         List<TrackStatistics> trackStatistics = mockupData.getTrackStatistics();
         //int getTotalRuns = trackStatistics.get(0).getTotalRunsSeason();
         //int getTotalRuns2 = trackStatistics.get(1).getTotalRunsSeason();
+        sort();
+    }
+
+    /**
+     * Restores already aggregated statistics (see {@link AggregatedStatsCache}).
+     */
+    static AggregatedStatistics of(@NonNull List<AggregatedStatistic> aggregatedStatistics) {
+        AggregatedStatistics result = new AggregatedStatistics();
+        for (AggregatedStatistic aggregatedStatistic : aggregatedStatistics) {
+            result.dataMap.put(aggregatedStatistic.getActivityTypeLocalized(), aggregatedStatistic);
+        }
+        result.sort();
+        return result;
+    }
+
+    private AggregatedStatistics() {
+    }
+
+    /**
+     * Aggregates the statistics of the selected tracks in the database.
+     * In contrast to {@link #AggregatedStatistics(List)}, no {@link Track} is loaded; per track only start time and total distance are loaded.
+     */
+    @NonNull
+    public static AggregatedStatistics load(@NonNull ContentProviderUtils contentProviderUtils, @NonNull ContentProviderUtils.ContentProviderSelectionInterface selection) {
+        AggregatedStatistics result = new AggregatedStatistics();
+        try (Cursor cursor = contentProviderUtils.getTrackSummaryCursor(selection)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int activityTypeLocalizedIndex = cursor.getColumnIndexOrThrow(TracksColumns.ACTIVITY_TYPE_LOCALIZED);
+                int trackCountIndex = cursor.getColumnIndexOrThrow(TracksColumns.TRACK_COUNT);
+                do {
+                    String activityTypeLocalized = cursor.getString(activityTypeLocalizedIndex);
+                    result.dataMap.put(activityTypeLocalized, new AggregatedStatistic(activityTypeLocalized, ContentProviderUtils.createTrackStatisticsSummary(cursor), cursor.getInt(trackCountIndex)));
+                } while (cursor.moveToNext());
+            }
+        }
+
+        try (Cursor cursor = contentProviderUtils.getTrackDistanceCursor(selection)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int activityTypeLocalizedIndex = cursor.getColumnIndexOrThrow(TracksColumns.ACTIVITY_TYPE_LOCALIZED);
+                int startTimeIndex = cursor.getColumnIndexOrThrow(TracksColumns.STARTTIME);
+                int totalDistanceIndex = cursor.getColumnIndexOrThrow(TracksColumns.TOTALDISTANCE);
+                do {
+                    AggregatedStatistic aggregatedStatistic = result.dataMap.get(cursor.getString(activityTypeLocalizedIndex));
+                    if (aggregatedStatistic != null) {
+                        // Otherwise, track was inserted in the meantime.
+                        aggregatedStatistic.addTrack(cursor.isNull(startTimeIndex) ? Long.MIN_VALUE : cursor.getLong(startTimeIndex), cursor.getDouble(totalDistanceIndex));
+                    }
+                } while (cursor.moveToNext());
+            }
+        }
+
+        result.sort();
+        return result;
+    }
+
+    private void sort() {
         dataList.addAll(dataMap.values());
         dataList.sort((o1, o2) -> {
             if (o1.getCountTracks() == o2.getCountTracks()) {
@@ -63,17 +126,27 @@ public class AggregatedStatistics {
         private final TrackStatistics trackStatistics;
         private int countTracks = 1;
 
-        // My code
-        private ArrayList<TrackStatistics> listOfTracks;
+        // Start time and total distance of each track (unordered).
+        private long[] startTimes_ms;
+        private double[] distances_m;
+        private int size;
 
         public AggregatedStatistic(String activityTypeLocalized, TrackStatistics trackStatistics) {
-            this.activityTypeLocalized = activityTypeLocalized;
-            this.trackStatistics = trackStatistics;
+            this(activityTypeLocalized, trackStatistics, 1);
+            addTrack(trackStatistics);
+        }
 
-            // My code
-            this.listOfTracks = new ArrayList<TrackStatistics>();
-            this.listOfTracks.add(trackStatistics);
+        AggregatedStatistic(String activityTypeLocalized, TrackStatistics trackStatistics, int countTracks) {
+            this(activityTypeLocalized, trackStatistics, countTracks, new long[countTracks], new double[countTracks], 0);
+        }
 
+        AggregatedStatistic(String activityTypeLocalized, TrackStatistics trackStatistics, int countTracks, long[] startTimes_ms, double[] distances_m, int size) {
+            this.activityTypeLocalized = activityTypeLocalized;
+            this.trackStatistics = trackStatistics;
+            this.countTracks = countTracks;
+            this.startTimes_ms = startTimes_ms;
+            this.distances_m = distances_m;
+            this.size = size;
         }
 
         public String getActivityTypeLocalized() {
@@ -89,14 +162,53 @@ public class AggregatedStatistics {
         }
 
         void add(TrackStatistics statistics) {
+            addTrack(statistics);
             trackStatistics.merge(statistics);
             countTracks++;
+        }
+
+        private void addTrack(TrackStatistics statistics) {
+            addTrack(statistics.getStartTime() != null ? statistics.getStartTime().toEpochMilli() : Long.MIN_VALUE, statistics.getTotalDistance().toM());
+        }
 
-            // My code
-            listOfTracks.add(statistics);
+        /**
+         * @param startTime_ms Long.MIN_VALUE if unknown.
+         */
+        void addTrack(long startTime_ms, double distance_m) {
+            if (size == startTimes_ms.length) {
+                int capacity = Math.max(8, size * 2);
+                startTimes_ms = Arrays.copyOf(startTimes_ms, capacity);
+                distances_m = Arrays.copyOf(distances_m, capacity);
+            }
+            startTimes_ms[size] = startTime_ms;
+            distances_m[size] = distance_m;
+            size++;
         }
 
-        // My code
-        public ArrayList<TrackStatistics> getListOfTracks() {return listOfTracks;}
+        /**
+         * @return the total distance of the tracks started at or after time.
+         */
+        public Distance getDistanceSince(@NonNull Instant time) {
+            long time_ms = time.toEpochMilli();
+            double distance_m = 0;
+            for (int i = 0; i < size; i++) {
+                if (startTimes_ms[i] != Long.MIN_VALUE && startTimes_ms[i] >= time_ms) {
+                    distance_m += distances_m[i];
+                }
+            }
+            return Distance.of(distance_m);
+        }
+
+        int getTrackSize() {
+            return size;
+        }
+
+        long getTrackStartTime(int index) {
+            return startTimes_ms[index];
+        }
+
+        double getTrackDistance(int index) {
+            return distances_m[index];
+        }
     }
 }
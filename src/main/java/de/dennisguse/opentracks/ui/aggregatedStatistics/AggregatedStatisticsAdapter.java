@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 import android.util.Pair;
 import android.view.LayoutInflater;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
@@ -75,25 +76,12 @@ public class AggregatedStatisticsAdapter extends RecyclerView.Adapter<RecyclerVi
         Instant lastSharpeningDate = globalUserData.getLastSharpeningDate();
         Instant lastWaxingDate = globalUserData.getLastWaxingDate();
 
-        // get all recorded skiing tracks
-        ArrayList<TrackStatistics> listOfTracks = aggregatedStatistics.get("skiing").getListOfTracks();
+        // all recorded skiing tracks
+        AggregatedStatistics.AggregatedStatistic skiing = aggregatedStatistics.get("skiing");
 
-        Distance distanceSinceLastSharpening = new Distance(0);
-        Distance distanceSinceLastWaxing = new Distance(0);
-
-        // for each track, if time of recording >= time of last waxing/sharpening, increment distance
-        // since last waxing/sharpening
-        for (TrackStatistics track : listOfTracks) {
-            if (track.getStartTime().equals(lastSharpeningDate) ||
-                track.getStartTime().isAfter(lastSharpeningDate)) {
-                distanceSinceLastSharpening = distanceSinceLastSharpening.plus(track.getTotalDistance());
-            }
-
-            if (track.getStartTime().equals(lastWaxingDate) ||
-                track.getStartTime().isAfter(lastWaxingDate)) {
-                distanceSinceLastWaxing = distanceSinceLastWaxing.plus(track.getTotalDistance());
-            }
-        }
+        // distance of the tracks recorded at or after the last waxing/sharpening
+        Distance distanceSinceLastSharpening = skiing != null ? skiing.getDistanceSince(lastSharpeningDate) : new Distance(0);
+        Distance distanceSinceLastWaxing = skiing != null ? skiing.getDistanceSince(lastWaxingDate) : new Distance(0);
 
         double kmSinceLastSharpening = distanceSinceLastSharpening.toKM();
         double kmSinceLastWaxing = distanceSinceLastWaxing.toKM();
@@ -295,6 +283,12 @@ public class AggregatedStatisticsAdapter extends RecyclerView.Adapter<RecyclerVi
             viewBinding.aggregatedStatsDistanceUnit.setText(parts.second);
 
             viewBinding.aggregatedStatsTime.setText(StringUtils.formatElapsedTime(aggregatedStatistic.getTrackStatistics().getMovingTime()));
+
+            TrackStatistics trackStatistics = aggregatedStatistic.getTrackStatistics();
+            if (trackStatistics.hasHeartRateZoneTimes()) {
+                viewBinding.aggregatedStatsHeartRateZonesValue.setText(StringUtils.formatHeartRateZoneTimes(context, trackStatistics));
+            }
+            viewBinding.aggregatedStatsHeartRateZonesGroup.setVisibility(trackStatistics.hasHeartRateZoneTimes() ? View.VISIBLE : View.GONE);
         }
 
         private int getIcon(AggregatedStatistics.AggregatedStatistic aggregatedStatistic) {
@@ -8,11 +8,8 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import java.util.List;
-
 import de.dennisguse.opentracks.data.ContentProviderUtils;
 import de.dennisguse.opentracks.data.TrackSelection;
-import de.dennisguse.opentracks.data.models.Track;
 
 public class AggregatedStatisticsModel extends AndroidViewModel {
 
@@ -39,11 +36,18 @@ public class AggregatedStatisticsModel extends AndroidViewModel {
     }
 
     private void loadAggregatedStats(TrackSelection selection) {
+        AggregatedStatsCache cache = AggregatedStatsCache.getInstance(getApplication());
+        AggregatedStatistics cached = cache.get(selection);
+        if (cached != null) {
+            aggregatedStats.setValue(cached);
+            return;
+        }
+
+        long version = cache.getVersion();
         new Thread(() -> {
             ContentProviderUtils contentProviderUtils = new ContentProviderUtils(getApplication().getApplicationContext());
-            List<Track> tracks = selection != null ? contentProviderUtils.getTracks(selection) : contentProviderUtils.getTracks();
-
-            AggregatedStatistics aggregatedStatistics = new AggregatedStatistics(tracks);
+            AggregatedStatistics aggregatedStatistics = AggregatedStatistics.load(contentProviderUtils, selection != null ? selection : new TrackSelection());
+            cache.put(selection, version, aggregatedStatistics);
 
             aggregatedStats.postValue(aggregatedStatistics);
         }).start();
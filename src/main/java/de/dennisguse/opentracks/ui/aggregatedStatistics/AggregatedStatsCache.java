@@ -1,43 +1,289 @@
 package de.dennisguse.opentracks.ui.aggregatedStatistics;
+
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.database.ContentObserver;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.dennisguse.opentracks.data.TrackSelection;
+import de.dennisguse.opentracks.data.models.Distance;
+import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
+import de.dennisguse.opentracks.data.models.Speed;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.stats.TrackStatistics;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
+/**
+ * In-memory cache of {@link AggregatedStatistics} per {@link TrackSelection}.
+ * <p>
+ * Entries are keyed by a hash of the canonical selection and the version of the track data.
+ * The version is incremented (and all entries are evicted) whenever a track is inserted, updated, or deleted.
+ * Entries are stored in a compact binary form; the cache is limited by the size of this form (least recently used entries are evicted first).
+ */
 public class AggregatedStatsCache {
 
-    private static final String CACHE_KEY = "aggregated_stats";
-    private static final String PREF_NAME = "aggregated_stats_cache";
-    private static final long CACHE_EXPIRATION = 24 * 60 * 60 * 1000;
+    private static final String TAG = AggregatedStatsCache.class.getSimpleName();
+
+    @VisibleForTesting
+    static final int MAX_SIZE_BYTES = 512 * 1024;
+
+    // Increment if the binary format changes.
+    private static final int FORMAT_VERSION = 2;
+
+    private static AggregatedStatsCache instance;
+
+    private final AtomicLong version = new AtomicLong();
 
-    private SharedPreferences sharedPreferences;
+    private final LruCache<Key, byte[]> cache;
 
-    public AggregatedStatsCache(Context context) {
-        this.sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    /**
+     * @return the cache; it is invalidated if the tracks change.
+     */
+    public static synchronized AggregatedStatsCache getInstance(@NonNull Context context) {
+        if (instance == null) {
+            AggregatedStatsCache cache = new AggregatedStatsCache(MAX_SIZE_BYTES);
+            context.getApplicationContext().getContentResolver().registerContentObserver(TracksColumns.CONTENT_URI, true, new ContentObserver(null) {
+                @Override
+                public void onChange(boolean selfChange) {
+                    cache.invalidate();
+                }
+            });
+            instance = cache;
+        }
+        return instance;
     }
 
-    public TrackStatistics get() {
-        long currentTime = System.currentTimeMillis();
-        long lastUpdatedTime = sharedPreferences.getLong(CACHE_KEY + "_time", 0);
-        if(currentTime - lastUpdatedTime > CACHE_EXPIRATION) {
-            String statsJson = sharedPreferences.getString(CACHE_KEY, null);
-            if(statsJson !=null)
-            {
-                return new Gson().fromJson(statsJson, TrackStatistics.class);
+    @VisibleForTesting
+    AggregatedStatsCache(int maxSizeBytes) {
+        cache = new LruCache<>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(Key key, byte[] value) {
+                return value.length;
             }
+        };
+    }
+
+    /**
+     * @return the version of the track data; to be obtained before querying the tracks and to be passed to {@link #put(TrackSelection, long, AggregatedStatistics)}.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        cache.evictAll();
+    }
+
+    /**
+     * @return a new instance of the cached statistics or null if not cached for the current version.
+     */
+    @Nullable
+    public AggregatedStatistics get(@Nullable TrackSelection selection) {
+        byte[] data = cache.get(new Key(hash(selection), version.get()));
+        if (data == null) {
+            return null;
+        }
+        try {
+            return read(data);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read cached statistics.", e);
+            return null;
         }
-        return null;
     }
 
-    public void put(TrackStatistics trackStatistics) {
-        Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
-        String statsJson = gson.toJson(trackStatistics);
-        sharedPreferences.edit()
-                .putString(CACHE_KEY, statsJson)
-                .putLong(CACHE_KEY + "_time", System.currentTimeMillis())
-                .apply();
+    /**
+     * Stores the statistics unless the track data changed since version was obtained.
+     */
+    public void put(@Nullable TrackSelection selection, long version, @NonNull AggregatedStatistics aggregatedStatistics) {
+        if (version != this.version.get()) {
+            return;
+        }
+        try {
+            cache.put(new Key(hash(selection), version), write(aggregatedStatistics));
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write statistics to cache.", e);
+        }
+    }
+
+    @VisibleForTesting
+    int size() {
+        return cache.size();
+    }
+
+    @VisibleForTesting
+    static String hash(@Nullable TrackSelection selection) {
+        String canonicalKey = selection != null ? selection.getCanonicalKey() : new TrackSelection().getCanonicalKey();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonicalKey.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256.
+            throw new RuntimeException(e);
+        }
     }
 
+    @VisibleForTesting
+    static byte[] write(@NonNull AggregatedStatistics aggregatedStatistics) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(aggregatedStatistics.getCount());
+            for (int i = 0; i < aggregatedStatistics.getCount(); i++) {
+                AggregatedStatistics.AggregatedStatistic aggregatedStatistic = aggregatedStatistics.getItem(i);
+                out.writeUTF(aggregatedStatistic.getActivityTypeLocalized());
+                out.writeInt(aggregatedStatistic.getCountTracks());
+                write(out, aggregatedStatistic.getTrackStatistics());
+
+                out.writeInt(aggregatedStatistic.getTrackSize());
+                for (int j = 0; j < aggregatedStatistic.getTrackSize(); j++) {
+                    out.writeLong(aggregatedStatistic.getTrackStartTime(j));
+                    out.writeDouble(aggregatedStatistic.getTrackDistance(j));
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @VisibleForTesting
+    static AggregatedStatistics read(@NonNull byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported format version " + formatVersion);
+            }
+
+            int count = in.readInt();
+            List<AggregatedStatistics.AggregatedStatistic> aggregatedStatistics = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String activityTypeLocalized = in.readUTF();
+                int countTracks = in.readInt();
+                TrackStatistics trackStatistics = read(in);
 
+                int size = in.readInt();
+                long[] startTimes_ms = new long[size];
+                double[] distances_m = new double[size];
+                for (int j = 0; j < size; j++) {
+                    startTimes_ms[j] = in.readLong();
+                    distances_m[j] = in.readDouble();
+                }
+                aggregatedStatistics.add(new AggregatedStatistics.AggregatedStatistic(activityTypeLocalized, trackStatistics, countTracks, startTimes_ms, distances_m, size));
+            }
+            return AggregatedStatistics.of(aggregatedStatistics);
+        }
+    }
+
+    private static void write(DataOutputStream out, TrackStatistics trackStatistics) throws IOException {
+        writeInstant(out, trackStatistics.getStartTime());
+        writeInstant(out, trackStatistics.getStopTime());
+        out.writeDouble(trackStatistics.getTotalDistance().toM());
+        out.writeLong(trackStatistics.getTotalTime().toMillis());
+        out.writeLong(trackStatistics.getMovingTime().toMillis());
+        out.writeDouble(trackStatistics.getAvgMovingSpeed().toMPS());
+        out.writeDouble(trackStatistics.getMaxSpeed().toMPS());
+        out.writeDouble(trackStatistics.getMinAltitude());
+        out.writeDouble(trackStatistics.getMaxAltitude());
+        writeFloat(out, trackStatistics.getTotalAltitudeGain());
+        writeFloat(out, trackStatistics.getTotalAltitudeLoss());
+        writeFloat(out, trackStatistics.hasAverageHeartRate() ? trackStatistics.getAverageHeartRate().getBPM() : null);
+        out.writeBoolean(trackStatistics.hasHeartRateZoneTimes());
+        if (trackStatistics.hasHeartRateZoneTimes()) {
+            for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+                out.writeLong(trackStatistics.getHeartRateZoneTime(zone).toMillis());
+            }
+        }
+        out.writeBoolean(trackStatistics.hasTotalCalories());
+        if (trackStatistics.hasTotalCalories()) {
+            out.writeDouble(trackStatistics.getTotalCalories());
+        }
+    }
+
+    private static TrackStatistics read(DataInputStream in) throws IOException {
+        TrackStatistics trackStatistics = new TrackStatistics();
+        Instant startTime = readInstant(in);
+        Instant stopTime = readInstant(in);
+        if (startTime != null) {
+            trackStatistics.setStartTime(startTime);
+            if (stopTime != null) {
+                trackStatistics.setStopTime(stopTime);
+            }
+        }
+        trackStatistics.setTotalDistance(Distance.of(in.readDouble()));
+        trackStatistics.setTotalTime(Duration.ofMillis(in.readLong()));
+        trackStatistics.setMovingTime(Duration.ofMillis(in.readLong()));
+        trackStatistics.setAvgMovingSpeed(Speed.of(in.readDouble()));
+        trackStatistics.setMaxSpeed(Speed.of(in.readDouble()));
+        double minAltitude_m = in.readDouble();
+        if (!Double.isInfinite(minAltitude_m)) {
+            trackStatistics.setMinAltitude(minAltitude_m);
+        }
+        double maxAltitude_m = in.readDouble();
+        if (!Double.isInfinite(maxAltitude_m)) {
+            trackStatistics.setMaxAltitude(maxAltitude_m);
+        }
+        trackStatistics.setTotalAltitudeGain(readFloat(in));
+        trackStatistics.setTotalAltitudeLoss(readFloat(in));
+        Float heartRate = readFloat(in);
+        if (heartRate != null) {
+            trackStatistics.setAverageHeartRate(HeartRate.of(heartRate));
+        }
+        if (in.readBoolean()) {
+            for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+                trackStatistics.setHeartRateZoneTime(zone, Duration.ofMillis(in.readLong()));
+            }
+        }
+        if (in.readBoolean()) {
+            trackStatistics.setTotalCalories(in.readDouble());
+        }
+        return trackStatistics;
+    }
+
+    private static void writeInstant(DataOutputStream out, @Nullable Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.toEpochMilli());
+        }
+    }
+
+    @Nullable
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochMilli(in.readLong()) : null;
+    }
+
+    private static void writeFloat(DataOutputStream out, @Nullable Float value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeFloat(value);
+        }
+    }
+
+    @Nullable
+    private static Float readFloat(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readFloat() : null;
+    }
+
+    private record Key(String selectionHash, long version) {
+    }
 }
@@ -30,7 +30,6 @@ public class StatisticsActivity extends AbstractActivity {
     private StatsBinding viewBinding;
     private MenuItem mapItem;
 
-    private AggregatedStatsCache aggregatedStatsCache;
     private Gson gson;
 
 
@@ -38,17 +37,8 @@ public class StatisticsActivity extends AbstractActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
-        aggregatedStatsCache = new AggregatedStatsCache(getApplicationContext());
 
-        TrackStatistics cachedStats = aggregatedStatsCache.get();
-        if(cachedStats != null)
-        {
-            UpdateUI(cachedStats);
-        }
-        else
-        {
-            calculateStats();
-        }
+        calculateStats();
         setSupportActionBar(viewBinding.bottomAppBarLayout.bottomAppBar);
     }
 
@@ -59,7 +49,6 @@ public class StatisticsActivity extends AbstractActivity {
         TrackStatistics summary = TrackStatistics.sumOfTotalStats(trackStatistics);
 
         UpdateUI(summary);
-        aggregatedStatsCache.put(summary);
 
     }
     private void UpdateUI(TrackStatistics summary)
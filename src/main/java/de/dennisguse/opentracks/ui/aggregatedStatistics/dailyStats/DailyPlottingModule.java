@@ -17,14 +17,14 @@ import java.util.List; // import the List class
  */
 public class DailyPlottingModule {
 
-    public void plotGraph(LineChart lineChart, Metric metric, Frequency frequency) {
+    public void plotGraph(LineChart lineChart, Metric metric, Frequency frequency, List<RunVM> dailyRuns) {
         List<Entry> dataEntries;
         LineDataSet metricDataSet;
         LineDataSet runningAverageDataSet;
 
         switch (metric) {
             case AVG_SLOPE -> {
-                dataEntries = getAvgSlopeEntries(DailyRunsProvider.getAllDailyRuns());
+                dataEntries = getAvgSlopeEntries(dailyRuns);
 
                 metricDataSet = new LineDataSet(dataEntries, "Average slope line data set");
                 metricDataSet.setColor(Color.parseColor("#2774AE"));
@@ -35,7 +35,7 @@ public class DailyPlottingModule {
                 );
             }
             case AVG_SPEED -> {
-                dataEntries = getAvgSpeedEntries(DailyRunsProvider.getAllDailyRuns());
+                dataEntries = getAvgSpeedEntries(dailyRuns);
 
                 metricDataSet = new LineDataSet(dataEntries, "Average speed line data set");
                 metricDataSet.setColor(Color.parseColor("#ED9121"));
@@ -46,7 +46,7 @@ public class DailyPlottingModule {
                 );
             }
             case TOTAL_DISTANCE -> {
-                dataEntries = getTotalDistanceEntries(DailyRunsProvider.getAllDailyRuns());
+                dataEntries = getTotalDistanceEntries(dailyRuns);
 
                 metricDataSet = new LineDataSet(dataEntries, "Total distance line data set");
                 metricDataSet.setColor(Color.parseColor("#F8DE7E"));
@@ -57,7 +57,7 @@ public class DailyPlottingModule {
                 );
             }
             case CHAIRLIFT_SPEED -> {
-                dataEntries = getAvgChairliftSpeedEntries(DailyRunsProvider.getAllDailyRuns());
+                dataEntries = getAvgChairliftSpeedEntries(dailyRuns);
 
                 metricDataSet = new LineDataSet(dataEntries, "Average chairlift speed line data set");
                 metricDataSet.setColor(Color.parseColor("#8DB600"));
@@ -88,28 +88,26 @@ public class DailyPlottingModule {
 
     /**
      * Method that helps calculating moving average.
+     * The window is moved along the entries keeping running sums; so, each entry is added and removed once.
      *
      * @param entries   This is a List of Entry objects that contains the original daily stats.
      * @param frequency Integer representing the frequency at which moving average is sampled.
      * @return A list containing Entry objects representing the moving averages.
      */
     protected List<Entry> getMovingAverage(List<Entry> entries, int frequency) {
-        ArrayList<Entry> toReturn = new ArrayList<>();
-        for (int e = 0; e <= entries.size() - frequency; e++) {
-            //System.out.println("start idx = " + e );
-            float x_sum = 0;
-            float y_sum = 0;
-            float x = (entries.get(e).getX() + (entries.get(e + frequency - 1).getX())) / 2;
-
-            for (int i = e; i < e + frequency; i++) {
-                //System.out.println("i = " + i);
-                y_sum += entries.get(i).getY();
-                x_sum += entries.get(i).getX();
+        ArrayList<Entry> toReturn = new ArrayList<>(Math.max(0, entries.size() - frequency + 1));
+        double x_sum = 0;
+        double y_sum = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            x_sum += entries.get(i).getX();
+            y_sum += entries.get(i).getY();
+            if (i >= frequency) {
+                x_sum -= entries.get(i - frequency).getX();
+                y_sum -= entries.get(i - frequency).getY();
+            }
+            if (i >= frequency - 1) {
+                toReturn.add(new Entry((float) (x_sum / frequency), (float) (y_sum / frequency)));
             }
-            float y_average = y_sum / frequency;
-            float x_average = x_sum / frequency;
-            //System.out.println("x = " + x_average );
-            toReturn.add(new Entry(x_average, y_average));
         }
 
         return toReturn;
@@ -1,196 +1,108 @@
 package de.dennisguse.opentracks.ui.aggregatedStatistics.dailyStats;
 
-import java.util.*;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.tables.SkiSegmentsColumns;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
 
 /**
- * A mock service to provide dummy data to test the visualize daily statistics feature.
- * ALL PARAMETERS ARE ASSUMED TO BE IN METERS OR METERS/SECOND
- * Realistic beginner skier speed 0-15mph (0-6.7m/s)
- * Realistic intermediate skier speed 20-30mph (8.9-13.4m/s)
- * Chairlift's speed depends on detachable or fixed-grip, moving at 5.08m/s or 2.5m/s, respectively
- * Some real-life ski slopes with elevation difference/length that were used to calculate realistic average speeds, slopes, distances:
- *  1) Slopes Kicking Horse: Longest hill - (1160m elevation, 10000m length), Hardest hill - (400m elevation, 1000m length)
- *  2) Slopes Tremblant: Longest hill - (645m elevation, 6000m length), Hardest hill - (330m elevation, 1000m)
- *  3) Slopes Mont-Sainte-Anne: Longest hill - (625m elevation, 5700m length), Hardest hill - (363m elevation, 900m)
+ * Provides the statistics per day (one {@link RunVM} per day with ski segments) for visualizing daily statistics.
+ * <p>
+ * The days are aggregated in the database from the stored ski segments (see {@link ContentProviderUtils#getDailySkiSegmentsCursor()}).
+ * The result is cached until a ski segment or a track changes.
+ * ALL VALUES ARE IN METERS OR METERS/SECOND; the slope is the altitude loss per distance.
  */
 public class DailyRunsProvider {
-    private static int runIdCtr = 0;
-    private static List<RunVM> getDailyRunsSample1()
-    {
-        ArrayList<RunVM> runs = new ArrayList<RunVM>();
 
-        RunVM dummyRun1 = new RunVM(runIdCtr, 4.2f, 0.116f, 5.08f, 10000);
-        runIdCtr++;
-        RunVM dummyRun2 = new RunVM(runIdCtr, 12.3f, 0.4f, 5.08f, 1000);
-        runIdCtr++;
+    private static DailyRunsProvider instance;
 
-        runs.add(dummyRun1);
-        runs.add(dummyRun2);
-        return runs;
-    }
-    private static List<RunVM> getDailyRunsSample2()
-    {
-        ArrayList<RunVM> runs = new ArrayList<RunVM>();
+    private final ContentProviderUtils contentProviderUtils;
 
-        RunVM dummyRun1 = new RunVM(runIdCtr, 4.5f, 0.170f, 2.5f, 3000);
-        runIdCtr++;
-        RunVM dummyRun2 = new RunVM(runIdCtr, 14.1f, 0.44f, 5.08f, 900);
-        runIdCtr++;
-        RunVM dummyRun3 = new RunVM(runIdCtr, 11.7f, 0.37f, 4.5f, 1000);
-        runIdCtr++;
-        RunVM dummyRun4 = new RunVM(runIdCtr, 2.9f, 0.1075f, 2.58f, 6000);
-        runIdCtr++;
-        RunVM dummyRun5 = new RunVM(runIdCtr, 12.9f, 0.403f, 4.7f, 950);
-        runIdCtr++;
+    private List<RunVM> dailyRuns;
 
-        runs.add(dummyRun1);
-        runs.add(dummyRun2);
-        runs.add(dummyRun3);
-        runs.add(dummyRun4);
-        runs.add(dummyRun5);
-        return runs;
+    /**
+     * @return the provider; its cache is invalidated if the ski segments or tracks change.
+     */
+    public static synchronized DailyRunsProvider getInstance(@NonNull Context context) {
+        if (instance == null) {
+            Context applicationContext = context.getApplicationContext();
+            DailyRunsProvider provider = new DailyRunsProvider(new ContentProviderUtils(applicationContext));
+            ContentObserver observer = new ContentObserver(null) {
+                @Override
+                public void onChange(boolean selfChange) {
+                    provider.invalidate();
+                }
+            };
+            // Ski segments deleted together with their track do not notify; so, observe the tracks as well.
+            applicationContext.getContentResolver().registerContentObserver(SkiSegmentsColumns.CONTENT_URI, true, observer);
+            applicationContext.getContentResolver().registerContentObserver(TracksColumns.CONTENT_URI, true, observer);
+            instance = provider;
+        }
+        return instance;
     }
-    private static List<RunVM> getDailyRunsSample3()
-    {
-        ArrayList<RunVM> runs = new ArrayList<RunVM>();
-
-        RunVM dummyRun1 = new RunVM(runIdCtr, 2.65f, 0.09f, 2.1f, 6000);
-        runIdCtr++;
-        RunVM dummyRun2 = new RunVM(runIdCtr, 3.15f, 0.105f, 2.3f, 3550);
-        runIdCtr++;
-        RunVM dummyRun3 = new RunVM(runIdCtr, 15.9f, 0.472f, 5.5f, 1750);
-        runIdCtr++;
-        RunVM dummyRun4 = new RunVM(runIdCtr, 11.1f, 0.333f, 2.58f, 6000);
-        runIdCtr++;
-        RunVM dummyRun5 = new RunVM(runIdCtr, 18.9f, 0.49f, 5.5f, 750);
-        runIdCtr++;
-        RunVM dummyRun6 = new RunVM(runIdCtr, 8.175f, 0.275f, 4.5f, 3000);
-        runIdCtr++;
-        RunVM dummyRun7 = new RunVM(runIdCtr, 3.05f, 0.1f, 2f, 9000);
-        runIdCtr++;
-        RunVM dummyRun8 = new RunVM(runIdCtr, 5.33f, 0.225f, 3.5f, 6000);
-        runIdCtr++;
 
-        runs.add(dummyRun1);
-        runs.add(dummyRun2);
-        runs.add(dummyRun3);
-        runs.add(dummyRun4);
-        runs.add(dummyRun5);
-        runs.add(dummyRun6);
-        runs.add(dummyRun7);
-        runs.add(dummyRun8);
-        return runs;
+    @VisibleForTesting
+    DailyRunsProvider(@NonNull ContentProviderUtils contentProviderUtils) {
+        this.contentProviderUtils = contentProviderUtils;
     }
-    private static List<RunVM> getDailyRunsSample4()
-    {
-        ArrayList<RunVM> runs = new ArrayList<RunVM>();
-
-        RunVM dummyRun1 = new RunVM(runIdCtr, 5.5f, 0.21f, 3f, 7000);
-        runIdCtr++;
-        RunVM dummyRun2 = new RunVM(runIdCtr, 6.33f, 0.22f, 3.5f, 6500);
-        runIdCtr++;
-        RunVM dummyRun3 = new RunVM(runIdCtr, 7.75f, 0.24f, 3.9f, 5000);
-        runIdCtr++;
-        RunVM dummyRun4 = new RunVM(runIdCtr, 5.3f, 0.233f, 4.0f, 6550);
-        runIdCtr++;
-        RunVM dummyRun5 = new RunVM(runIdCtr, 13.4f, 0.39f, 4.7f, 1100);
-        runIdCtr++;
-        RunVM dummyRun6 = new RunVM(runIdCtr, 12.4f, 0.38f, 4.85f, 1100);
-        runIdCtr++;
-        RunVM dummyRun7 = new RunVM(runIdCtr, 7.1f, 0.2575f, 3.5f, 6000);
-        runIdCtr++;
-        RunVM dummyRun8 = new RunVM(runIdCtr, 6.667f, 0.225f, 5.8f, 9000);
-        runIdCtr++;
-        RunVM dummyRun9 = new RunVM(runIdCtr, 6.9f, 0.23f, 5.66f, 9000);
-        runIdCtr++;
-        RunVM dummyRun10 = new RunVM(runIdCtr, 20.5f, 0.5125f, 5.8f, 750);
-        runIdCtr++;
 
-        runs.add(dummyRun1);
-        runs.add(dummyRun2);
-        runs.add(dummyRun3);
-        runs.add(dummyRun4);
-        runs.add(dummyRun5);
-        runs.add(dummyRun6);
-        runs.add(dummyRun7);
-        runs.add(dummyRun8);
-        runs.add(dummyRun9);
-        runs.add(dummyRun10);
-        return runs;
+    /**
+     * Must not be called on the UI thread, if not cached.
+     *
+     * @return the statistics of all days ordered by day.
+     */
+    @NonNull
+    public synchronized List<RunVM> getAllDailyRuns() {
+        if (dailyRuns == null) {
+            dailyRuns = Collections.unmodifiableList(load(contentProviderUtils));
+        }
+        return dailyRuns;
     }
-    private static List<RunVM> getDailyRunsSample5()
-    {
-        ArrayList<RunVM> runs = new ArrayList<RunVM>();
-
-        RunVM dummyRun1 = new RunVM(runIdCtr, 12.5f, 0.350f, 6.5f, 900);
-        runIdCtr++;
-        RunVM dummyRun2 = new RunVM(runIdCtr, 14.1f, 0.44f, 5.75f, 1100);
-        runIdCtr++;
-        RunVM dummyRun3 = new RunVM(runIdCtr, 11.7f, 0.33f, 5.5f, 1200);
-        runIdCtr++;
-        RunVM dummyRun4 = new RunVM(runIdCtr, 13.8f, 0.385f, 5.25f, 1000);
-        runIdCtr++;
-        RunVM dummyRun5 = new RunVM(runIdCtr, 13.9f, 0.403f, 5.15f, 950);
-        runIdCtr++;
-        RunVM dummyRun6 = new RunVM(runIdCtr, 12.1f, 0.38f, 4.85f, 975);
-        runIdCtr++;
-        RunVM dummyRun7 = new RunVM(runIdCtr, 7.1f, 0.21f, 3.5f, 6000);
-        runIdCtr++;
-        RunVM dummyRun8 = new RunVM(runIdCtr, 6.667f, 0.18f, 3.8f, 4500);
-        runIdCtr++;
-        RunVM dummyRun9 = new RunVM(runIdCtr, 6.9f, 0.23f, 5.2f, 5000);
-        runIdCtr++;
-        RunVM dummyRun10 = new RunVM(runIdCtr, 3.3f, 0.133f, 5.4f, 7500);
-        runIdCtr++;
-        RunVM dummyRun11 = new RunVM(runIdCtr, 3f, 0.105f, 5.8f, 12000);
-        runIdCtr++;
-        RunVM dummyRun12 = new RunVM(runIdCtr, 3.55f, 0.155f, 2.9f, 8000);
-        runIdCtr++;
-        RunVM dummyRun13 = new RunVM(runIdCtr, 13.4f, 0.375f, 4.2f, 1050);
-        runIdCtr++;
-        RunVM dummyRun14 = new RunVM(runIdCtr, 14.1f, 0.388f, 3.9f, 1025);
-        runIdCtr++;
 
-        runs.add(dummyRun1);
-        runs.add(dummyRun2);
-        runs.add(dummyRun3);
-        runs.add(dummyRun4);
-        runs.add(dummyRun5);
-        runs.add(dummyRun6);
-        runs.add(dummyRun7);
-        runs.add(dummyRun8);
-        runs.add(dummyRun9);
-        runs.add(dummyRun10);
-        runs.add(dummyRun11);
-        runs.add(dummyRun12);
-        runs.add(dummyRun13);
-        runs.add(dummyRun14);
-        return runs;
+    public synchronized void invalidate() {
+        dailyRuns = null;
     }
 
-    public static List<RunVM> getAllDailyRuns()
-    {
-        int randomNum = (int) (Math.random()*10)+1;
+    @VisibleForTesting
+    static List<RunVM> load(@NonNull ContentProviderUtils contentProviderUtils) {
+        ArrayList<RunVM> runs = new ArrayList<>();
+        try (Cursor cursor = contentProviderUtils.getDailySkiSegmentsCursor()) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int dayIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.DAY);
+                int runDistanceIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.RUN_DISTANCE);
+                int runTimeIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.RUN_TIME);
+                int runAltitudeLossIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.RUN_ALTITUDE_LOSS);
+                int liftDistanceIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.LIFT_DISTANCE);
+                int liftTimeIndex = cursor.getColumnIndexOrThrow(SkiSegmentsColumns.LIFT_TIME);
 
-        if(randomNum == 1 || randomNum == 2)
-        {
-            return getDailyRunsSample1();
-        }
-        else if(randomNum == 3 || randomNum == 4)
-        {
-            return getDailyRunsSample2();
-        }
-        else if(randomNum == 5 || randomNum == 6)
-        {
-            return getDailyRunsSample3();
-        }
-        else if(randomNum == 7 || randomNum == 8)
-        {
-            return getDailyRunsSample4();
-        }
-        else
-        {
-            return getDailyRunsSample5();
+                runs.ensureCapacity(cursor.getCount());
+                do {
+                    double runDistance_m = cursor.getDouble(runDistanceIndex);
+                    double runTime_s = cursor.getDouble(runTimeIndex) / 1000;
+                    double runAltitudeLoss_m = cursor.getDouble(runAltitudeLossIndex);
+                    double liftDistance_m = cursor.getDouble(liftDistanceIndex);
+                    double liftTime_s = cursor.getDouble(liftTimeIndex) / 1000;
+
+                    runs.add(new RunVM(
+                            cursor.getInt(dayIndex),
+                            runTime_s > 0 ? (float) (runDistance_m / runTime_s) : 0f,
+                            runDistance_m > 0 ? (float) (runAltitudeLoss_m / runDistance_m) : 0f,
+                            liftTime_s > 0 ? (float) (liftDistance_m / liftTime_s) : 0f,
+                            (float) runDistance_m
+                    ));
+                } while (cursor.moveToNext());
+            }
         }
+        return runs;
     }
 }
@@ -9,6 +9,10 @@ import android.widget.Spinner;
 
 import com.github.mikephil.charting.charts.LineChart;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.AbstractActivity;
@@ -20,6 +24,7 @@ public class DailyStatsActivity extends AbstractActivity implements AdapterView.
     private Frequency selectedFrequency = null;
     private final DailyPlottingModule dailyPlottingModule = new DailyPlottingModule();
     private LineChart line_chart;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,7 +65,20 @@ public class DailyStatsActivity extends AbstractActivity implements AdapterView.
 
         // Check if both spinners have a value selected
         if (selectedMetric != null && selectedFrequency != null) {
-            dailyPlottingModule.plotGraph(line_chart, selectedMetric, selectedFrequency);
+            Metric metric = selectedMetric;
+            Frequency frequency = selectedFrequency;
+            DailyRunsProvider dailyRunsProvider = DailyRunsProvider.getInstance(this);
+            executor.execute(() -> {
+                List<RunVM> dailyRuns = dailyRunsProvider.getAllDailyRuns();
+                runOnUiThread(() -> {
+                    if (isFinishing() || isDestroyed()) {
+                        return;
+                    }
+                    if (metric == selectedMetric && frequency == selectedFrequency) {
+                        dailyPlottingModule.plotGraph(line_chart, metric, frequency, dailyRuns);
+                    }
+                });
+            });
             Log.d("DAILY_STATS_DRAW_CHART", "Metric: " + selectedMetric.toString() + ", Frequency: " + selectedFrequency.toString());
         }
     }
@@ -79,6 +97,12 @@ public class DailyStatsActivity extends AbstractActivity implements AdapterView.
         line_chart.clear();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executor.shutdownNow();
+    }
+
     @Override
     protected View getRootView() {
         viewBinding = DailyStatsBinding.inflate(getLayoutInflater());
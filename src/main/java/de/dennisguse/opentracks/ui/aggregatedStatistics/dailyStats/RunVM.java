@@ -1,7 +1,8 @@
 package de.dennisguse.opentracks.ui.aggregatedStatistics.dailyStats;
 
 /**
- * A view model representing a run for visualizing daily statistics.
+ * A view model representing the runs of a day for visualizing daily statistics.
+ * The id is the day (days since epoch).
  */
 public class RunVM {
     private int id;
@@ -1,7 +1,5 @@
 package de.dennisguse.opentracks.ui.intervals;
 
-import androidx.annotation.Nullable;
-
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,24 +10,32 @@ import de.dennisguse.opentracks.data.models.HeartRate;
 import de.dennisguse.opentracks.data.models.Speed;
 import de.dennisguse.opentracks.data.models.TrackPoint;
 import de.dennisguse.opentracks.stats.TrackStatistics;
-import de.dennisguse.opentracks.stats.TrackStatisticsUpdater;
+import de.dennisguse.opentracks.stats.TrackStatisticsIndex;
 
+/**
+ * Splits a track into intervals of the same distance.
+ * The statistics of each interval are queried from a {@link TrackStatisticsIndex}.
+ */
 public class IntervalStatistics {
-    private TrackStatisticsUpdater trackStatisticsUpdater = new TrackStatisticsUpdater();
-    private final List<Interval> intervalList;
+    private final TrackStatisticsIndex trackStatisticsIndex;
     private final Distance distanceInterval;
-    private Interval interval, lastInterval;
+    private List<Interval> intervalList;
 
     /**
      * @param distanceInterval distance of every interval.
      */
     public IntervalStatistics(Distance distanceInterval) {
-        this.distanceInterval = distanceInterval;
+        this(new TrackStatisticsIndex(), distanceInterval);
+    }
 
-        interval = new Interval();
-        lastInterval = new Interval();
-        intervalList = new ArrayList<>();
-        intervalList.add(lastInterval);
+    /**
+     * @param trackStatisticsIndex index of the track; must not be modified concurrently.
+     * @param distanceInterval     distance of every interval.
+     */
+    public IntervalStatistics(TrackStatisticsIndex trackStatisticsIndex, Distance distanceInterval) {
+        this.trackStatisticsIndex = trackStatisticsIndex;
+        this.distanceInterval = distanceInterval;
+        update();
     }
 
     /**
@@ -38,39 +44,47 @@ public class IntervalStatistics {
      * @return the last track point's id used to compute the intervals.
      */
     public TrackPoint.Id addTrackPoints(TrackPointIterator trackPointIterator) {
-        boolean newIntervalAdded = false;
-        TrackPoint trackPoint = null;
-
         while (trackPointIterator.hasNext()) {
-            trackPoint = trackPointIterator.next();
-            trackStatisticsUpdater.addTrackPoint(trackPoint);
-
-            if (trackStatisticsUpdater.getTrackStatistics().getTotalDistance().plus(interval.distance).greaterOrEqualThan(distanceInterval)) {
-                interval.add(trackStatisticsUpdater.getTrackStatistics(), trackPoint);
+            trackStatisticsIndex.addTrackPoint(trackPointIterator.next());
+        }
+        update();
 
-                double adjustFactor = distanceInterval.dividedBy(interval.distance);
-                Interval adjustedInterval = new Interval(interval, adjustFactor);
+        return trackStatisticsIndex.getLastTrackPointId();
+    }
 
-                intervalList.set(intervalList.size() - 1, adjustedInterval);
+    /**
+     * Recomputes the intervals from the index; O(k log n) for k intervals.
+     */
+    private void update() {
+        List<Interval> intervals = new ArrayList<>();
+
+        // Distance and time that exceeded the previous interval.
+        Interval remainder = new Interval();
+        int from = 0;
+        while (from < trackStatisticsIndex.size()) {
+            int to = trackStatisticsIndex.findIndexForDistance(from, distanceInterval.minus(remainder.distance));
+            if (to < 0) {
+                break;
+            }
 
-                interval = new Interval(interval.distance.minus(adjustedInterval.distance), interval.time.minus(adjustedInterval.time));
-                trackStatisticsUpdater = new TrackStatisticsUpdater();
-                trackStatisticsUpdater.addTrackPoint(trackPoint);
+            Interval interval = new Interval(remainder);
+            interval.add(trackStatisticsIndex.getStatistics(from, to));
 
-                lastInterval = new Interval(interval);
-                intervalList.add(lastInterval);
+            double adjustFactor = distanceInterval.dividedBy(interval.distance);
+            Interval adjustedInterval = new Interval(interval, adjustFactor);
+            intervals.add(adjustedInterval);
 
-                newIntervalAdded = true;
-            }
+            remainder = new Interval(interval.distance.minus(adjustedInterval.distance), interval.time.minus(adjustedInterval.time));
+            from = to + 1;
         }
 
-        if (newIntervalAdded) {
-            lastInterval.add(trackStatisticsUpdater.getTrackStatistics(), null);
-        } else {
-            lastInterval.set(trackStatisticsUpdater.getTrackStatistics());
+        Interval lastInterval = new Interval(remainder);
+        if (from < trackStatisticsIndex.size()) {
+            lastInterval.add(trackStatisticsIndex.getStatistics(from, trackStatisticsIndex.size() - 1));
         }
+        intervals.add(lastInterval);
 
-        return trackPoint != null ? trackPoint.getId() : null;
+        intervalList = intervals;
     }
 
     public List<Interval> getIntervalList() {
@@ -160,29 +174,12 @@ public class IntervalStatistics {
             return avgHeartRate;
         }
 
-        private void add(TrackStatistics trackStatistics, @Nullable TrackPoint lastTrackPoint) {
+        private void add(TrackStatistics trackStatistics) {
             distance = distance.plus(trackStatistics.getTotalDistance());
             time = time.plus(trackStatistics.getTotalTime());
             gain_m = trackStatistics.hasTotalAltitudeGain() ? trackStatistics.getTotalAltitudeGain() : gain_m;
             loss_m = trackStatistics.hasTotalAltitudeLoss() ? trackStatistics.getTotalAltitudeLoss() : loss_m;
             avgHeartRate = trackStatistics.getAverageHeartRate();
-            if (lastTrackPoint == null) {
-                return;
-            }
-            if (hasGain() && lastTrackPoint.hasAltitudeGain()) {
-                gain_m = gain_m - lastTrackPoint.getAltitudeGain();
-            }
-            if (hasLoss() && lastTrackPoint.hasAltitudeLoss()) {
-                loss_m = loss_m - lastTrackPoint.getAltitudeLoss();
-            }
-        }
-
-        private void set(TrackStatistics trackStatistics) {
-            distance = trackStatistics.getTotalDistance();
-            time = trackStatistics.getTotalTime();
-            gain_m = trackStatistics.hasTotalAltitudeGain() ? trackStatistics.getTotalAltitudeGain() : gain_m;
-            loss_m = trackStatistics.hasTotalAltitudeLoss() ? trackStatistics.getTotalAltitudeLoss() : loss_m;
-            avgHeartRate = trackStatistics.getAverageHeartRate();
         }
     }
 }
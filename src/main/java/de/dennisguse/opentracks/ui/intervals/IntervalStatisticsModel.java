@@ -12,32 +12,36 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 import de.dennisguse.opentracks.data.ContentProviderUtils;
-import de.dennisguse.opentracks.data.TrackPointIterator;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.settings.UnitSystem;
+import de.dennisguse.opentracks.stats.TrackStatisticsIndexCache;
 
 /**
  * This model is used to load intervals for a track.
  * It uses a default interval but it can be set from outside to manage the interval length.
+ * <p>
+ * The intervals of all {@link IntervalOption}s are computed together and cached per track version (i.e., the last {@link TrackPoint.Id}), so switching the interval length does not require a recomputation.
  */
 public class IntervalStatisticsModel extends AndroidViewModel {
 
     private static final String TAG = IntervalStatisticsModel.class.getSimpleName();
 
     private MutableLiveData<List<IntervalStatistics.Interval>> intervalsLiveData;
-    private IntervalStatistics intervalStatistics;
-    private Distance distanceInterval;
+    private volatile Distance distanceInterval;
+    private volatile IntervalsCache intervalsCache;
     private final ContentResolver contentResolver;
     private ContentObserver trackPointsTableObserver;
-    private TrackPoint.Id lastTrackPointId;
 
     private final Executor executor = Executors.newSingleThreadExecutor();
     private HandlerThread handlerThread;
@@ -73,15 +77,14 @@ public class IntervalStatisticsModel extends AndroidViewModel {
 
             intervalsLiveData = new MutableLiveData<>();
             distanceInterval = interval.getDistance(unitSystem);
-            intervalStatistics = new IntervalStatistics(distanceInterval);
 
-            loadIntervalStatistics(trackId);
+            loadIntervalStatistics(trackId, unitSystem);
         }
 
         trackPointsTableObserver = new ContentObserver(handler) {
             @Override
             public void onChange(boolean selfChange, Uri uri) {
-                loadIntervalStatistics(trackId);
+                loadIntervalStatistics(trackId, unitSystem);
             }
         };
         contentResolver.registerContentObserver(TrackPointsColumns.CONTENT_URI_BY_TRACKID, false, trackPointsTableObserver);
@@ -89,12 +92,28 @@ public class IntervalStatisticsModel extends AndroidViewModel {
         return intervalsLiveData;
     }
 
-    private void loadIntervalStatistics(Track.Id trackId) {
+    private void loadIntervalStatistics(Track.Id trackId, UnitSystem unitSystem) {
         executor.execute(() -> {
             ContentProviderUtils contentProviderUtils = new ContentProviderUtils(getApplication());
-            try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, lastTrackPointId)) {
-                lastTrackPointId = intervalStatistics.addTrackPoints(trackPointIterator);
-                intervalsLiveData.postValue(intervalStatistics.getIntervalList());
+            IntervalsCache cache = TrackStatisticsIndexCache.apply(contentProviderUtils, trackId, trackStatisticsIndex -> {
+                IntervalsCache current = intervalsCache;
+                TrackPoint.Id version = trackStatisticsIndex.getLastTrackPointId();
+                if (current != null && current.isFor(trackId, unitSystem) && Objects.equals(current.version(), version)) {
+                    return current;
+                }
+
+                Map<Distance, List<IntervalStatistics.Interval>> intervals = new HashMap<>();
+                for (IntervalOption option : IntervalOption.values()) {
+                    Distance distance = option.getDistance(unitSystem);
+                    intervals.put(distance, new IntervalStatistics(trackStatisticsIndex, distance).getIntervalList());
+                }
+                return new IntervalsCache(trackId, unitSystem, version, intervals);
+            });
+            intervalsCache = cache;
+
+            List<IntervalStatistics.Interval> intervals = cache.intervals().get(distanceInterval);
+            if (intervals != null) {
+                intervalsLiveData.postValue(intervals);
             }
         });
     }
@@ -110,10 +129,28 @@ public class IntervalStatisticsModel extends AndroidViewModel {
             interval = IntervalOption.DEFAULT;
         }
 
-        lastTrackPointId = null;
         distanceInterval = interval.getDistance(unitSystem);
-        intervalStatistics = new IntervalStatistics(distanceInterval);
-        loadIntervalStatistics(trackId);
+
+        IntervalsCache cache = intervalsCache;
+        if (cache != null && cache.isFor(trackId, unitSystem)) {
+            // Changes of the track trigger a reload via trackPointsTableObserver; so the cache is up-to-date.
+            List<IntervalStatistics.Interval> intervals = cache.intervals().get(distanceInterval);
+            if (intervals != null) {
+                intervalsLiveData.setValue(intervals);
+                return;
+            }
+        }
+        loadIntervalStatistics(trackId, unitSystem);
+    }
+
+    /**
+     * The intervals of all {@link IntervalOption}s for one version of a track.
+     */
+    private record IntervalsCache(Track.Id trackId, UnitSystem unitSystem, @Nullable TrackPoint.Id version, Map<Distance, List<IntervalStatistics.Interval>> intervals) {
+
+        boolean isFor(Track.Id trackId, UnitSystem unitSystem) {
+            return this.trackId.equals(trackId) && this.unitSystem == unitSystem;
+        }
     }
 
     /**
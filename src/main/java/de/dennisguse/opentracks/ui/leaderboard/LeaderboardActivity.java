@@ -1,23 +1,38 @@
 package de.dennisguse.opentracks.ui.leaderboard;
 
+import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.viewpager.widget.ViewPager;
 
 import com.google.android.material.tabs.TabLayout;
 
+import org.json.JSONException;
+
+import java.io.IOException;
+
 import de.dennisguse.opentracks.R;
 
 public class LeaderboardActivity extends AppCompatActivity {
 
+    private static final String TAG = LeaderboardActivity.class.getSimpleName();
+
+    private LeaderboardPagerAdapter leaderboardPagerAdapter;
+
+    private final ActivityResultLauncher<String[]> importFriends = registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importFriends);
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_leaderboard);
 
-        LeaderboardPagerAdapter leaderboardPagerAdapter = new LeaderboardPagerAdapter(getSupportFragmentManager());
+        leaderboardPagerAdapter = new LeaderboardPagerAdapter(getSupportFragmentManager());
         ViewPager viewPager = findViewById(R.id.view_pager);
         viewPager.setAdapter(leaderboardPagerAdapter);
         TabLayout tabs = findViewById(R.id.tabs);
@@ -45,6 +60,8 @@ public class LeaderboardActivity extends AppCompatActivity {
             }
         });
 
+        findViewById(R.id.btnImportFriends).setOnClickListener(v -> importFriends.launch(new String[]{"application/json"}));
+
         findViewById(R.id.back).setOnClickListener(new View.OnClickListener(){
             @Override
             public void onClick(View v){
@@ -54,4 +71,20 @@ public class LeaderboardActivity extends AppCompatActivity {
 
 
     }
+
+    private void importFriends(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+
+        new Thread(() -> {
+            try {
+                RankingEngine.getInstance(this).importFriends(this, uri);
+                runOnUiThread(() -> leaderboardPagerAdapter.refreshCurrentLeaderboardFragment());
+            } catch (IOException | JSONException e) {
+                Log.e(TAG, "Could not import friends from " + uri, e);
+                runOnUiThread(() -> Toast.makeText(this, R.string.leaderboard_import_friends_failed, Toast.LENGTH_LONG).show());
+            }
+        }).start();
+    }
 }
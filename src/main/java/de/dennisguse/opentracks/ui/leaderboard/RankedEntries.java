@@ -0,0 +1,74 @@
+package de.dennisguse.opentracks.ui.leaderboard;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import de.dennisguse.opentracks.data.models.Ranking;
+
+/**
+ * Entries of a leaderboard ordered by their score (highest first).
+ * Putting or removing an entry takes O(log n); reading the top k entries takes O(k).
+ * <p>
+ * All entries are kept (not only the top k), as an entry in the top k may be removed or lowered.
+ */
+class RankedEntries {
+
+    private static final Comparator<Item> ORDER = Comparator.comparingDouble(Item::score).reversed().thenComparing(Item::key);
+
+    private final Map<String, Item> items = new HashMap<>();
+
+    private final TreeSet<Item> ranked = new TreeSet<>(ORDER);
+
+    void put(@NonNull String key, String username, String location, double score) {
+        remove(key);
+        Item item = new Item(key, username, location, score);
+        items.put(key, item);
+        ranked.add(item);
+    }
+
+    void remove(@NonNull String key) {
+        Item item = items.remove(key);
+        if (item != null) {
+            ranked.remove(item);
+        }
+    }
+
+    void clear() {
+        items.clear();
+        ranked.clear();
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    /**
+     * @return the first k entries; entries with the same score share the same rank.
+     */
+    @NonNull
+    List<Ranking> top(int k) {
+        List<Ranking> rankings = new ArrayList<>(Math.min(k, ranked.size()));
+        Iterator<Item> iterator = ranked.iterator();
+        int rank = 0;
+        double previousScore = Double.NaN;
+        while (iterator.hasNext() && rankings.size() < k) {
+            Item item = iterator.next();
+            if (item.score != previousScore) {
+                rank = rankings.size() + 1;
+                previousScore = item.score;
+            }
+            rankings.add(new Ranking(rank, item.username, item.location, item.score));
+        }
+        return rankings;
+    }
+
+    private record Item(String key, String username, String location, double score) {
+    }
+}
@@ -0,0 +1,315 @@
+package de.dennisguse.opentracks.ui.leaderboard;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.dennisguse.opentracks.R;
+import de.dennisguse.opentracks.data.ContentProviderUtils;
+import de.dennisguse.opentracks.data.TrackSelection;
+import de.dennisguse.opentracks.data.models.Ranking;
+import de.dennisguse.opentracks.data.models.Track;
+import de.dennisguse.opentracks.data.tables.TracksColumns;
+
+/**
+ * Computes the leaderboards from the stored tracks and the imported summaries of friends.
+ * <p>
+ * The leaderboards are kept in memory and updated per track if a track is inserted, updated, or deleted; so, reading a leaderboard does not load all tracks.
+ * Only changes not referring to a single track (e.g., deleting several tracks) reload all tracks.
+ * <p>
+ * The summaries of friends are read from {@link #FRIENDS_FILE_NAME} (a JSON array) in the app's files directory, which serves as a local stand-in for syncing.
+ */
+public class RankingEngine {
+
+    private static final String TAG = RankingEngine.class.getSimpleName();
+
+    @VisibleForTesting
+    static final String FRIENDS_FILE_NAME = "leaderboard_friends.json";
+
+    // If more tracks changed, all tracks are reloaded at once.
+    private static final int MAX_TRACK_UPDATES = 100;
+
+    private static final String KEY_TRACK = "track:";
+    private static final String KEY_FRIEND = "friend:";
+
+    public enum Leaderboard {
+        DISTANCE, // distance per track
+        VERTICAL, // altitude loss per track
+        DAY // distance per user and day
+    }
+
+    private static RankingEngine instance;
+
+    private final ContentProviderUtils contentProviderUtils;
+
+    private final String username;
+
+    private final Map<Long, Summary> tracks = new HashMap<>();
+
+    private final List<Summary> friends = new ArrayList<>();
+
+    private final Map<String, DayTotal> dayTotals = new HashMap<>();
+
+    private final RankedEntries distance = new RankedEntries();
+    private final RankedEntries vertical = new RankedEntries();
+    private final RankedEntries day = new RankedEntries();
+
+    private final Set<Long> changedTrackIds = new HashSet<>();
+
+    private boolean reloadTracks = true;
+
+    /**
+     * @return the engine; it is updated if the tracks change.
+     */
+    public static synchronized RankingEngine getInstance(@NonNull Context context) {
+        if (instance == null) {
+            Context applicationContext = context.getApplicationContext();
+            RankingEngine engine = new RankingEngine(new ContentProviderUtils(applicationContext), applicationContext.getString(R.string.leaderboard_you));
+            applicationContext.getContentResolver().registerContentObserver(TracksColumns.CONTENT_URI, true, new ContentObserver(null) {
+                @Override
+                public void onChange(boolean selfChange, @Nullable Uri uri) {
+                    engine.onTracksChanged(uri);
+                }
+            });
+
+            File friendsFile = new File(applicationContext.getFilesDir(), FRIENDS_FILE_NAME);
+            if (friendsFile.exists()) {
+                try (InputStream inputStream = new FileInputStream(friendsFile)) {
+                    engine.setFriends(readFriends(inputStream));
+                } catch (IOException | JSONException e) {
+                    Log.e(TAG, "Could not read summaries of friends.", e);
+                }
+            }
+            instance = engine;
+        }
+        return instance;
+    }
+
+    @VisibleForTesting
+    RankingEngine(@NonNull ContentProviderUtils contentProviderUtils, @NonNull String username) {
+        this.contentProviderUtils = contentProviderUtils;
+        this.username = username;
+    }
+
+    /**
+     * Must not be called on the UI thread.
+     *
+     * @return the first k rankings of the leaderboard.
+     */
+    @NonNull
+    public synchronized List<Ranking> getRankings(@NonNull Leaderboard leaderboard, int k) {
+        updateTracks();
+        return switch (leaderboard) {
+            case DISTANCE -> distance.top(k);
+            case VERTICAL -> vertical.top(k);
+            case DAY -> day.top(k);
+        };
+    }
+
+    /**
+     * Replaces the summaries of friends by the ones of the file (a JSON array) and keeps them for the next start.
+     * Must not be called on the UI thread.
+     */
+    public void importFriends(@NonNull Context context, @NonNull Uri uri) throws IOException, JSONException {
+        byte[] data;
+        try (InputStream inputStream = context.getContentResolver().openInputStream(uri)) {
+            if (inputStream == null) {
+                throw new IOException("Could not open " + uri);
+            }
+            data = readBytes(inputStream);
+        }
+
+        // Parse before storing, so that an invalid file does not replace the current one.
+        List<Summary> summaries = readFriends(new ByteArrayInputStream(data));
+        try (OutputStream outputStream = new FileOutputStream(new File(context.getFilesDir(), FRIENDS_FILE_NAME))) {
+            outputStream.write(data);
+        }
+        setFriends(summaries);
+    }
+
+    @VisibleForTesting
+    synchronized void setFriends(@NonNull List<Summary> summaries) {
+        for (int i = 0; i < friends.size(); i++) {
+            remove(KEY_FRIEND + i, friends.get(i));
+        }
+        friends.clear();
+        friends.addAll(summaries);
+        for (int i = 0; i < friends.size(); i++) {
+            add(KEY_FRIEND + i, friends.get(i));
+        }
+    }
+
+    /**
+     * @param uri the changed track or null / all tracks if unknown.
+     */
+    @VisibleForTesting
+    synchronized void onTracksChanged(@Nullable Uri uri) {
+        if (reloadTracks) {
+            return;
+        }
+
+        List<String> pathSegments = uri != null ? uri.getPathSegments() : List.of();
+        // Single track: CONTENT_URI/# or CONTENT_URI_STATISTICS/#
+        boolean singleTrack = pathSegments.size() == 2
+                || pathSegments.size() == 3 && TracksColumns.CONTENT_URI_STATISTICS.getLastPathSegment().equals(pathSegments.get(1));
+        String trackId = singleTrack ? pathSegments.get(pathSegments.size() - 1) : null;
+        if (singleTrack && TextUtils.isDigitsOnly(trackId) && changedTrackIds.size() < MAX_TRACK_UPDATES) {
+            changedTrackIds.add(Long.parseLong(trackId));
+        } else {
+            reloadTracks = true;
+            changedTrackIds.clear();
+        }
+    }
+
+    private void updateTracks() {
+        if (reloadTracks) {
+            for (Map.Entry<Long, Summary> entry : tracks.entrySet()) {
+                remove(KEY_TRACK + entry.getKey(), entry.getValue());
+            }
+            tracks.clear();
+            loadTracks(new TrackSelection());
+            reloadTracks = false;
+            return;
+        }
+
+        if (changedTrackIds.isEmpty()) {
+            return;
+        }
+        TrackSelection selection = new TrackSelection();
+        for (long trackId : changedTrackIds) {
+            Summary summary = tracks.remove(trackId);
+            if (summary != null) {
+                remove(KEY_TRACK + trackId, summary);
+            }
+            selection.addTrackId(new Track.Id(trackId));
+        }
+        changedTrackIds.clear();
+        loadTracks(selection);
+    }
+
+    private void loadTracks(@NonNull TrackSelection selection) {
+        try (Cursor cursor = contentProviderUtils.getTrackTotalsCursor(selection)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int idIndex = cursor.getColumnIndexOrThrow(TracksColumns._ID);
+                int nameIndex = cursor.getColumnIndexOrThrow(TracksColumns.NAME);
+                int startTimeIndex = cursor.getColumnIndexOrThrow(TracksColumns.STARTTIME);
+                int startTimeOffsetIndex = cursor.getColumnIndexOrThrow(TracksColumns.STARTTIME_OFFSET);
+                int totalDistanceIndex = cursor.getColumnIndexOrThrow(TracksColumns.TOTALDISTANCE);
+                int altitudeLossIndex = cursor.getColumnIndexOrThrow(TracksColumns.ALTITUDE_LOSS);
+                do {
+                    LocalDate date = null;
+                    if (!cursor.isNull(startTimeIndex)) {
+                        ZoneOffset zoneOffset = ZoneOffset.ofTotalSeconds(cursor.isNull(startTimeOffsetIndex) ? 0 : cursor.getInt(startTimeOffsetIndex));
+                        date = Instant.ofEpochMilli(cursor.getLong(startTimeIndex)).atOffset(zoneOffset).toLocalDate();
+                    }
+                    long trackId = cursor.getLong(idIndex);
+                    Summary summary = new Summary(username, cursor.getString(nameIndex), date, cursor.getDouble(totalDistanceIndex), cursor.getDouble(altitudeLossIndex));
+                    tracks.put(trackId, summary);
+                    add(KEY_TRACK + trackId, summary);
+                } while (cursor.moveToNext());
+            }
+        }
+    }
+
+    private void add(String key, Summary summary) {
+        distance.put(key, summary.username(), summary.location(), Math.round(summary.distance_m()));
+        vertical.put(key, summary.username(), summary.location(), Math.round(summary.vertical_m()));
+        if (summary.day() != null) {
+            updateDay(summary, summary.distance_m(), 1);
+        }
+    }
+
+    private void remove(String key, Summary summary) {
+        distance.remove(key);
+        vertical.remove(key);
+        if (summary.day() != null) {
+            updateDay(summary, -summary.distance_m(), -1);
+        }
+    }
+
+    private void updateDay(Summary summary, double distance_m, int count) {
+        String key = summary.username() + "\n" + summary.day();
+        DayTotal dayTotal = dayTotals.getOrDefault(key, new DayTotal(0, 0));
+        dayTotal = new DayTotal(dayTotal.distance_m() + distance_m, dayTotal.count() + count);
+        if (dayTotal.count() <= 0) {
+            dayTotals.remove(key);
+            day.remove(key);
+        } else {
+            dayTotals.put(key, dayTotal);
+            day.put(key, summary.username(), summary.day().toString(), Math.round(dayTotal.distance_m()));
+        }
+    }
+
+    /**
+     * Reads summaries of the form {@code [{"username": "…", "location": "…", "day": "2024-01-31", "distance": 12000.0, "vertical": 2500.0}]}; distance and vertical in m, day is optional.
+     */
+    @VisibleForTesting
+    static List<Summary> readFriends(@NonNull InputStream inputStream) throws IOException, JSONException {
+        JSONArray array = new JSONArray(new String(readBytes(inputStream), StandardCharsets.UTF_8));
+        List<Summary> summaries = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject object = array.getJSONObject(i);
+            LocalDate date = null;
+            if (object.has("day")) {
+                try {
+                    date = LocalDate.parse(object.getString("day"));
+                } catch (DateTimeParseException e) {
+                    throw new JSONException("Invalid day " + object.getString("day"));
+                }
+            }
+            summaries.add(new Summary(object.getString("username"), object.optString("location", ""), date, object.optDouble("distance", 0), object.optDouble("vertical", 0)));
+        }
+        return summaries;
+    }
+
+    private static byte[] readBytes(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, count);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * The totals of a track or of an activity of a friend.
+     */
+    @VisibleForTesting
+    record Summary(@NonNull String username, String location, @Nullable LocalDate day, double distance_m, double vertical_m) {
+    }
+
+    private record DayTotal(double distance_m, int count) {
+    }
+}
@@ -7,21 +7,27 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import de.dennisguse.opentracks.R;
 import de.dennisguse.opentracks.data.models.Ranking;
+import de.dennisguse.opentracks.ui.leaderboard.RankingEngine;
 
 public abstract class LeaderboardFragment extends Fragment {
 
+    // Number of rankings shown per leaderboard.
+    protected static final int MAX_RANKINGS = 25;
+
     private RecyclerView leaderboardRecyclerView;
     private LeaderboardAdapter leaderboardAdapter;
 
     public LeaderboardFragment() {
-        leaderboardAdapter = new LeaderboardAdapter(getLatestRankingsData());
+        leaderboardAdapter = new LeaderboardAdapter(new ArrayList<>());
     }
 
     @Nullable
@@ -33,12 +39,26 @@ public abstract class LeaderboardFragment extends Fragment {
         leaderboardRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         leaderboardRecyclerView.setAdapter(leaderboardAdapter);
 
+        refreshRankingsData();
+
         return view;
     }
 
     public void refreshRankingsData() {
-        leaderboardAdapter.setRankingList(getLatestRankingsData());
+        FragmentActivity activity = getActivity();
+        if (activity == null) {
+            return;
+        }
+
+        RankingEngine rankingEngine = RankingEngine.getInstance(activity);
+        new Thread(() -> {
+            List<Ranking> latestRankingsData = getLatestRankingsData(rankingEngine);
+            activity.runOnUiThread(() -> leaderboardAdapter.setRankingList(latestRankingsData));
+        }).start();
     }
 
-    protected abstract List<Ranking> getLatestRankingsData();
+    /**
+     * Called on a background thread.
+     */
+    protected abstract List<Ranking> getLatestRankingsData(RankingEngine rankingEngine);
 }
@@ -16,11 +16,12 @@ import de.dennisguse.opentracks.data.models.DistanceFormatter;
 import de.dennisguse.opentracks.data.models.SpeedFormatter;
 import de.dennisguse.opentracks.databinding.RunLiftListItemBinding;
 import de.dennisguse.opentracks.settings.UnitSystem;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 import de.dennisguse.opentracks.util.StringUtils;
 
 public class RunLiftStatisticsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
-    private List<RunLiftStatistics.SkiSubActivity> runLiftList;
+    private List<SkiSegmentDetector.Segment> runLiftList;
     private final Context context;
     private UnitSystem unitSystem = UnitSystem.defaultUnitSystem();
 
@@ -38,21 +39,21 @@ public class RunLiftStatisticsAdapter extends RecyclerView.Adapter<RecyclerView.
     @Override
     public void onBindViewHolder(@NonNull @NotNull RecyclerView.ViewHolder holder, int position) {
         RunLiftStatisticsAdapter.ViewHolder viewHolder = (RunLiftStatisticsAdapter.ViewHolder) holder;
-        RunLiftStatistics.SkiSubActivity skiSubActivity = runLiftList.get(position);
+        SkiSegmentDetector.Segment segment = runLiftList.get(position);
 
-        String name = (skiSubActivity.isLift() ? context.getString(R.string.lift) : context.getString(R.string.run)) + position;
+        String name = (segment.activity() == SkiSegmentDetector.Activity.LIFT ? context.getString(R.string.lift) : context.getString(R.string.run)) + position;
         viewHolder.viewBinding.runLiftItemName.setText(name);
         viewHolder.viewBinding.runLiftDistance.setText(DistanceFormatter.Builder()
                 .setUnit(unitSystem)
-                .build(context).formatDistance(skiSubActivity.getDistance()));
+                .build(context).formatDistance(segment.distance()));
 
         SpeedFormatter formatter = SpeedFormatter.Builder().setUnit(unitSystem).build(context);
-        viewHolder.viewBinding.runLiftAverageSpeed.setText(formatter.formatSpeed(skiSubActivity.getSpeed()));
+        viewHolder.viewBinding.runLiftAverageSpeed.setText(formatter.formatSpeed(segment.getAverageSpeed()));
 
-        viewHolder.viewBinding.runLiftItemGain.setText(StringUtils.formatAltitude(context, skiSubActivity.getGain_m(), unitSystem));
-        viewHolder.viewBinding.runLiftItemLoss.setText(StringUtils.formatAltitude(context, skiSubActivity.getLoss_m(), unitSystem));
-        viewHolder.viewBinding.runLiftTopSpeed.setText(formatter.formatSpeed(skiSubActivity.getMaxSpeed()));
-        viewHolder.viewBinding.runLiftTime.setText(StringUtils.formatElapsedTime(skiSubActivity.getTotalTime()));
+        viewHolder.viewBinding.runLiftItemGain.setText(StringUtils.formatAltitude(context, segment.gain_m(), unitSystem));
+        viewHolder.viewBinding.runLiftItemLoss.setText(StringUtils.formatAltitude(context, segment.loss_m(), unitSystem));
+        viewHolder.viewBinding.runLiftTopSpeed.setText(formatter.formatSpeed(segment.maxSpeed()));
+        viewHolder.viewBinding.runLiftTime.setText(StringUtils.formatElapsedTime(segment.getDuration()));
     }
 
     @Override
@@ -63,7 +64,7 @@ public class RunLiftStatisticsAdapter extends RecyclerView.Adapter<RecyclerView.
         return runLiftList.size();
     }
 
-    public List<RunLiftStatistics.SkiSubActivity> swapData(List<RunLiftStatistics.SkiSubActivity> data, UnitSystem unitSystem) {
+    public List<SkiSegmentDetector.Segment> swapData(List<SkiSegmentDetector.Segment> data, UnitSystem unitSystem) {
         this.unitSystem = unitSystem;
         runLiftList = data;
 
@@ -19,21 +19,35 @@ import de.dennisguse.opentracks.data.ContentProviderUtils;
 import de.dennisguse.opentracks.data.TrackPointIterator;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.models.TrackPoint;
+import de.dennisguse.opentracks.data.tables.SkiSegmentsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.settings.UnitSystem;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
+/**
+ * Provides the runs and lifts of a track.
+ * <p>
+ * Stored ski segments are loaded once; only trackPoints after the last stored segment (e.g., while recording) are segmented and this is done incrementally.
+ * State is only accessed from the executor.
+ */
 public class RunLiftStatisticsModel extends AndroidViewModel {
 
     private static final String TAG = RunLiftStatisticsModel.class.getSimpleName();
 
-    private MutableLiveData<List<RunLiftStatistics.SkiSubActivity>> skiSubActivityLiveData;
-    private RunLiftStatistics runLiftStatistics;
+    private MutableLiveData<List<SkiSegmentDetector.Segment>> skiSegmentsLiveData;
     private final ContentResolver contentResolver;
     private ContentObserver trackPointsTableObserver;
+    private ContentObserver skiSegmentsTableObserver;
+
+    private List<SkiSegmentDetector.Segment> storedSegments;
+    private SkiSegmentDetector skiSegmentDetector;
+    private final List<SkiSegmentDetector.Segment> detectedSegments = new ArrayList<>();
+    private TrackPoint.Id startTrackPointId;
     private TrackPoint.Id lastTrackPointId;
 
     private final Executor executor = Executors.newSingleThreadExecutor();
@@ -51,10 +65,7 @@ public class RunLiftStatisticsModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        if (trackPointsTableObserver != null) {
-            contentResolver.unregisterContentObserver(trackPointsTableObserver);
-            trackPointsTableObserver = null;
-        }
+        unregisterObservers();
         if (handlerThread != null) {
             handlerThread.getLooper().quit();
             handlerThread = null;
@@ -62,46 +73,94 @@ public class RunLiftStatisticsModel extends AndroidViewModel {
         handler = null;
     }
 
-    public MutableLiveData<List<RunLiftStatistics.SkiSubActivity>> getSkiSubActivityStats(Track.Id trackId, UnitSystem unitSystem) {
-        if (skiSubActivityLiveData == null) {
-
-            skiSubActivityLiveData = new MutableLiveData<>();
-            runLiftStatistics = new RunLiftStatistics();
+    public MutableLiveData<List<SkiSegmentDetector.Segment>> getSkiSegments(Track.Id trackId, UnitSystem unitSystem) {
+        if (skiSegmentsLiveData == null) {
+            skiSegmentsLiveData = new MutableLiveData<>();
 
-            loadRunLiftStatistics(trackId);
+            loadSkiSegments(trackId, true);
         }
 
+        unregisterObservers();
         trackPointsTableObserver = new ContentObserver(handler) {
             @Override
             public void onChange(boolean selfChange, Uri uri) {
-                loadRunLiftStatistics(trackId);
+                loadSkiSegments(trackId, false);
             }
         };
         contentResolver.registerContentObserver(TrackPointsColumns.CONTENT_URI_BY_TRACKID, false, trackPointsTableObserver);
 
-        return skiSubActivityLiveData;
+        skiSegmentsTableObserver = new ContentObserver(handler) {
+            @Override
+            public void onChange(boolean selfChange, Uri uri) {
+                loadSkiSegments(trackId, true);
+            }
+        };
+        contentResolver.registerContentObserver(SkiSegmentsColumns.CONTENT_URI, false, skiSegmentsTableObserver);
+
+        return skiSegmentsLiveData;
     }
 
-    private void loadRunLiftStatistics(Track.Id trackId) {
+    /**
+     * @param reload load the stored segments again
+     */
+    private void loadSkiSegments(Track.Id trackId, boolean reload) {
         executor.execute(() -> {
             ContentProviderUtils contentProviderUtils = new ContentProviderUtils(getApplication());
-            try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, lastTrackPointId)) {
-                lastTrackPointId = runLiftStatistics.addTrackPoints(trackPointIterator);
-                skiSubActivityLiveData.postValue(runLiftStatistics.getSkiSubActivityList());
+            if (reload || storedSegments == null) {
+                storedSegments = contentProviderUtils.getSkiSegments(trackId);
+                startTrackPointId = storedSegments.isEmpty() ? null : storedSegments.get(storedSegments.size() - 1).endTrackPointId();
+                lastTrackPointId = null;
+                detectedSegments.clear();
+                skiSegmentDetector = new SkiSegmentDetector(detectedSegments::add);
+            }
+
+            try (TrackPointIterator trackPointIterator = contentProviderUtils.getTrackPointLocationIterator(trackId, lastTrackPointId != null ? lastTrackPointId : startTrackPointId)) {
+                while (trackPointIterator.hasNext()) {
+                    TrackPoint trackPoint = trackPointIterator.next();
+                    if (lastTrackPointId != null && trackPoint.getId().id() <= lastTrackPointId.id()) {
+                        continue;
+                    }
+                    skiSegmentDetector.addTrackPoint(trackPoint);
+                    lastTrackPointId = trackPoint.getId();
+                }
             }
+
+            List<SkiSegmentDetector.Segment> runsAndLifts = new ArrayList<>();
+            addRunsAndLifts(runsAndLifts, storedSegments);
+            addRunsAndLifts(runsAndLifts, detectedSegments);
+            SkiSegmentDetector.Segment currentSegment = skiSegmentDetector.getCurrentSegment();
+            if (currentSegment != null) {
+                addRunsAndLifts(runsAndLifts, List.of(currentSegment));
+            }
+            skiSegmentsLiveData.postValue(runsAndLifts);
         });
     }
 
-    public void onPause() {
+    private static void addRunsAndLifts(List<SkiSegmentDetector.Segment> runsAndLifts, List<SkiSegmentDetector.Segment> segments) {
+        for (SkiSegmentDetector.Segment segment : segments) {
+            if (segment.activity() != SkiSegmentDetector.Activity.WAIT) {
+                runsAndLifts.add(segment);
+            }
+        }
+    }
+
+    private void unregisterObservers() {
         if (trackPointsTableObserver != null) {
             contentResolver.unregisterContentObserver(trackPointsTableObserver);
+            trackPointsTableObserver = null;
+        }
+        if (skiSegmentsTableObserver != null) {
+            contentResolver.unregisterContentObserver(skiSegmentsTableObserver);
+            skiSegmentsTableObserver = null;
         }
     }
 
+    public void onPause() {
+        unregisterObservers();
+    }
+
     public void update(Track.Id trackId, UnitSystem unitSystem) {
-        lastTrackPointId = null;
-        runLiftStatistics = new RunLiftStatistics();
-        loadRunLiftStatistics(trackId);
+        loadSkiSegments(trackId, true);
     }
 
-}
\ No newline at end of file
+}
@@ -22,6 +22,7 @@ import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.databinding.RunLiftListViewBinding;
 import de.dennisguse.opentracks.settings.PreferencesUtils;
 import de.dennisguse.opentracks.settings.UnitSystem;
+import de.dennisguse.opentracks.stats.SkiSegmentDetector;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -131,8 +132,8 @@ public class RunsLiftsFragment extends Fragment {
             return;
         }
 
-        LiveData<List<RunLiftStatistics.SkiSubActivity>> liveData = viewModel.getSkiSubActivityStats(trackId, unitSystem);
-        liveData.observe(getActivity(), intervalList -> adapter.swapData(intervalList, unitSystem));
+        LiveData<List<SkiSegmentDetector.Segment>> liveData = viewModel.getSkiSegments(trackId, unitSystem);
+        liveData.observe(getActivity(), segments -> adapter.swapData(segments, unitSystem));
     }
 
     private synchronized void updateRunLifts(UnitSystem unitSystem) {
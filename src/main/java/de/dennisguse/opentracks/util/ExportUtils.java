@@ -22,6 +22,7 @@ import de.dennisguse.opentracks.data.ContentProviderUtils;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
 import de.dennisguse.opentracks.io.file.TrackFilenameGenerator;
+import de.dennisguse.opentracks.io.file.TrackSimplifier;
 import de.dennisguse.opentracks.io.file.exporter.ExportService;
 import de.dennisguse.opentracks.io.file.exporter.ExportService.ExportServiceResultReceiver;
 import de.dennisguse.opentracks.io.file.exporter.ExportTask;
@@ -48,7 +49,8 @@ public class ExportUtils {
                 }
             });
 
-            ExportService.enqueue(context, resultReceiver, new ExportTask(null, trackFileFormat, List.of(trackId)), directory.getUri());
+            TrackSimplifier trackSimplifier = trackFileFormat.supportsSimplification() ? PreferencesUtils.getExportTrackSimplifier() : null;
+            ExportService.enqueue(context, resultReceiver, new ExportTask(null, trackFileFormat, List.of(trackId), trackSimplifier), directory.getUri());
         }
     }
 
@@ -67,7 +69,7 @@ public class ExportUtils {
             throw new RuntimeException("Couldn't create document file for export");
         }
 
-        TrackExporter trackExporter = exportTask.getTrackFileFormat().createTrackExporter(context, contentProviderUtils);
+        TrackExporter trackExporter = exportTask.getTrackFileFormat().createTrackExporter(context, contentProviderUtils, exportTask.getTrackSimplifier());
         try (OutputStream outputStream = context.getContentResolver().openOutputStream(exportDocumentFileUri, "wt")) {
             if (!trackExporter.writeTrack(tracks, outputStream)) {
                 if (!DocumentFile.fromSingleUri(context, exportDocumentFileUri).delete()) {
@@ -5,6 +5,7 @@ import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
+import android.text.TextUtils;
 import android.util.Log;
 import android.util.Pair;
 import android.widget.Toast;
@@ -16,6 +17,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -25,6 +27,7 @@ import de.dennisguse.opentracks.data.ContentProviderUtils;
 import de.dennisguse.opentracks.data.ShareContentProvider;
 import de.dennisguse.opentracks.data.models.Track;
 import de.dennisguse.opentracks.data.tables.MarkerColumns;
+import de.dennisguse.opentracks.data.tables.SeasonRollupsColumns;
 import de.dennisguse.opentracks.data.tables.TrackPointsColumns;
 import de.dennisguse.opentracks.data.tables.TracksColumns;
 import de.dennisguse.opentracks.io.file.TrackFileFormat;
@@ -34,6 +37,7 @@ import de.dennisguse.opentracks.stats.OverallStatistics;
 /**
  * Create an {@link Intent} to request showing tracks on a Map or a Dashboard.
  * The receiving {@link android.app.Activity} gets temporary access to the {@link TracksColumns} and the {@link TrackPointsColumns} (incl. update).
+ * For the overall ski statistics, it gets temporary access to the {@link SeasonRollupsColumns} (all seasons and the selected seasons).
  */
 public class IntentDashboardUtils {
 
@@ -72,6 +76,8 @@ public class IntentDashboardUtils {
     private static final int TRACK_URI_INDEX = 0;
     private static final int TRACKPOINTS_URI_INDEX = 1;
     private static final int MARKERS_URI_INDEX = 2;
+    private static final int SEASON_ROLLUPS_URI_INDEX = 0;
+    private static final int SELECTED_SEASON_ROLLUPS_URI_INDEX = 1;
     private static final int NONE_SELECTED = -1;
 
     private IntentDashboardUtils() {
@@ -190,6 +196,9 @@ public class IntentDashboardUtils {
         }
     }
 
+    /**
+     * @param seasonIDList comma-separated seasons (start year of the season); empty for all seasons.
+     */
     public static void startOverallSeasonDashboard(Context context, String seasonIDList) throws JSONException {
         /*
          * The call to this util method would likely be defined in a new view page through an options
@@ -199,29 +208,23 @@ public class IntentDashboardUtils {
          *  a map icon similar to the one in recorded track details.
          */
 
-        /*
-         * Here is where we'd use our service functions to get the metrics required for OSM to be able
-         *  render runs as well as showcase the accumulated stats (Num. runs, KMs covered, vert, ...).
-         *
-         *  It would also inform us on what local db connection strings to pass over.
-         */
-
-        // Retrieve the singleton (when it's put in place)
-        OverallStatistics allTimeStats = OverallStatistics.getInstance();
+        // Constant time: the totals are maintained per season in the database.
+        List<Integer> seasons = parseSeasons(seasonIDList);
+        OverallStatistics allTimeStats = new ContentProviderUtils(context).getOverallStatistics(seasons);
 
-        // Would need to populate this with data once the service functions are created
         JSONObject overallSeasonStatsJSONPayload = new JSONObject();
+        overallSeasonStatsJSONPayload.put("Seasons", seasons.isEmpty() ? "all" : seasonIDList);
         overallSeasonStatsJSONPayload.put("Total Runs", allTimeStats.getTotalRunsOverall());
         overallSeasonStatsJSONPayload.put("Total Days", allTimeStats.getTotalSkiDaysOverall());
         overallSeasonStatsJSONPayload.put("Total Track Distance", allTimeStats.getTotalTrackDistanceOverall().distance_m());
         overallSeasonStatsJSONPayload.put("Total Vert", allTimeStats.getTotalVerticalDescentOverall().distance_m());
+        overallSeasonStatsJSONPayload.put("Total Calories", allTimeStats.getTotalCaloriesOverall());
         overallSeasonStatsJSONPayload.put("Average Speed", allTimeStats.getAvgSpeedOverall().toKMH());
         overallSeasonStatsJSONPayload.put("Average Slope %", allTimeStats.getSlopePercentageOverall());
 
         ArrayList<Uri> uris = new ArrayList<>();
-        uris.add(0, Uri.withAppendedPath(Uri.parse("{Some URI...}"), seasonIDList));
-        uris.add(1, Uri.withAppendedPath(Uri.parse("{Some other URI...}"), seasonIDList));
-        // ...
+        uris.add(SEASON_ROLLUPS_URI_INDEX, SeasonRollupsColumns.CONTENT_URI);
+        uris.add(SELECTED_SEASON_ROLLUPS_URI_INDEX, seasons.isEmpty() ? SeasonRollupsColumns.CONTENT_URI : Uri.withAppendedPath(SeasonRollupsColumns.CONTENT_URI_BY_SEASON, TextUtils.join(",", seasons)));
 
         Log.i(TAG, "[IntentDashboardUtils/startOverallSeasonDashboard] -- JSON Payload:\n"
                         + overallSeasonStatsJSONPayload.toString(4));
@@ -235,12 +238,10 @@ public class IntentDashboardUtils {
         intent.putParcelableArrayListExtra(ACTION_DASHBOARD_OVERALL_SKI_URIS, uris);
         intent.putExtra(EXTRAS_SHOULD_KEEP_SCREEN_ON, PreferencesUtils.shouldKeepScreenOn());
         intent.putExtra(EXTRAS_SHOW_WHEN_LOCKED, PreferencesUtils.shouldShowStatsOnLockscreen());
-        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
 
-        // Here we'd have to know what connection strings we are passing over to allow OSM to read data
-        ClipData clipData = ClipData.newRawUri(null, uris.get(0));
-        clipData.addItem(new ClipData.Item(uris.get(1)));
-        // ...
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        ClipData clipData = ClipData.newRawUri(null, uris.get(SEASON_ROLLUPS_URI_INDEX));
+        clipData.addItem(new ClipData.Item(uris.get(SELECTED_SEASON_ROLLUPS_URI_INDEX)));
         intent.setClipData(clipData);
 
         Log.i(TAG, "[IntentDashboardUtils/startOverallSeasonDashboard] -- Starting Overall Ski Season activity with generic intent.");
@@ -253,6 +254,16 @@ public class IntentDashboardUtils {
         }
     }
 
+    private static List<Integer> parseSeasons(String seasonIDList) {
+        List<Integer> seasons = new ArrayList<>();
+        for (String season : seasonIDList.split(",")) {
+            if (!season.trim().isEmpty()) {
+                seasons.add(Integer.parseInt(season.trim()));
+            }
+        }
+        return seasons;
+    }
+
     /**
      * Send intent to show tracks on a map (needs an another app) to support specific trackFileFormat.
      *
@@ -268,7 +279,7 @@ public class IntentDashboardUtils {
         Intent intent = new Intent(android.content.Intent.ACTION_VIEW);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
 
-        Pair<Uri, String> uriAndMime = ShareContentProvider.createURI(trackIds, "SharingTrack", trackFileFormat);
+        Pair<Uri, String> uriAndMime = ShareContentProvider.createURI(trackIds, "SharingTrack", trackFileFormat, trackFileFormat.supportsSimplification() ? PreferencesUtils.getExportTrackSimplifier() : null);
         intent.setDataAndType(uriAndMime.first, uriAndMime.second);
 
         intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
@@ -28,6 +28,15 @@ public class LocationUtils {
 
     private static final String TAG = LocationUtils.class.getSimpleName();
 
+    // WGS84 ellipsoid (as used by android.location.Location)
+    private static final double WGS84_A = 6378137.0;
+    private static final double WGS84_B = 6356752.3142;
+    private static final double WGS84_F = (WGS84_A - WGS84_B) / WGS84_A;
+    private static final double WGS84_A2_MINUS_B2_OVER_B2 = (WGS84_A * WGS84_A - WGS84_B * WGS84_B) / (WGS84_B * WGS84_B);
+
+    private static final int VINCENTY_MAX_ITERATIONS = 20;
+    private static final double VINCENTY_PRECISION = 1.0e-12;
+
     private LocationUtils() {
     }
 
@@ -39,8 +48,121 @@ public class LocationUtils {
      */
     public static boolean isValidLocation(Location location) {
         return location != null
-                && Math.abs(location.getLatitude()) <= 90
-                && Math.abs(location.getLongitude()) <= 180;
+                && isValidLocation(location.getLatitude(), location.getLongitude());
+    }
+
+    public static boolean isValidLocation(double latitude, double longitude) {
+        return Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180;
+    }
+
+    /**
+     * Distance between two locations on the WGS84 ellipsoid (Vincenty's inverse formula); consistent with {@link Location#distanceTo(Location)}.
+     * Does not allocate.
+     *
+     * @return the distance in meter.
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return vincenty(latitude1, longitude1, latitude2, longitude2, false);
+    }
+
+    /**
+     * Same as {@link #distance(double, double, double, double)} for coordinates in microdegrees (E6).
+     */
+    public static double distanceE6(int latitude1E6, int longitude1E6, int latitude2E6, int longitude2E6) {
+        return distance(latitude1E6 / 1.0E6, longitude1E6 / 1.0E6, latitude2E6 / 1.0E6, longitude2E6 / 1.0E6);
+    }
+
+    /**
+     * Distances between consecutive locations.
+     *
+     * @param distances_m receives the distance from location i - 1 to location i at index i (index 0 is 0); needs at least the size of latitudes.
+     * @return the total distance in meter.
+     */
+    public static double distances(double[] latitudes, double[] longitudes, double[] distances_m) {
+        if (latitudes.length != longitudes.length || distances_m.length < latitudes.length) {
+            throw new IllegalArgumentException("Array sizes do not match.");
+        }
+
+        double total_m = 0;
+        if (latitudes.length > 0) {
+            distances_m[0] = 0;
+        }
+        for (int i = 1; i < latitudes.length; i++) {
+            distances_m[i] = distance(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+            total_m += distances_m[i];
+        }
+        return total_m;
+    }
+
+    /**
+     * Initial bearing from the first to the second location; consistent with {@link Location#bearingTo(Location)}.
+     * Does not allocate.
+     *
+     * @return the bearing in degrees east of true north (-180 to 180).
+     */
+    public static double bearing(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return vincenty(latitude1, longitude1, latitude2, longitude2, true);
+    }
+
+    /**
+     * Vincenty's inverse formula, see https://en.wikipedia.org/wiki/Vincenty%27s_formulae
+     *
+     * @param bearing return the initial bearing instead of the distance
+     */
+    private static double vincenty(double latitude1, double longitude1, double latitude2, double longitude2, boolean bearing) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double l = Math.toRadians(longitude2 - longitude1);
+
+        double u1 = Math.atan((1.0 - WGS84_F) * Math.tan(phi1));
+        double u2 = Math.atan((1.0 - WGS84_F) * Math.tan(phi2));
+        double sinU1 = Math.sin(u1);
+        double cosU1 = Math.cos(u1);
+        double sinU2 = Math.sin(u2);
+        double cosU2 = Math.cos(u2);
+
+        double lambda = l;
+        double sinLambda = 0;
+        double cosLambda = 0;
+        double sigma = 0;
+        double sinSigma = 0;
+        double cosSigma = 0;
+        double deltaSigma = 0;
+        double a = 0;
+        for (int i = 0; i < VINCENTY_MAX_ITERATIONS; i++) {
+            double previousLambda = lambda;
+            sinLambda = Math.sin(lambda);
+            cosLambda = Math.cos(lambda);
+
+            double t1 = cosU2 * sinLambda;
+            double t2 = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = Math.sqrt(t1 * t1 + t2 * t2);
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = Math.atan2(sinSigma, cosSigma);
+
+            double sinAlpha = sinSigma == 0 ? 0 : cosU1 * cosU2 * sinLambda / sinSigma;
+            double cosSqAlpha = 1.0 - sinAlpha * sinAlpha;
+            double cos2SigmaM = cosSqAlpha == 0 ? 0 : cosSigma - 2.0 * sinU1 * sinU2 / cosSqAlpha;
+            double cos2SigmaMSq = cos2SigmaM * cos2SigmaM;
+
+            double uSq = cosSqAlpha * WGS84_A2_MINUS_B2_OVER_B2;
+            a = 1 + (uSq / 16384.0) * (4096.0 + uSq * (-768 + uSq * (320.0 - 175.0 * uSq)));
+            double b = (uSq / 1024.0) * (256.0 + uSq * (-128.0 + uSq * (74.0 - 47.0 * uSq)));
+            double c = (WGS84_F / 16.0) * cosSqAlpha * (4.0 + WGS84_F * (4.0 - 3.0 * cosSqAlpha));
+
+            deltaSigma = b * sinSigma * (cos2SigmaM + (b / 4.0) * (cosSigma * (-1.0 + 2.0 * cos2SigmaMSq)
+                    - (b / 6.0) * cos2SigmaM * (-3.0 + 4.0 * sinSigma * sinSigma) * (-3.0 + 4.0 * cos2SigmaMSq)));
+            lambda = l + (1.0 - c) * WGS84_F * sinAlpha * (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1.0 + 2.0 * cos2SigmaMSq)));
+
+            if (Math.abs(lambda - previousLambda) <= VINCENTY_PRECISION * Math.abs(lambda)) {
+                break;
+            }
+        }
+
+        if (bearing) {
+            return Math.toDegrees(Math.atan2(cosU2 * sinLambda, cosU1 * sinU2 - sinU1 * cosU2 * cosLambda));
+        }
+        return WGS84_B * a * (sigma - deltaSigma);
     }
 
     public static boolean fulfillsAccuracy(Location location, Distance thresholdHorizontalAccuracy) {
@@ -45,8 +45,10 @@ import de.dennisguse.opentracks.data.models.Cadence;
 import de.dennisguse.opentracks.data.models.Distance;
 import de.dennisguse.opentracks.data.models.DistanceFormatter;
 import de.dennisguse.opentracks.data.models.HeartRate;
+import de.dennisguse.opentracks.data.models.HeartRateZones;
 import de.dennisguse.opentracks.data.models.Power;
 import de.dennisguse.opentracks.settings.UnitSystem;
+import de.dennisguse.opentracks.stats.TrackStatistics;
 
 /**
  * Various string manipulation methods.
@@ -171,6 +173,20 @@ public class StringUtils {
         return new Pair<>(value, context.getString(R.string.sensor_unit_beats_per_minute));
     }
 
+    /**
+     * @return one line per heart rate zone with the time in this zone.
+     */
+    public static String formatHeartRateZoneTimes(Context context, TrackStatistics trackStatistics) {
+        StringBuilder builder = new StringBuilder();
+        for (int zone = 1; zone <= HeartRateZones.ZONE_COUNT; zone++) {
+            if (zone > 1) {
+                builder.append('\n');
+            }
+            builder.append(context.getString(R.string.stats_heart_rate_zone_time, zone, formatElapsedTime(trackStatistics.getHeartRateZoneTime(zone))));
+        }
+        return builder.toString();
+    }
+
     public static Pair<String, String> getCadenceParts(Context context, Cadence cadence) {
         String value = context.getString(R.string.value_unknown);
         if (cadence != null) {